@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.builder.MarkerReconciler;
+import org.eclipse.pde.api.tools.internal.provisional.IApiMarkerConstants;
+
+/**
+ * Tests that the {@link MarkerReconciler} keeps unchanged markers, updates the
+ * markers of the same problems and deletes the stale markers.
+ *
+ * @since 1.0.600
+ */
+public class MarkerReconcilerTests extends TestCase {
+
+	private static final String TYPE = IApiMarkerConstants.COMPATIBILITY_PROBLEM_MARKER;
+
+	private IProject fProject;
+	private IFile fFile;
+
+	@Override
+	protected void setUp() throws Exception {
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject("markerReconciler"); //$NON-NLS-1$
+		if (!fProject.exists()) {
+			fProject.create(null);
+		}
+		fProject.open(null);
+		fFile = fProject.getFile("A.java"); //$NON-NLS-1$
+		fFile.create(new ByteArrayInputStream(new byte[0]), true, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.delete(true, null);
+	}
+
+	private static Map<String, Object> attributes(int problemId, String message, int line) {
+		Map<String, Object> attributes = new HashMap<String, Object>();
+		attributes.put(IApiMarkerConstants.MARKER_ATTR_PROBLEM_ID, Integer.valueOf(problemId));
+		attributes.put(IMarker.MESSAGE, message);
+		attributes.put(IMarker.LINE_NUMBER, Integer.valueOf(line));
+		return attributes;
+	}
+
+	private IMarker createMarker(Map<String, Object> attributes) throws CoreException {
+		IMarker marker = fFile.createMarker(TYPE);
+		marker.setAttributes(attributes);
+		return marker;
+	}
+
+	private MarkerReconciler newReconciler() {
+		MarkerReconciler reconciler = new MarkerReconciler(fProject);
+		reconciler.addScope(fProject, TYPE, false, IResource.DEPTH_INFINITE);
+		return reconciler;
+	}
+
+	public void testReconcile() throws CoreException {
+		IMarker unchanged = createMarker(attributes(1, "unchanged", 1)); //$NON-NLS-1$
+		IMarker changed = createMarker(attributes(2, "changed", 2)); //$NON-NLS-1$
+		IMarker stale = createMarker(attributes(3, "stale", 3)); //$NON-NLS-1$
+
+		MarkerReconciler reconciler = newReconciler();
+		reconciler.addMarker(fFile, TYPE, attributes(2, "changed", 20)); //$NON-NLS-1$
+		reconciler.addMarker(fFile, TYPE, attributes(4, "new", 4)); //$NON-NLS-1$
+		reconciler.addMarker(fFile, TYPE, attributes(1, "unchanged", 1)); //$NON-NLS-1$
+		reconciler.reconcile();
+
+		assertEquals(1, reconciler.getKeptCount());
+		assertEquals(1, reconciler.getUpdatedCount());
+		assertEquals(1, reconciler.getCreatedCount());
+		assertEquals(1, reconciler.getDeletedCount());
+		assertTrue("the unchanged marker must be kept", unchanged.exists()); //$NON-NLS-1$
+		assertTrue("the changed marker must be updated in place", changed.exists()); //$NON-NLS-1$
+		assertEquals(20, changed.getAttribute(IMarker.LINE_NUMBER, -1));
+		assertFalse("the stale marker must be deleted", stale.exists()); //$NON-NLS-1$
+
+		IMarker[] markers = fFile.findMarkers(TYPE, false, IResource.DEPTH_ZERO);
+		assertEquals(3, markers.length);
+		Map<Integer, IMarker> byProblem = new HashMap<Integer, IMarker>();
+		for (int i = 0; i < markers.length; i++) {
+			byProblem.put((Integer) markers[i].getAttribute(IApiMarkerConstants.MARKER_ATTR_PROBLEM_ID), markers[i]);
+		}
+		assertEquals("new", byProblem.get(Integer.valueOf(4)).getAttribute(IMarker.MESSAGE)); //$NON-NLS-1$
+	}
+
+	public void testDuplicateMarkers() throws CoreException {
+		IMarker first = createMarker(attributes(1, "same", 1)); //$NON-NLS-1$
+		IMarker second = createMarker(attributes(1, "same", 1)); //$NON-NLS-1$
+
+		// one of two identical markers is kept, the other one updated
+		MarkerReconciler reconciler = newReconciler();
+		reconciler.addMarker(fFile, TYPE, attributes(1, "same", 1)); //$NON-NLS-1$
+		reconciler.addMarker(fFile, TYPE, attributes(1, "same", 5)); //$NON-NLS-1$
+		reconciler.reconcile();
+
+		assertEquals(1, reconciler.getKeptCount());
+		assertEquals(1, reconciler.getUpdatedCount());
+		assertEquals(0, reconciler.getCreatedCount());
+		assertEquals(0, reconciler.getDeletedCount());
+		assertTrue(first.exists());
+		assertTrue(second.exists());
+		assertEquals(6, first.getAttribute(IMarker.LINE_NUMBER, -1) + second.getAttribute(IMarker.LINE_NUMBER, -1));
+
+		// nothing to create: all markers of the scope are deleted
+		reconciler = newReconciler();
+		reconciler.reconcile();
+		assertEquals(2, reconciler.getDeletedCount());
+		assertEquals(0, fFile.findMarkers(TYPE, false, IResource.DEPTH_ZERO).length);
+	}
+
+	public void testDuplicateUseScanProblems() throws CoreException {
+		String type = IApiMarkerConstants.API_USESCAN_PROBLEM_MARKER;
+		Map<String, Object> problem = attributes(1, "Unresolved reference", 0); //$NON-NLS-1$
+		problem.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_ERROR));
+		Map<String, Object> same = new HashMap<String, Object>(problem);
+		same.put(IMarker.MESSAGE, "unresolved REFERENCE"); //$NON-NLS-1$
+		Map<String, Object> warning = new HashMap<String, Object>(problem);
+		warning.put(IMarker.SEVERITY, Integer.valueOf(IMarker.SEVERITY_WARNING));
+
+		// the same use scan problem reported twice in one build gets one marker
+		MarkerReconciler reconciler = new MarkerReconciler(fProject);
+		reconciler.addScope(fFile, type, true, IResource.DEPTH_ZERO);
+		assertTrue(reconciler.addUniqueMarker(fFile, type, problem));
+		assertFalse(reconciler.addUniqueMarker(fFile, type, new HashMap<String, Object>(problem)));
+		assertFalse(reconciler.addUniqueMarker(fFile, type, same));
+		assertTrue(reconciler.addUniqueMarker(fFile, type, warning));
+		reconciler.reconcile();
+		assertEquals(2, reconciler.getCreatedCount());
+		assertEquals(2, fFile.findMarkers(type, true, IResource.DEPTH_ZERO).length);
+	}
+}
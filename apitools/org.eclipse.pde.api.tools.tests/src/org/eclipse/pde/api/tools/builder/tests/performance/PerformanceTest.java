@@ -90,7 +90,8 @@ public abstract class PerformanceTest extends ApiBuilderTest {
 	private static Class<?>[] getAllTestClasses() {
 		Class<?>[] classes = new Class[] {
 				FullSourceBuildTests.class, ApiDescriptionTests.class,
-				IncrementalBuildTests.class, ExternalDependencyPerfTests.class };
+				IncrementalBuildTests.class, ExternalDependencyPerfTests.class,
+				ReferenceAnalyzerTests.class };
 		return classes;
 	}
 
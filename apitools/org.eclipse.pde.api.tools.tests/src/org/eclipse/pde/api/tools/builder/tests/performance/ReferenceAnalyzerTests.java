@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests.performance;
+
+import java.lang.management.ManagementFactory;
+
+import junit.framework.Test;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceAnalyzer;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+import org.eclipse.test.performance.Dimension;
+
+/**
+ * Performance tests for the reference analysis of a component, measuring the
+ * memory allocated while extracting and resolving references
+ *
+ * @since 1.0.600
+ */
+public class ReferenceAnalyzerTests extends PerformanceTest {
+
+	/**
+	 * Constructor
+	 *
+	 * @param name
+	 */
+	public ReferenceAnalyzerTests(String name) {
+		super(name);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.pde.api.tools.builder.tests.performance.PerformanceTest#
+	 * getWorkspaceLocation()
+	 */
+	@Override
+	protected String getWorkspaceLocation() {
+		return TestSuiteHelper.getPluginDirectoryPath().append(TEST_SOURCE_ROOT).append("perf").append("jdtui-source.zip").toOSString(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * @return the tests for this class
+	 */
+	public static Test suite() {
+		return buildTestSuite(ReferenceAnalyzerTests.class);
+	}
+
+	/**
+	 * Returns the number of bytes allocated so far by all live threads, the
+	 * resolver runs on pool threads so the current thread alone is not enough.
+	 *
+	 * @param bean the thread bean
+	 * @return the allocated bytes
+	 */
+	private static long getAllocatedBytes(com.sun.management.ThreadMXBean bean) {
+		long[] bytes = bean.getThreadAllocatedBytes(bean.getAllThreadIds());
+		long total = 0;
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] > 0) {
+				total += bytes[i];
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Tests analyzing the references of the jdt-ui source project. The elapsed
+	 * time is the summary dimension, the bytes allocated per analysis are
+	 * counted with the thread bean and reported alongside.
+	 *
+	 * @throws Exception
+	 */
+	public void testAnalyze() throws Exception {
+		tagAsSummary("Analyze references of jdt.ui", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean) || !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+			System.out.println("Allocated bytes are not available on this VM, skipping"); //$NON-NLS-1$
+			return;
+		}
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+		if (!bean.isThreadAllocatedMemoryEnabled()) {
+			bean.setThreadAllocatedMemoryEnabled(true);
+		}
+
+		// get everything built
+		fullBuild();
+		IProject proj = getEnv().getWorkspace().getRoot().getProject("org.eclipse.jdt.ui"); //$NON-NLS-1$
+		IApiBaseline baseline = ApiPlugin.getDefault().getApiBaselineManager().getWorkspaceBaseline();
+		IApiComponent component = baseline.getApiComponent(proj.getName());
+		assertNotNull("the component should exist", component); //$NON-NLS-1$
+
+		// WARM-UP
+		for (int j = 0; j < 2; j++) {
+			new ReferenceAnalyzer().analyze(component, component, null);
+		}
+
+		// TEST
+		int runs = 15;
+		long allocated = 0;
+		for (int j = 0; j < runs; j++) {
+			ReferenceAnalyzer analyzer = new ReferenceAnalyzer();
+			long before = getAllocatedBytes(bean);
+			startMeasuring();
+			analyzer.analyze(component, component, null);
+			stopMeasuring();
+			allocated += getAllocatedBytes(bean) - before;
+		}
+		System.out.println("Bytes allocated per analysis: " + (allocated / runs)); //$NON-NLS-1$
+
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -10,12 +10,26 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.comparator.tests;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.pde.api.tools.internal.comparator.DeltaXmlVisitor;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.TypeShapeStore;
 import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
+import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiScope;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.DeltaProcessor;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
@@ -575,4 +589,198 @@ public class BundlesDeltaTests extends DeltaTestSetup {
 		assertNotNull("No delta", delta); //$NON-NLS-1$
 		assertFalse("Equals to NO_DELTA", delta == ApiComparator.NO_DELTA); //$NON-NLS-1$
 	}
+
+	/**
+	 * Deploys the components of the test17 fixture, each with two type
+	 * containers
+	 */
+	private void deployComponents() {
+		String[] entries = new String[] {"bin1", "bin2"}; //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 1; i <= 3; i++) {
+			String bundleName = "deltatest" + i; //$NON-NLS-1$
+			deployBundle("test17/" + bundleName, BEFORE, bundleName, entries); //$NON-NLS-1$
+			deployBundle("test17/" + bundleName, AFTER, bundleName, entries); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Comparing with several threads gives the same delta as comparing
+	 * sequentially
+	 */
+	public void test17() throws CoreException {
+		deployComponents();
+		IApiBaseline beforeState = getBeforeState();
+		IApiBaseline afterState = getAfterState();
+		for (int i = 1; i <= 3; i++) {
+			IApiComponent component = afterState.getApiComponent("deltatest" + i); //$NON-NLS-1$
+			assertNotNull("No component", component); //$NON-NLS-1$
+			assertEquals("Wrong number of containers", 2, component.getApiTypeContainers().length); //$NON-NLS-1$
+		}
+		IDelta delta = ApiComparator.compare(beforeState, afterState, VisibilityModifiers.API, true, null);
+		assertNotNull("No delta", delta); //$NON-NLS-1$
+		// deltas from both containers of each component
+		IDelta[] leaves = collectLeaves(delta);
+		Set<String> typeNames = new HashSet<String>();
+		for (int i = 0; i < leaves.length; i++) {
+			typeNames.add(leaves[i].getTypeName());
+		}
+		String[] changed = new String[] {"p.X", "q.Y", "r.Z", "t.A", "u.B"}; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		for (int i = 0; i < changed.length; i++) {
+			assertTrue("No delta for " + changed[i], typeNames.contains(changed[i])); //$NON-NLS-1$
+		}
+		IDelta delta2 = ApiComparator.compare(beforeState, afterState, VisibilityModifiers.API, true, 4, null);
+		assertNotNull("No delta", delta2); //$NON-NLS-1$
+		assertEquals("Different deltas", getXML(delta), getXML(delta2)); //$NON-NLS-1$
+
+		ApiScope scope = new ApiScope();
+		scope.addElement(afterState);
+		delta = ApiComparator.compare(scope, beforeState, VisibilityModifiers.API, true, false, 1, null);
+		assertNotNull("No delta", delta); //$NON-NLS-1$
+		delta2 = ApiComparator.compare(scope, beforeState, VisibilityModifiers.API, true, false, 4, null);
+		assertNotNull("No delta", delta2); //$NON-NLS-1$
+		assertEquals("Different deltas", getXML(delta), getXML(delta2)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Comparing with the type shapes read from a store gives the same delta as
+	 * computing the shapes, and a baseline compared with itself has no delta
+	 */
+	public void test18() throws CoreException, IOException {
+		deployBundles("test10"); //$NON-NLS-1$
+		File file = File.createTempFile("shapes", ".api_shapes"); //$NON-NLS-1$ //$NON-NLS-2$
+		file.delete();
+		try {
+			TypeShapeStore.setDefault(new TypeShapeStore(file));
+			IApiBaseline beforeState = getBeforeState();
+			IApiBaseline afterState = getAfterState();
+			IDelta delta = compareWithAndWithoutDigests(beforeState, afterState);
+			IDelta delta2 = ApiComparator.compare(beforeState, beforeState, VisibilityModifiers.API, true, null);
+			assertTrue("Not NO_DELTA", delta2 == ApiComparator.NO_DELTA); //$NON-NLS-1$
+			TypeShapeStore.saveDefault();
+			assertTrue("No store", file.isFile()); //$NON-NLS-1$
+
+			TypeShapeStore.setDefault(new TypeShapeStore(file));
+			beforeState = getBeforeState();
+			afterState = getAfterState();
+			delta2 = ApiComparator.compare(beforeState, afterState, VisibilityModifiers.API, true, null);
+			assertNotNull("No delta", delta2); //$NON-NLS-1$
+			assertEquals("Different deltas", getXML(delta), getXML(delta2)); //$NON-NLS-1$
+		} finally {
+			TypeShapeStore.setDefault(null);
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that the cancellation of the monitor of a concurrent comparison is
+	 * seen by the tasks comparing the components and type containers
+	 */
+	public void test19() {
+		deployComponents();
+		IApiBaseline beforeState = getBeforeState();
+		IApiBaseline afterState = getAfterState();
+		final Thread caller = Thread.currentThread();
+		final AtomicInteger workerChecks = new AtomicInteger();
+		IProgressMonitor monitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				// only a task started by a worker thread checks the monitor from
+				// another thread, the monitor is canceled from its first check
+				if (Thread.currentThread() != caller) {
+					workerChecks.incrementAndGet();
+				}
+				return workerChecks.get() > 0;
+			}
+		};
+		try {
+			ApiComparator.compare(beforeState, afterState, VisibilityModifiers.API, true, 4, monitor);
+			fail("The comparison should have been canceled"); //$NON-NLS-1$
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertTrue("No check from a worker thread", workerChecks.get() > 0); //$NON-NLS-1$
+	}
+
+	/**
+	 * Changing only method bodies gives the same API digest, the type is
+	 * skipped and there is no delta
+	 */
+	public void test20() throws CoreException {
+		deployBundles("test20"); //$NON-NLS-1$
+		// one entry is enough, the shapes of both class files are computed in turn
+		TypeShapeStore store = new TypeShapeStore(null, 1);
+		TypeShapeStore.setDefault(store);
+		try {
+			IApiBaseline beforeState = getBeforeState();
+			IApiBaseline afterState = getAfterState();
+			assertTrue("Different digests", Arrays.equals(getDigest(beforeState, "p.X"), getDigest(afterState, "p.X"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertEquals("Store not bounded", 1, store.size()); //$NON-NLS-1$
+			IDelta delta = compareWithAndWithoutDigests(beforeState, afterState);
+			assertTrue("Not NO_DELTA", delta == ApiComparator.NO_DELTA); //$NON-NLS-1$
+		} finally {
+			TypeShapeStore.setDefault(null);
+		}
+	}
+
+	/**
+	 * Changing only the restrictions of the .api_description changes the API
+	 * digest of a type whose class file is unchanged, the restriction is still
+	 * reported
+	 */
+	public void test21() throws CoreException {
+		deployBundles("test21"); //$NON-NLS-1$
+		TypeShapeStore.setDefault(new TypeShapeStore(null));
+		try {
+			IApiBaseline beforeState = getBeforeState();
+			IApiBaseline afterState = getAfterState();
+			assertFalse("Same digests", Arrays.equals(getDigest(beforeState, "p.X"), getDigest(afterState, "p.X"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			IDelta delta = compareWithAndWithoutDigests(beforeState, afterState);
+			IDelta[] leaves = collectLeaves(delta);
+			assertEquals("Wrong size", 1, leaves.length); //$NON-NLS-1$
+			assertEquals("Wrong kind", IDelta.ADDED, leaves[0].getKind()); //$NON-NLS-1$
+			assertEquals("Wrong flag", IDelta.RESTRICTIONS, leaves[0].getFlags()); //$NON-NLS-1$
+			assertEquals("Wrong type name", "p.X", leaves[0].getTypeName()); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			TypeShapeStore.setDefault(null);
+		}
+	}
+
+	/**
+	 * Returns the API digest of the given type of the test component
+	 */
+	private byte[] getDigest(IApiBaseline baseline, String typeName) throws CoreException {
+		IApiComponent component = baseline.getApiComponent(BUNDLE_NAME);
+		assertNotNull("No component", component); //$NON-NLS-1$
+		IApiTypeRoot typeRoot = component.findTypeRoot(typeName);
+		assertNotNull("No type root", typeRoot); //$NON-NLS-1$
+		byte[] digest = ((ApiBaseline) baseline).getTypeDigests().getDigest(component, typeRoot);
+		assertNotNull("No digest", digest); //$NON-NLS-1$
+		return digest;
+	}
+
+	/**
+	 * Compares the given baselines with and without skipping the types whose
+	 * API digests match, checking that both comparisons give the same delta
+	 * 
+	 * @return the delta of the comparison with the digests
+	 */
+	private IDelta compareWithAndWithoutDigests(IApiBaseline beforeState, IApiBaseline afterState) throws CoreException {
+		IDelta delta = ApiComparator.compare(beforeState, afterState, VisibilityModifiers.API, true, null);
+		assertNotNull("No delta", delta); //$NON-NLS-1$
+		ApiComparator.setUseTypeDigests(false);
+		try {
+			IDelta delta2 = ApiComparator.compare(beforeState, afterState, VisibilityModifiers.API, true, null);
+			assertNotNull("No delta", delta2); //$NON-NLS-1$
+			assertEquals("Different deltas without digests", getXML(delta), getXML(delta2)); //$NON-NLS-1$
+		} finally {
+			ApiComparator.setUseTypeDigests(true);
+		}
+		return delta;
+	}
+
+	private String getXML(IDelta delta) throws CoreException {
+		DeltaXmlVisitor visitor = new DeltaXmlVisitor();
+		delta.accept(visitor);
+		return visitor.getXML();
+	}
 }
\ No newline at end of file
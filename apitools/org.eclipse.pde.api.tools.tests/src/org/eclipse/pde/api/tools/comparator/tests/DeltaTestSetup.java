@@ -171,6 +171,28 @@ public abstract class DeltaTestSetup extends TestCase {
 		copyResources(testName, name, destinationPath.toOSString());
 	}
 
+	/**
+	 * Deploys a bundle whose class files are split across the given class path
+	 * entries. The sources of each entry are in the <code>name/entry</code>
+	 * folder of the test, the manifest of the test must list the entries in its
+	 * <code>Bundle-ClassPath</code>.
+	 * 
+	 * @param testName the given test name
+	 * @param name the given state name
+	 * @param bundleName the given bundle name
+	 * @param classpathEntries the class path entries of the bundle
+	 */
+	protected void deployBundle(String testName, String name, String bundleName, String[] classpathEntries) {
+		IPath destinationPath = WORKSPACE_ROOT.append(name).append(bundleName);
+		for (int i = 0; i < classpathEntries.length; i++) {
+			String[] sourceFilePaths = new String[] {
+					TestSuiteHelper.getPluginDirectoryPath().append(TESTS_DELTAS_NAME).append(getTestRoot()).append(testName).append(name).append(classpathEntries[i]).toOSString()
+			};
+			assertTrue(TestSuiteHelper.compile(sourceFilePaths, destinationPath.append(classpathEntries[i]).toOSString(), TestSuiteHelper.COMPILER_OPTIONS));
+		}
+		copyResources(testName, name, destinationPath.toOSString());
+	}
+
 	protected void deployBundles(String testName) {
 		deployBundle(testName, BEFORE);
 		deployBundle(testName, AFTER);
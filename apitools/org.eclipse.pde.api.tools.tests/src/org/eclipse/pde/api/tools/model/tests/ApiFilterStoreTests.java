@@ -234,6 +234,34 @@ public class ApiFilterStoreTests extends AbstractApiTest {
 		}
 	}
 	
+	/**
+	 * Tests that a filter with message arguments matches problems whose arguments
+	 * are the qualified names of the filtered arguments
+	 */
+	public void testFilterMessageArguments() {
+		try {
+			IApiComponent component = getProjectApiComponent(TESTING_PLUGIN_PROJECT_NAME);
+			assertNotNull("the testing project api component must exist", component); //$NON-NLS-1$
+			IProject project = getTestingJavaProject(TESTING_PLUGIN_PROJECT_NAME).getProject();
+			IResource resource = project.findMember(new Path("src/x/y/z/C4.java")); //$NON-NLS-1$
+			assertNotNull("the resource src/x/y/z/C4.java must exist", resource); //$NON-NLS-1$
+			String path = resource.getProjectRelativePath().toPortableString();
+			IApiProblem problem = ApiProblemFactory.newApiProblem(path, "x.y.z.C4", new String[] {"C4", "m()"}, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			IApiFilterStore store = component.getFilterStore();
+			store.addFiltersFor(new IApiProblem[] {problem});
+			assertTrue("the problem should be filtered", store.isFiltered(problem)); //$NON-NLS-1$
+			problem = ApiProblemFactory.newApiProblem(path, "x.y.z.C4", new String[] {"x.y.z.C4", "m()"}, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertTrue("the problem with a qualified argument should be filtered", store.isFiltered(problem)); //$NON-NLS-1$
+			problem = ApiProblemFactory.newApiProblem(path, "x.y.z.C4", new String[] {"C5", "m()"}, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertFalse("the problem with other arguments should not be filtered", store.isFiltered(problem)); //$NON-NLS-1$
+			problem = ApiProblemFactory.newApiProblem(path, null, new String[] {"C4", "m()"}, null, null, -1, -1, -1, IApiProblem.CATEGORY_USAGE, 0, RestrictionModifiers.NO_IMPLEMENT, IApiProblem.NO_FLAGS); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse("the problem without a type name should not be filtered", store.isFiltered(problem)); //$NON-NLS-1$
+		}
+		catch(CoreException ce) {
+			fail(ce.getMessage());
+		}
+	}
+	
 	/**
 	 * Tests that a filter store will not be annotated from a bundle
 	 */
@@ -43,9 +43,21 @@ public class ApiModelCacheTests extends TestCase {
 	 * @throws Exception
 	 */
 	private void cacheType(String typename) throws Exception {
+		cacheType(TEST_COMP_ID, typename);
+	}
+
+	/**
+	 * Creates a testing {@link IApiType} with the given type name and adds it to the cache
+	 * using the given component
+	 * 
+	 * @param componentid
+	 * @param typename
+	 * @throws Exception
+	 */
+	private void cacheType(String componentid, String typename) throws Exception {
 		IApiType type = TestSuiteHelper.createTestingApiType(
 				TEST_BASELINE_ID,
-				TEST_COMP_ID, 
+				componentid, 
 				typename, 
 				"()V", //$NON-NLS-1$
 				null, 
@@ -161,4 +173,66 @@ public class ApiModelCacheTests extends TestCase {
 		assertTrue("The type 'a.b.c.testee1' should have been removed from the cache", ApiModelCache.getCache().removeElementInfo(element)); //$NON-NLS-1$
 		assertTrue("The cache should be empty", ApiModelCache.getCache().isEmpty()); //$NON-NLS-1$
 	}
+	
+	/**
+	 * Tests that the least recently used types are evicted when the cache exceeds
+	 * the bound of its footprint
+	 * 
+	 * @throws Exception
+	 */
+	public void testEvictLeastRecentlyUsed() throws Exception {
+		ApiModelCache cache = ApiModelCache.getCache();
+		long maxWeight = cache.getMaxWeight();
+		cache.flushCaches();
+		try {
+			cacheType("a.b.c.evicted0"); //$NON-NLS-1$
+			long weight = cache.getWeight();
+			cache.setMaxWeight(weight * 4);
+			long evictions = cache.getEvictionCount();
+			for (int i = 1; i < 10; i++) {
+				cacheType("a.b.c.evicted" + i); //$NON-NLS-1$
+				assertNotNull("The element 'a.b.c.evicted" + i + "' should exist in the cache", //$NON-NLS-1$ //$NON-NLS-2$
+						cache.getElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.evicted" + i, IApiElement.TYPE)); //$NON-NLS-1$
+			}
+			assertTrue("Types should have been evicted", cache.getEvictionCount() > evictions); //$NON-NLS-1$
+			assertTrue("The cache should be within its bound", cache.getWeight() <= weight * 4); //$NON-NLS-1$
+			assertNull("The element 'a.b.c.evicted0' should have been evicted", //$NON-NLS-1$
+					cache.getElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.evicted0", IApiElement.TYPE)); //$NON-NLS-1$
+		} finally {
+			cache.setMaxWeight(maxWeight);
+		}
+	}
+
+	/**
+	 * Tests that evicted types and the types of removed components are removed
+	 * from the indexes of the cache
+	 * 
+	 * @throws Exception
+	 */
+	public void testIndexesCleaned() throws Exception {
+		ApiModelCache cache = ApiModelCache.getCache();
+		long maxWeight = cache.getMaxWeight();
+		cache.flushCaches();
+		try {
+			cacheType("a.b.c.root"); //$NON-NLS-1$
+			cacheType("a.b.c.root$inner"); //$NON-NLS-1$
+			cacheType("a.b.c.other$inner"); //$NON-NLS-1$
+			cacheType("other.component", "a.b.c.type"); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The types should be indexed", cache.getIndexSize() > 0); //$NON-NLS-1$
+
+			// removing a component only removes its own types
+			assertTrue("The component should have been removed", cache.removeElementInfo(TEST_BASELINE_ID, "other.component", null, IApiElement.COMPONENT)); //$NON-NLS-1$ //$NON-NLS-2$
+			assertNull("The element 'a.b.c.type' should have been removed", //$NON-NLS-1$
+					cache.getElementInfo(TEST_BASELINE_ID, "other.component", "a.b.c.type", IApiElement.TYPE)); //$NON-NLS-1$ //$NON-NLS-2$
+			assertNotNull("The element 'a.b.c.root' should exist in the cache", //$NON-NLS-1$
+					cache.getElementInfo(TEST_BASELINE_ID, TEST_COMP_ID, "a.b.c.root", IApiElement.TYPE)); //$NON-NLS-1$
+
+			// evicting all types empties the indexes
+			cache.setMaxWeight(1);
+			assertTrue("The cache should be empty", cache.isEmpty()); //$NON-NLS-1$
+			assertEquals("The indexes should be empty", 0, cache.getIndexSize()); //$NON-NLS-1$
+		} finally {
+			cache.setMaxWeight(maxWeight);
+		}
+	}
 }
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.search.tests;
+
+import java.io.File;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import junit.framework.TestCase;
+
+import org.eclipse.pde.api.tools.internal.IApiXmlConstants;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IComponentDescriptor;
+import org.eclipse.pde.api.tools.internal.search.IReferenceDescriptor;
+import org.eclipse.pde.api.tools.internal.search.XmlReferenceDescriptorWriter;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Tests the {@link XmlReferenceDescriptorWriter}
+ *
+ * @since 1.0.600
+ */
+public class XmlReferenceDescriptorWriterTests extends TestCase {
+
+	static final IComponentDescriptor REFERENCING = Factory.componentDescriptor("a", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+	static final IComponentDescriptor REFERENCED = Factory.componentDescriptor("b", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+
+	File fLocation = null;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		fLocation = TestSuiteHelper.getUserDirectoryPath().append("xml-writer-tests").toFile(); //$NON-NLS-1$
+		scrub(fLocation);
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		scrub(fLocation);
+	}
+
+	void scrub(File file) {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles();
+			for (int i = 0; i < files.length; i++) {
+				scrub(files[i]);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Returns a reference from the given method of the referencing component
+	 * to type <code>b.B</code>
+	 *
+	 * @param method
+	 * @param kind
+	 * @return a new reference descriptor
+	 */
+	IReferenceDescriptor getReference(String method, int kind) {
+		return Factory.referenceDescriptor(REFERENCING, Factory.methodDescriptor("a.A", method, "()V"), 10, REFERENCED, Factory.typeDescriptor("b.B"), kind, 0, VisibilityModifiers.API, null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	File getReport() {
+		return new File(fLocation, "b (1.0.0)" + File.separator + "a (1.0.0)" + File.separator + "API" + File.separator + XmlReferenceDescriptorWriter.TYPE_REFERENCES + ".xml"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+	Element getRoot() throws Exception {
+		Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(getReport());
+		return doc.getDocumentElement();
+	}
+
+	/**
+	 * Tests that the report file is only written by
+	 * {@link XmlReferenceDescriptorWriter#finish()} and that references to the
+	 * same target written in separate batches are merged
+	 *
+	 * @throws Exception
+	 */
+	public void testMergeBatches() throws Exception {
+		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(fLocation.getAbsolutePath());
+		writer.writeReferences(new IReferenceDescriptor[] { getReference("m1", IReference.REF_INSTANTIATE) }); //$NON-NLS-1$
+		writer.writeReferences(new IReferenceDescriptor[] {
+				getReference("m2", IReference.REF_INSTANTIATE), //$NON-NLS-1$
+				getReference("m3", IReference.REF_EXTENDS) }); //$NON-NLS-1$
+		assertFalse("the report should not exist before finishing", getReport().exists()); //$NON-NLS-1$
+		writer.finish();
+		assertTrue("the report should exist", getReport().exists()); //$NON-NLS-1$
+		assertEquals("the shard should be deleted", 1, getReport().getParentFile().list().length); //$NON-NLS-1$
+		Element root = getRoot();
+		assertEquals("wrong reference count", "3", root.getAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("wrong referee", "b (1.0.0)", root.getAttribute(IApiXmlConstants.ATTR_REFEREE)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("there should be one target", 1, root.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET).getLength()); //$NON-NLS-1$
+		Element target = (Element) root.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET).item(0);
+		assertEquals("wrong target type", "b.B", target.getAttribute(IApiXmlConstants.ATTR_TYPE)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("there should be two reference kinds", 2, target.getElementsByTagName(IApiXmlConstants.REFERENCE_KIND).getLength()); //$NON-NLS-1$
+		Element kind = (Element) target.getElementsByTagName(IApiXmlConstants.REFERENCE_KIND).item(0);
+		assertEquals("wrong first kind", Integer.toString(IReference.REF_INSTANTIATE), kind.getAttribute(IApiXmlConstants.ATTR_KIND)); //$NON-NLS-1$
+		assertEquals("the instantiations should be merged", 2, kind.getElementsByTagName(IApiXmlConstants.ATTR_REFERENCE).getLength()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that finishing appends to a report file written by an earlier scan
+	 *
+	 * @throws Exception
+	 */
+	public void testAppendToReport() throws Exception {
+		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(fLocation.getAbsolutePath());
+		writer.writeReferences(new IReferenceDescriptor[] { getReference("m1", IReference.REF_INSTANTIATE) }); //$NON-NLS-1$
+		writer.finish();
+		writer.writeReferences(new IReferenceDescriptor[] { getReference("m2", IReference.REF_INSTANTIATE) }); //$NON-NLS-1$
+		writer.finish();
+		Element root = getRoot();
+		assertEquals("wrong reference count", "2", root.getAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("there should be one target", 1, root.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET).getLength()); //$NON-NLS-1$
+		assertEquals("there should be two references", 2, root.getElementsByTagName(IApiXmlConstants.ATTR_REFERENCE).getLength()); //$NON-NLS-1$
+	}
+}
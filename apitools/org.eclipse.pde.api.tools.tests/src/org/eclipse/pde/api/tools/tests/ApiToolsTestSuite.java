@@ -14,6 +14,7 @@ package org.eclipse.pde.api.tools.tests;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.pde.api.tools.builder.tests.MarkerReconcilerTests;
 import org.eclipse.pde.api.tools.builder.tests.OSGiLessAnalysisTests;
 import org.eclipse.pde.api.tools.comparator.tests.AllDeltaTests;
 import org.eclipse.pde.api.tools.model.tests.ApiBaselineTests;
@@ -33,6 +34,8 @@ import org.eclipse.pde.api.tools.reference.tests.SearchScopeTests;
 import org.eclipse.pde.api.tools.search.tests.SearchEngineTests;
 import org.eclipse.pde.api.tools.search.tests.SkippedComponentTests;
 import org.eclipse.pde.api.tools.search.tests.UseSearchTests;
+import org.eclipse.pde.api.tools.search.tests.XmlReferenceDescriptorWriterTests;
+import org.eclipse.pde.api.tools.util.tests.ArchivePoolTests;
 import org.eclipse.pde.api.tools.util.tests.HeadlessApiBaselineManagerTests;
 import org.eclipse.pde.api.tools.util.tests.SignaturesTests;
 import org.eclipse.pde.api.tools.util.tests.TarEntryTests;
@@ -63,6 +66,7 @@ public class ApiToolsTestSuite extends TestSuite {
 		addTest(new TestSuite(SearchEngineTests.class));
 		addTest(new TestSuite(SkippedComponentTests.class));
 		addTest(new TestSuite(UseSearchTests.class));
+		addTest(new TestSuite(XmlReferenceDescriptorWriterTests.class));
 		addTest(new TestSuite(HeadlessApiBaselineManagerTests.class));
 		addTest(new TestSuite(TagScannerTests.class));
 		addTest(new TestSuite(ComponentManifestTests.class));
@@ -78,7 +82,9 @@ public class ApiToolsTestSuite extends TestSuite {
 		addTest(new TestSuite(ApiFilterTests.class));
 		addTest(new TestSuite(TarEntryTests.class));
 		addTest(new TestSuite(TarExceptionTests.class));
+		addTest(new TestSuite(ArchivePoolTests.class));
 		addTest(new TestSuite(OSGiLessAnalysisTests.class));
+		addTest(new TestSuite(MarkerReconcilerTests.class));
 		addTest(new TestSuite(ApiModelCacheTests.class));
 		addTest(new TestSuite(BadClassfileTests.class));
 		addTest(new TestSuite(CRCTests.class));
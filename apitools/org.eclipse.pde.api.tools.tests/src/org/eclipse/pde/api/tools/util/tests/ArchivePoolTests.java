@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.util.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.pde.api.tools.internal.util.ArchivePool;
+
+/**
+ * Tests the {@link ArchivePool} class
+ * 
+ * @since 1.0.600
+ */
+public class ArchivePoolTests extends TestCase {
+
+	static final String ENTRY_NAME = "a/b/C.class"; //$NON-NLS-1$
+	static final byte[] CONTENTS = new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE};
+
+	File[] fArchives = null;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		ArchivePool.getPool().closeAll();
+		fArchives = new File[3];
+		for (int i = 0; i < fArchives.length; i++) {
+			fArchives[i] = createArchive();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		ArchivePool pool = ArchivePool.getPool();
+		pool.closeAll();
+		pool.setMaxOpenArchives(ArchivePool.DEFAULT_MAX_OPEN_ARCHIVES);
+		for (int i = 0; i < fArchives.length; i++) {
+			fArchives[i].delete();
+		}
+	}
+
+	/**
+	 * Creates a temporary archive containing a single entry
+	 * 
+	 * @return the archive
+	 * @throws IOException
+	 */
+	File createArchive() throws IOException {
+		File file = File.createTempFile("archivepool", ".jar"); //$NON-NLS-1$ //$NON-NLS-2$
+		ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+		try {
+			out.putNextEntry(new ZipEntry(ENTRY_NAME));
+			out.write(CONTENTS);
+			out.closeEntry();
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	/**
+	 * Tests that reading an entry twice only opens the archive once
+	 * 
+	 * @throws Exception
+	 */
+	public void testReadEntry() throws Exception {
+		ArchivePool pool = ArchivePool.getPool();
+		long misses = pool.getMissCount();
+		long hits = pool.getHitCount();
+		String location = fArchives[0].getAbsolutePath();
+		byte[] bytes = pool.readEntry(location, ENTRY_NAME);
+		assertNotNull("The entry should have been read", bytes); //$NON-NLS-1$
+		assertEquals("The contents should have the same length", CONTENTS.length, bytes.length); //$NON-NLS-1$
+		assertNotNull("The entry should have been read again", pool.readEntry(location, ENTRY_NAME)); //$NON-NLS-1$
+		assertNull("A missing entry should return null", pool.readEntry(location, "Missing.class")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("The archive should have been opened once", misses + 1, pool.getMissCount()); //$NON-NLS-1$
+		assertEquals("The open archive should have been reused", hits + 2, pool.getHitCount()); //$NON-NLS-1$
+		assertEquals("There should be one open archive", 1, pool.getOpenHandleCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the least recently used archive is closed when the pool is
+	 * full
+	 * 
+	 * @throws Exception
+	 */
+	public void testEviction() throws Exception {
+		ArchivePool pool = ArchivePool.getPool();
+		pool.setMaxOpenArchives(2);
+		long evictions = pool.getEvictionCount();
+		for (int i = 0; i < fArchives.length; i++) {
+			pool.readEntry(fArchives[i].getAbsolutePath(), ENTRY_NAME);
+		}
+		assertEquals("There should be two open archives", 2, pool.getOpenHandleCount()); //$NON-NLS-1$
+		assertEquals("One archive should have been evicted", evictions + 1, pool.getEvictionCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that archives in use are not closed until released
+	 * 
+	 * @throws Exception
+	 */
+	public void testCloseInUse() throws Exception {
+		ArchivePool pool = ArchivePool.getPool();
+		String location = fArchives[0].getAbsolutePath();
+		ZipFile zipFile = pool.acquire(location);
+		try {
+			pool.close(location);
+			assertNotNull("The archive should still be readable while in use", zipFile.getEntry(ENTRY_NAME)); //$NON-NLS-1$
+			assertEquals("The archive should still be open", 1, pool.getOpenHandleCount()); //$NON-NLS-1$
+		} finally {
+			pool.release(zipFile);
+		}
+		assertEquals("The archive should have been closed once released", 0, pool.getOpenHandleCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that different paths of the same archive share one handle, so
+	 * closing the archive by any of its paths closes it
+	 * 
+	 * @throws Exception
+	 */
+	public void testEquivalentLocations() throws Exception {
+		ArchivePool pool = ArchivePool.getPool();
+		String location = fArchives[0].getAbsolutePath();
+		String other = new File(fArchives[0].getParentFile(), "." + File.separator + fArchives[0].getName()).getPath(); //$NON-NLS-1$
+		ZipFile zipFile = pool.acquire(other);
+		ZipFile zipFile2 = pool.acquire(location);
+		assertSame("Both paths should return the same archive", zipFile, zipFile2); //$NON-NLS-1$
+		pool.release(zipFile);
+		pool.release(zipFile2);
+		pool.close(other);
+		assertEquals("The archive should have been closed", 0, pool.getOpenHandleCount()); //$NON-NLS-1$
+	}
+}
@@ -31,6 +31,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ISaveContext;
 import org.eclipse.core.resources.ISaveParticipant;
 import org.eclipse.core.runtime.CoreException;
@@ -47,6 +48,7 @@ import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
 import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
 import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
+import org.eclipse.pde.api.tools.internal.model.TypeShapeStore;
 import org.eclipse.pde.api.tools.internal.model.WorkspaceBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.IApiBaselineManager;
@@ -524,6 +526,7 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 	 */
 	@Override
 	public void saving(ISaveContext context) throws CoreException {
+		TypeShapeStore.saveDefault();
 		if (!fNeedsSaving) {
 			return;
 		}
@@ -686,6 +689,21 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 		}
 	}
 
+	/**
+	 * Clears the cached reference resolutions of the given project in the
+	 * workspace baseline, if it has been created.
+	 * 
+	 * @param project the project whose contents changed
+	 */
+	synchronized void clearResolutions(IProject project) {
+		if (workspacebaseline != null) {
+			IApiComponent component = workspacebaseline.getApiComponent(project);
+			if (component != null) {
+				((ApiBaseline) workspacebaseline).clearResolutions(component.getSymbolicName());
+			}
+		}
+	}
+
 	/**
 	 * Creates a workspace {@link IApiBaseline}
 	 * 
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -66,9 +67,70 @@ import org.w3c.dom.Element;
 public class ApiFilterStore extends FilterStore implements IResourceChangeListener {
 
 	/**
-	 * Map used to collect unused {@link IApiProblemFilter}s
+	 * Map used to collect unused {@link IApiProblemFilter}s. Filters are
+	 * removed from it without holding the lock of the store.
 	 */
-	private HashMap<IResource, Set<IApiProblemFilter>> fUnusedFilters = null;
+	private volatile ConcurrentHashMap<IResource, Set<IApiProblemFilter>> fUnusedFilters = null;
+
+	/**
+	 * Index of the filters of {@link #fFilterMap} by resource path, problem id,
+	 * type name and message arguments, or <code>null</code> if it has to be
+	 * rebuilt. The index is not modified once published, so it can be read
+	 * without holding the lock of the store.
+	 */
+	private volatile Map<FilterKey, List<IApiProblemFilter>> fFilterIndex = null;
+
+	/**
+	 * Key of a filter in the filter index. Message arguments are hashed by
+	 * their simple names, as qualified and simple names of the same type match
+	 * (see {@link FilterStore#problemsMatch(IApiProblem, IApiProblem)}), so
+	 * problems must still be matched against the filters of a key.
+	 */
+	private static final class FilterKey {
+		private final IPath fPath;
+		private final int fId;
+		private final String fTypeName;
+		private final int fArgumentsHashcode;
+		private final int fHashcode;
+
+		FilterKey(IPath path, IApiProblem problem) {
+			fPath = path;
+			fId = problem.getId();
+			fTypeName = problem.getTypeName();
+			fArgumentsHashcode = argumentsHashcode(problem.getMessageArguments());
+			fHashcode = fPath.hashCode() + fId + (fTypeName == null ? 0 : fTypeName.hashCode()) + fArgumentsHashcode;
+		}
+
+		/**
+		 * Returns the hash code of the given message arguments, like
+		 * {@link org.eclipse.pde.api.tools.internal.problems.ApiProblemFactory#getProblemHashcode(String)}
+		 * but using the simple name of qualified arguments
+		 */
+		private static int argumentsHashcode(String[] arguments) {
+			int hashcode = arguments.length;
+			for (int i = 0; i < arguments.length; i++) {
+				String argument = arguments[i];
+				if (argument != null) {
+					hashcode += argument.substring(argument.lastIndexOf('.') + 1).hashCode();
+				}
+			}
+			return hashcode;
+		}
+
+		@Override
+		public int hashCode() {
+			return fHashcode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof FilterKey) {
+				FilterKey key = (FilterKey) obj;
+				return fId == key.fId && fArgumentsHashcode == key.fArgumentsHashcode && fPath.equals(key.fPath) && (fTypeName == null ? key.fTypeName == null : fTypeName.equals(key.fTypeName));
+			}
+			return false;
+		}
+	}
 
 	/**
 	 * The backing {@link IJavaProject}
@@ -217,6 +279,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			}
 			fNeedsSaving |= pfilters.add(filters[i]);
 		}
+		fFilterIndex = null;
 		persistApiFilters();
 	}
 
@@ -273,35 +336,32 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 * (org.eclipse.pde.api.tools.internal.provisional.IApiProblem)
 	 */
 	@Override
-	public synchronized boolean isFiltered(IApiProblem problem) {
-		initializeApiFilters();
+	public boolean isFiltered(IApiProblem problem) {
 		String resourcePath = problem.getResourcePath();
 		if (resourcePath == null) {
 			return false;
 		}
-		IResource resource = fProject.getProject().findMember(new Path(resourcePath));
-		if (resource == null) {
-			if (ApiPlugin.DEBUG_FILTER_STORE) {
-				System.out.println("no resource exists: [" + resourcePath + "]"); //$NON-NLS-1$ //$NON-NLS-2$
-			}
-			return false;
-		}
-		IApiProblemFilter[] filters = this.getFilters(resource);
-		if (filters == null) {
-			if (ApiPlugin.DEBUG_FILTER_STORE) {
-				System.out.println("no filters defined for [" + resourcePath + "] return not filtered"); //$NON-NLS-1$ //$NON-NLS-2$
-			}
-			return false;
-		}
-		IApiProblemFilter filter = null;
-		for (int i = 0, max = filters.length; i < max; i++) {
-			filter = filters[i];
-			if (problemsMatch(filter.getUnderlyingProblem(), problem)) {
-				if (ApiPlugin.DEBUG_FILTER_STORE) {
-					System.out.println("recording filter used: [" + filter.toString() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+		// findMember(..) resolves the path relative to the project
+		IPath path = new Path(resourcePath).makeRelative();
+		List<IApiProblemFilter> filters = getFilterIndex().get(new FilterKey(path, problem));
+		if (filters != null) {
+			IApiProblemFilter filter = null;
+			for (int i = 0, max = filters.size(); i < max; i++) {
+				filter = filters.get(i);
+				if (problemsMatch(filter.getUnderlyingProblem(), problem)) {
+					IResource resource = fProject.getProject().findMember(path);
+					if (resource == null) {
+						if (ApiPlugin.DEBUG_FILTER_STORE) {
+							System.out.println("no resource exists: [" + resourcePath + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+						}
+						return false;
+					}
+					if (ApiPlugin.DEBUG_FILTER_STORE) {
+						System.out.println("recording filter used: [" + filter.toString() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					recordFilterUsed(resource, filter);
+					return true;
 				}
-				recordFilterUsed(resource, filter);
-				return true;
 			}
 		}
 		if (ApiPlugin.DEBUG_FILTER_STORE) {
@@ -310,6 +370,42 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 		return false;
 	}
 
+	/**
+	 * Returns the index of the filters of this store, building it if the
+	 * filters have changed since it was last built
+	 * 
+	 * @return the filter index, never <code>null</code>
+	 */
+	private Map<FilterKey, List<IApiProblemFilter>> getFilterIndex() {
+		Map<FilterKey, List<IApiProblemFilter>> index = fFilterIndex;
+		if (index != null) {
+			return index;
+		}
+		synchronized (this) {
+			initializeApiFilters();
+			index = fFilterIndex;
+			if (index == null) {
+				index = new HashMap<FilterKey, List<IApiProblemFilter>>();
+				for (Entry<IResource, Map<String, Set<IApiProblemFilter>>> entry : fFilterMap.entrySet()) {
+					IPath path = entry.getKey().getProjectRelativePath();
+					for (Set<IApiProblemFilter> filters : entry.getValue().values()) {
+						for (IApiProblemFilter filter : filters) {
+							FilterKey key = new FilterKey(path, filter.getUnderlyingProblem());
+							List<IApiProblemFilter> list = index.get(key);
+							if (list == null) {
+								list = new ArrayList<IApiProblemFilter>(1);
+								index.put(key, list);
+							}
+							list.add(filter);
+						}
+					}
+				}
+				fFilterIndex = index;
+			}
+			return index;
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -322,9 +418,10 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=299319
 		persistApiFilters();
 		clearFilters();
-		if (fUnusedFilters != null) {
-			fUnusedFilters.clear();
+		Map<IResource, Set<IApiProblemFilter>> unusedFilters = fUnusedFilters;
+		if (unusedFilters != null) {
 			fUnusedFilters = null;
+			unusedFilters.clear();
 		}
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
 	}
@@ -398,6 +495,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 				success &= false;
 			}
 		}
+		fFilterIndex = null;
 		persistApiFilters();
 		return success;
 	}
@@ -548,6 +646,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			System.out.println("initializing api filter map for project [" + fProject.getElementName() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
 		}
 		fFilterMap = new HashMap<IResource, Map<String, Set<IApiProblemFilter>>>(5);
+		fFilterIndex = null;
 		IPath filepath = getFilterFilePath(true);
 		IResource file = ResourcesPlugin.getWorkspace().getRoot().findMember(filepath, true);
 		if (file == null) {
@@ -622,6 +721,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			}
 			fNeedsSaving |= filters.add(filter);
 		}
+		fFilterIndex = null;
 	}
 
 	/**
@@ -665,17 +765,18 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 */
 	public synchronized void recordFilterUsage() {
 		initializeApiFilters();
-		fUnusedFilters = new HashMap<IResource, Set<IApiProblemFilter>>();
+		ConcurrentHashMap<IResource, Set<IApiProblemFilter>> unusedFilters = new ConcurrentHashMap<IResource, Set<IApiProblemFilter>>();
 		Map<String, Set<IApiProblemFilter>> types = null;
 		Set<IApiProblemFilter> values = null;
 		for (IResource resource : fFilterMap.keySet()) {
 			types = fFilterMap.get(resource);
-			values = new HashSet<IApiProblemFilter>();
-			fUnusedFilters.put(resource, values);
+			values = Collections.newSetFromMap(new ConcurrentHashMap<IApiProblemFilter, Boolean>());
+			unusedFilters.put(resource, values);
 			for (Entry<String, Set<IApiProblemFilter>> entry : types.entrySet()) {
 				values.addAll(entry.getValue());
 			}
 		}
+		fUnusedFilters = unusedFilters;
 	}
 
 	/**
@@ -685,12 +786,14 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 * @param filter
 	 */
 	private void recordFilterUsed(IResource resource, IApiProblemFilter filter) {
-		if (fUnusedFilters != null) {
-			Set<IApiProblemFilter> unused = fUnusedFilters.get(resource);
+		ConcurrentHashMap<IResource, Set<IApiProblemFilter>> unusedFilters = fUnusedFilters;
+		if (unusedFilters != null) {
+			Set<IApiProblemFilter> unused = unusedFilters.get(resource);
 			if (unused != null) {
 				unused.remove(filter);
 				if (unused.isEmpty()) {
-					fUnusedFilters.remove(resource);
+					// filters are never added back, an empty set stays empty
+					unusedFilters.remove(resource, unused);
 				}
 			}
 		}
@@ -709,12 +812,13 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 	 *         <code>null</code>
 	 */
 	public IApiProblemFilter[] getUnusedFilters(IResource resource, String typeName, int[] categories) {
-		if (fUnusedFilters != null) {
+		Map<IResource, Set<IApiProblemFilter>> unusedFilters = fUnusedFilters;
+		if (unusedFilters != null) {
 			Set<IApiProblemFilter> unused = new HashSet<IApiProblemFilter>();
 			Set<IApiProblemFilter> set = null;
 			if (resource != null) {
 				// add any unused filters for the resource
-				set = fUnusedFilters.get(resource);
+				set = unusedFilters.get(resource);
 				if (set != null) {
 					collectFilterFor(set, typeName, unused, categories);
 				}
@@ -724,17 +828,17 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 					// deleted types are only ever passed in with the manifest
 					// associated with them
 					IResource res = null;
-					for (Entry<IResource, Set<IApiProblemFilter>> entry : fUnusedFilters.entrySet()) {
+					for (Entry<IResource, Set<IApiProblemFilter>> entry : unusedFilters.entrySet()) {
 						res = entry.getKey();
 						if (res == null || !res.exists() || !res.getProject().equals(resource.getProject())) {
 							continue;
 						}
-						set = fUnusedFilters.get(res);
+						set = unusedFilters.get(res);
 						collectFilterFor(set, typeName, unused, categories);
 					}
 				}
 			} else {
-				for (Entry<IResource, Set<IApiProblemFilter>> entry : fUnusedFilters.entrySet()) {
+				for (Entry<IResource, Set<IApiProblemFilter>> entry : unusedFilters.entrySet()) {
 					set = entry.getValue();
 					if (set != null) {
 						unused.addAll(set);
@@ -839,6 +943,7 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 				}
 				if (fFilterMap != null) {
 					fFilterMap.clear();
+					fFilterIndex = null;
 					needsbuild = fProject.getProject().isAccessible();
 				}
 			} else if (leafdelta.getKind() == IResourceDelta.ADDED || (leafdelta.getFlags() & IResourceDelta.CONTENT) != 0 || (leafdelta.getFlags() & IResourceDelta.REPLACED) != 0) {
@@ -875,5 +980,6 @@ public class ApiFilterStore extends FilterStore implements IResourceChangeListen
 			fFilterMap.clear();
 			fFilterMap = null;
 		}
+		fFilterIndex = null;
 	}
 }
@@ -31,6 +31,7 @@ import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.IApiFilterStore;
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblem;
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblemFilter;
+import org.eclipse.pde.api.tools.internal.util.ArchivePool;
 import org.eclipse.pde.api.tools.internal.util.Util;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -179,7 +180,7 @@ public class FilterStore implements IApiFilterStore {
 			String extension = new Path(loc.getName()).getFileExtension();
 			try {
 				if (extension != null && extension.equals("jar") && loc.isFile()) { //$NON-NLS-1$
-					jarFile = new ZipFile(loc, ZipFile.OPEN_READ);
+					jarFile = ArchivePool.getPool().acquire(loc.getPath());
 					ZipEntry filterfile = jarFile.getEntry(IApiCoreConstants.API_FILTERS_XML_NAME);
 					if (filterfile != null) {
 						if (ApiPlugin.DEBUG_FILTER_STORE) {
@@ -204,7 +205,7 @@ public class FilterStore implements IApiFilterStore {
 			} catch (IOException e) {
 				ApiPlugin.log(e);
 			} finally {
-				fComponent.closingZipFileAndStream(filterstream, jarFile);
+				fComponent.releaseZipFileAndStream(filterstream, jarFile);
 			}
 		}
 	}
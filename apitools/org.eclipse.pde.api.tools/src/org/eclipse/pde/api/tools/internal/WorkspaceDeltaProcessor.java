@@ -151,6 +151,9 @@ public class WorkspaceDeltaProcessor implements IElementChangedListener, IResour
 							System.out.println("processed CLASSPATH CHANGED for package fragment root: [" + root.getElementName() + "]"); //$NON-NLS-1$ //$NON-NLS-2$
 						}
 						dmanager.projectClasspathChanged(project);
+						if (project != null) {
+							bmanager.clearResolutions(project.getProject());
+						}
 					}
 					if ((flags & IJavaElementDelta.F_CHILDREN) != 0) {
 						if (ApiPlugin.DEBUG_WORKSPACE_DELTA_PROCESSOR) {
@@ -188,6 +191,7 @@ public class WorkspaceDeltaProcessor implements IElementChangedListener, IResour
 									}
 									dmanager.projectChanged(project);
 									dmanager.flushElementCache(delta.getElement());
+									bmanager.clearResolutions(project.getProject());
 									continue;
 								}
 							}
@@ -205,6 +209,7 @@ public class WorkspaceDeltaProcessor implements IElementChangedListener, IResour
 								}
 								dmanager.projectChanged(project);
 								dmanager.flushElementCache(delta.getElement());
+								bmanager.clearResolutions(project.getProject());
 								continue;
 							}
 							break;
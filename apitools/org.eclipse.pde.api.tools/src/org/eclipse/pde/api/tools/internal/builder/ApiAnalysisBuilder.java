@@ -18,6 +18,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -728,11 +729,11 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 	 */
 	void buildAll(IApiBaseline baseline, IApiBaseline wbaseline, IProgressMonitor monitor) throws CoreException {
 		SubMonitor localMonitor = SubMonitor.convert(monitor, BuilderMessages.api_analysis_on_0, 4);
+		boolean reconciled = false;
 		try {
 			BuildState.setLastBuiltState(this.currentproject, null);
 			this.buildstate = new BuildState();
 			localMonitor.subTask(NLS.bind(BuilderMessages.ApiAnalysisBuilder_initializing_analyzer, currentproject.getName()));
-			cleanupMarkers(this.currentproject);
 			IPluginModelBase currentModel = getCurrentModel();
 			if (currentModel != null) {
 				localMonitor.subTask(BuilderMessages.building_workspace_profile);
@@ -743,11 +744,16 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 				if (apiComponent != null) {
 					getAnalyzer().analyzeComponent(this.buildstate, null, null, baseline, apiComponent, new BuildContext(), localMonitor.newChild(1));
 					Util.updateMonitor(localMonitor, 1);
-					createMarkers();
+					reconcileMarkers();
+					reconciled = true;
 					Util.updateMonitor(localMonitor, 1);
 				}
 			}
 		} finally {
+			if (!reconciled) {
+				// nothing was analyzed or the analysis failed
+				cleanupMarkers(this.currentproject);
+			}
 			if (localMonitor != null) {
 				localMonitor.done();
 			}
@@ -758,18 +764,60 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 	 * Creates new markers are for the listing of problems added to this
 	 * reporter. If no problems have been added to this reporter, or we are not
 	 * running in the framework, no work is done.
+	 * <p>
+	 * Version numbering, baseline and component resolution markers are
+	 * replaced, as are the API use scan markers of the resources that have
+	 * new API use scan problems. Other markers must have been cleaned up for
+	 * the analyzed resources.
+	 * </p>
 	 */
 	protected void createMarkers() {
-		try {
-			IResource manifest = Util.getManifestFile(this.currentproject);
-			if (manifest != null) {
-				manifest.deleteMarkers(IApiMarkerConstants.VERSION_NUMBERING_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
-			}
-			this.currentproject.deleteMarkers(IApiMarkerConstants.DEFAULT_API_BASELINE_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
-			this.currentproject.deleteMarkers(IApiMarkerConstants.API_COMPONENT_RESOLUTION_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
-		} catch (CoreException e) {
-			ApiPlugin.log(e);
+		MarkerReconciler reconciler = collectMarkers();
+		IResource manifest = Util.getManifestFile(this.currentproject);
+		if (manifest != null) {
+			reconciler.addScope(manifest, IApiMarkerConstants.VERSION_NUMBERING_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+		}
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.DEFAULT_API_BASELINE_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.API_COMPONENT_RESOLUTION_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+		List<IResource> resources = reconciler.getResources(IApiMarkerConstants.API_USESCAN_PROBLEM_MARKER);
+		for (int i = 0; i < resources.size(); i++) {
+			reconciler.addScope(resources.get(i), IApiMarkerConstants.API_USESCAN_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
 		}
+		reconciler.apply();
+	}
+
+	/**
+	 * Replaces all of the API Tools markers of the current project with the
+	 * markers for the listing of problems added to this reporter, after a full
+	 * build. Existing markers that match a problem are left alone.
+	 * 
+	 * @since 1.0.600
+	 */
+	void reconcileMarkers() {
+		MarkerReconciler reconciler = collectMarkers();
+		// the markers removed by cleanupMarkers(IResource)
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.UNUSED_FILTER_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.API_USAGE_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.COMPATIBILITY_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.SINCE_TAGS_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.VERSION_NUMBERING_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.DEFAULT_API_BASELINE_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.API_COMPONENT_RESOLUTION_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.UNSUPPORTED_TAG_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.UNSUPPORTED_ANNOTATION_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.API_USESCAN_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+		reconciler.addScope(this.currentproject, IApiMarkerConstants.FATAL_PROBLEM_MARKER, false, IResource.DEPTH_INFINITE);
+		reconciler.apply();
+	}
+
+	/**
+	 * Returns a reconciler with the markers to create for the problems added
+	 * to this reporter
+	 * 
+	 * @return the reconciler, never <code>null</code>
+	 */
+	private MarkerReconciler collectMarkers() {
+		MarkerReconciler reconciler = new MarkerReconciler(this.currentproject);
 		IApiProblem[] problems = getAnalyzer().getProblems();
 		String type = null;
 		for (int i = 0; i < problems.length; i++) {
@@ -778,11 +826,21 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			if (type == null) {
 				continue;
 			}
+			IResource resource = resolveResource(problems[i]);
+			if (resource == null) {
+				continue;
+			}
 			if (ApiPlugin.DEBUG_BUILDER) {
 				System.out.println("ApiAnalysisBuilder: creating marker for: " + problems[i].toString()); //$NON-NLS-1$
 			}
-			createMarkerForProblem(category, type, problems[i]);
+			if (category == IApiProblem.CATEGORY_API_USE_SCAN_PROBLEM) {
+				// an API use scan can report the same problem several times
+				reconciler.addUniqueMarker(resource, type, getMarkerAttributes(category, problems[i]));
+			} else {
+				reconciler.addMarker(resource, type, getMarkerAttributes(category, problems[i]));
+			}
 		}
+		return reconciler;
 	}
 
 	/**
@@ -849,56 +907,8 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			return;
 		}
 		try {
-			if (category == IApiProblem.CATEGORY_API_USE_SCAN_PROBLEM) {
-				IMarker[] markers = resource.findMarkers(type, true, IResource.DEPTH_ZERO);
-				for (int i = 0; i < markers.length; i++) {
-					String msg = markers[i].getAttribute(IMarker.MESSAGE, null);
-					if (msg == null || msg.equalsIgnoreCase(problem.getMessage())) {
-						int markerSeverity = markers[i].getAttribute(IMarker.SEVERITY, 0);
-						int problemSeverity = ApiPlugin.getDefault().getSeverityLevel(ApiProblemFactory.getProblemSeverityId(problem), this.currentproject);
-						if (markerSeverity == problemSeverity) {
-							return; // Marker already exists
-						}
-					} else {
-						markers[i].delete(); // create the marker afresh
-					}
-				}
-			}
 			IMarker marker = resource.createMarker(type);
-			int line = problem.getLineNumber();
-			switch (category) {
-				case IApiProblem.CATEGORY_VERSION:
-				case IApiProblem.CATEGORY_API_BASELINE:
-				case IApiProblem.CATEGORY_API_COMPONENT_RESOLUTION:
-				case IApiProblem.CATEGORY_API_USE_SCAN_PROBLEM: {
-					break;
-				}
-				default: {
-					line++;
-				}
-			}
-			marker.setAttributes(new String[] {
-					IMarker.MESSAGE, IMarker.SEVERITY, IMarker.LINE_NUMBER,
-					IMarker.CHAR_START, IMarker.CHAR_END, IMarker.SOURCE_ID,
-					IApiMarkerConstants.MARKER_ATTR_PROBLEM_ID }, new Object[] {
-					problem.getMessage(),
-					new Integer(ApiPlugin.getDefault().getSeverityLevel(ApiProblemFactory.getProblemSeverityId(problem), this.currentproject)),
-					new Integer(line), new Integer(problem.getCharStart()),
-					new Integer(problem.getCharEnd()),
-					ApiAnalysisBuilder.SOURCE, new Integer(problem.getId()) });
-			// add message arguments, if any
-			String[] args = problem.getMessageArguments();
-			if (args.length > 0) {
-				marker.setAttribute(IApiMarkerConstants.MARKER_ATTR_MESSAGE_ARGUMENTS, createArgAttribute(args));
-			}
-			String typeName = problem.getTypeName();
-			if (typeName != null) {
-				marker.setAttribute(IApiMarkerConstants.MARKER_ATTR_PROBLEM_TYPE_NAME, typeName);
-			}
-			// add all other extra arguments, if any
-			if (problem.getExtraMarkerAttributeIds().length > 0) {
-				marker.setAttributes(problem.getExtraMarkerAttributeIds(), problem.getExtraMarkerAttributeValues());
-			}
+			marker.setAttributes(getMarkerAttributes(category, problem));
 			if (ApiPlugin.DEBUG_BUILDER) {
 				System.out.println("ApiAnalysisBuilder: Created the marker: " + marker.getId() + " - " + marker.getAttributes().entrySet()); //$NON-NLS-1$ //$NON-NLS-2$
 			}
@@ -908,6 +918,63 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 		}
 	}
 
+	/**
+	 * Returns the attributes of the marker for the given problem
+	 * 
+	 * @param category the category of the problem - see {@link IApiProblem} for
+	 *            categories
+	 * @param problem the problem to create a marker from
+	 * @return the marker attributes
+	 * @since 1.0.600
+	 */
+	Map<String, Object> getMarkerAttributes(int category, IApiProblem problem) {
+		int line = problem.getLineNumber();
+		switch (category) {
+			case IApiProblem.CATEGORY_VERSION:
+			case IApiProblem.CATEGORY_API_BASELINE:
+			case IApiProblem.CATEGORY_API_COMPONENT_RESOLUTION:
+			case IApiProblem.CATEGORY_API_USE_SCAN_PROBLEM: {
+				break;
+			}
+			default: {
+				line++;
+			}
+		}
+		Map<String, Object> attributes = new HashMap<String, Object>();
+		putAttribute(attributes, IMarker.MESSAGE, problem.getMessage());
+		putAttribute(attributes, IMarker.SEVERITY, new Integer(ApiPlugin.getDefault().getSeverityLevel(ApiProblemFactory.getProblemSeverityId(problem), this.currentproject)));
+		putAttribute(attributes, IMarker.LINE_NUMBER, new Integer(line));
+		putAttribute(attributes, IMarker.CHAR_START, new Integer(problem.getCharStart()));
+		putAttribute(attributes, IMarker.CHAR_END, new Integer(problem.getCharEnd()));
+		putAttribute(attributes, IMarker.SOURCE_ID, ApiAnalysisBuilder.SOURCE);
+		putAttribute(attributes, IApiMarkerConstants.MARKER_ATTR_PROBLEM_ID, new Integer(problem.getId()));
+		// add message arguments, if any
+		String[] args = problem.getMessageArguments();
+		if (args.length > 0) {
+			putAttribute(attributes, IApiMarkerConstants.MARKER_ATTR_MESSAGE_ARGUMENTS, createArgAttribute(args));
+		}
+		putAttribute(attributes, IApiMarkerConstants.MARKER_ATTR_PROBLEM_TYPE_NAME, problem.getTypeName());
+		// add all other extra arguments, if any
+		String[] ids = problem.getExtraMarkerAttributeIds();
+		Object[] values = problem.getExtraMarkerAttributeValues();
+		for (int i = 0; i < ids.length; i++) {
+			putAttribute(attributes, ids[i], values[i]);
+		}
+		return attributes;
+	}
+
+	/**
+	 * Adds the given attribute, a <code>null</code> value means the attribute
+	 * is not set
+	 */
+	private static void putAttribute(Map<String, Object> attributes, String name, Object value) {
+		if (value == null) {
+			attributes.remove(name);
+		} else {
+			attributes.put(name, value);
+		}
+	}
+
 	/**
 	 * Resolves the resource from the path in the problem, returns
 	 * <code>null</code> in the following cases:
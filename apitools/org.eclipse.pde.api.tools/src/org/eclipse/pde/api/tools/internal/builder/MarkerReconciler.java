@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.builder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.IApiMarkerConstants;
+
+/**
+ * Applies the markers computed for a set of API problems to the workspace.
+ * <p>
+ * The markers to create are grouped by resource and marker type. Existing
+ * markers are read once for each registered scope and are looked up in maps of
+ * the new markers of the same resource and type, by attributes and by problem
+ * id: identical markers are left alone, markers for the same problem id with
+ * other attributes are updated and the remaining existing markers of the scope
+ * are deleted. New markers outside of any scope are always created. All
+ * changes are applied in a single workspace operation.
+ * </p>
+ *
+ * @since 1.0.600
+ */
+public class MarkerReconciler {
+
+	/**
+	 * Key of a group of markers: a resource and a marker type
+	 */
+	private static final class GroupKey {
+		final IResource resource;
+		final String type;
+
+		GroupKey(IResource resource, String type) {
+			this.resource = resource;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.resource.hashCode() + this.type.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof GroupKey) {
+				GroupKey key = (GroupKey) obj;
+				return this.resource.equals(key.resource) && this.type.equals(key.type);
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Scope of existing markers that are owned by this reconciler
+	 */
+	private static final class Scope {
+		final IResource resource;
+		final String type;
+		final boolean includeSubtypes;
+		final int depth;
+
+		Scope(IResource resource, String type, boolean includeSubtypes, int depth) {
+			this.resource = resource;
+			this.type = type;
+			this.includeSubtypes = includeSubtypes;
+			this.depth = depth;
+		}
+	}
+
+	private final IProject fProject;
+
+	/**
+	 * Resource and type -> attributes of the markers to create, in order
+	 */
+	private final Map<GroupKey, List<Map<String, Object>>> fMarkers = new LinkedHashMap<GroupKey, List<Map<String, Object>>>();
+
+	/**
+	 * Resource and type -> severities and messages of the markers added with
+	 * {@link #addUniqueMarker(IResource, String, Map)}, messages ignoring case
+	 */
+	private final Map<GroupKey, Set<String>> fUniqueMarkers = new HashMap<GroupKey, Set<String>>();
+
+	private final List<Scope> fScopes = new ArrayList<Scope>();
+
+	private int fKept = 0;
+	private int fUpdated = 0;
+	private int fCreated = 0;
+	private int fDeleted = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param project the project being built
+	 */
+	public MarkerReconciler(IProject project) {
+		fProject = project;
+	}
+
+	/**
+	 * Adds a marker to create
+	 *
+	 * @param resource the resource of the marker
+	 * @param type the marker type, see {@link IApiMarkerConstants}
+	 * @param attributes the marker attributes
+	 */
+	public void addMarker(IResource resource, String type, Map<String, Object> attributes) {
+		GroupKey key = new GroupKey(resource, type);
+		List<Map<String, Object>> markers = fMarkers.get(key);
+		if (markers == null) {
+			markers = new ArrayList<Map<String, Object>>(2);
+			fMarkers.put(key, markers);
+		}
+		markers.add(attributes);
+	}
+
+	/**
+	 * Adds a marker to create, unless a marker of the same type with the same
+	 * message, ignoring case, and the same severity has already been added to
+	 * the resource by this method
+	 *
+	 * @param resource the resource of the marker
+	 * @param type the marker type, see {@link IApiMarkerConstants}
+	 * @param attributes the marker attributes
+	 * @return whether the marker has been added
+	 */
+	public boolean addUniqueMarker(IResource resource, String type, Map<String, Object> attributes) {
+		GroupKey key = new GroupKey(resource, type);
+		Set<String> added = fUniqueMarkers.get(key);
+		if (added == null) {
+			added = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+			fUniqueMarkers.put(key, added);
+		}
+		Object message = attributes.get(IMarker.MESSAGE);
+		if (!added.add(String.valueOf(attributes.get(IMarker.SEVERITY)) + ':' + (message == null ? "" : message))) { //$NON-NLS-1$
+			return false;
+		}
+		addMarker(resource, type, attributes);
+		return true;
+	}
+
+	/**
+	 * Registers the existing markers of the given type on the given resource
+	 * to be reconciled. Existing markers of the scope that do not match a
+	 * marker to create are deleted.
+	 *
+	 * @param resource the resource to find markers on
+	 * @param type the marker type
+	 * @param includeSubtypes whether markers of sub types are included
+	 * @param depth the depth of the search, see {@link IResource#findMarkers}
+	 */
+	public void addScope(IResource resource, String type, boolean includeSubtypes, int depth) {
+		fScopes.add(new Scope(resource, type, includeSubtypes, depth));
+	}
+
+	/**
+	 * Returns the resources that have markers to create of the given type
+	 *
+	 * @param type the marker type
+	 * @return the resources
+	 */
+	List<IResource> getResources(String type) {
+		List<IResource> resources = new ArrayList<IResource>();
+		for (Iterator<GroupKey> iter = fMarkers.keySet().iterator(); iter.hasNext();) {
+			GroupKey key = iter.next();
+			if (key.type.equals(type)) {
+				resources.add(key.resource);
+			}
+		}
+		return resources;
+	}
+
+	/**
+	 * Applies the markers to the workspace in one operation
+	 */
+	void apply() {
+		try {
+			ResourcesPlugin.getWorkspace().run(new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor monitor) throws CoreException {
+					reconcile();
+				}
+			}, fProject, IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+		}
+		if (ApiPlugin.DEBUG_BUILDER) {
+			System.out.println("ApiAnalysisBuilder: markers kept: " + fKept + ", updated: " + fUpdated + ", created: " + fCreated + ", deleted: " + fDeleted); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+	}
+
+	/**
+	 * Matches the markers to create against the existing markers of the scopes
+	 * and applies the differences
+	 */
+	public void reconcile() throws CoreException {
+		Map<GroupKey, List<IMarker>> existing = new HashMap<GroupKey, List<IMarker>>();
+		Set<IMarker> found = new HashSet<IMarker>();
+		for (int i = 0; i < fScopes.size(); i++) {
+			Scope scope = fScopes.get(i);
+			if (!scope.resource.isAccessible()) {
+				continue;
+			}
+			IMarker[] markers = scope.resource.findMarkers(scope.type, scope.includeSubtypes, scope.depth);
+			for (int j = 0; j < markers.length; j++) {
+				// scopes may overlap
+				if (!found.add(markers[j])) {
+					continue;
+				}
+				GroupKey key = new GroupKey(markers[j].getResource(), markers[j].getType());
+				List<IMarker> list = existing.get(key);
+				if (list == null) {
+					list = new ArrayList<IMarker>(2);
+					existing.put(key, list);
+				}
+				list.add(markers[j]);
+			}
+		}
+		for (Iterator<Map.Entry<GroupKey, List<Map<String, Object>>>> iter = fMarkers.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<GroupKey, List<Map<String, Object>>> entry = iter.next();
+			GroupKey key = entry.getKey();
+			List<IMarker> markers = existing.get(key);
+			List<Map<String, Object>> created = entry.getValue();
+			boolean[] matched = new boolean[created.size()];
+			if (markers != null) {
+				// index the new markers by attributes and by problem id
+				Map<Map<?, ?>, LinkedList<Integer>> byAttributes = new HashMap<Map<?, ?>, LinkedList<Integer>>(created.size() * 4 / 3 + 1);
+				Map<Object, LinkedList<Integer>> byProblem = new HashMap<Object, LinkedList<Integer>>(created.size() * 4 / 3 + 1);
+				for (int i = 0; i < created.size(); i++) {
+					Map<String, Object> attributes = created.get(i);
+					add(byAttributes, attributes, i);
+					Object id = attributes.get(IApiMarkerConstants.MARKER_ATTR_PROBLEM_ID);
+					if (id != null) {
+						add(byProblem, id, i);
+					}
+				}
+				// leave identical markers alone
+				List<IMarker> unmatched = new ArrayList<IMarker>(markers.size());
+				List<Map<?, ?>> unmatchedAttributes = new ArrayList<Map<?, ?>>(markers.size());
+				for (int i = 0; i < markers.size(); i++) {
+					Map<?, ?> attributes = getAttributes(markers.get(i));
+					LinkedList<Integer> indexes = byAttributes.get(attributes);
+					if (indexes != null && !indexes.isEmpty()) {
+						matched[indexes.removeFirst().intValue()] = true;
+						fKept++;
+					} else {
+						unmatched.add(markers.get(i));
+						unmatchedAttributes.add(attributes);
+					}
+				}
+				// update the markers of the same problems
+				markers.clear();
+				for (int i = 0; i < unmatched.size(); i++) {
+					int index = nextUnmatched(byProblem.get(unmatchedAttributes.get(i).get(IApiMarkerConstants.MARKER_ATTR_PROBLEM_ID)), matched);
+					if (index != -1) {
+						matched[index] = true;
+						unmatched.get(i).setAttributes(created.get(index));
+						fUpdated++;
+					} else {
+						// deleted below
+						markers.add(unmatched.get(i));
+					}
+				}
+			}
+			for (int i = 0; i < created.size(); i++) {
+				if (matched[i]) {
+					continue;
+				}
+				IMarker marker = key.resource.createMarker(key.type);
+				marker.setAttributes(created.get(i));
+				fCreated++;
+				if (ApiPlugin.DEBUG_BUILDER) {
+					System.out.println("ApiAnalysisBuilder: Created the marker: " + marker.getId() + " - " + created.get(i).entrySet()); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+		for (Iterator<List<IMarker>> iter = existing.values().iterator(); iter.hasNext();) {
+			List<IMarker> markers = iter.next();
+			for (int i = 0; i < markers.size(); i++) {
+				markers.get(i).delete();
+				fDeleted++;
+			}
+		}
+	}
+
+	/**
+	 * @return the number of existing markers left unchanged
+	 */
+	public int getKeptCount() {
+		return fKept;
+	}
+
+	/**
+	 * @return the number of existing markers whose attributes were updated
+	 */
+	public int getUpdatedCount() {
+		return fUpdated;
+	}
+
+	/**
+	 * @return the number of markers created
+	 */
+	public int getCreatedCount() {
+		return fCreated;
+	}
+
+	/**
+	 * @return the number of existing markers deleted
+	 */
+	public int getDeletedCount() {
+		return fDeleted;
+	}
+
+	/**
+	 * Returns the attributes of the given marker, never <code>null</code>
+	 */
+	private static Map<?, ?> getAttributes(IMarker marker) throws CoreException {
+		Map<?, ?> attributes = marker.getAttributes();
+		return attributes == null ? new HashMap<String, Object>(0) : attributes;
+	}
+
+	private static <K> void add(Map<K, LinkedList<Integer>> index, K key, int value) {
+		LinkedList<Integer> values = index.get(key);
+		if (values == null) {
+			values = new LinkedList<Integer>();
+			index.put(key, values);
+		}
+		values.add(Integer.valueOf(value));
+	}
+
+	/**
+	 * Removes and returns the first index of the list that has not been
+	 * matched yet, or returns <code>-1</code>
+	 */
+	private static int nextUnmatched(LinkedList<Integer> indexes, boolean[] matched) {
+		while (indexes != null && !indexes.isEmpty()) {
+			int index = indexes.removeFirst().intValue();
+			if (!matched[index]) {
+				return index;
+			}
+		}
+		return -1;
+	}
+}
@@ -11,7 +11,10 @@
 package org.eclipse.pde.api.tools.internal.builder;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.core.Flags;
@@ -99,6 +102,12 @@ public class Reference implements IReference {
 	 */
 	private List<IApiProblem> fProblems = null;
 
+	/**
+	 * Symbolic names of the components of the types looked at by the last
+	 * {@link #resolve()}, or <code>null</code> if not resolved
+	 */
+	private Set<String> fVisitedComponents = null;
+
 	/**
 	 * Adds the given collection of
 	 * {@link org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblem}
@@ -329,6 +338,7 @@ public class Reference implements IReference {
 		if (fResolved == null) {
 			IApiComponent sourceComponent = getMember().getApiComponent();
 			if (sourceComponent != null) {
+				fVisitedComponents = new HashSet<String>(4);
 				IApiTypeRoot result = Util.getClassFile(sourceComponent.getBaseline().resolvePackage(sourceComponent, Signatures.getPackageName(getReferencedTypeName())), getReferencedTypeName());
 				if (result != null) {
 					IApiType type = result.getStructure();
@@ -391,6 +401,7 @@ public class Reference implements IReference {
 	 * @since 1.1
 	 */
 	private boolean resolveField(IApiType type, String fieldame) throws CoreException {
+		visit(type);
 		IApiField field = type.getField(fieldame);
 		if (field != null) {
 			fResolved = field;
@@ -417,6 +428,7 @@ public class Reference implements IReference {
 	 * @throws CoreException if something goes terribly wrong
 	 */
 	private boolean resolveVirtualMethod(IApiType type, String methodName, String methodSignature) throws CoreException {
+		visit(type);
 		IApiMethod target = type.getMethod(methodName, methodSignature);
 		if (target != null) {
 			if (target.isSynthetic()) {
@@ -548,6 +560,36 @@ public class Reference implements IReference {
 		return false;
 	}
 
+	/**
+	 * Remembers the component of the given type as looked at by
+	 * {@link #resolve()}
+	 * 
+	 * @param type the type looked at
+	 */
+	private void visit(IApiType type) {
+		IApiComponent component = type.getApiComponent();
+		if (fVisitedComponents != null && component != null) {
+			fVisitedComponents.add(component.getSymbolicName());
+		}
+	}
+
+	/**
+	 * Returns the symbolic names of the components of all types looked at by
+	 * the last {@link #resolve()} of this reference: the referenced type and
+	 * the super types searched for the referenced member. A change to any of
+	 * them can change the resolution.
+	 * 
+	 * @return the symbolic names of the visited components, empty if this
+	 *         reference was not resolved
+	 * @since 1.0.600
+	 */
+	public Set<String> getVisitedComponents() {
+		if (fVisitedComponents == null) {
+			return Collections.emptySet();
+		}
+		return fVisitedComponents;
+	}
+
 	/**
 	 * Used by the search engine when resolving multiple references.
 	 * 
@@ -592,6 +634,14 @@ public class Reference implements IReference {
 		this.fStatus = value;
 	}
 
+	/**
+	 * @return <code>false</code> if a problem detector asked for this
+	 *         reference not to be resolved
+	 */
+	boolean getResolveStatus() {
+		return this.fStatus;
+	}
+
 	/**
 	 * Returns the string representation for the given reference kind or
 	 * <code>UKNOWN_KIND</code> if the kind cannot be determined.
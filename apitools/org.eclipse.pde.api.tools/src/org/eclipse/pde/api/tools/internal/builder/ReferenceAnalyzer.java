@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.builder;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -42,11 +43,6 @@ import com.ibm.icu.text.MessageFormat;
  */
 public class ReferenceAnalyzer {
 
-	/**
-	 * Natural log of 2.
-	 */
-	private static final double LOG2 = Math.log(2);
-
 	/**
 	 * Empty result collection.
 	 */
@@ -101,19 +97,18 @@ public class ReferenceAnalyzer {
 					}
 					List<IReference> references = type.extractReferences(fAllReferenceKinds, null);
 					// keep potential matches
-					for (IReference ref : references) {
+					for (int j = 0, size = references.size(); j < size; j++) {
+						IReference ref = references.get(j);
 						// compute index of interested problem detectors
-						int index = getLog2(ref.getReferenceKind());
-						IApiProblemDetector[] detectors = fIndexedDetectors[index];
+						IApiProblemDetector[] detectors = fIndexedDetectors[getLog2(ref.getReferenceKind())];
 						boolean added = false;
 						if (detectors != null) {
 							for (int i = 0; i < detectors.length; i++) {
-								IApiProblemDetector detector = detectors[i];
-								if (detector.considerReference(ref)) {
-									if (!added) {
-										fReferences.add(ref);
-										added = true;
-									}
+								// every detector must see the reference, they
+								// collect the ones they consider
+								if (detectors[i].considerReference(ref) && !added) {
+									fReferences.add(ref);
+									added = true;
 								}
 							}
 						}
@@ -138,7 +133,7 @@ public class ReferenceAnalyzer {
 	/**
 	 * List of references to consider/resolve.
 	 */
-	List<IReference> fReferences = new LinkedList<IReference>();
+	ArrayList<IReference> fReferences = new ArrayList<IReference>();
 
 	/**
 	 * Problem detectors indexed by the log base 2 of each reference kind they
@@ -181,16 +176,16 @@ public class ReferenceAnalyzer {
 	}
 
 	/**
-	 * log 2 (x) = ln(x) / ln(2)
+	 * Returns the position of the bit set in the given constant, which is its
+	 * log base 2. Called for every extracted reference, so this does not use
+	 * floating point math.
 	 * 
 	 * @param bitConstant a single bit constant (0x1 << n)
 	 * @return log base 2 of the constant (the power of 2 the constant is equal
-	 *         to)
+	 *         to), or <code>32</code> if no bit is set
 	 */
 	int getLog2(int bitConstant) {
-		double logX = Math.log(bitConstant);
-		double pow = logX / LOG2;
-		return (int) Math.round(pow);
+		return Integer.numberOfTrailingZeros(bitConstant);
 	}
 
 	/**
@@ -273,6 +268,7 @@ public class ReferenceAnalyzer {
 			// clean up
 			fIndexedDetectors = null;
 			fReferences.clear();
+			fReferences.trimToSize();
 		}
 	}
 
@@ -104,6 +104,11 @@ public class ReferenceExtractor extends ClassAdapter {
 		 * @param name the name of the type
 		 */
 		protected void processType(String name) {
+			if ((this.kind & ReferenceExtractor.this.fReferenceKinds) == 0) {
+				// not interesting, don't create the reference
+				this.kind = this.originalkind;
+				return;
+			}
 			Type type = ReferenceExtractor.this.resolveType(Type.getObjectType(name).getDescriptor());
 			if (type != null) {
 				String tname = type.getClassName();
@@ -1037,6 +1042,13 @@ public class ReferenceExtractor extends ClassAdapter {
 	 */
 	private int fReferenceKinds = 0;
 
+	/**
+	 * Descriptor of a referenced type -> its class name, or <code>null</code>
+	 * for primitive types. References to the same type share the name, and
+	 * the name is only computed once.
+	 */
+	private HashMap<String, String> fTypeNames = new HashMap<String, String>();
+
 	/**
 	 * Track synthetic field / accessor
 	 * 
@@ -1193,9 +1205,13 @@ public class ReferenceExtractor extends ClassAdapter {
 	 * @return reference added, or <code>null</code> if none
 	 */
 	protected Reference addTypeReference(Type type, int kind) {
-		Type rtype = this.resolveType(type.getDescriptor());
-		if (rtype != null) {
-			return addReference(Reference.typeReference(getMember(), rtype.getClassName(), kind));
+		if ((kind & fReferenceKinds) == 0) {
+			// not interesting, don't create the reference
+			return null;
+		}
+		String typeName = this.resolveTypeName(type.getDescriptor());
+		if (typeName != null) {
+			return addReference(Reference.typeReference(getMember(), typeName, kind));
 		}
 		return null;
 	}
@@ -1211,9 +1227,13 @@ public class ReferenceExtractor extends ClassAdapter {
 	 * @return reference added, or <code>null</code> if none
 	 */
 	protected Reference addFieldReference(Type declaringType, String name, int kind) {
-		Type rtype = this.resolveType(declaringType.getDescriptor());
-		if (rtype != null) {
-			return addReference(Reference.fieldReference(getMember(), rtype.getClassName(), name, kind));
+		if ((kind & fReferenceKinds) == 0) {
+			// not interesting, don't create the reference
+			return null;
+		}
+		String typeName = this.resolveTypeName(declaringType.getDescriptor());
+		if (typeName != null) {
+			return addReference(Reference.fieldReference(getMember(), typeName, name, kind));
 		}
 		return null;
 	}
@@ -1231,9 +1251,13 @@ public class ReferenceExtractor extends ClassAdapter {
 	 * @return reference added, or <code>null</code> if none
 	 */
 	protected Reference addMethodReference(Type declaringType, String name, String signature, int kind) {
-		Type rtype = this.resolveType(declaringType.getDescriptor());
-		if (rtype != null) {
-			return this.addReference(Reference.methodReference(getMember(), rtype.getClassName(), name, signature, kind));
+		if ((kind & fReferenceKinds) == 0) {
+			// not interesting, don't create the reference
+			return null;
+		}
+		String typeName = this.resolveTypeName(declaringType.getDescriptor());
+		if (typeName != null) {
+			return this.addReference(Reference.methodReference(getMember(), typeName, name, signature, kind));
 		}
 		return null;
 	}
@@ -1287,6 +1311,23 @@ public class ReferenceExtractor extends ClassAdapter {
 		return result;
 	}
 
+	/**
+	 * Returns the class name of the type or array element type of the given
+	 * descriptor, computed once per descriptor.
+	 * 
+	 * @param desc type descriptor
+	 * @return the class name or <code>null</code> if the type is primitive
+	 */
+	String resolveTypeName(String desc) {
+		String name = fTypeNames.get(desc);
+		if (name == null && !fTypeNames.containsKey(desc)) {
+			Type type = resolveType(desc);
+			name = type == null ? null : type.getClassName();
+			fTypeNames.put(desc, name);
+		}
+		return name;
+	}
+
 	/**
 	 * Resolves the type from the string description. This method takes only
 	 * type descriptions as a parameter, all else will throw an exception from
@@ -1513,7 +1554,9 @@ public class ReferenceExtractor extends ClassAdapter {
 			if ((access & (Opcodes.ACC_PROTECTED | Opcodes.ACC_PUBLIC)) > 0) {
 				if (!this.fSuperStack.isEmpty()) {
 					String superTypeName = this.fSuperStack.peek();
-					addReference(Reference.methodReference(method, superTypeName, method.getName(), method.getSignature(), IReference.REF_OVERRIDE));
+					if ((IReference.REF_OVERRIDE & fReferenceKinds) != 0) {
+						addReference(Reference.methodReference(method, superTypeName, method.getName(), method.getSignature(), IReference.REF_OVERRIDE));
+					}
 				}
 			}
 			int argumentcount = 0;
@@ -14,12 +14,20 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.ReferenceResolutionCache;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+import org.eclipse.pde.api.tools.internal.util.WorkerPool;
 
 /**
  * Utility class used to resolve {@link IReference}s
@@ -29,6 +37,12 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
  */
 public final class ReferenceResolver {
 
+	/**
+	 * Minimum number of unique references not found in the resolution cache
+	 * for them to be resolved by several threads
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
 	/**
 	 * Constructor Private constructor, no instantiate
 	 */
@@ -90,26 +104,121 @@ public final class ReferenceResolver {
 	}
 
 	/**
-	 * Resolves the collect sets of references.
+	 * Resolves the collect sets of references. Sets already resolved in a
+	 * previous build are taken from the {@link ReferenceResolutionCache} of the
+	 * baseline, the others are resolved and added to it.
 	 * 
 	 * @param map the mapping of keys to sets of {@link IReference}s
 	 * @throws CoreException if something bad happens
 	 */
 	private static void resolveReferenceSets(Map<String, List<IReference>> map, IProgressMonitor monitor) throws CoreException {
-		IReference ref = null;
-		for (List<IReference> refs : map.values()) {
-			if (monitor.isCanceled()) {
-				return;
-			}
-			ref = refs.get(0);
-			((Reference) ref).resolve();
-			IApiMember resolved = ref.getResolvedReference();
-			if (resolved != null) {
+		List<Entry<String, List<IReference>>> unresolved = new ArrayList<Entry<String, List<IReference>>>(map.size());
+		ReferenceResolutionCache cache = null;
+		for (Entry<String, List<IReference>> entry : map.entrySet()) {
+			List<IReference> refs = entry.getValue();
+			Reference ref = (Reference) refs.get(0);
+			cache = getResolutionCache(ref);
+			IApiMember resolved = cache == null ? null : cache.getResolution(entry.getKey());
+			if (resolved == null) {
+				unresolved.add(entry);
+			} else if (ref.getResolveStatus()) {
 				for (IReference ref2 : refs) {
 					((Reference) ref2).setResolution(resolved);
 				}
 			}
 		}
+		if (ApiPlugin.DEBUG_REFERENCE_RESOLVER) {
+			System.out.println("Reference resolver: " + (map.size() - unresolved.size()) + " unique references resolved from cache, " + unresolved.size() + " to resolve"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (cache != null) {
+				System.out.println("Reference resolver: resolution cache " + cache.getHitCount() + " hits, " + cache.getMissCount() + " misses, " + cache.size() + " entries"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			}
+		}
+		if (WorkerPool.getSharedThreadCount() > 1 && unresolved.size() >= PARALLEL_THRESHOLD) {
+			resolveInParallel(unresolved, monitor);
+		} else {
+			for (Entry<String, List<IReference>> entry : unresolved) {
+				if (monitor.isCanceled()) {
+					return;
+				}
+				resolveReferenceSet(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Resolves the given sets of references with the threads of the shared
+	 * {@link WorkerPool} executor
+	 * 
+	 * @param sets the sets of {@link IReference}s by key
+	 * @param monitor
+	 * @throws CoreException if resolving a set fails
+	 */
+	private static void resolveInParallel(final List<Entry<String, List<IReference>>> sets, final IProgressMonitor monitor) throws CoreException {
+		final int threads = WorkerPool.getSharedThreadCount();
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(threads);
+		for (int i = 0; i < threads; i++) {
+			final int first = i;
+			tasks.add(new Callable<Object>() {
+				@Override
+				public Object call() throws CoreException {
+					for (int j = first; j < sets.size(); j += threads) {
+						if (monitor.isCanceled()) {
+							break;
+						}
+						Entry<String, List<IReference>> entry = sets.get(j);
+						resolveReferenceSet(entry.getKey(), entry.getValue());
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			WorkerPool.runAll(WorkerPool.getSharedExecutor(), tasks, monitor);
+		} catch (OperationCanceledException e) {
+			// the monitor was canceled or the thread interrupted
+		}
+	}
+
+	/**
+	 * Resolves the first reference of the given set and applies its resolution
+	 * to the others
+	 * 
+	 * @param key the key of the set
+	 * @param refs the references with the same key
+	 * @throws CoreException if resolving fails
+	 */
+	private static void resolveReferenceSet(String key, List<IReference> refs) throws CoreException {
+		Reference ref = (Reference) refs.get(0);
+		ref.resolve();
+		IApiMember resolved = ref.getResolvedReference();
+		if (resolved != null) {
+			for (IReference ref2 : refs) {
+				((Reference) ref2).setResolution(resolved);
+			}
+			ReferenceResolutionCache cache = getResolutionCache(ref);
+			if (cache != null) {
+				cache.addResolution(key, ref.getMember().getApiComponent(), resolved, ref.getVisitedComponents());
+			}
+		}
+	}
+
+	/**
+	 * Returns the resolution cache of the baseline of the referencing
+	 * component, or <code>null</code> if none
+	 * 
+	 * @param reference
+	 * @return the resolution cache or <code>null</code>
+	 * @throws CoreException
+	 */
+	private static ReferenceResolutionCache getResolutionCache(Reference reference) throws CoreException {
+		IApiComponent component = reference.getMember().getApiComponent();
+		if (component != null) {
+			IApiBaseline baseline = component.getBaseline();
+			if (baseline instanceof ApiBaseline) {
+				return ((ApiBaseline) baseline).getResolutionCache();
+			}
+		}
+		return null;
 	}
 
 	/**
@@ -18,6 +18,7 @@ import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
@@ -112,34 +114,21 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	private AnyValue ANY_VALUE = new AnyValue("*"); //$NON-NLS-1$
 
 	/**
-	 * Cache of resolved packages.
-	 * <p>
-	 * Map of <code>PackageName -> Map(componentName -> IApiComponent[])</code>
-	 * </p>
-	 * For each package the cache contains a map of API components that provide
-	 * that package, by source component name (including the <code>null</code>
-	 * component name).
+	 * Cache of the members references resolved to, kept between builds
 	 */
-	private HashMap<String, HashMap<IApiComponent, IApiComponent[]>> fComponentsProvidingPackageCache = null;
+	private ReferenceResolutionCache fResolutionCache = null;
 
 	/**
-	 * Maps component id's to components.
-	 * <p>
-	 * Map of <code>componentId -> {@link IApiComponent}</code>
-	 * </p>
+	 * Cache of the API digests of the types of the components
 	 */
-	private HashMap<String, IApiComponent> fComponentsById = null;
-	/**
-	 * Maps project name's to components.
-	 * <p>
-	 * Map of <code>project name -> {@link IApiComponent}</code>
-	 * </p>
-	 */
-	private HashMap<String, IApiComponent> fComponentsByProjectNames = null;
+	private TypeDigestCache fTypeDigests = null;
+
 	/**
-	 * Cache of system package names
+	 * Index of the components of this baseline and the packages they provide,
+	 * or <code>null</code> if no components have been added yet. The index is
+	 * never modified, it is replaced while holding the lock of this baseline.
 	 */
-	private HashSet<String> fSystemPackageNames = null;
+	private volatile ComponentIndex fIndex = null;
 
 	/**
 	 * The VM install this baseline is bound to for system libraries or
@@ -284,12 +273,8 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			getState().setPlatformProperties(dictionary);
 		}
 		// clean up previous system library
-		if (fSystemLibraryComponent != null && fComponentsById != null) {
-			fComponentsById.remove(fSystemLibraryComponent.getSymbolicName());
-		}
-		if (fSystemPackageNames != null) {
-			fSystemPackageNames.clear();
-			fSystemPackageNames = null;
+		if (fSystemLibraryComponent != null) {
+			removeComponent(fSystemLibraryComponent.getSymbolicName());
 		}
 		clearComponentsCache();
 		// set new system library
@@ -298,17 +283,22 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	}
 
 	/**
-	 * Clears the package -> components cache and sets it to <code>null</code>
+	 * Clears the package -> components cache
 	 */
 	private synchronized void clearComponentsCache() {
-		if (fComponentsProvidingPackageCache != null) {
-			fComponentsProvidingPackageCache.clear();
-			fComponentsProvidingPackageCache = null;
+		if (fIndex != null) {
+			fIndex = fIndex.withoutProviders();
+		}
+		if (fResolutionCache != null) {
+			fResolutionCache.clear();
+		}
+		if (fTypeDigests != null) {
+			fTypeDigests.clear();
 		}
 	}
 
 	/**
-	 * Adds an {@link IApiComponent} to the fComponentsById mapping
+	 * Adds an {@link IApiComponent} to the component index
 	 * 
 	 * @param component
 	 */
@@ -316,16 +306,32 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		if (component == null) {
 			return;
 		}
-		if (fComponentsById == null) {
-			fComponentsById = new HashMap<String, IApiComponent>();
+		addComponents(Collections.singletonList(component));
+	}
+
+	/**
+	 * Adds the given {@link IApiComponent}s to the component index, replacing
+	 * the index once for all of them
+	 * 
+	 * @param components
+	 */
+	protected synchronized void addComponents(Collection<IApiComponent> components) {
+		ComponentIndex index = fIndex;
+		if (index == null) {
+			index = ComponentIndex.EMPTY;
 		}
-		fComponentsById.put(component.getSymbolicName(), component);
-		if (component instanceof ProjectComponent) {
-			ProjectComponent projectApiComponent = (ProjectComponent) component;
-			if (this.fComponentsByProjectNames == null) {
-				this.fComponentsByProjectNames = new HashMap<String, IApiComponent>();
-			}
-			this.fComponentsByProjectNames.put(projectApiComponent.getJavaProject().getProject().getName(), component);
+		fIndex = index.withComponents(components);
+	}
+
+	/**
+	 * Removes the {@link IApiComponent} with the given id from the component
+	 * index
+	 * 
+	 * @param id
+	 */
+	private synchronized void removeComponent(String id) {
+		if (fIndex != null) {
+			fIndex = fIndex.withoutComponent(id);
 		}
 	}
 
@@ -338,6 +344,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	@Override
 	public void addApiComponents(IApiComponent[] components) throws CoreException {
 		HashSet<String> ees = new HashSet<String>();
+		ArrayList<IApiComponent> added = new ArrayList<IApiComponent>(components.length);
 		for (int i = 0; i < components.length; i++) {
 			BundleComponent component = (BundleComponent) components[i];
 			if (component.isSourceComponent()) {
@@ -345,11 +352,14 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			}
 			BundleDescription description = component.getBundleDescription();
 			getState().addBundle(description);
-			addComponent(component);
+			added.add(component);
 			ees.addAll(Arrays.asList(component.getExecutionEnvironments()));
 		}
+		addComponents(added);
 		resolveSystemLibrary(ees);
 		getState().resolve();
+		// new components can provide packages references resolved to
+		clearComponentsCache();
 	}
 
 	/**
@@ -454,7 +464,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 *         (components) false otherwise.
 	 */
 	public boolean peekInfos() {
-		return fComponentsById != null;
+		return fIndex != null;
 	}
 
 	/*
@@ -464,11 +474,11 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	@Override
 	public IApiComponent[] getApiComponents() {
 		loadBaselineInfos();
-		if (fComponentsById == null) {
+		ComponentIndex index = fIndex;
+		if (index == null) {
 			return EMPTY_COMPONENTS;
 		}
-		Collection<IApiComponent> values = fComponentsById.values();
-		return values.toArray(new IApiComponent[values.size()]);
+		return index.components.clone();
 	}
 
 	/*
@@ -476,48 +486,35 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * @see IApiBaseline#resolvePackage(IApiComponent, String)
 	 */
 	@Override
-	public synchronized IApiComponent[] resolvePackage(IApiComponent sourceComponent, String packageName) throws CoreException {
-		HashMap<IApiComponent, IApiComponent[]> componentsForPackage = null;
-		if (fComponentsProvidingPackageCache != null) {
-			componentsForPackage = fComponentsProvidingPackageCache.get(packageName);
-		} else {
-			fComponentsProvidingPackageCache = new HashMap<String, HashMap<IApiComponent, IApiComponent[]>>(8);
-		}
-		IApiComponent[] cachedComponents = null;
-		if (componentsForPackage != null) {
-			cachedComponents = componentsForPackage.get(sourceComponent);
-			if (cachedComponents != null && cachedComponents.length > 0) {
+	public IApiComponent[] resolvePackage(IApiComponent sourceComponent, String packageName) throws CoreException {
+		ComponentIndex index = fIndex;
+		Map<IApiComponent, IApiComponent[]> componentsForPackage = null;
+		if (index != null && sourceComponent != null) {
+			componentsForPackage = index.getProviders(packageName);
+			IApiComponent[] cachedComponents = componentsForPackage.get(sourceComponent);
+			if (cachedComponents != null) {
 				return cachedComponents;
 			}
-		} else {
-			componentsForPackage = new HashMap<IApiComponent, IApiComponent[]>(8);
-			fComponentsProvidingPackageCache.put(packageName, componentsForPackage);
 		}
+		IApiComponent[] components = EMPTY_COMPONENTS;
 		// check system packages first
-		if (isSystemPackage(packageName)) {
-			if (fSystemLibraryComponent != null) {
-				cachedComponents = new IApiComponent[] { fSystemLibraryComponent };
-			} else {
+		if (isSystemPackage(index, packageName)) {
+			IApiComponent systemLibrary = fSystemLibraryComponent;
+			if (systemLibrary == null) {
 				return EMPTY_COMPONENTS;
 			}
-		} else {
-			if (sourceComponent != null) {
-				ArrayList<IApiComponent> componentsList = new ArrayList<IApiComponent>();
-				resolvePackage0(sourceComponent, packageName, componentsList);
-				if (componentsList.size() != 0) {
-					cachedComponents = new IApiComponent[componentsList.size()];
-					componentsList.toArray(cachedComponents);
-				}
+			components = new IApiComponent[] { systemLibrary };
+		} else if (sourceComponent != null) {
+			ArrayList<IApiComponent> componentsList = new ArrayList<IApiComponent>();
+			resolvePackage0(sourceComponent, packageName, componentsList);
+			if (componentsList.size() != 0) {
+				components = componentsList.toArray(new IApiComponent[componentsList.size()]);
 			}
 		}
-		if (cachedComponents == null) {
-			cachedComponents = EMPTY_COMPONENTS;
-		}
-		if (cachedComponents.length == 0) {
-			return EMPTY_COMPONENTS;
+		if (componentsForPackage != null && components.length > 0) {
+			componentsForPackage.put(sourceComponent, components);
 		}
-		componentsForPackage.put(sourceComponent, cachedComponents);
-		return cachedComponents;
+		return components;
 	}
 
 	/**
@@ -594,21 +591,27 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	/**
 	 * Returns whether the specified package is supplied by the system library.
 	 * 
+	 * @param index the current component index or <code>null</code>
 	 * @param packageName package name
 	 * @return whether the specified package is supplied by the system library
 	 */
-	private boolean isSystemPackage(String packageName) {
+	private boolean isSystemPackage(ComponentIndex index, String packageName) {
 		if (packageName.startsWith("java.")) { //$NON-NLS-1$
 			return true;
 		}
-		if (fSystemPackageNames == null) {
+		Set<String> systemPackageNames = index == null ? null : index.systemPackageNames;
+		if (systemPackageNames == null) {
 			ExportPackageDescription[] systemPackages = getState().getSystemPackages();
-			fSystemPackageNames = new HashSet<String>(systemPackages.length);
+			systemPackageNames = new HashSet<String>(systemPackages.length);
 			for (int i = 0; i < systemPackages.length; i++) {
-				fSystemPackageNames.add(systemPackages[i].getName());
+				systemPackageNames.add(systemPackages[i].getName());
+			}
+			if (index != null) {
+				// computing the names twice on a race is harmless
+				index.systemPackageNames = systemPackageNames;
 			}
 		}
-		return fSystemPackageNames.contains(packageName);
+		return systemPackageNames.contains(packageName);
 	}
 
 	/**
@@ -631,10 +634,11 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	@Override
 	public IApiComponent getApiComponent(String id) {
 		loadBaselineInfos();
-		if (fComponentsById == null) {
+		ComponentIndex index = fIndex;
+		if (index == null) {
 			return null;
 		}
-		return fComponentsById.get(id);
+		return index.componentsById.get(id);
 	}
 
 	/*
@@ -651,7 +655,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 * is accessed
 	 */
 	private void loadBaselineInfos() {
-		if (fComponentsById != null) {
+		if (fIndex != null) {
 			return;
 		}
 		try {
@@ -742,17 +746,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			components[i].dispose();
 		}
 		clearComponentsCache();
-		if (fComponentsById != null) {
-			fComponentsById.clear();
-			fComponentsById = null;
-		}
-		if (fComponentsByProjectNames != null) {
-			fComponentsByProjectNames.clear();
-			fComponentsByProjectNames = null;
-		}
-		if (fSystemPackageNames != null) {
-			fSystemPackageNames.clear();
-		}
+		fIndex = null;
 		if (fSystemLibraryComponent != null) {
 			fSystemLibraryComponent.dispose();
 			fSystemLibraryComponent = null;
@@ -850,9 +844,60 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 *             by clients.
 	 */
 	public synchronized void clearPackage(String packageName) {
-		if (fComponentsProvidingPackageCache != null) {
-			fComponentsProvidingPackageCache.remove(packageName);
+		if (fIndex != null) {
+			fIndex = fIndex.withoutPackage(packageName);
+		}
+		if (fResolutionCache != null) {
+			fResolutionCache.clearPackage(packageName);
+		}
+		if (fTypeDigests != null) {
+			fTypeDigests.clear();
+		}
+	}
+
+	/**
+	 * Clears the cached resolutions of references from and into the component
+	 * with the given id, which has changed.
+	 * 
+	 * @param componentId
+	 * @noreference This method is not intended to be referenced by clients.
+	 * @nooverride This method is not intended to be re-implemented or extended
+	 *             by clients.
+	 */
+	public synchronized void clearResolutions(String componentId) {
+		if (fResolutionCache != null) {
+			fResolutionCache.clearComponent(componentId);
+		}
+		if (fTypeDigests != null) {
+			fTypeDigests.clear();
+		}
+	}
+
+	/**
+	 * Returns the cache of the members references resolved to in this baseline
+	 * 
+	 * @return the resolution cache, never <code>null</code>
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public synchronized ReferenceResolutionCache getResolutionCache() {
+		if (fResolutionCache == null) {
+			fResolutionCache = new ReferenceResolutionCache(ReferenceResolutionCache.DEFAULT_MAX_SIZE);
+		}
+		return fResolutionCache;
+	}
+
+	/**
+	 * Returns the cache of the API digests of the types of the components of
+	 * this baseline
+	 * 
+	 * @return the digest cache, never <code>null</code>
+	 * @noreference This method is not intended to be referenced by clients.
+	 */
+	public synchronized TypeDigestCache getTypeDigests() {
+		if (fTypeDigests == null) {
+			fTypeDigests = new TypeDigestCache(TypeShapeStore.getDefault());
 		}
+		return fTypeDigests;
 	}
 
 	/*
@@ -978,9 +1023,124 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	@Override
 	public IApiComponent getApiComponent(IProject project) {
 		loadBaselineInfos();
-		if (fComponentsByProjectNames == null) {
+		ComponentIndex index = fIndex;
+		if (index == null) {
 			return null;
 		}
-		return fComponentsByProjectNames.get(project.getName());
+		return index.componentsByProjectName.get(project.getName());
+	}
+
+	/**
+	 * Immutable index of the components of a baseline by id and by project
+	 * name, and of the components providing each package. Lookups take no
+	 * lock; a changed baseline replaces its index with a new one.
+	 */
+	private static final class ComponentIndex {
+
+		static final ComponentIndex EMPTY = new ComponentIndex(new HashMap<String, IApiComponent>(0), new HashMap<String, IApiComponent>(0), null);
+
+		/**
+		 * Map of <code>componentId -> {@link IApiComponent}</code>
+		 */
+		final Map<String, IApiComponent> componentsById;
+		/**
+		 * Map of <code>project name -> {@link IApiComponent}</code>
+		 */
+		final Map<String, IApiComponent> componentsByProjectName;
+		/**
+		 * All components of the baseline
+		 */
+		final IApiComponent[] components;
+		/**
+		 * Map of
+		 * <code>PackageName -> Map(source component -> IApiComponent[])</code>
+		 * filled as packages are resolved. A package is removed by replacing
+		 * the index, so a resolution racing with the removal can only land in
+		 * the discarded index.
+		 */
+		final ConcurrentHashMap<String, ConcurrentHashMap<IApiComponent, IApiComponent[]>> providers;
+		/**
+		 * Cache of system package names, computed on first use
+		 */
+		volatile Set<String> systemPackageNames;
+
+		ComponentIndex(Map<String, IApiComponent> componentsById, Map<String, IApiComponent> componentsByProjectName, ConcurrentHashMap<String, ConcurrentHashMap<IApiComponent, IApiComponent[]>> providers) {
+			this.componentsById = componentsById;
+			this.componentsByProjectName = componentsByProjectName;
+			Collection<IApiComponent> values = componentsById.values();
+			this.components = values.toArray(new IApiComponent[values.size()]);
+			this.providers = providers == null ? new ConcurrentHashMap<String, ConcurrentHashMap<IApiComponent, IApiComponent[]>>(8) : providers;
+		}
+
+		/**
+		 * Returns the components providing the given package, by source
+		 * component
+		 * 
+		 * @param packageName
+		 * @return the live map of providers for the package
+		 */
+		Map<IApiComponent, IApiComponent[]> getProviders(String packageName) {
+			ConcurrentHashMap<IApiComponent, IApiComponent[]> componentsForPackage = providers.get(packageName);
+			if (componentsForPackage == null) {
+				componentsForPackage = new ConcurrentHashMap<IApiComponent, IApiComponent[]>(8);
+				ConcurrentHashMap<IApiComponent, IApiComponent[]> existing = providers.putIfAbsent(packageName, componentsForPackage);
+				if (existing != null) {
+					componentsForPackage = existing;
+				}
+			}
+			return componentsForPackage;
+		}
+
+		/**
+		 * @param added
+		 * @return a new index with the given components added and no resolved
+		 *         packages
+		 */
+		ComponentIndex withComponents(Collection<IApiComponent> added) {
+			HashMap<String, IApiComponent> byId = new HashMap<String, IApiComponent>(componentsById);
+			HashMap<String, IApiComponent> byProjectName = new HashMap<String, IApiComponent>(componentsByProjectName);
+			for (IApiComponent component : added) {
+				byId.put(component.getSymbolicName(), component);
+				if (component instanceof ProjectComponent) {
+					ProjectComponent projectApiComponent = (ProjectComponent) component;
+					byProjectName.put(projectApiComponent.getJavaProject().getProject().getName(), component);
+				}
+			}
+			return new ComponentIndex(byId, byProjectName, null);
+		}
+
+		/**
+		 * @param id
+		 * @return a new index without the component with the given id and no
+		 *         resolved packages
+		 */
+		ComponentIndex withoutComponent(String id) {
+			HashMap<String, IApiComponent> byId = new HashMap<String, IApiComponent>(componentsById);
+			byId.remove(id);
+			return new ComponentIndex(byId, componentsByProjectName, null);
+		}
+
+		/**
+		 * @param packageName
+		 * @return a new index with the same components and the resolutions of
+		 *         all packages but the given one
+		 */
+		ComponentIndex withoutPackage(String packageName) {
+			ConcurrentHashMap<String, ConcurrentHashMap<IApiComponent, IApiComponent[]>> copy = new ConcurrentHashMap<String, ConcurrentHashMap<IApiComponent, IApiComponent[]>>(providers);
+			copy.remove(packageName);
+			ComponentIndex index = new ComponentIndex(componentsById, componentsByProjectName, copy);
+			index.systemPackageNames = systemPackageNames;
+			return index;
+		}
+
+		/**
+		 * @return a new index with the same components and no resolved
+		 *         packages
+		 */
+		ComponentIndex withoutProviders() {
+			ComponentIndex index = new ComponentIndex(componentsById, componentsByProjectName, null);
+			index.systemPackageNames = systemPackageNames;
+			return index;
+		}
 	}
 }
@@ -10,73 +10,135 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.model;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.jdt.internal.core.OverflowingLRUCache;
-import org.eclipse.jdt.internal.core.util.LRUCache;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiField;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMethod;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
 
 /**
  * Manages the caches of {@link IApiElement}s
- * 
+ * <p>
+ * Types are kept in a single concurrent map keyed by baseline name, component
+ * id and type name. The cache is bounded by the estimated number of bytes
+ * retained by the cached types: when the bound is exceeded the least recently
+ * used types are evicted. Types are also softly referenced, so the garbage
+ * collector can reclaim them under memory pressure. Member types are indexed by
+ * their root type and are removed with it, and the types of each component are
+ * indexed so that removing a component does not scan the whole cache. Hits,
+ * misses, evictions and the footprint of the cache are traced with the
+ * <code>debug/modelcache</code> option.
+ * </p>
+ *
  * @since 1.0.2
  */
 public final class ApiModelCache {
 
 	/**
-	 * Cache used for {@link IApiElement}s
+	 * Key of a cached type
 	 */
-	class Cache extends OverflowingLRUCache {
+	static final class Key {
+		final String baseline;
+		final String component;
+		final String type;
+		private final int hash;
 
-		/**
-		 * Constructor
-		 * 
-		 * @param size
-		 * @param overflow
-		 */
-		public Cache(int size, int overflow) {
-			super(size, overflow);
+		Key(String baseline, String component, String type) {
+			this.baseline = baseline;
+			this.component = component;
+			this.type = type;
+			this.hash = (baseline.hashCode() * 31 + component.hashCode()) * 31 + type.hashCode();
 		}
 
-		/*
-		 * (non-Javadoc)
-		 * @see
-		 * org.eclipse.jdt.internal.core.OverflowingLRUCache#close(org.eclipse
-		 * .jdt.internal.core.util.LRUCache.LRUCacheEntry)
-		 */
 		@Override
-		protected boolean close(LRUCacheEntry entry) {
-			return true;
+		public int hashCode() {
+			return this.hash;
 		}
 
-		/*
-		 * (non-Javadoc)
-		 * @see
-		 * org.eclipse.jdt.internal.core.OverflowingLRUCache#newInstance(int,
-		 * int)
-		 */
 		@Override
-		protected LRUCache newInstance(int size, int newOverflow) {
-			return new Cache(size, newOverflow);
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key key = (Key) obj;
+				return this.hash == key.hash && this.type.equals(key.type) && this.component.equals(key.component) && this.baseline.equals(key.baseline);
+			}
+			return false;
 		}
+	}
 
-		/**
-		 * Returns if the cache has any elements in it or not
-		 * 
-		 * @return true if the cache has no entries, false otherwise
-		 */
-		public boolean isEmpty() {
-			return !keys().hasMoreElements();
+	/**
+	 * A cached type, cleared by the garbage collector under memory pressure
+	 */
+	private static final class Node extends SoftReference<IApiType> {
+		final Key key;
+		final long weight;
+		volatile long lastAccess;
+
+		Node(Key key, IApiType type, long weight, long lastAccess, ReferenceQueue<IApiType> queue) {
+			super(type, queue);
+			this.key = key;
+			this.weight = weight;
+			this.lastAccess = lastAccess;
 		}
 	}
 
-	static final int DEFAULT_CACHE_SIZE = 100;
-	static final int DEFAULT_OVERFLOW = (int) (DEFAULT_CACHE_SIZE * 0.1f);
+	/**
+	 * Default bound of the estimated bytes retained by the cached types, a
+	 * tenth of the maximum heap size
+	 */
+	static final long DEFAULT_MAX_WEIGHT = Math.max(16L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 10);
+
 	static ApiModelCache fInstance = null;
 
-	Cache fRootCache = null;
-	Cache fMemberTypeCache = null;
+	/**
+	 * Cached types
+	 */
+	private final ConcurrentHashMap<Key, Node> fTypes = new ConcurrentHashMap<Key, Node>();
+
+	/**
+	 * Key of a root type -> names of its cached member types
+	 */
+	private final ConcurrentHashMap<Key, Set<String>> fMemberTypes = new ConcurrentHashMap<Key, Set<String>>();
+
+	/**
+	 * Key of a component, with an empty type name -> keys of its cached types
+	 */
+	private final ConcurrentHashMap<Key, Set<Key>> fComponentTypes = new ConcurrentHashMap<Key, Set<Key>>();
+
+	private final ReferenceQueue<IApiType> fQueue = new ReferenceQueue<IApiType>();
+
+	private final AtomicBoolean fEvicting = new AtomicBoolean();
+
+	private volatile long fMaxWeight = DEFAULT_MAX_WEIGHT;
+
+	/**
+	 * Estimated bytes retained by the cached types
+	 */
+	private final AtomicLong fWeight = new AtomicLong();
+
+	/**
+	 * Clock used to find the least recently used types
+	 */
+	private final AtomicLong fClock = new AtomicLong();
+
+	private final AtomicLong fHits = new AtomicLong();
+	private final AtomicLong fMisses = new AtomicLong();
+	private final AtomicLong fEvictions = new AtomicLong();
+	private final AtomicLong fCollected = new AtomicLong();
 
 	/**
 	 * Constructor - no instantiation
@@ -86,7 +148,7 @@ public final class ApiModelCache {
 
 	/**
 	 * Returns the singleton instance of this cache
-	 * 
+	 *
 	 * @return the cache
 	 */
 	public static synchronized ApiModelCache getCache() {
@@ -96,25 +158,10 @@ public final class ApiModelCache {
 		return fInstance;
 	}
 
-	/**
-	 * Returns the key to use in a cache. The key is of the form:
-	 * <code>[baselineid].[componentid].[typename]</code><br>
-	 * 
-	 * @param baseline
-	 * @param component
-	 * @param typename
-	 * @return the member type cache key to use
-	 */
-	private String getCacheKey(String baseline, String component, String typename) {
-		StringBuffer buffer = new StringBuffer();
-		buffer.append(baseline).append('.').append(component).append('.').append(typename);
-		return buffer.toString();
-	}
-
 	/**
 	 * Caches the given {@link IApiElement} in the correct cache based on its
 	 * type.
-	 * 
+	 *
 	 * @param element the element to cache
 	 * @throws CoreException if there is a problem accessing any of the
 	 *             {@link IApiElement} info in order to cache it - pass the
@@ -123,9 +170,6 @@ public final class ApiModelCache {
 	public void cacheElementInfo(IApiElement element) throws CoreException {
 		switch (element.getType()) {
 			case IApiElement.TYPE: {
-				if (fRootCache == null) {
-					fRootCache = new Cache(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
-				}
 				IApiComponent comp = element.getApiComponent();
 				if (comp != null) {
 					IApiBaseline baseline = comp.getBaseline();
@@ -133,45 +177,35 @@ public final class ApiModelCache {
 					if (id == null) {
 						return;
 					}
-					Cache compcache = (Cache) fRootCache.get(baseline.getName());
-					if (compcache == null) {
-						compcache = new Cache(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
-						fRootCache.put(baseline.getName(), compcache);
-					}
-					Cache typecache = (Cache) compcache.get(id);
-					if (typecache == null) {
-						typecache = new Cache(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
-						compcache.put(comp.getSymbolicName(), typecache);
+					purge();
+					IApiType type = (IApiType) element;
+					Key key = new Key(baseline.getName(), id, type.getName());
+					Node node = new Node(key, type, estimateWeight(type), fClock.incrementAndGet(), fQueue);
+					Node old = fTypes.put(key, node);
+					long weight = fWeight.addAndGet(old == null ? node.weight : node.weight - old.weight);
+					// index the node once it is mapped, so that a removal of
+					// the node always finds its index entries
+					addToIndex(fComponentTypes, getComponentKey(key), key);
+					// cache even a root type with a '$' in its name as a member
+					// type
+					if (isMemberType(type.getName())) {
+						addToIndex(fMemberTypes, getRootKey(key), type.getName());
 					}
-					ApiType type = (ApiType) element;
-					if (type.isMemberType() || isMemberType(type.getName()) /*
-																			 * cache
-																			 * even
-																			 * a
-																			 * root
-																			 * type
-																			 * with
-																			 * a
-																			 * '$'
-																			 * in
-																			 * its
-																			 * name
-																			 * here
-																			 * as
-																			 * well
-																			 */) {
-						if (this.fMemberTypeCache == null) {
-							this.fMemberTypeCache = new Cache(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
+					if (!isIndexed(key)) {
+						// the removal of the previous node of the key removed
+						// the entries just added, the node cannot be found
+						// from the indexes and must not stay cached
+						removeNode(node);
+					} else if (fTypes.get(key) == null) {
+						// the node was removed before it was indexed, drop
+						// the entries it left behind
+						removeFromIndex(fComponentTypes, getComponentKey(key), key);
+						if (isMemberType(key.type)) {
+							removeFromIndex(fMemberTypes, getRootKey(key), key.type);
 						}
-						String key = getCacheKey(baseline.getName(), id, getRootName(type.getName()));
-						Cache mcache = (Cache) this.fMemberTypeCache.get(key);
-						if (mcache == null) {
-							mcache = new Cache(DEFAULT_CACHE_SIZE, DEFAULT_OVERFLOW);
-							this.fMemberTypeCache.put(key, mcache);
-						}
-						mcache.put(type.getName(), type);
-					} else {
-						typecache.put(element.getName(), element);
+					}
+					if (weight > fMaxWeight) {
+						evict();
 					}
 				}
 				break;
@@ -181,10 +215,192 @@ public final class ApiModelCache {
 		}
 	}
 
+	/**
+	 * Returns the estimated number of bytes retained by the given type
+	 *
+	 * @param type the type
+	 * @return the estimated size of the type
+	 */
+	static long estimateWeight(IApiType type) {
+		long weight = 256 + 2 * length(type.getName()) + 2 * length(type.getGenericSignature());
+		IApiField[] fields = type.getFields();
+		for (int i = 0; i < fields.length; i++) {
+			weight += 96 + 2 * (length(fields[i].getName()) + length(fields[i].getSignature()) + length(fields[i].getGenericSignature()));
+		}
+		IApiMethod[] methods = type.getMethods();
+		for (int i = 0; i < methods.length; i++) {
+			weight += 128 + 2 * (length(methods[i].getName()) + length(methods[i].getSignature()) + length(methods[i].getGenericSignature()));
+			String[] exceptions = methods[i].getExceptionNames();
+			if (exceptions != null) {
+				weight += 16 * exceptions.length;
+			}
+		}
+		return weight;
+	}
+
+	private static int length(String value) {
+		return value == null ? 0 : value.length();
+	}
+
+	/**
+	 * Evicts the least recently used types until the cache uses three quarters
+	 * of its bound. Only one thread evicts at a time, the others keep going.
+	 */
+	private void evict() {
+		if (!fEvicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long target = fMaxWeight * 3 / 4;
+			List<Node> nodes = new ArrayList<Node>(fTypes.values());
+			Collections.sort(nodes, new Comparator<Node>() {
+				@Override
+				public int compare(Node n1, Node n2) {
+					return n1.lastAccess < n2.lastAccess ? -1 : (n1.lastAccess == n2.lastAccess ? 0 : 1);
+				}
+			});
+			int evicted = 0;
+			for (int i = 0; i < nodes.size() && fWeight.get() > target; i++) {
+				if (removeNode(nodes.get(i))) {
+					evicted++;
+				}
+			}
+			fEvictions.addAndGet(evicted);
+			if (ApiPlugin.DEBUG_MODEL_CACHE) {
+				System.out.println("ApiModelCache: evicted " + evicted + " types. " + this); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		} finally {
+			fEvicting.set(false);
+		}
+	}
+
+	/**
+	 * Removes the types the garbage collector has reclaimed
+	 */
+	private void purge() {
+		Node node = (Node) fQueue.poll();
+		while (node != null) {
+			if (removeNode(node)) {
+				fCollected.incrementAndGet();
+			}
+			node = (Node) fQueue.poll();
+		}
+	}
+
+	/**
+	 * Removes the given node if it is still mapped to its key
+	 *
+	 * @return whether the node was removed
+	 */
+	private boolean removeNode(Node node) {
+		if (fTypes.remove(node.key, node)) {
+			removed(node);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the type with the given key
+	 *
+	 * @return whether a type was removed
+	 */
+	private boolean removeKey(Key key) {
+		Node node = fTypes.remove(key);
+		if (node != null) {
+			removed(node);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Updates the footprint and the indexes after the given node has been
+	 * removed. The member types of a root type are removed with it.
+	 */
+	private void removed(Node node) {
+		fWeight.addAndGet(-node.weight);
+		Key key = node.key;
+		removeFromIndex(fComponentTypes, getComponentKey(key), key);
+		if (isMemberType(key.type)) {
+			removeFromIndex(fMemberTypes, getRootKey(key), key.type);
+		} else {
+			removeMembers(key);
+		}
+	}
+
+	/**
+	 * Removes the member types of the root type with the given key
+	 */
+	private void removeMembers(Key root) {
+		Set<String> members = fMemberTypes.remove(root);
+		if (members != null) {
+			for (Iterator<String> iter = members.iterator(); iter.hasNext();) {
+				removeKey(new Key(root.baseline, root.component, iter.next()));
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the indexes contain the entries of the type with the
+	 * given key
+	 */
+	private boolean isIndexed(Key key) {
+		Set<Key> keys = fComponentTypes.get(getComponentKey(key));
+		if (keys == null || !keys.contains(key)) {
+			return false;
+		}
+		if (isMemberType(key.type)) {
+			Set<String> members = fMemberTypes.get(getRootKey(key));
+			return members != null && members.contains(key.type);
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the given value to the set of the given key of the index. Retries if
+	 * the set has been removed from the index as it became empty meanwhile.
+	 */
+	private static <K, V> void addToIndex(ConcurrentHashMap<K, Set<V>> index, K key, V value) {
+		while (true) {
+			Set<V> values = index.get(key);
+			if (values == null) {
+				values = Collections.newSetFromMap(new ConcurrentHashMap<V, Boolean>());
+				Set<V> existing = index.putIfAbsent(key, values);
+				if (existing != null) {
+					values = existing;
+				}
+			}
+			values.add(value);
+			if (index.get(key) == values) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes the given value from the set of the given key of the index, and
+	 * the set from the index if it is empty
+	 */
+	private static <K, V> void removeFromIndex(ConcurrentHashMap<K, Set<V>> index, K key, V value) {
+		Set<V> values = index.get(key);
+		if (values != null && values.remove(value) && values.isEmpty()) {
+			index.remove(key, values);
+		}
+	}
+
+	private Key getRootKey(Key key) {
+		return new Key(key.baseline, key.component, getRootName(key.type));
+	}
+
+	private static Key getComponentKey(Key key) {
+		return new Key(key.baseline, key.component, ""); //$NON-NLS-1$
+	}
+
 	/**
 	 * Returns the root type name assuming that the '$' char is a member type
 	 * boundary
-	 * 
+	 *
 	 * @param typename
 	 * @return the pruned name or the original name
 	 */
@@ -198,7 +414,7 @@ public final class ApiModelCache {
 
 	/**
 	 * Method to see if the type boundary char appears in the type name
-	 * 
+	 *
 	 * @param typename
 	 * @return true if the type name contains '$' false otherwise
 	 */
@@ -209,7 +425,7 @@ public final class ApiModelCache {
 	/**
 	 * Returns the {@link IApiElement} infos for the element referenced by the
 	 * given identifier and of the given type.
-	 * 
+	 *
 	 * @param baselineid the id of the baseline the component + element belongs
 	 *            to
 	 * @param componentid the id of the {@link IApiComponent} the element
@@ -217,7 +433,7 @@ public final class ApiModelCache {
 	 * @param identifier for example the qualified name of the type or the id of
 	 *            an API component
 	 * @param type the kind of the element to look for info for
-	 * 
+	 *
 	 * @return the cached {@link IApiElement} or <code>null</code> if no such
 	 *         element is cached
 	 */
@@ -227,25 +443,18 @@ public final class ApiModelCache {
 		}
 		switch (type) {
 			case IApiElement.TYPE: {
-				if (isMemberType(identifier)) {
-					if (this.fMemberTypeCache != null) {
-						Cache mcache = (Cache) this.fMemberTypeCache.get(getCacheKey(baselineid, componentid, getRootName(identifier)));
-						if (mcache != null) {
-							return (IApiElement) mcache.get(identifier);
-						}
-					}
-				} else {
-					if (this.fRootCache != null) {
-						Cache compcache = (Cache) fRootCache.get(baselineid);
-						if (compcache != null) {
-							Cache typecache = (Cache) compcache.get(componentid);
-							if (typecache != null && identifier != null) {
-								return (IApiElement) typecache.get(identifier);
-							}
-						}
-					}
+				if (identifier == null) {
+					return null;
 				}
-				break;
+				Node node = fTypes.get(new Key(baselineid, componentid, identifier));
+				IApiType element = node == null ? null : node.get();
+				if (element == null) {
+					fMisses.incrementAndGet();
+					return null;
+				}
+				node.lastAccess = fClock.incrementAndGet();
+				fHits.incrementAndGet();
+				return element;
 			}
 			default:
 				break;
@@ -256,11 +465,11 @@ public final class ApiModelCache {
 	/**
 	 * Removes the {@link IApiElement} from the given component (given its id)
 	 * with the given identifier and of the given type.
-	 * 
+	 *
 	 * @param componentid the id of the component the element resides in
 	 * @param identifier the id (name) of the element to remove
 	 * @param type the type of the element (TYPE, METHOD, FIELD, etc)
-	 * 
+	 *
 	 * @return true if the element was removed, false otherwise
 	 */
 	public boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
@@ -270,60 +479,24 @@ public final class ApiModelCache {
 		switch (type) {
 			case IApiElement.TYPE: {
 				if (componentid != null && identifier != null) {
-					boolean removed = true;
-					// clean member type cache
-					if (this.fMemberTypeCache != null) {
-						if (isMemberType(identifier)) {
-							Cache mcache = (Cache) this.fMemberTypeCache.get(getCacheKey(baselineid, componentid, getRootName(identifier)));
-							if (mcache != null) {
-								return mcache.remove(identifier) != null;
-							}
-						} else {
-							this.fMemberTypeCache.remove(getCacheKey(baselineid, componentid, getRootName(identifier)));
-						}
-					}
-					if (fRootCache != null) {
-						Cache compcache = (Cache) fRootCache.get(baselineid);
-						if (compcache != null) {
-							Cache typecache = (Cache) compcache.get(componentid);
-							if (typecache != null) {
-								removed &= typecache.remove(identifier) != null;
-								if (typecache.isEmpty()) {
-									removed &= compcache.remove(componentid) != null;
-								}
-								if (compcache.isEmpty()) {
-									removed &= fRootCache.remove(baselineid) != null;
-								}
-								return removed;
-							}
-
-						}
-					} else {
-						return false;
+					Key key = new Key(baselineid, componentid, identifier);
+					boolean removed = removeKey(key);
+					if (!isMemberType(identifier)) {
+						// the member types may be cached without their root type
+						removeMembers(key);
 					}
+					return removed;
 				}
 				break;
 			}
 			case IApiElement.COMPONENT: {
-				flushMemberCache();
-				if (fRootCache != null && componentid != null) {
-					Cache compcache = (Cache) fRootCache.get(baselineid);
-					if (compcache != null) {
-						boolean removed = compcache.remove(componentid) != null;
-						if (compcache.isEmpty()) {
-							removed &= fRootCache.remove(baselineid) != null;
-						}
-						return removed;
-					}
+				if (componentid != null) {
+					return removeAll(baselineid, componentid);
 				}
 				break;
 			}
 			case IApiElement.BASELINE: {
-				flushMemberCache();
-				if (fRootCache != null) {
-					return fRootCache.remove(baselineid) != null;
-				}
-				break;
+				return removeAll(baselineid, null);
 			}
 			default:
 				break;
@@ -331,10 +504,46 @@ public final class ApiModelCache {
 		return false;
 	}
 
+	/**
+	 * Removes all types of the given baseline, or of the given component of
+	 * the baseline if the component id is not <code>null</code>
+	 *
+	 * @return whether a type was removed
+	 */
+	private boolean removeAll(String baselineid, String componentid) {
+		if (componentid != null) {
+			return removeComponent(new Key(baselineid, componentid, "")); //$NON-NLS-1$
+		}
+		boolean removed = false;
+		for (Iterator<Key> iter = fComponentTypes.keySet().iterator(); iter.hasNext();) {
+			Key key = iter.next();
+			if (key.baseline.equals(baselineid)) {
+				removed |= removeComponent(key);
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes the types of the component with the given key
+	 *
+	 * @return whether a type was removed
+	 */
+	private boolean removeComponent(Key component) {
+		Set<Key> keys = fComponentTypes.remove(component);
+		boolean removed = false;
+		if (keys != null) {
+			for (Iterator<Key> iter = keys.iterator(); iter.hasNext();) {
+				removed |= removeKey(iter.next());
+			}
+		}
+		return removed;
+	}
+
 	/**
 	 * Removes the given {@link IApiElement} info from the cache and returns it
 	 * if present
-	 * 
+	 *
 	 * @param element
 	 * @return true if the {@link IApiElement} was removed false otherwise
 	 * @throws CoreException if there is a problem accessing any of the
@@ -348,25 +557,19 @@ public final class ApiModelCache {
 		switch (element.getType()) {
 			case IApiElement.COMPONENT:
 			case IApiElement.TYPE: {
-				if (fRootCache != null) {
-					IApiComponent comp = element.getApiComponent();
-					if (comp != null) {
-						try {
-							IApiBaseline baseline = comp.getBaseline();
-							return removeElementInfo(baseline.getName(), comp.getSymbolicName(), element.getName(), element.getType());
-						} catch (CoreException ce) {
-						}
+				IApiComponent comp = element.getApiComponent();
+				if (comp != null) {
+					try {
+						IApiBaseline baseline = comp.getBaseline();
+						return removeElementInfo(baseline.getName(), comp.getSymbolicName(), element.getName(), element.getType());
+					} catch (CoreException ce) {
 					}
 				}
 				break;
 			}
 			case IApiElement.BASELINE: {
-				flushMemberCache();
-				if (fRootCache != null) {
-					IApiBaseline baseline = (IApiBaseline) element;
-					return fRootCache.remove(baseline.getName()) != null;
-				}
-				break;
+				IApiBaseline baseline = (IApiBaseline) element;
+				return removeElementInfo(baseline.getName(), null, null, IApiElement.BASELINE);
 			}
 			default:
 				break;
@@ -378,34 +581,105 @@ public final class ApiModelCache {
 	 * Clears out all cached information.
 	 */
 	public void flushCaches() {
-		if (fRootCache != null) {
-			fRootCache.flush();
+		if (ApiPlugin.DEBUG_MODEL_CACHE) {
+			System.out.println("ApiModelCache: flushed. " + this); //$NON-NLS-1$
 		}
-		flushMemberCache();
-	}
-
-	/**
-	 * Flushes the cache of member types
-	 */
-	private void flushMemberCache() {
-		if (this.fMemberTypeCache != null) {
-			this.fMemberTypeCache.flush();
+		for (Iterator<Key> iter = fTypes.keySet().iterator(); iter.hasNext();) {
+			removeKey(iter.next());
 		}
+		fMemberTypes.clear();
+		fComponentTypes.clear();
 	}
 
 	/**
 	 * Returns if the cache has any elements in it or not
-	 * 
+	 *
 	 * @return true if the cache has no entries, false otherwise
 	 */
 	public boolean isEmpty() {
-		boolean empty = true;
-		if (fRootCache != null) {
-			empty &= fRootCache.isEmpty();
-		}
-		if (this.fMemberTypeCache != null) {
-			empty &= this.fMemberTypeCache.isEmpty();
+		purge();
+		return fTypes.isEmpty();
+	}
+
+	/**
+	 * @return the bound of the estimated bytes retained by the cached types
+	 */
+	public long getMaxWeight() {
+		return fMaxWeight;
+	}
+
+	/**
+	 * Sets the bound of the estimated bytes retained by the cached types,
+	 * evicting types if the cache exceeds it
+	 *
+	 * @param maxWeight the new bound
+	 */
+	public void setMaxWeight(long maxWeight) {
+		fMaxWeight = maxWeight;
+		if (fWeight.get() > maxWeight) {
+			evict();
 		}
-		return empty;
+	}
+
+	/**
+	 * @return the estimated number of bytes retained by the cached types
+	 */
+	public long getWeight() {
+		purge();
+		return fWeight.get();
+	}
+
+	/**
+	 * @return the number of root types and components with an entry in the
+	 *         indexes of the cache
+	 */
+	public int getIndexSize() {
+		purge();
+		return fMemberTypes.size() + fComponentTypes.size();
+	}
+
+	/**
+	 * @return the number of lookups that found a cached type
+	 */
+	public long getHitCount() {
+		return fHits.get();
+	}
+
+	/**
+	 * @return the number of lookups that did not find a cached type
+	 */
+	public long getMissCount() {
+		return fMisses.get();
+	}
+
+	/**
+	 * @return the number of types evicted to stay within the bound of the
+	 *         cache
+	 */
+	public long getEvictionCount() {
+		return fEvictions.get();
+	}
+
+	/**
+	 * @return the number of types reclaimed by the garbage collector
+	 */
+	public long getCollectedCount() {
+		purge();
+		return fCollected.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		long hits = fHits.get();
+		long lookups = hits + fMisses.get();
+		StringBuffer buffer = new StringBuffer();
+		buffer.append(fTypes.size()).append(" types, ").append(fComponentTypes.size()).append(" components, ").append(fWeight.get() / 1024).append(" of ").append(fMaxWeight / 1024).append(" KB"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		buffer.append(", hit rate ").append(lookups == 0 ? 0 : hits * 100 / lookups).append("% of ").append(lookups).append(" lookups"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		buffer.append(", evicted ").append(fEvictions.get()).append(", collected ").append(fCollected.get()); //$NON-NLS-1$ //$NON-NLS-2$
+		return buffer.toString();
 	}
 }
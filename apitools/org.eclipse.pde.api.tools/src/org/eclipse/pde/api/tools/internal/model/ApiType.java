@@ -10,11 +10,10 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.model;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -76,24 +75,26 @@ public class ApiType extends ApiMember implements IApiType {
 	private LinkedHashMap<MethodKey, ApiMethod> fMethods;
 
 	/**
-	 * Map of member type names to class file (or null until resolved)
+	 * Map of member type names to class file (or null until resolved), guarded
+	 * by itself as member types are resolved by several threads
 	 */
 	private Map<String, IApiTypeRoot> fMemberTypes;
 
 	/**
 	 * Cached descriptor
 	 */
-	private IReferenceTypeDescriptor fHandle;
+	private volatile IReferenceTypeDescriptor fHandle;
 
 	/**
-	 * Cached superclass or <code>null</code>
+	 * Cached superclass or <code>null</code>. Volatile as references are
+	 * resolved by several threads.
 	 */
-	private IApiType fSuperclass;
+	private volatile IApiType fSuperclass;
 
 	/**
 	 * Cached super interfaces or <code>null</code>
 	 */
-	private IApiType[] fSuperInterfaces;
+	private volatile IApiType[] fSuperInterfaces;
 
 	/**
 	 * The storage this type structure originated from
@@ -128,7 +129,7 @@ public class ApiType extends ApiMember implements IApiType {
 	/**
 	 * cached enclosing type once it has been successfully calculated
 	 */
-	private IApiType fEnclosingType = null;
+	private volatile IApiType fEnclosingType = null;
 
 	/**
 	 * The method that encloses this type
@@ -165,7 +166,7 @@ public class ApiType extends ApiMember implements IApiType {
 		ReferenceExtractor extractor = new ReferenceExtractor(this, references, referenceMask);
 		ClassReader reader = new ClassReader(((AbstractApiTypeRoot) fStorage).getContents());
 		reader.accept(extractor, ClassReader.SKIP_FRAMES);
-		return new LinkedList<IReference>(references);
+		return new ArrayList<IReference>(references);
 	}
 
 	/*
@@ -469,7 +470,7 @@ public class ApiType extends ApiMember implements IApiType {
 	 * getEnclosingMethod()
 	 */
 	@Override
-	public IApiMethod getEnclosingMethod() {
+	public synchronized IApiMethod getEnclosingMethod() {
 		if (fEnclosingMethod == null) {
 			try {
 				IApiType enclosingType = getEnclosingType();
@@ -593,6 +594,20 @@ public class ApiType extends ApiMember implements IApiType {
 		fMemberTypes.put(simpleName, null);
 	}
 
+	/**
+	 * Returns the simple names of the member types without resolving them.
+	 *
+	 * @return the simple names of the member types, never <code>null</code>
+	 */
+	String[] getMemberTypeNames() {
+		if (fMemberTypes == null) {
+			return new String[0];
+		}
+		synchronized (fMemberTypes) {
+			return fMemberTypes.keySet().toArray(new String[fMemberTypes.size()]);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -607,24 +622,29 @@ public class ApiType extends ApiMember implements IApiType {
 		if (getApiComponent() == null) {
 			requiresApiComponent();
 		}
-		if (fMemberTypes.containsKey(simpleName)) {
-			IApiTypeRoot file = fMemberTypes.get(simpleName);
+		IApiTypeRoot file = null;
+		synchronized (fMemberTypes) {
+			if (!fMemberTypes.containsKey(simpleName)) {
+				return null;
+			}
+			file = fMemberTypes.get(simpleName);
+		}
+		if (file == null) {
+			// resolve
+			StringBuffer qName = new StringBuffer();
+			qName.append(getName());
+			qName.append('$');
+			qName.append(simpleName);
+			file = getApiComponent().findTypeRoot(qName.toString());
 			if (file == null) {
-				// resolve
-				StringBuffer qName = new StringBuffer();
-				qName.append(getName());
-				qName.append('$');
-				qName.append(simpleName);
-				file = getApiComponent().findTypeRoot(qName.toString());
-				if (file == null) {
-					throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, MessageFormat.format(Messages.ApiType_3, new Object[] {
-							simpleName, getName() })));
-				}
+				throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, MessageFormat.format(Messages.ApiType_3, new Object[] {
+						simpleName, getName() })));
+			}
+			synchronized (fMemberTypes) {
 				fMemberTypes.put(simpleName, file);
 			}
-			return file.getStructure();
 		}
-		return null;
+		return file.getStructure();
 	}
 
 	/*
@@ -638,13 +658,10 @@ public class ApiType extends ApiMember implements IApiType {
 		if (fMemberTypes == null) {
 			return EMPTY_TYPES;
 		}
-		IApiType[] members = new IApiType[fMemberTypes.size()];
-		Iterator<String> iterator = fMemberTypes.keySet().iterator();
-		int index = 0;
-		while (iterator.hasNext()) {
-			String name = iterator.next();
-			members[index] = getMemberType(name);
-			index++;
+		String[] names = getMemberTypeNames();
+		IApiType[] members = new IApiType[names.length];
+		for (int i = 0; i < names.length; i++) {
+			members[i] = getMemberType(names[i]);
 		}
 		return members;
 	}
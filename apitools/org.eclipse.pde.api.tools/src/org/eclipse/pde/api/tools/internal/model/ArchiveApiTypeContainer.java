@@ -11,7 +11,6 @@
 package org.eclipse.pde.api.tools.internal.model;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,11 +24,11 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.ArchivePool;
 import org.eclipse.pde.api.tools.internal.util.Util;
 
 /**
@@ -106,45 +105,17 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 		@Override
 		public byte[] getContents() throws CoreException {
 			ArchiveApiTypeContainer archive = (ArchiveApiTypeContainer) getParent();
-			ZipFile zipFile;
+			byte[] contents = null;
 			try {
-				zipFile = new ZipFile(archive.fLocation);
+				contents = ArchivePool.getPool().readEntry(archive.fLocation, getName());
 			} catch (IOException e) {
-				abort("Failed to open archive: " + archive.fLocation, e); //$NON-NLS-1$
+				abort("Unable to read class file: " + getTypeName() + " in archive: " + archive.fLocation, e); //$NON-NLS-1$ //$NON-NLS-2$
 				return null;
 			}
-			try {
-				ZipEntry entry = zipFile.getEntry(getName());
-				InputStream stream = null;
-				if (entry != null) {
-					try {
-						stream = zipFile.getInputStream(entry);
-					} catch (IOException e) {
-						abort("Failed to open class file: " + getTypeName() + " in archive: " + archive.fLocation, e); //$NON-NLS-1$ //$NON-NLS-2$
-						return null;
-					}
-					try {
-						return Util.getInputStreamAsByteArray(stream, -1);
-					} catch (IOException ioe) {
-						abort("Unable to read class file: " + getTypeName(), ioe); //$NON-NLS-1$
-						return null;
-					} finally {
-						try {
-							stream.close();
-						} catch (IOException e) {
-							ApiPlugin.log(e);
-						}
-					}
-				}
-			} finally {
-				try {
-					zipFile.close();
-				} catch (IOException e) {
-					abort("Failed to close class file archive", e); //$NON-NLS-1$
-				}
+			if (contents == null) {
+				abort("Class file not found: " + getTypeName() + " in archive: " + archive.fLocation, null); //$NON-NLS-1$ //$NON-NLS-2$
 			}
-			abort("Class file not found: " + getTypeName() + " in archive: " + archive.fLocation, null); //$NON-NLS-1$ //$NON-NLS-2$
-			return null;
+			return contents;
 		}
 
 		/*
@@ -228,6 +199,7 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	 */
 	@Override
 	public synchronized void close() throws CoreException {
+		ArchivePool.getPool().close(fLocation);
 	}
 
 	/**
@@ -277,9 +249,10 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 	private synchronized void init() throws CoreException {
 		if (fPackages == null) {
 			fPackages = new HashMap<String, Set<String>>();
+			ArchivePool pool = ArchivePool.getPool();
 			ZipFile zipFile;
 			try {
-				zipFile = new ZipFile(fLocation);
+				zipFile = pool.acquire(fLocation);
 			} catch (IOException e) {
 				abort("Failed to open archive: " + fLocation, e); //$NON-NLS-1$
 				return;
@@ -304,11 +277,7 @@ public class ArchiveApiTypeContainer extends ApiElement implements IApiTypeConta
 					}
 				}
 			} finally {
-				try {
-					zipFile.close();
-				} catch (IOException e) {
-					abort("Failed to close class file archive", e); //$NON-NLS-1$
-				}
+				pool.release(zipFile);
 			}
 		}
 	}
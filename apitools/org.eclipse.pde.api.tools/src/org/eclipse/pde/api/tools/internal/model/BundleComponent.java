@@ -69,6 +69,7 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
+import org.eclipse.pde.api.tools.internal.util.ArchivePool;
 import org.eclipse.pde.api.tools.internal.util.FileManager;
 import org.eclipse.pde.api.tools.internal.util.SourceDefaultHandler;
 import org.eclipse.pde.api.tools.internal.util.Util;
@@ -173,6 +174,8 @@ public class BundleComponent extends Component {
 	public void dispose() {
 		try {
 			super.dispose();
+			// release the archive used to read the manifest and API description
+			ArchivePool.getPool().close(fLocation);
 		} finally {
 			synchronized (this) {
 				fManifest = null;
@@ -694,6 +697,7 @@ public class BundleComponent extends Component {
 			}
 		} else {
 			// bundle is jar'd
+			ArchivePool pool = ArchivePool.getPool();
 			ZipFile zip = null;
 			try {
 				if (path.equals(".")) { //$NON-NLS-1$
@@ -701,7 +705,7 @@ public class BundleComponent extends Component {
 				} else {
 					// classpath element can be jar or folder
 					// https://bugs.eclipse.org/bugs/show_bug.cgi?id=279729
-					zip = new ZipFile(fLocation);
+					zip = pool.acquire(fLocation);
 					ZipEntry entry = zip.getEntry(path);
 					if (entry != null) {
 						File tmpfolder = new File(System.getProperty("java.io.tmpdir")); //$NON-NLS-1$
@@ -734,9 +738,7 @@ public class BundleComponent extends Component {
 					}
 				}
 			} finally {
-				if (zip != null) {
-					zip.close();
-				}
+				pool.release(zip);
 			}
 		}
 		return null;
@@ -820,7 +822,14 @@ public class BundleComponent extends Component {
 		return file;
 	}
 
-	public void closingZipFileAndStream(InputStream stream, ZipFile jarFile) {
+	/**
+	 * Closes the given stream and releases the given archive acquired from the
+	 * {@link ArchivePool}
+	 * 
+	 * @param stream the stream to close or <code>null</code>
+	 * @param jarFile the pooled archive to release or <code>null</code>
+	 */
+	public void releaseZipFileAndStream(InputStream stream, ZipFile jarFile) {
 		try {
 			if (stream != null) {
 				stream.close();
@@ -828,13 +837,7 @@ public class BundleComponent extends Component {
 		} catch (IOException e) {
 			ApiPlugin.log(e);
 		}
-		try {
-			if (jarFile != null) {
-				jarFile.close();
-			}
-		} catch (IOException e) {
-			ApiPlugin.log(e);
-		}
+		ArchivePool.getPool().release(jarFile);
 	}
 
 	/**
@@ -851,7 +854,7 @@ public class BundleComponent extends Component {
 		try {
 			String extension = new Path(bundleLocation.getName()).getFileExtension();
 			if (extension != null && extension.equals("jar") && bundleLocation.isFile()) { //$NON-NLS-1$
-				jarFile = new ZipFile(bundleLocation, ZipFile.OPEN_READ);
+				jarFile = ArchivePool.getPool().acquire(bundleLocation.getPath());
 				ZipEntry manifestEntry = jarFile.getEntry(xmlFileName);
 				if (manifestEntry != null) {
 					stream = jarFile.getInputStream(manifestEntry);
@@ -869,7 +872,7 @@ public class BundleComponent extends Component {
 		} catch (IOException e) {
 			ApiPlugin.log(e);
 		} finally {
-			closingZipFileAndStream(stream, jarFile);
+			releaseZipFileAndStream(stream, jarFile);
 		}
 		return null;
 	}
@@ -889,7 +892,7 @@ public class BundleComponent extends Component {
 		try {
 			String extension = new Path(bundleLocation.getName()).getFileExtension();
 			if (extension != null && extension.equals("jar") && bundleLocation.isFile()) { //$NON-NLS-1$
-				jarFile = new ZipFile(bundleLocation, ZipFile.OPEN_READ);
+				jarFile = ArchivePool.getPool().acquire(bundleLocation.getPath());
 				ZipEntry manifestEntry = jarFile.getEntry(IApiCoreConstants.API_DESCRIPTION_XML_NAME);
 				if (manifestEntry != null) {
 					// new file is present
@@ -908,7 +911,7 @@ public class BundleComponent extends Component {
 			char[] charArray = Util.getInputStreamAsCharArray(stream, -1, IApiCoreConstants.UTF_8);
 			contents = new String(charArray);
 		} finally {
-			closingZipFileAndStream(stream, jarFile);
+			releaseZipFileAndStream(stream, jarFile);
 		}
 		return contents;
 	}
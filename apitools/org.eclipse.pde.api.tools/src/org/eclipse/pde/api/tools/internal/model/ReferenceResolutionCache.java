@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+
+/**
+ * Remembers the members references resolved to in an {@link ApiBaseline}, so
+ * that unchanged references do not have to be resolved again on the next
+ * build.
+ * <p>
+ * Resolutions are keyed by the signature key of the reference, which starts
+ * with the symbolic name of the referencing component. Only successful
+ * resolutions are remembered. A resolution is forgotten when the referencing
+ * component, the component of the resolved member or the component of any
+ * type looked at while resolving changes, see {@link #clearComponent(String)}.
+ * </p>
+ *
+ * @since 1.0.600
+ */
+public final class ReferenceResolutionCache {
+
+	/**
+	 * Default maximum number of resolutions kept
+	 */
+	static final int DEFAULT_MAX_SIZE = 20000;
+
+	/**
+	 * Signature key -> resolved member, in least recently used order
+	 */
+	private final LinkedHashMap<String, IApiMember> fResolutions;
+
+	/**
+	 * Component id -> signature keys of references from, resolved into or
+	 * resolved through the component. Keys may remain after their resolution
+	 * was evicted.
+	 */
+	private final HashMap<String, Set<String>> fKeysByComponent = new HashMap<String, Set<String>>();
+
+	private long fHits = 0;
+	private long fMisses = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxSize maximum number of resolutions kept
+	 */
+	ReferenceResolutionCache(final int maxSize) {
+		fResolutions = new LinkedHashMap<String, IApiMember>(256, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, IApiMember> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Returns the member the reference with the given signature key resolved
+	 * to, or <code>null</code> if not known.
+	 *
+	 * @param key signature key of the reference
+	 * @return the resolved member or <code>null</code>
+	 */
+	public synchronized IApiMember getResolution(String key) {
+		IApiMember member = fResolutions.get(key);
+		if (member == null) {
+			fMisses++;
+		} else {
+			fHits++;
+		}
+		return member;
+	}
+
+	/**
+	 * Remembers the member the reference with the given signature key resolved
+	 * to.
+	 *
+	 * @param key signature key of the reference
+	 * @param source the referencing component
+	 * @param resolved the resolved member
+	 * @param visited symbolic names of the components of all types looked at
+	 *            while resolving, such as the super types of the referenced
+	 *            type searched for the member
+	 */
+	public synchronized void addResolution(String key, IApiComponent source, IApiMember resolved, Collection<String> visited) {
+		IApiComponent target = resolved.getApiComponent();
+		if (source == null || target == null) {
+			return;
+		}
+		fResolutions.put(key, resolved);
+		getKeys(source.getSymbolicName()).add(key);
+		getKeys(target.getSymbolicName()).add(key);
+		for (Iterator<String> iter = visited.iterator(); iter.hasNext();) {
+			getKeys(iter.next()).add(key);
+		}
+	}
+
+	private Set<String> getKeys(String componentId) {
+		Set<String> keys = fKeysByComponent.get(componentId);
+		if (keys == null) {
+			keys = new HashSet<String>();
+			fKeysByComponent.put(componentId, keys);
+		}
+		return keys;
+	}
+
+	/**
+	 * Forgets all resolutions of references from the given component, resolved
+	 * into it or resolved through one of its types.
+	 *
+	 * @param componentId symbolic name of the changed component
+	 */
+	public synchronized void clearComponent(String componentId) {
+		Set<String> keys = fKeysByComponent.remove(componentId);
+		if (keys != null) {
+			for (Iterator<String> iter = keys.iterator(); iter.hasNext();) {
+				fResolutions.remove(iter.next());
+			}
+		}
+	}
+
+	/**
+	 * Forgets all resolutions of references to types in the given package and
+	 * of references resolved into it, as the package may now be provided by
+	 * other components.
+	 *
+	 * @param packageName the name of the package
+	 */
+	public synchronized void clearPackage(String packageName) {
+		for (Iterator<Entry<String, IApiMember>> iter = fResolutions.entrySet().iterator(); iter.hasNext();) {
+			Entry<String, IApiMember> entry = iter.next();
+			if (packageName.equals(entry.getValue().getPackageName()) || packageName.equals(getReferencedPackageName(entry.getKey()))) {
+				iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the package of the referenced type of the given signature key,
+	 * which has the form
+	 * <code>[component_id]#[type_name](#[member_name]#[member_signature])</code>
+	 *
+	 * @param key signature key
+	 * @return the package name, empty for the default package
+	 */
+	private static String getReferencedPackageName(String key) {
+		int start = key.indexOf('#') + 1;
+		int end = key.indexOf('#', start);
+		String typeName = end < 0 ? key.substring(start) : key.substring(start, end);
+		int index = typeName.lastIndexOf('.');
+		return index < 0 ? "" : typeName.substring(0, index); //$NON-NLS-1$
+	}
+
+	/**
+	 * Forgets all resolutions
+	 */
+	public synchronized void clear() {
+		fResolutions.clear();
+		fKeysByComponent.clear();
+	}
+
+	/**
+	 * @return the number of resolutions found in the cache
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of resolutions not found in the cache
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of resolutions in the cache
+	 */
+	public synchronized int size() {
+		return fResolutions.size();
+	}
+}
@@ -11,7 +11,6 @@
 package org.eclipse.pde.api.tools.internal.model;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,12 +24,12 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.ArchivePool;
 import org.eclipse.pde.api.tools.internal.util.Util;
 
 /**
@@ -118,31 +117,17 @@ public class StubArchiveApiTypeContainer extends ApiElement implements IApiTypeC
 		@Override
 		public byte[] getContents() throws CoreException {
 			StubArchiveApiTypeContainer archive = (StubArchiveApiTypeContainer) getParent();
-			ZipFile zipFile = archive.open();
-			ZipEntry entry = zipFile.getEntry(getName());
-			InputStream stream = null;
-			if (entry != null) {
-				try {
-					stream = zipFile.getInputStream(entry);
-				} catch (IOException e) {
-					abort("Failed to open class file: " + getTypeName() + " in archive: " + archive.fLocation, e); //$NON-NLS-1$ //$NON-NLS-2$
-					return null;
-				}
-				try {
-					return Util.getInputStreamAsByteArray(stream, -1);
-				} catch (IOException ioe) {
-					abort("Unable to read class file: " + getTypeName(), ioe); //$NON-NLS-1$
-					return null; // never gets here
-				} finally {
-					try {
-						stream.close();
-					} catch (IOException e) {
-						ApiPlugin.log(e);
-					}
-				}
+			byte[] contents = null;
+			try {
+				contents = ArchivePool.getPool().readEntry(archive.fLocation, getName());
+			} catch (IOException e) {
+				abort("Unable to read class file: " + getTypeName() + " in archive: " + archive.fLocation, e); //$NON-NLS-1$ //$NON-NLS-2$
+				return null; // never gets here
+			}
+			if (contents == null) {
+				abort("Class file not found: " + getTypeName() + " in archive: " + archive.fLocation, null); //$NON-NLS-1$ //$NON-NLS-2$
 			}
-			abort("Class file not found: " + getTypeName() + " in archive: " + archive.fLocation, null); //$NON-NLS-1$ //$NON-NLS-2$
-			return null;
+			return contents;
 		}
 	}
 
@@ -162,11 +147,6 @@ public class StubArchiveApiTypeContainer extends ApiElement implements IApiTypeC
 	 */
 	private String[] fPackageNames;
 
-	/**
-	 * Open zip file, or <code>null</code> if file is currently closed.
-	 */
-	private ZipFile fZipFile = null;
-
 	/**
 	 * Constructs an {@link IApiTypeContainer} container for the given jar or
 	 * zip file at the specified location.
@@ -222,14 +202,7 @@ public class StubArchiveApiTypeContainer extends ApiElement implements IApiTypeC
 	 */
 	@Override
 	public synchronized void close() throws CoreException {
-		if (fZipFile != null) {
-			try {
-				fZipFile.close();
-				fZipFile = null;
-			} catch (IOException e) {
-				abort("Failed to close class file archive", e); //$NON-NLS-1$
-			}
-		}
+		ArchivePool.getPool().close(fLocation);
 	}
 
 	/**
@@ -277,43 +250,37 @@ public class StubArchiveApiTypeContainer extends ApiElement implements IApiTypeC
 	 * @throws CoreException
 	 */
 	private synchronized void init() throws CoreException {
-		ZipFile zipFile = open();
 		if (fPackages == null) {
-			fPackages = new HashMap<String, Set<String>>();
-			Enumeration<? extends ZipEntry> entries = zipFile.entries();
-			while (entries.hasMoreElements()) {
-				ZipEntry entry = entries.nextElement();
-				String name = entry.getName();
-				String pkg = Util.DEFAULT_PACKAGE_NAME;
-				int index = name.lastIndexOf('/');
-				if (index >= 0) {
-					pkg = name.substring(0, index).replace('/', '.');
-				}
-				Set<String> fileNames = fPackages.get(pkg);
-				if (fileNames == null) {
-					fileNames = new HashSet<String>();
-					fPackages.put(pkg, fileNames);
-				}
-				fileNames.add(name);
-			}
-		}
-	}
-
-	/**
-	 * Returns an open zip file for this archive.
-	 * 
-	 * @return zip file
-	 * @throws IOException if unable to open the archive
-	 */
-	synchronized ZipFile open() throws CoreException {
-		if (fZipFile == null) {
+			ArchivePool pool = ArchivePool.getPool();
+			ZipFile zipFile;
 			try {
-				fZipFile = new ZipFile(fLocation);
+				zipFile = pool.acquire(fLocation);
 			} catch (IOException e) {
 				abort("Failed to open archive: " + fLocation, e); //$NON-NLS-1$
+				return;
+			}
+			try {
+				fPackages = new HashMap<String, Set<String>>();
+				Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					String name = entry.getName();
+					String pkg = Util.DEFAULT_PACKAGE_NAME;
+					int index = name.lastIndexOf('/');
+					if (index >= 0) {
+						pkg = name.substring(0, index).replace('/', '.');
+					}
+					Set<String> fileNames = fPackages.get(pkg);
+					if (fileNames == null) {
+						fileNames = new HashSet<String>();
+						fPackages.put(pkg, fileNames);
+					}
+					fileNames.add(name);
+				}
+			} finally {
+				pool.release(zipFile);
 			}
 		}
-		return fZipFile;
 	}
 
 	/*
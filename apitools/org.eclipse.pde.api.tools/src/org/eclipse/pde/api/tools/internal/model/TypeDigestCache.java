@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.model.TypeShapeStore.TypeShape;
+import org.eclipse.pde.api.tools.internal.provisional.ApiDescriptionVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
+import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMemberDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMethodDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.Signatures;
+import org.eclipse.pde.api.tools.internal.util.Util;
+
+/**
+ * Remembers the API digests of the types of the components of an
+ * {@link ApiBaseline}.
+ * <p>
+ * The API digest of a type combines the shape of its class file from the
+ * {@link TypeShapeStore}, the API description annotations of the type and of
+ * its members, and the API digests of its member types and of its super types
+ * as resolved in the baseline. Two types with the same API digest are
+ * indistinguishable to the API comparison. A type has no digest if a member
+ * type or a super type cannot be found, or if its member types and super types
+ * form a cycle.
+ * </p>
+ *
+ * @since 1.0.600
+ */
+public class TypeDigestCache {
+
+	/**
+	 * Marks types without a digest
+	 */
+	private static final byte[] NO_DIGEST = new byte[0];
+
+	private final TypeShapeStore fStore;
+
+	/**
+	 * Component id, version and type name -> digest or {@link #NO_DIGEST}
+	 */
+	private final Map<String, byte[]> fDigests = new ConcurrentHashMap<String, byte[]>();
+
+	/**
+	 * Constructor
+	 *
+	 * @param store the store to read the class file shapes from
+	 */
+	TypeDigestCache(TypeShapeStore store) {
+		fStore = store;
+	}
+
+	/**
+	 * Returns the API shape of the class file of the given type root.
+	 *
+	 * @param typeRoot the type root
+	 * @return the shape or <code>null</code> if it cannot be computed
+	 * @throws CoreException if the class file cannot be read
+	 */
+	public TypeShape getShape(IApiTypeRoot typeRoot) throws CoreException {
+		return fStore.getShape(typeRoot);
+	}
+
+	/**
+	 * Returns the API digest of the given type root of the given component.
+	 * May be called from any thread.
+	 *
+	 * @param component the component of the type root
+	 * @param typeRoot the type root
+	 * @return the digest or <code>null</code> if the type has no digest
+	 * @throws CoreException if a class file cannot be read
+	 */
+	public byte[] getDigest(IApiComponent component, IApiTypeRoot typeRoot) throws CoreException {
+		return getDigest(component, typeRoot, new HashSet<String>());
+	}
+
+	private byte[] getDigest(IApiComponent component, IApiTypeRoot typeRoot, Set<String> visiting) throws CoreException {
+		String key = component.getSymbolicName() + '_' + component.getVersion() + '/' + typeRoot.getTypeName();
+		byte[] digest = fDigests.get(key);
+		if (digest == null) {
+			if (!visiting.add(key)) {
+				// a type in a cycle has no digest, and neither have the
+				// other types of the cycle
+				return null;
+			}
+			try {
+				digest = computeDigest(component, typeRoot, visiting);
+			} finally {
+				visiting.remove(key);
+			}
+			fDigests.put(key, digest == null ? NO_DIGEST : digest);
+		}
+		return digest == NO_DIGEST ? null : digest;
+	}
+
+	private byte[] computeDigest(IApiComponent component, IApiTypeRoot typeRoot, Set<String> visiting) throws CoreException {
+		TypeShape shape = fStore.getShape(typeRoot);
+		if (shape == null) {
+			return null;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.write(shape.getDigest());
+			out.writeUTF(component.getSymbolicName());
+			out.writeBoolean(component.hasApiDescription());
+			String annotations = getAnnotations(component.getApiDescription(), typeRoot.getTypeName());
+			out.writeInt(annotations.length());
+			out.writeChars(annotations);
+			String[] memberTypeNames = shape.getMemberTypeNames();
+			for (int i = 0; i < memberTypeNames.length; i++) {
+				IApiTypeRoot memberType = component.findTypeRoot(memberTypeNames[i]);
+				if (memberType == null) {
+					return null;
+				}
+				byte[] digest = getDigest(component, memberType, visiting);
+				if (digest == null) {
+					return null;
+				}
+				out.write(digest);
+			}
+			if (shape.getSuperclassName() != null && !writeSuperType(out, component, shape.getSuperclassName(), visiting)) {
+				return null;
+			}
+			String[] interfaceNames = shape.getInterfaceNames();
+			for (int i = 0; i < interfaceNames.length; i++) {
+				if (!writeSuperType(out, component, interfaceNames[i], visiting)) {
+					return null;
+				}
+			}
+			out.flush();
+			return TypeShapeStore.digest(bytes.toByteArray());
+		} catch (IOException e) {
+			// cannot happen when writing to memory
+			ApiPlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the digest of the given super type as resolved from the given
+	 * component. <code>java.lang.Object</code> is not resolved, its name is
+	 * written instead.
+	 *
+	 * @return whether the super type has a digest
+	 */
+	private boolean writeSuperType(DataOutputStream out, IApiComponent component, String typeName, Set<String> visiting) throws CoreException, IOException {
+		if (Util.isJavaLangObject(typeName)) {
+			out.writeUTF(typeName);
+			return true;
+		}
+		IApiComponent[] components = component.getBaseline().resolvePackage(component, Signatures.getPackageName(typeName));
+		IApiTypeRoot typeRoot = Util.getClassFile(components, typeName);
+		if (typeRoot == null) {
+			return false;
+		}
+		byte[] digest = getDigest(typeRoot.getApiComponent(), typeRoot, visiting);
+		if (digest == null) {
+			return false;
+		}
+		out.write(digest);
+		return true;
+	}
+
+	/**
+	 * Returns the resolved annotations of the given type and the annotations
+	 * of the type and its members defined in the given API description.
+	 */
+	private static String getAnnotations(IApiDescription description, final String typeName) {
+		final StringBuffer buffer = new StringBuffer();
+		IReferenceTypeDescriptor type = Factory.typeDescriptor(typeName);
+		IApiAnnotations annotations = description.resolveAnnotations(type);
+		if (annotations != null) {
+			buffer.append(annotations.getVisibility()).append(',').append(annotations.getRestrictions());
+		}
+		buffer.append(';');
+		description.accept(new ApiDescriptionVisitor() {
+			boolean first = true;
+
+			@Override
+			public boolean visitElement(IElementDescriptor element, IApiAnnotations elementAnnotations) {
+				if (this.first) {
+					this.first = false;
+					// the description has no node for the type
+					if (!(element instanceof IReferenceTypeDescriptor) || !typeName.equals(((IReferenceTypeDescriptor) element).getQualifiedName())) {
+						return false;
+					}
+				}
+				buffer.append(element.getElementType());
+				if (element instanceof IMemberDescriptor) {
+					buffer.append(((IMemberDescriptor) element).getName());
+				}
+				if (element instanceof IMethodDescriptor) {
+					buffer.append(((IMethodDescriptor) element).getSignature());
+				}
+				if (elementAnnotations != null) {
+					buffer.append(':').append(elementAnnotations.getVisibility()).append(',').append(elementAnnotations.getRestrictions());
+				}
+				buffer.append(';');
+				return true;
+			}
+		}, type, null);
+		return buffer.toString();
+	}
+
+	/**
+	 * Clears all digests, the digest of a type depends on the types of other
+	 * components
+	 */
+	void clear() {
+		fDigests.clear();
+	}
+}
@@ -0,0 +1,527 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiField;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMethod;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+
+/**
+ * Persistent store of the API shape of class files.
+ * <p>
+ * The shape of a class file is a digest of what the API comparison reads from
+ * the type: its name, modifiers, generic signature, super types and member
+ * types, and the modifiers, signatures, constant values, default values and
+ * thrown exceptions of its fields and methods. Method bodies and debug
+ * attributes do not contribute, so a type that is recompiled without an API
+ * change keeps its shape. Shapes are keyed by a digest of the class file
+ * contents, so a class file seen before, in any baseline, is not decoded again.
+ * </p>
+ * <p>
+ * The default store is written to the API tools state location by
+ * {@link #saveDefault()}. Only the entries used since the store was read are
+ * written back, and at most {@link #DEFAULT_MAX_ENTRIES} of them are kept, the
+ * least recently used are dropped first.
+ * </p>
+ *
+ * @since 1.0.600
+ */
+public class TypeShapeStore {
+
+	/**
+	 * Name of the store file in the API tools state location
+	 */
+	private static final String STORE_FILE = ".api_shapes"; //$NON-NLS-1$
+
+	/**
+	 * Format version of the store file, must be incremented whenever the
+	 * format or the content of the shape digest changes
+	 */
+	private static final int STORE_VERSION = 1;
+
+	/**
+	 * Default number of entries kept by a store
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 50000;
+
+	private static final String[] NO_NAMES = new String[0];
+
+	private static TypeShapeStore fInstance;
+
+	/**
+	 * API shape of a single class file
+	 */
+	public static class TypeShape {
+		private final byte[] fDigest;
+		private final int fModifiers;
+		private final boolean fNested;
+		private final String fSuperclassName;
+		private final String[] fInterfaceNames;
+		private final String[] fMemberTypeNames;
+
+		TypeShape(byte[] digest, int modifiers, boolean nested, String superclassName, String[] interfaceNames, String[] memberTypeNames) {
+			fDigest = digest;
+			fModifiers = modifiers;
+			fNested = nested;
+			fSuperclassName = superclassName;
+			fInterfaceNames = interfaceNames;
+			fMemberTypeNames = memberTypeNames;
+		}
+
+		/**
+		 * @return the digest of the API shape of the type
+		 */
+		public byte[] getDigest() {
+			return fDigest;
+		}
+
+		/**
+		 * @return the modifiers of the type
+		 */
+		public int getModifiers() {
+			return fModifiers;
+		}
+
+		/**
+		 * @return whether the type is a member, local or anonymous type
+		 */
+		public boolean isNested() {
+			return fNested;
+		}
+
+		/**
+		 * @return the fully qualified name of the superclass or
+		 *         <code>null</code>
+		 */
+		public String getSuperclassName() {
+			return fSuperclassName;
+		}
+
+		/**
+		 * @return the fully qualified names of the super interfaces
+		 */
+		public String[] getInterfaceNames() {
+			return fInterfaceNames;
+		}
+
+		/**
+		 * @return the fully qualified names of the member types, sorted
+		 */
+		public String[] getMemberTypeNames() {
+			return fMemberTypeNames;
+		}
+	}
+
+	/**
+	 * Digest of the contents of a class file
+	 */
+	private static final class Key {
+		final byte[] bytes;
+		final int hash;
+
+		Key(byte[] bytes) {
+			this.bytes = bytes;
+			this.hash = Arrays.hashCode(bytes);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				return Arrays.equals(this.bytes, ((Key) obj).bytes);
+			}
+			return false;
+		}
+	}
+
+	private final File fFile;
+
+	/**
+	 * Entries read from the store file that have not been used yet
+	 */
+	private final Map<Key, TypeShape> fStored = new HashMap<Key, TypeShape>();
+
+	/**
+	 * Entries used or created since the store was read, least recently used
+	 * first
+	 */
+	private final Map<Key, TypeShape> fEntries;
+
+	private boolean fDirty = false;
+
+	/**
+	 * Returns the default store. Inside the framework it is backed by a file in
+	 * the API tools state location, otherwise it is only kept in memory unless
+	 * another default store has been set.
+	 *
+	 * @return the default store
+	 */
+	public static synchronized TypeShapeStore getDefault() {
+		if (fInstance == null) {
+			File file = null;
+			if (ApiPlugin.isRunningInFramework()) {
+				file = ApiPlugin.getDefault().getStateLocation().append(STORE_FILE).toFile();
+			}
+			fInstance = new TypeShapeStore(file);
+		}
+		return fInstance;
+	}
+
+	/**
+	 * Sets the store returned by {@link #getDefault()}
+	 *
+	 * @param store the new default store
+	 */
+	public static synchronized void setDefault(TypeShapeStore store) {
+		fInstance = store;
+	}
+
+	/**
+	 * Writes the default store if it has been created
+	 */
+	public static synchronized void saveDefault() {
+		if (fInstance != null) {
+			fInstance.save();
+		}
+	}
+
+	/**
+	 * Creates a store backed by the given file, reading the entries it contains
+	 *
+	 * @param file the store file or <code>null</code> for a store that is only
+	 *            kept in memory
+	 */
+	public TypeShapeStore(File file) {
+		this(file, DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Creates a store backed by the given file, reading the entries it contains
+	 *
+	 * @param file the store file or <code>null</code> for a store that is only
+	 *            kept in memory
+	 * @param maxEntries the number of entries kept, once exceeded the least
+	 *            recently used entry is dropped
+	 */
+	public TypeShapeStore(File file, final int maxEntries) {
+		fFile = file;
+		fEntries = new LinkedHashMap<Key, TypeShape>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, TypeShape> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		read();
+	}
+
+	/**
+	 * @return the number of entries used or created since the store was read
+	 */
+	public synchronized int size() {
+		return fEntries.size();
+	}
+
+	/**
+	 * Returns the API shape of the given type root, decoding the class file
+	 * only if its contents have not been seen before. May be called from any
+	 * thread.
+	 *
+	 * @param typeRoot the type root
+	 * @return the API shape or <code>null</code> if it cannot be computed
+	 * @throws CoreException if the class file cannot be read
+	 */
+	public TypeShape getShape(IApiTypeRoot typeRoot) throws CoreException {
+		if (!(typeRoot instanceof AbstractApiTypeRoot)) {
+			return null;
+		}
+		byte[] contents = ((AbstractApiTypeRoot) typeRoot).getContents();
+		if (contents == null) {
+			return null;
+		}
+		byte[] digest = digest(contents);
+		if (digest == null) {
+			return null;
+		}
+		Key key = new Key(digest);
+		synchronized (this) {
+			TypeShape shape = fEntries.get(key);
+			if (shape == null) {
+				shape = fStored.remove(key);
+				if (shape != null) {
+					fEntries.put(key, shape);
+				}
+			}
+			if (shape != null) {
+				return shape;
+			}
+		}
+		IApiType type = TypeStructureBuilder.buildTypeStructure(contents, typeRoot.getApiComponent(), typeRoot);
+		if (!(type instanceof ApiType)) {
+			return null;
+		}
+		TypeShape shape = createShape((ApiType) type);
+		if (shape == null) {
+			return null;
+		}
+		synchronized (this) {
+			fEntries.put(key, shape);
+			fDirty = true;
+		}
+		return shape;
+	}
+
+	private static TypeShape createShape(ApiType type) {
+		String[] interfaceNames = type.getSuperInterfaceNames();
+		if (interfaceNames == null) {
+			interfaceNames = NO_NAMES;
+		}
+		String[] memberTypeNames = type.getMemberTypeNames();
+		for (int i = 0; i < memberTypeNames.length; i++) {
+			memberTypeNames[i] = type.getName() + '$' + memberTypeNames[i];
+		}
+		Arrays.sort(memberTypeNames);
+		boolean nested = type.isMemberType() || type.isLocal() || type.isAnonymous();
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			writeChars(out, type.getName());
+			out.writeInt(type.getModifiers());
+			out.writeBoolean(type.isMemberType());
+			out.writeBoolean(type.isLocal());
+			out.writeBoolean(type.isAnonymous());
+			writeChars(out, type.getGenericSignature());
+			writeChars(out, type.getSuperclassName());
+			out.writeInt(interfaceNames.length);
+			for (int i = 0; i < interfaceNames.length; i++) {
+				writeChars(out, interfaceNames[i]);
+			}
+			out.writeInt(memberTypeNames.length);
+			for (int i = 0; i < memberTypeNames.length; i++) {
+				writeChars(out, memberTypeNames[i]);
+			}
+			IApiField[] fields = type.getFields();
+			Arrays.sort(fields, new Comparator<IApiField>() {
+				@Override
+				public int compare(IApiField f1, IApiField f2) {
+					return f1.getName().compareTo(f2.getName());
+				}
+			});
+			out.writeInt(fields.length);
+			for (int i = 0; i < fields.length; i++) {
+				IApiField field = fields[i];
+				writeChars(out, field.getName());
+				out.writeInt(field.getModifiers());
+				writeChars(out, field.getSignature());
+				writeChars(out, field.getGenericSignature());
+				out.writeBoolean(field.isEnumConstant());
+				Object value = field.getConstantValue();
+				writeChars(out, value == null ? null : value.getClass().getName() + ':' + value);
+			}
+			IApiMethod[] methods = type.getMethods();
+			Arrays.sort(methods, new Comparator<IApiMethod>() {
+				@Override
+				public int compare(IApiMethod m1, IApiMethod m2) {
+					int result = m1.getName().compareTo(m2.getName());
+					return result != 0 ? result : m1.getSignature().compareTo(m2.getSignature());
+				}
+			});
+			out.writeInt(methods.length);
+			for (int i = 0; i < methods.length; i++) {
+				IApiMethod method = methods[i];
+				writeChars(out, method.getName());
+				writeChars(out, method.getSignature());
+				out.writeInt(method.getModifiers());
+				writeChars(out, method.getGenericSignature());
+				String[] exceptions = method.getExceptionNames();
+				out.writeInt(exceptions == null ? -1 : exceptions.length);
+				for (int j = 0; exceptions != null && j < exceptions.length; j++) {
+					writeChars(out, exceptions[j]);
+				}
+				writeChars(out, method.getDefaultValue());
+				out.writeBoolean(method.isPolymorphic());
+			}
+			out.flush();
+			byte[] digest = digest(bytes.toByteArray());
+			if (digest == null) {
+				return null;
+			}
+			return new TypeShape(digest, type.getModifiers(), nested, type.getSuperclassName(), interfaceNames, memberTypeNames);
+		} catch (IOException e) {
+			// cannot happen when writing to memory
+			ApiPlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a string of any length or <code>null</code> to the digested
+	 * content
+	 */
+	private static void writeChars(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(value.length());
+			out.writeChars(value);
+		}
+	}
+
+	/**
+	 * Returns the MD5 digest of the given bytes or <code>null</code> if the
+	 * algorithm is not available
+	 *
+	 * @param bytes the bytes to digest
+	 * @return the digest or <code>null</code>
+	 */
+	static byte[] digest(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("MD5").digest(bytes); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the store file if entries have been created since it was read
+	 */
+	public synchronized void save() {
+		if (!fDirty || fFile == null) {
+			return;
+		}
+		DataOutputStream out = null;
+		try {
+			fFile.getParentFile().mkdirs();
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)));
+			out.writeInt(STORE_VERSION);
+			out.writeInt(fEntries.size());
+			for (Iterator<Map.Entry<Key, TypeShape>> iter = fEntries.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry<Key, TypeShape> entry = iter.next();
+				TypeShape shape = entry.getValue();
+				writeBytes(out, entry.getKey().bytes);
+				writeBytes(out, shape.fDigest);
+				out.writeInt(shape.fModifiers);
+				out.writeBoolean(shape.fNested);
+				writeString(out, shape.fSuperclassName);
+				writeStrings(out, shape.fInterfaceNames);
+				writeStrings(out, shape.fMemberTypeNames);
+			}
+			fDirty = false;
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+			fFile.delete();
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		if (ApiPlugin.DEBUG_API_COMPARATOR) {
+			System.out.println("Saved " + fEntries.size() + " type shapes to " + fFile); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private void read() {
+		if (fFile == null || !fFile.isFile()) {
+			return;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)));
+			if (in.readInt() != STORE_VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			Map<Key, TypeShape> entries = new HashMap<Key, TypeShape>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				Key key = new Key(readBytes(in));
+				entries.put(key, new TypeShape(readBytes(in), in.readInt(), in.readBoolean(), readString(in), readStrings(in), readStrings(in)));
+			}
+			fStored.putAll(entries);
+		} catch (IOException e) {
+			// corrupt or truncated store, class files are decoded again
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeByte(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readUnsignedByte()];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		out.writeInt(values.length);
+		for (int i = 0; i < values.length; i++) {
+			out.writeUTF(values[i]);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readUTF();
+		}
+		return values;
+	}
+}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.model;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 
@@ -60,14 +61,16 @@ public class WorkspaceBaseline extends ApiBaseline {
 	@Override
 	public void addApiComponents(IApiComponent[] components) throws CoreException {
 		HashSet<String> ees = new HashSet<String>();
+		ArrayList<IApiComponent> added = new ArrayList<IApiComponent>(components.length);
 		for (int i = 0; i < components.length; i++) {
 			BundleComponent component = (BundleComponent) components[i];
 			if (component.isSourceComponent()) {
 				continue;
 			}
-			addComponent(component);
+			added.add(component);
 			ees.addAll(Arrays.asList(component.getExecutionEnvironments()));
 		}
+		addComponents(added);
 		resolveSystemLibrary(ees);
 	}
 }
@@ -43,6 +43,7 @@ import org.eclipse.pde.api.tools.internal.JavadocTagManager;
 import org.eclipse.pde.api.tools.internal.SessionManager;
 import org.eclipse.pde.api.tools.internal.WorkspaceDeltaProcessor;
 import org.eclipse.pde.api.tools.internal.provisional.problems.IApiProblemTypes;
+import org.eclipse.pde.api.tools.internal.util.ArchivePool;
 import org.eclipse.pde.api.tools.internal.util.FileManager;
 import org.eclipse.pde.api.tools.internal.util.Util;
 import org.eclipse.pde.core.target.NameVersionDescriptor;
@@ -196,6 +197,8 @@ public class ApiPlugin extends Plugin implements ISaveParticipant, DebugOptionsL
 	private static final String WORKSPACE_DELTA_PROCESSOR = PLUGIN_ID + "/debug/workspacedeltaprocessor"; //$NON-NLS-1$
 	private static final String API_ANALYZER_DEBUG = PLUGIN_ID + "/debug/apianalyzer"; //$NON-NLS-1$
 	private static final String USE_REPORT_CONVERTER_DEBUG = PLUGIN_ID + "/debug/usereportconverter"; //$NON-NLS-1$
+	private static final String ARCHIVE_POOL_DEBUG = PLUGIN_ID + "/debug/archivepool"; //$NON-NLS-1$
+	private static final String MODEL_CACHE_DEBUG = PLUGIN_ID + "/debug/modelcache"; //$NON-NLS-1$
 
 	/**
 	 * Constant used for controlling tracing in the report converter
@@ -265,6 +268,14 @@ public class ApiPlugin extends Plugin implements ISaveParticipant, DebugOptionsL
 	 * Constant used for controlling tracing in the API tool builder
 	 */
 	public static boolean DEBUG_BUILDER = false;
+	/**
+	 * Constant used for controlling tracing in the archive pool
+	 */
+	public static boolean DEBUG_ARCHIVE_POOL = false;
+	/**
+	 * Constant used for controlling tracing in the cache of API types
+	 */
+	public static boolean DEBUG_MODEL_CACHE = false;
 
 	public static String[] AllCompatibilityKeys = new String[] {
 			IApiProblemTypes.API_COMPONENT_REMOVED_TYPE,
@@ -717,6 +728,7 @@ public class ApiPlugin extends Plugin implements ISaveParticipant, DebugOptionsL
 			ApiDescriptionManager.shutdown();
 			ApiBaselineManager.getManager().stop();
 			ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
+			ArchivePool.getPool().closeAll();
 			FileManager.getManager().deleteFiles();
 			fBundleContext = null;
 			if (deltaProcessor != null) {
@@ -883,5 +895,7 @@ public class ApiPlugin extends Plugin implements ISaveParticipant, DebugOptionsL
 		DEBUG_WORKSPACE_DELTA_PROCESSOR = DEBUG && options.getBooleanOption(WORKSPACE_DELTA_PROCESSOR, false);
 		DEBUG_API_ANALYZER = DEBUG && options.getBooleanOption(API_ANALYZER_DEBUG, false);
 		DEBUG_USE_REPORT_CONVERTER = DEBUG && options.getBooleanOption(USE_REPORT_CONVERTER_DEBUG, false);
+		DEBUG_ARCHIVE_POOL = DEBUG && options.getBooleanOption(ARCHIVE_POOL_DEBUG, false);
+		DEBUG_MODEL_CACHE = DEBUG && options.getBooleanOption(MODEL_CACHE_DEBUG, false);
 	}
 }
@@ -10,9 +10,16 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -21,7 +28,12 @@ import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.pde.api.tools.internal.comparator.ClassFileComparator;
 import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
+import org.eclipse.pde.api.tools.internal.model.TypeDigestCache;
+import org.eclipse.pde.api.tools.internal.model.TypeShapeStore.TypeShape;
+import org.eclipse.pde.api.tools.internal.model.WorkspaceBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
 import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
 import org.eclipse.pde.api.tools.internal.provisional.IRequiredComponentDescription;
@@ -30,11 +42,13 @@ import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiScope;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiType;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
 import org.eclipse.pde.api.tools.internal.util.Util;
+import org.eclipse.pde.api.tools.internal.util.WorkerPool;
 import org.osgi.framework.Version;
 
 /**
@@ -49,6 +63,26 @@ public class ApiComparator {
 	 */
 	public static final IDelta NO_DELTA = new Delta();
 
+	/**
+	 * Whether types with the same API digest in both baselines are skipped.
+	 * Disabled by setting the system property
+	 * <code>org.eclipse.pde.api.tools.typeDigests</code> to <code>false</code>
+	 * or with {@link #setUseTypeDigests(boolean)}.
+	 */
+	private static volatile boolean fUseTypeDigests = !"false".equals(System.getProperty("org.eclipse.pde.api.tools.typeDigests")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Sets whether types whose API digests are the same in both baselines are
+	 * skipped. When disabled, every type is decoded and compared.
+	 * 
+	 * @param useTypeDigests whether to skip types with the same API digest
+	 * @noreference This method is not intended to be referenced by clients.
+	 * @since 1.0.600
+	 */
+	public static void setUseTypeDigests(boolean useTypeDigests) {
+		fUseTypeDigests = useTypeDigests;
+	}
+
 	/**
 	 * Returns a delta for a API component version change
 	 * 
@@ -101,6 +135,69 @@ public class ApiComparator {
 	 * @throws IllegalArgumentException if one of the two baselines is null
 	 */
 	public static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final IProgressMonitor monitor) {
+		return compare(referenceBaseline, baseline, visibilityModifiers, force, 1, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the difference between the given
+	 * baseline and the reference, comparing the API components with the given
+	 * number of threads.
+	 * <p>
+	 * With more than one thread, the API components and the type containers of
+	 * each API component are compared concurrently. The deltas of every
+	 * component and container are collected separately and added to the
+	 * returned delta in the order of a sequential comparison, so the result is
+	 * the same for any number of threads.
+	 * </p>
+	 * 
+	 * @param referenceBaseline the given API baseline which is used as the
+	 *            reference
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param threadCount the number of threads, values less than
+	 *            <code>2</code> compare sequentially
+	 * @param monitor
+	 * 
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed
+	 * @throws IllegalArgumentException if one of the two baselines is null
+	 * @since 1.0.600
+	 */
+	public static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final int threadCount, final IProgressMonitor monitor) {
+		ExecutorService executor = threadCount > 1 ? WorkerPool.createExecutor("API Comparator", threadCount - 1) : null; //$NON-NLS-1$
+		try {
+			return compare(referenceBaseline, baseline, visibilityModifiers, force, executor, monitor);
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Returns a delta that corresponds to the difference between the given
+	 * baseline and the reference, see
+	 * {@link #compare(IApiBaseline, IApiBaseline, int, boolean, int, IProgressMonitor)}
+	 * .
+	 * 
+	 * @param referenceBaseline the given API baseline which is used as the
+	 *            reference
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param executor the executor used to compare the API components
+	 *            concurrently or <code>null</code>
+	 * @param monitor
+	 * 
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed
+	 */
+	static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final ExecutorService executor, final IProgressMonitor monitor) {
 		SubMonitor localmonitor = SubMonitor.convert(monitor, 2);
 		try {
 			if (referenceBaseline == null || baseline == null) {
@@ -110,40 +207,37 @@ public class ApiComparator {
 			IApiComponent[] apiComponents2 = baseline.getApiComponents();
 			Set<String> apiComponentsIds = new HashSet<String>();
 			final Delta globalDelta = new Delta();
+			List<Callable<Delta>> tasks = null;
+			final IProgressMonitor workerMonitor = WorkerPool.createWorkerMonitor(localmonitor);
+			if (executor != null) {
+				tasks = new ArrayList<Callable<Delta>>(apiComponents.length);
+			}
 			for (int i = 0, max = apiComponents.length; i < max; i++) {
 				Util.updateMonitor(localmonitor);
-				IApiComponent apiComponent = apiComponents[i];
+				final IApiComponent apiComponent = apiComponents[i];
 				if (!apiComponent.isSystemComponent()) {
 					String id = apiComponent.getSymbolicName();
-					IApiComponent apiComponent2 = baseline.getApiComponent(id);
-					IDelta delta = null;
-					if (apiComponent2 == null) {
-						// report removal of an API component
-						delta = new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED, IDelta.API_COMPONENT, null, id, id);
-					} else {
+					final IApiComponent apiComponent2 = baseline.getApiComponent(id);
+					if (apiComponent2 != null) {
 						apiComponentsIds.add(id);
-						String versionString = apiComponent.getVersion();
-						String versionString2 = apiComponent2.getVersion();
-						IDelta bundleVersionChangesDelta = checkBundleVersionChanges(apiComponent2, id, versionString, versionString2);
-						if (bundleVersionChangesDelta != null) {
-							globalDelta.add(bundleVersionChangesDelta);
-						}
-						if (!versionString.equals(versionString2) || force) {
-							long time = System.currentTimeMillis();
-							try {
-								delta = compare(apiComponent, apiComponent2, referenceBaseline, baseline, visibilityModifiers, localmonitor.newChild(1));
-							} finally {
-								if (ApiPlugin.DEBUG_API_COMPARATOR) {
-									System.out.println("Time spent for " + id + " " + versionString + " : " + (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-								}
-							}
-						}
 					}
-					if (delta != null && delta != NO_DELTA) {
-						globalDelta.add(delta);
+					if (executor == null) {
+						compareComponent(apiComponent, apiComponent2, referenceBaseline, baseline, visibilityModifiers, force, globalDelta, null, localmonitor);
+					} else {
+						tasks.add(new Callable<Delta>() {
+							@Override
+							public Delta call() throws Exception {
+								Delta componentDelta = new Delta();
+								compareComponent(apiComponent, apiComponent2, referenceBaseline, baseline, visibilityModifiers, force, componentDelta, executor, SubMonitor.convert(workerMonitor));
+								return componentDelta;
+							}
+						});
 					}
 				}
 			}
+			if (executor != null) {
+				addAll(globalDelta, WorkerPool.runAll(executor, tasks, localmonitor));
+			}
 			Util.updateMonitor(localmonitor, 1);
 			for (int i = 0, max = apiComponents2.length; i < max; i++) {
 				Util.updateMonitor(localmonitor);
@@ -157,11 +251,103 @@ public class ApiComparator {
 				}
 			}
 			return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+			// null means an error case
+			return null;
 		} finally {
 			localmonitor.done();
 		}
 	}
 
+	/**
+	 * Compares the given API component of the reference baseline with the API
+	 * component of the same id of the other baseline and adds the resulting
+	 * deltas to the given delta.
+	 * 
+	 * @param apiComponent the API component of the reference baseline
+	 * @param apiComponent2 the API component of the other baseline or
+	 *            <code>null</code> if it has been removed
+	 * @param referenceBaseline the given API baseline which is used as the
+	 *            reference
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of API components with the
+	 *            same versions
+	 * @param parentDelta the delta to add the deltas of the component to
+	 * @param executor the executor used to compare the type containers of the
+	 *            component concurrently or <code>null</code>
+	 * @param localmonitor
+	 */
+	static void compareComponent(final IApiComponent apiComponent, final IApiComponent apiComponent2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final Delta parentDelta, final ExecutorService executor, final SubMonitor localmonitor) {
+		String id = apiComponent.getSymbolicName();
+		IDelta delta = null;
+		if (apiComponent2 == null) {
+			// report removal of an API component
+			delta = new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED, IDelta.API_COMPONENT, null, id, id);
+		} else {
+			String versionString = apiComponent.getVersion();
+			String versionString2 = apiComponent2.getVersion();
+			IDelta bundleVersionChangesDelta = checkBundleVersionChanges(apiComponent2, id, versionString, versionString2);
+			if (bundleVersionChangesDelta != null) {
+				parentDelta.add(bundleVersionChangesDelta);
+			}
+			if (!versionString.equals(versionString2) || force) {
+				long time = System.currentTimeMillis();
+				try {
+					delta = compare(apiComponent, apiComponent2, referenceBaseline, baseline, visibilityModifiers, executor, localmonitor.newChild(1));
+				} finally {
+					if (ApiPlugin.DEBUG_API_COMPARATOR) {
+						System.out.println("Time spent for " + id + " " + versionString + " : " + (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					}
+				}
+			}
+		}
+		if (delta != null && delta != NO_DELTA) {
+			parentDelta.add(delta);
+		}
+	}
+
+	/**
+	 * Returns the cache of the API digests of the types of the baseline of the
+	 * given component, or <code>null</code> if the types of the baseline may
+	 * change while they are compared, as in the workspace baseline, or if
+	 * digests are not used.
+	 * 
+	 * @param component the component
+	 * @return the digest cache or <code>null</code>
+	 */
+	private static TypeDigestCache getTypeDigests(IApiComponent component) {
+		if (!fUseTypeDigests) {
+			return null;
+		}
+		try {
+			IApiBaseline baseline = component.getBaseline();
+			if (baseline instanceof ApiBaseline && !(baseline instanceof WorkspaceBaseline)) {
+				return ((ApiBaseline) baseline).getTypeDigests();
+			}
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the children of the given deltas to the given delta, in order
+	 * 
+	 * @param globalDelta the delta to add to
+	 * @param deltas the deltas collected separately
+	 */
+	private static void addAll(Delta globalDelta, List<Delta> deltas) {
+		for (Delta delta : deltas) {
+			IDelta[] children = delta.getChildren();
+			for (int i = 0; i < children.length; i++) {
+				globalDelta.add(children[i]);
+			}
+		}
+	}
+
 	/**
 	 * Returns a delta that corresponds to the difference between the given
 	 * component and the reference baseline.
@@ -247,6 +433,31 @@ public class ApiComparator {
 	 *                </ul>
 	 */
 	public static IDelta compare(final IApiComponent referenceComponent, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final IProgressMonitor monitor) {
+		return compare(referenceComponent, component2, referenceBaseline, baseline, visibilityModifiers, null, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the comparison of the two given API
+	 * components, see
+	 * {@link #compare(IApiComponent, IApiComponent, IApiBaseline, IApiBaseline, int, IProgressMonitor)}
+	 * .
+	 * 
+	 * @param referenceComponent the given API component
+	 * @param component2 the given API component to compare with
+	 * @param referenceBaseline the given API baseline from which the given
+	 *            component <code>component</code> is coming from
+	 * @param baseline the given API baseline from which the given component
+	 *            <code>component2</code> is coming from
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param executor the executor used to compare the type containers of the
+	 *            components concurrently or <code>null</code>
+	 * @param monitor
+	 * 
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed
+	 */
+	static IDelta compare(final IApiComponent referenceComponent, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final ExecutorService executor, final IProgressMonitor monitor) {
 		SubMonitor localmonitor = SubMonitor.convert(monitor, 3);
 		try {
 			if (referenceComponent == null) {
@@ -285,7 +496,7 @@ public class ApiComparator {
 						currentEE,
 						Util.getComponentVersionsId(referenceComponent) }));
 			}
-			return internalCompare(referenceComponent, component2, referenceBaseline, baseline, visibilityModifiers, globalDelta, localmonitor.newChild(1));
+			return internalCompare(referenceComponent, component2, referenceBaseline, baseline, visibilityModifiers, globalDelta, executor, localmonitor.newChild(1));
 		} catch (CoreException e) {
 			// null means an error case
 			return null;
@@ -312,8 +523,29 @@ public class ApiComparator {
 	 *         delta detection failed
 	 */
 	public static IDelta compare(final IApiComponent referenceComponent, final IApiComponent component, final int visibilityModifiers, final IProgressMonitor monitor) {
+		return compare(referenceComponent, component, visibilityModifiers, null, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the difference between the given
+	 * component and the given reference component, see
+	 * {@link #compare(IApiComponent, IApiComponent, int, IProgressMonitor)}.
+	 * 
+	 * @param referenceComponent the given API component that is used as the
+	 *            reference
+	 * @param component the given component to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param executor the executor used to compare the type containers of the
+	 *            components concurrently or <code>null</code>
+	 * @param monitor
+	 * 
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed
+	 */
+	static IDelta compare(final IApiComponent referenceComponent, final IApiComponent component, final int visibilityModifiers, final ExecutorService executor, final IProgressMonitor monitor) {
 		try {
-			return compare(referenceComponent, component, referenceComponent == null ? null : referenceComponent.getBaseline(), component.getBaseline(), visibilityModifiers, monitor);
+			return compare(referenceComponent, component, referenceComponent == null ? null : referenceComponent.getBaseline(), component.getBaseline(), visibilityModifiers, executor, monitor);
 		} catch (CoreException e) {
 			ApiPlugin.log(e);
 		}
@@ -545,19 +777,85 @@ public class ApiComparator {
 	 *             visited
 	 */
 	public static IDelta compare(final IApiScope scope, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final boolean continueOnResolverError, final IProgressMonitor monitor) throws CoreException {
+		return compare(scope, baseline, visibilityModifiers, force, continueOnResolverError, 1, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the comparison of the elements of the
+	 * given scope with the given API baseline, comparing the elements with the
+	 * given number of threads.
+	 * <p>
+	 * With more than one thread, the elements of the scope and the type
+	 * containers of each API component are compared concurrently. The deltas
+	 * are collected separately and merged in the order of a sequential
+	 * comparison, so the result is the same for any number of threads.
+	 * </p>
+	 * 
+	 * @param scope the given scope for the comparison
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param continueOnResolverError if <code>true</code> the comparison will
+	 *            continue even if a component in the scope has a resolver error
+	 * @param threadCount the number of threads, values less than
+	 *            <code>2</code> compare sequentially
+	 * @param monitor the given progress monitor to report progress
+	 * 
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed. If set to continue on resolver error a
+	 *         delta, possibly empty, will always be returned
+	 * @throws IllegalArgumentException if one of the two baselines is null
+	 *             CoreException if one of the element in the scope cannot be
+	 *             visited
+	 * @since 1.0.600
+	 */
+	public static IDelta compare(final IApiScope scope, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final boolean continueOnResolverError, final int threadCount, final IProgressMonitor monitor) throws CoreException {
 
 		if (scope == null || baseline == null) {
 			throw new IllegalArgumentException("None of the scope or the baseline must be null"); //$NON-NLS-1$
 		}
 		SubMonitor localmonitor = SubMonitor.convert(monitor, 2);
+		ExecutorService executor = null;
 		try {
-			final Set<IDelta> deltas = new HashSet<IDelta>();
-			final CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(deltas, baseline, force, visibilityModifiers, continueOnResolverError, localmonitor.newChild(1));
-			scope.accept(visitor);
+			// keep the deltas in the order they are found
+			final Set<IDelta> deltas = new LinkedHashSet<IDelta>();
+			boolean containsError = false;
+			if (threadCount > 1) {
+				executor = WorkerPool.createExecutor("API Comparator", threadCount - 1); //$NON-NLS-1$
+				final ExecutorService elementExecutor = executor;
+				final IProgressMonitor workerMonitor = WorkerPool.createWorkerMonitor(localmonitor);
+				IApiElement[] elements = scope.getApiElements();
+				List<Callable<CompareApiScopeVisitor>> tasks = new ArrayList<Callable<CompareApiScopeVisitor>>(elements.length);
+				for (int i = 0; i < elements.length; i++) {
+					final ApiScope elementScope = new ApiScope();
+					elementScope.addElement(elements[i]);
+					tasks.add(new Callable<CompareApiScopeVisitor>() {
+						@Override
+						public CompareApiScopeVisitor call() throws Exception {
+							CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(new LinkedHashSet<IDelta>(), baseline, force, visibilityModifiers, continueOnResolverError, workerMonitor);
+							visitor.executor = elementExecutor;
+							elementScope.accept(visitor);
+							return visitor;
+						}
+					});
+				}
+				List<CompareApiScopeVisitor> visitors = WorkerPool.runAll(executor, tasks, localmonitor);
+				for (CompareApiScopeVisitor visitor : visitors) {
+					deltas.addAll(visitor.deltas);
+					containsError |= visitor.containsError();
+				}
+				Util.updateMonitor(localmonitor, 1);
+			} else {
+				final CompareApiScopeVisitor visitor = new CompareApiScopeVisitor(deltas, baseline, force, visibilityModifiers, continueOnResolverError, localmonitor.newChild(1));
+				scope.accept(visitor);
+				containsError = visitor.containsError();
+			}
 
 			// If set to continue on error, return whatever deltas were
 			// collected
-			if (!continueOnResolverError && visitor.containsError()) {
+			if (!continueOnResolverError && containsError) {
 				return null;
 			}
 			if (deltas.isEmpty()) {
@@ -592,6 +890,9 @@ public class ApiComparator {
 			Util.updateMonitor(localmonitor, 1);
 			return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
 		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
 			localmonitor.done();
 		}
 	}
@@ -631,12 +932,14 @@ public class ApiComparator {
 	 * @param baseline
 	 * @param visibilityModifiers
 	 * @param globalDelta
+	 * @param executor the executor used to compare the type containers
+	 *            concurrently or <code>null</code>
 	 * @param monitor
 	 * 
 	 * @return a delta of changed API elements
 	 * @throws CoreException
 	 */
-	private static IDelta internalCompare(final IApiComponent component, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final Delta globalDelta, final IProgressMonitor monitor) throws CoreException {
+	private static IDelta internalCompare(final IApiComponent component, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final Delta globalDelta, final ExecutorService executor, final IProgressMonitor monitor) throws CoreException {
 		final Set<String> typeRootBaseLineNames = new HashSet<String>();
 		final String id = component.getSymbolicName();
 		IApiTypeContainer[] typeRootContainers = null;
@@ -654,144 +957,27 @@ public class ApiComparator {
 		final IApiDescription apiDescription2 = component2.getApiDescription();
 		Util.updateMonitor(localmonitor, 1);
 		if (typeRootContainers != null) {
-			for (int i = 0, max = typeRootContainers.length; i < max; i++) {
-				Util.updateMonitor(localmonitor);
-				IApiTypeContainer container = typeRootContainers[i];
-				try {
-					container.accept(new ApiTypeContainerVisitor() {
+			if (executor != null && typeRootContainers.length > 1) {
+				// names are only read once all containers are compared
+				final Set<String> names = Collections.synchronizedSet(typeRootBaseLineNames);
+				final IProgressMonitor workerMonitor = WorkerPool.createWorkerMonitor(localmonitor);
+				List<Callable<Delta>> tasks = new ArrayList<Callable<Delta>>(typeRootContainers.length);
+				for (int i = 0, max = typeRootContainers.length; i < max; i++) {
+					final IApiTypeContainer container = typeRootContainers[i];
+					tasks.add(new Callable<Delta>() {
 						@Override
-						public void visit(String packageName, IApiTypeRoot typeRoot) {
-							Util.updateMonitor(localmonitor);
-							String typeName = typeRoot.getTypeName();
-							try {
-								IApiType typeDescriptor = typeRoot.getStructure();
-								IApiAnnotations elementDescription = apiDescription.resolveAnnotations(typeDescriptor.getHandle());
-								if (typeDescriptor.isMemberType() || typeDescriptor.isAnonymous() || typeDescriptor.isLocal()) {
-									// we skip nested types (member, local and
-									// anonymous)
-									return;
-								}
-								int visibility = 0;
-								if (elementDescription != null) {
-									visibility = elementDescription.getVisibility();
-								}
-								IApiTypeRoot typeRoot2 = null;
-								if (isSWT) {
-									typeRoot2 = component2.findTypeRoot(typeName);
-								} else {
-									typeRoot2 = component2.findTypeRoot(typeName, id);
-								}
-								String deltaComponentID = null;
-								IApiComponent provider = null;
-								IApiDescription providerApiDesc = null;
-								boolean reexported = false;
-								if (typeRoot2 == null) {
-									// check if the type is provided by a
-									// required component (it could have been
-									// moved/re-exported)
-									IApiComponent[] providers = component2.getBaseline().resolvePackage(component2, packageName);
-									int index = 0;
-									while (typeRoot2 == null && index < providers.length) {
-										Util.updateMonitor(localmonitor);
-										IApiComponent p = providers[index];
-										if (!p.equals(component2)) {
-											String id2 = p.getSymbolicName();
-											if (Util.ORG_ECLIPSE_SWT.equals(id2)) {
-												typeRoot2 = p.findTypeRoot(typeName);
-											} else {
-												typeRoot2 = p.findTypeRoot(typeName, id2);
-											}
-											if (typeRoot2 != null) {
-												provider = p;
-												providerApiDesc = p.getApiDescription();
-												IRequiredComponentDescription[] required = component2.getRequiredComponents();
-												for (int k = 0; k < required.length; k++) {
-													IRequiredComponentDescription description = required[k];
-													if (description.getId().equals(id2)) {
-														reexported = description.isExported();
-														break;
-													}
-												}
-											}
-										}
-										index++;
-									}
-								} else {
-									provider = component2;
-									providerApiDesc = apiDescription2;
-								}
-								Util.updateMonitor(localmonitor);
-								deltaComponentID = Util.getDeltaComponentVersionsId(component2);
-								if (typeRoot2 == null) {
-									if ((visibility & visibilityModifiers) == 0) {
-										// we skip the class file according to
-										// their visibility
-										return;
-									}
-									if (visibilityModifiers == VisibilityModifiers.API) {
-										// if the visibility is API, we only
-										// consider public and protected types
-										if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
-											return;
-										}
-									}
-									globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, IDelta.TYPE, RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), 0, typeName, typeName, new String[] {
-											typeName,
-											Util.getComponentVersionsId(component2) }));
-								} else {
-									if ((visibility & visibilityModifiers) == 0) {
-										// we skip the class file according to
-										// their visibility
-										return;
-									}
-									IApiType typeDescriptor2 = typeRoot2.getStructure();
-									IApiAnnotations elementDescription2 = providerApiDesc.resolveAnnotations(typeDescriptor2.getHandle());
-									int visibility2 = 0;
-									if (elementDescription2 != null) {
-										visibility2 = elementDescription2.getVisibility();
-									}
-									if (visibilityModifiers == VisibilityModifiers.API) {
-										// if the visibility is API, we only
-										// consider public and protected types
-										if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
-											return;
-										}
-									}
-									if (Util.isAPI(visibility, typeDescriptor)) {
-										if (!Util.isAPI(visibility2, typeDescriptor2)) {
-											globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, reexported ? IDelta.REEXPORTED_API_TYPE : IDelta.API_TYPE, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
-													typeName,
-													Util.getComponentVersionsId(component2) }));
-											return;
-										}
-									}
-									if ((visibility2 & visibilityModifiers) == 0) {
-										// we simply report a changed visibility
-										globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.CHANGED, IDelta.TYPE_VISIBILITY, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
-												typeName,
-												Util.getComponentVersionsId(component2) }));
-									}
-									typeRootBaseLineNames.add(typeName);
-									ClassFileComparator comparator = new ClassFileComparator(typeDescriptor, typeRoot2, component, provider, referenceBaseline, baseline, visibilityModifiers);
-									IDelta delta = comparator.getDelta(localmonitor.newChild(1));
-									if (ApiPlugin.DEBUG_API_COMPARATOR) {
-										IStatus status = comparator.getStatus();
-										if (status != null) {
-											ApiPlugin.log(status);
-										}
-									}
-									if (delta != null && delta != NO_DELTA) {
-										globalDelta.add(delta);
-									}
-								}
-								Util.updateMonitor(localmonitor);
-							} catch (CoreException e) {
-								ApiPlugin.log(e);
-							}
+						public Delta call() throws Exception {
+							Delta containerDelta = new Delta();
+							compareContainer(container, component, component2, referenceBaseline, baseline, visibilityModifiers, apiDescription, apiDescription2, containerDelta, names, SubMonitor.convert(workerMonitor));
+							return containerDelta;
 						}
 					});
-				} catch (CoreException e) {
-					ApiPlugin.log(e);
+				}
+				addAll(globalDelta, WorkerPool.runAll(executor, tasks, localmonitor));
+			} else {
+				for (int i = 0, max = typeRootContainers.length; i < max; i++) {
+					Util.updateMonitor(localmonitor);
+					compareContainer(typeRootContainers[i], component, component2, referenceBaseline, baseline, visibilityModifiers, apiDescription, apiDescription2, globalDelta, typeRootBaseLineNames, localmonitor);
 				}
 			}
 		}
@@ -931,6 +1117,10 @@ public class ApiComparator {
 							Util.updateMonitor(localmonitor);
 							String typeName = typeRoot.getTypeName();
 							try {
+								if (typeRootBaseLineNames.contains(typeName)) {
+									// already processed
+									return;
+								}
 								IApiType type = typeRoot.getStructure();
 								IApiAnnotations elementDescription = apiDescription2.resolveAnnotations(type.getHandle());
 								if (type.isMemberType() || type.isLocal() || type.isAnonymous()) {
@@ -941,10 +1131,6 @@ public class ApiComparator {
 								if (filterType(visibilityModifiers, elementDescription, type)) {
 									return;
 								}
-								if (typeRootBaseLineNames.contains(typeName)) {
-									// already processed
-									return;
-								}
 								typeRootBaseLineNames.add(typeName);
 								String deltaComponentID = Util.getDeltaComponentVersionsId(component2);
 								globalDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.ADDED, IDelta.TYPE, elementDescription != null ? elementDescription.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, 0, type.getModifiers(), typeName, typeName, new String[] {
@@ -1020,4 +1206,203 @@ public class ApiComparator {
 		}
 		return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
 	}
+
+	/**
+	 * Compares the type roots of the given type container of the reference
+	 * component with the types of the other component
+	 * 
+	 * @param container the type container of the reference component
+	 * @param component the reference component
+	 * @param component2 the component to compare with
+	 * @param referenceBaseline
+	 * @param baseline
+	 * @param visibilityModifiers
+	 * @param apiDescription the API description of the reference component
+	 * @param apiDescription2 the API description of the other component
+	 * @param containerDelta the delta to add the deltas of the type roots to
+	 * @param typeRootBaseLineNames collects the names of the types found in
+	 *            both components
+	 * @param localmonitor
+	 */
+	private static void compareContainer(final IApiTypeContainer container, final IApiComponent component, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final IApiDescription apiDescription, final IApiDescription apiDescription2, final Delta containerDelta, final Set<String> typeRootBaseLineNames, final SubMonitor localmonitor) {
+		final String id = component.getSymbolicName();
+		final boolean isSWT = Util.ORG_ECLIPSE_SWT.equals(id);
+		final TypeDigestCache digests = getTypeDigests(component);
+		final TypeDigestCache digests2 = digests == null ? null : getTypeDigests(component2);
+		try {
+			container.accept(new ApiTypeContainerVisitor() {
+				@Override
+				public void visit(String packageName, IApiTypeRoot typeRoot) {
+					Util.updateMonitor(localmonitor);
+					String typeName = typeRoot.getTypeName();
+					try {
+						if (digests2 != null) {
+							TypeShape shape = digests.getShape(typeRoot);
+							if (shape != null) {
+								if (shape.isNested()) {
+									// we skip nested types (member, local and
+									// anonymous)
+									return;
+								}
+								IApiTypeRoot typeRoot2 = null;
+								if (isSWT) {
+									typeRoot2 = component2.findTypeRoot(typeName);
+								} else {
+									typeRoot2 = component2.findTypeRoot(typeName, id);
+								}
+								if (typeRoot2 != null) {
+									byte[] digest = digests.getDigest(component, typeRoot);
+									if (digest != null && Arrays.equals(digest, digests2.getDigest(component2, typeRoot2))) {
+										// same API shape, annotations and
+										// hierarchy: the types cannot differ
+										IApiAnnotations elementDescription = apiDescription.resolveAnnotations(Factory.typeDescriptor(typeName));
+										if (elementDescription == null || (elementDescription.getVisibility() & visibilityModifiers) == 0) {
+											// we skip the class file according
+											// to their visibility
+											return;
+										}
+										if (visibilityModifiers == VisibilityModifiers.API) {
+											// if the visibility is API, we only
+											// consider public and protected
+											// types
+											if (Util.isDefault(shape.getModifiers()) || Flags.isPrivate(shape.getModifiers())) {
+												return;
+											}
+										}
+										typeRootBaseLineNames.add(typeName);
+										return;
+									}
+								}
+							}
+						}
+						IApiType typeDescriptor = typeRoot.getStructure();
+						IApiAnnotations elementDescription = apiDescription.resolveAnnotations(typeDescriptor.getHandle());
+						if (typeDescriptor.isMemberType() || typeDescriptor.isAnonymous() || typeDescriptor.isLocal()) {
+							// we skip nested types (member, local and
+							// anonymous)
+							return;
+						}
+						int visibility = 0;
+						if (elementDescription != null) {
+							visibility = elementDescription.getVisibility();
+						}
+						IApiTypeRoot typeRoot2 = null;
+						if (isSWT) {
+							typeRoot2 = component2.findTypeRoot(typeName);
+						} else {
+							typeRoot2 = component2.findTypeRoot(typeName, id);
+						}
+						String deltaComponentID = null;
+						IApiComponent provider = null;
+						IApiDescription providerApiDesc = null;
+						boolean reexported = false;
+						if (typeRoot2 == null) {
+							// check if the type is provided by a
+							// required component (it could have been
+							// moved/re-exported)
+							IApiComponent[] providers = component2.getBaseline().resolvePackage(component2, packageName);
+							int index = 0;
+							while (typeRoot2 == null && index < providers.length) {
+								Util.updateMonitor(localmonitor);
+								IApiComponent p = providers[index];
+								if (!p.equals(component2)) {
+									String id2 = p.getSymbolicName();
+									if (Util.ORG_ECLIPSE_SWT.equals(id2)) {
+										typeRoot2 = p.findTypeRoot(typeName);
+									} else {
+										typeRoot2 = p.findTypeRoot(typeName, id2);
+									}
+									if (typeRoot2 != null) {
+										provider = p;
+										providerApiDesc = p.getApiDescription();
+										IRequiredComponentDescription[] required = component2.getRequiredComponents();
+										for (int k = 0; k < required.length; k++) {
+											IRequiredComponentDescription description = required[k];
+											if (description.getId().equals(id2)) {
+												reexported = description.isExported();
+												break;
+											}
+										}
+									}
+								}
+								index++;
+							}
+						} else {
+							provider = component2;
+							providerApiDesc = apiDescription2;
+						}
+						Util.updateMonitor(localmonitor);
+						deltaComponentID = Util.getDeltaComponentVersionsId(component2);
+						if (typeRoot2 == null) {
+							if ((visibility & visibilityModifiers) == 0) {
+								// we skip the class file according to
+								// their visibility
+								return;
+							}
+							if (visibilityModifiers == VisibilityModifiers.API) {
+								// if the visibility is API, we only
+								// consider public and protected types
+								if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
+									return;
+								}
+							}
+							containerDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, IDelta.TYPE, RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), 0, typeName, typeName, new String[] {
+									typeName,
+									Util.getComponentVersionsId(component2) }));
+						} else {
+							if ((visibility & visibilityModifiers) == 0) {
+								// we skip the class file according to
+								// their visibility
+								return;
+							}
+							IApiType typeDescriptor2 = typeRoot2.getStructure();
+							IApiAnnotations elementDescription2 = providerApiDesc.resolveAnnotations(typeDescriptor2.getHandle());
+							int visibility2 = 0;
+							if (elementDescription2 != null) {
+								visibility2 = elementDescription2.getVisibility();
+							}
+							if (visibilityModifiers == VisibilityModifiers.API) {
+								// if the visibility is API, we only
+								// consider public and protected types
+								if (Util.isDefault(typeDescriptor.getModifiers()) || Flags.isPrivate(typeDescriptor.getModifiers())) {
+									return;
+								}
+							}
+							if (Util.isAPI(visibility, typeDescriptor)) {
+								if (!Util.isAPI(visibility2, typeDescriptor2)) {
+									containerDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.REMOVED, reexported ? IDelta.REEXPORTED_API_TYPE : IDelta.API_TYPE, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
+											typeName,
+											Util.getComponentVersionsId(component2) }));
+									return;
+								}
+							}
+							if ((visibility2 & visibilityModifiers) == 0) {
+								// we simply report a changed visibility
+								containerDelta.add(new Delta(deltaComponentID, IDelta.API_COMPONENT_ELEMENT_TYPE, IDelta.CHANGED, IDelta.TYPE_VISIBILITY, elementDescription2 != null ? elementDescription2.getRestrictions() : RestrictionModifiers.NO_RESTRICTIONS, RestrictionModifiers.NO_RESTRICTIONS, typeDescriptor.getModifiers(), typeDescriptor2.getModifiers(), typeName, typeName, new String[] {
+										typeName,
+										Util.getComponentVersionsId(component2) }));
+							}
+							typeRootBaseLineNames.add(typeName);
+							ClassFileComparator comparator = new ClassFileComparator(typeDescriptor, typeRoot2, component, provider, referenceBaseline, baseline, visibilityModifiers);
+							IDelta delta = comparator.getDelta(localmonitor.newChild(1));
+							if (ApiPlugin.DEBUG_API_COMPARATOR) {
+								IStatus status = comparator.getStatus();
+								if (status != null) {
+									ApiPlugin.log(status);
+								}
+							}
+							if (delta != null && delta != NO_DELTA) {
+								containerDelta.add(delta);
+							}
+						}
+						Util.updateMonitor(localmonitor);
+					} catch (CoreException e) {
+						ApiPlugin.log(e);
+					}
+				}
+			});
+		} catch (CoreException e) {
+			ApiPlugin.log(e);
+		}
+	}
 }
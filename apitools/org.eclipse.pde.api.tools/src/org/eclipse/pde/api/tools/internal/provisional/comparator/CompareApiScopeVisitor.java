@@ -11,6 +11,7 @@
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -38,6 +39,12 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 	boolean containsErrors = false;
 	IProgressMonitor monitor;
 
+	/**
+	 * The executor used to compare the components of a baseline and the type
+	 * containers of a component concurrently or <code>null</code>
+	 */
+	ExecutorService executor;
+
 	public CompareApiScopeVisitor(final Set<IDelta> deltas, final IApiBaseline baseline, final boolean force, final int visibilityModifiers, final boolean continueOnResolverError, final IProgressMonitor monitor) {
 		this.deltas = deltas;
 		this.referenceBaseline = baseline;
@@ -51,7 +58,7 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 	public boolean visit(IApiBaseline baseline) throws CoreException {
 		try {
 			Util.updateMonitor(this.monitor);
-			IDelta delta = ApiComparator.compare(this.referenceBaseline, baseline, this.visibilityModifiers, this.force, null);
+			IDelta delta = ApiComparator.compare(this.referenceBaseline, baseline, this.visibilityModifiers, this.force, this.executor, null);
 			if (delta != null) {
 				delta.accept(new DeltaVisitor() {
 					@Override
@@ -115,7 +122,7 @@ public class CompareApiScopeVisitor extends ApiScopeVisitor {
 
 			Util.updateMonitor(this.monitor);
 			final Delta globalDelta = new Delta();
-			globalDelta.add(ApiComparator.compare(referenceComponent, component, this.visibilityModifiers, null));
+			globalDelta.add(ApiComparator.compare(referenceComponent, component, this.visibilityModifiers, this.executor, null));
 			if (referenceComponent != null) {
 				String versionString = referenceComponent.getVersion();
 				String versionString2 = component.getVersion();
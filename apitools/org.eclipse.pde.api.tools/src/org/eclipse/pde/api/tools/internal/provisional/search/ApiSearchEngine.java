@@ -12,13 +12,24 @@ package org.eclipse.pde.api.tools.internal.provisional.search;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.pde.api.tools.internal.builder.ReferenceResolver;
@@ -35,6 +46,7 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
 import org.eclipse.pde.api.tools.internal.search.SearchMessages;
 import org.eclipse.pde.api.tools.internal.util.Util;
+import org.eclipse.pde.api.tools.internal.util.WorkerPool;
 
 import com.ibm.icu.text.MessageFormat;
 
@@ -143,11 +155,59 @@ public final class ApiSearchEngine {
 		}
 	}
 
+	/**
+	 * Progress monitor handed to the worker threads of a parallel search. It
+	 * only forwards cancellation from the monitor of the search, which is
+	 * polled by the searching thread.
+	 */
+	static class WorkerMonitor extends NullProgressMonitor {
+		private volatile boolean fCanceled = false;
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.eclipse.core.runtime.NullProgressMonitor#isCanceled()
+		 */
+		@Override
+		public boolean isCanceled() {
+			return fCanceled;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.eclipse.core.runtime.NullProgressMonitor#setCanceled(boolean)
+		 */
+		@Override
+		public void setCanceled(boolean canceled) {
+			fCanceled = canceled;
+		}
+	}
+
 	/**
 	 * Simple string used for reporting what is being searched
 	 */
 	private String fRequestorContext = null;
 
+	/**
+	 * The number of threads used to search the components of the scope,
+	 * <code>1</code> searches them sequentially
+	 */
+	private int fThreadCount = 1;
+
+	/**
+	 * Sets the number of threads used to search the components of the scope.
+	 * With more than one thread, components are searched concurrently and the
+	 * {@link IApiSearchRequestor} and {@link IApiSearchReporter} used for the
+	 * search must be thread-safe. All elements of the same component are
+	 * searched by the same thread, in scope order.
+	 * 
+	 * @param count the number of threads, values less than <code>2</code>
+	 *            search sequentially
+	 * @since 1.0.600
+	 */
+	public void setThreadCount(int count) {
+		fThreadCount = Math.max(1, count);
+	}
+
 	/**
 	 * Returns the set of resolved references for the given {@link IApiType}
 	 * 
@@ -294,6 +354,10 @@ public final class ApiSearchEngine {
 		IApiElement[] scopeelements = scope.getApiElements();
 		SubMonitor localmonitor = SubMonitor.convert(monitor, MessageFormat.format(SearchMessages.ApiSearchEngine_searching_projects, new Object[] { fRequestorContext }), scopeelements.length * 2 + 1);
 		try {
+			if (fThreadCount > 1 && scopeelements.length > 1) {
+				searchInParallel(scopeelements, requestor, reporter, localmonitor);
+				return;
+			}
 			long start = System.currentTimeMillis();
 			long loopstart = 0;
 			String taskname = null;
@@ -336,6 +400,131 @@ public final class ApiSearchEngine {
 		}
 	}
 
+	/**
+	 * Searches the given scope elements on a pool of {@link #fThreadCount}
+	 * threads. Elements are grouped by their component and each group is
+	 * searched by a single thread in scope order, so every report file is
+	 * written by one thread with the same content as a sequential search.
+	 * 
+	 * @param scopeelements the elements to search
+	 * @param requestor the thread-safe requestor to use for the search
+	 * @param reporter the thread-safe reporter to report results to
+	 * @param localmonitor the monitor of the search, only used from the
+	 *            calling thread
+	 * @throws CoreException if the search of any component fails
+	 */
+	private void searchInParallel(IApiElement[] scopeelements, final IApiSearchRequestor requestor, final IApiSearchReporter reporter, SubMonitor localmonitor) throws CoreException {
+		LinkedHashMap<IApiComponent, List<IApiElement>> groups = new LinkedHashMap<IApiComponent, List<IApiElement>>();
+		for (int i = 0; i < scopeelements.length; i++) {
+			IApiComponent component = scopeelements[i].getApiComponent();
+			List<IApiElement> group = groups.get(component);
+			if (group == null) {
+				group = new ArrayList<IApiElement>();
+				groups.put(component, group);
+			}
+			group.add(scopeelements[i]);
+		}
+		long start = System.currentTimeMillis();
+		final WorkerMonitor workermonitor = new WorkerMonitor();
+		ExecutorService executor = WorkerPool.createExecutor("API Use Scan", Math.min(fThreadCount, groups.size())); //$NON-NLS-1$
+		CompletionService<List<IStatus>> service = new ExecutorCompletionService<List<IStatus>>(executor);
+		Map<Future<List<IStatus>>, Integer> groupsizes = new HashMap<Future<List<IStatus>>, Integer>(groups.size());
+		try {
+			for (final List<IApiElement> group : groups.values()) {
+				Future<List<IStatus>> future = service.submit(new Callable<List<IStatus>>() {
+					@Override
+					public List<IStatus> call() throws Exception {
+						return searchGroup(group, requestor, reporter, workermonitor);
+					}
+				});
+				groupsizes.put(future, Integer.valueOf(group.size()));
+			}
+			MultiStatus mstatus = null;
+			int remaining = groups.size();
+			while (remaining > 0) {
+				if (localmonitor.isCanceled()) {
+					workermonitor.setCanceled(true);
+				}
+				Future<List<IStatus>> future = null;
+				try {
+					future = service.poll(100, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					workermonitor.setCanceled(true);
+					Thread.currentThread().interrupt();
+					return;
+				}
+				if (future == null) {
+					continue;
+				}
+				remaining--;
+				List<IStatus> statuses = null;
+				try {
+					statuses = future.get();
+				} catch (ExecutionException e) {
+					statuses = Collections.<IStatus> singletonList(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, e.getCause().getMessage(), e.getCause()));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (IStatus status : statuses) {
+					if (mstatus == null) {
+						mstatus = new MultiStatus(ApiPlugin.PLUGIN_ID, IStatus.ERROR, null, null);
+					}
+					mstatus.add(status);
+				}
+				localmonitor.worked(2 * groupsizes.get(future).intValue());
+				if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+					System.out.println(Math.round((((float) (groups.size() - remaining)) / groups.size()) * 100) + "% done"); //$NON-NLS-1$
+				}
+			}
+			if (workermonitor.isCanceled()) {
+				return;
+			}
+			if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+				System.out.println("Total Search Time: " + ((System.currentTimeMillis() - start) / 1000) + " seconds"); //$NON-NLS-1$//$NON-NLS-2$
+			}
+			if (mstatus != null) {
+				throw new CoreException(mstatus);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Searches the given elements of a single component in order. Called from
+	 * the worker threads of a parallel search.
+	 * 
+	 * @param elements the elements to search
+	 * @param requestor the requestor to use for the search
+	 * @param reporter the reporter to report results to
+	 * @param monitor the shared worker monitor, only used for cancellation
+	 * @return the statuses of the failed searches, never <code>null</code>
+	 */
+	List<IStatus> searchGroup(List<IApiElement> elements, IApiSearchRequestor requestor, IApiSearchReporter reporter, WorkerMonitor monitor) {
+		List<IStatus> statuses = new ArrayList<IStatus>(1);
+		for (IApiElement element : elements) {
+			long loopstart = 0;
+			try {
+				if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+					loopstart = System.currentTimeMillis();
+					System.out.println("Searching " + element.getApiComponent().getSymbolicName() + "..."); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				searchReferences(requestor, element, reporter, SubMonitor.convert(monitor));
+				if (monitor.isCanceled()) {
+					reporter.reportResults(element, NO_REFERENCES);
+					break;
+				}
+				if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+					System.out.println("Searched " + element.getApiComponent().getSymbolicName() + " in " + (System.currentTimeMillis() - loopstart) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				}
+			} catch (CoreException ce) {
+				statuses.add(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, ce.getMessage(), ce));
+			}
+		}
+		return statuses;
+	}
+
 	/**
 	 * Computes the process context (label)
 	 * 
@@ -16,6 +16,14 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 /**
  * Describes a reporter called out to by the {@link ApiSearchEngine} when a
  * pre-determined set of results have been collected.
+ * <p>
+ * When the engine searches with more than one thread (see
+ * {@link ApiSearchEngine#setThreadCount(int)}),
+ * {@link #reportResults(IApiElement, IReference[])} is called concurrently from
+ * several threads and must be thread-safe. Results for elements of the same
+ * component are always reported from one thread, in the same order as a
+ * sequential search.
+ * </p>
  * 
  * @since 1.0.0
  */
@@ -18,6 +18,14 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeContainer;
 
 /**
  * A default search requestor to use for API tools
+ * <p>
+ * When the {@link ApiSearchEngine} searches with more than one thread (see
+ * {@link ApiSearchEngine#setThreadCount(int)}), requestors are called
+ * concurrently and must be thread-safe. A component and all of its containers,
+ * members and references are always visited by a single thread, so state kept
+ * between {@link #acceptComponent(IApiComponent)} and the calls for its
+ * references can be held per thread.
+ * </p>
  * 
  * @since 1.0.0
  */
@@ -246,6 +246,7 @@ public class ReferenceLookupVisitor extends UseScanVisitor {
 	 */
 	@Override
 	public void endVisitScan() {
+		new XmlReferenceDescriptorWriter(location).finish();
 		BufferedWriter writer = null;
 		try {
 			// generate missing bundles information
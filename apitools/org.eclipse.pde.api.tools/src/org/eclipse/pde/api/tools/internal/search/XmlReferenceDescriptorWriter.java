@@ -11,21 +11,30 @@
 package org.eclipse.pde.api.tools.internal.search;
 
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileFilter;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.FactoryConfigurationError;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.pde.api.tools.internal.IApiCoreConstants;
@@ -43,11 +52,6 @@ import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceType
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
 import org.eclipse.pde.api.tools.internal.util.Signatures;
 import org.eclipse.pde.api.tools.internal.util.Util;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Writes reference descriptions to XML files.
@@ -63,9 +67,45 @@ public class XmlReferenceDescriptorWriter {
 	public static final String METHOD_REFERENCES = "method_references"; //$NON-NLS-1$
 	public static final String FIELD_REFERENCES = "field_references"; //$NON-NLS-1$
 	private static final Integer V_ILLEGAL = new Integer(VisibilityModifiers.ILLEGAL_API);
+	private static final String XML_EXTENSION = ".xml"; //$NON-NLS-1$
+	/**
+	 * Extension of the append-only shards written before they are merged into
+	 * the report files. Shards are not picked up by the {@link UseScanParser}
+	 * as they do not end with <code>.xml</code>.
+	 */
+	private static final String SHARD_EXTENSION = ".part"; //$NON-NLS-1$
+	private static final byte[] SHARD_START = "<shard>".getBytes(); //$NON-NLS-1$
+	private static final byte[] SHARD_END = "</shard>".getBytes(); //$NON-NLS-1$
+	private static final String INDENT = "    "; //$NON-NLS-1$
 	private String fLocation = null;
 	private HashMap<String, HashMap<String, HashMap<Integer, HashMap<Integer, HashMap<String, HashSet<IReferenceDescriptor>>>>>> fReferenceMap = null;
-	private DocumentBuilder parser = null;
+	private XMLOutputFactory fOutputFactory = null;
+	private XMLInputFactory fInputFactory = null;
+
+	/**
+	 * The contents of a report file while merging its shard
+	 */
+	static class Group {
+		LinkedHashMap<String, String> attributes = new LinkedHashMap<String, String>();
+		LinkedHashMap<String, Target> targets = new LinkedHashMap<String, Target>();
+		int count = 0;
+	}
+
+	/**
+	 * A referenced member and its references by kind
+	 */
+	static class Target {
+		LinkedHashMap<String, String> attributes = new LinkedHashMap<String, String>();
+		LinkedHashMap<String, Kind> kinds = new LinkedHashMap<String, Kind>();
+	}
+
+	/**
+	 * The references of one kind to a referenced member
+	 */
+	static class Kind {
+		LinkedHashMap<String, String> attributes = new LinkedHashMap<String, String>();
+		List<Map<String, String>> references = new ArrayList<Map<String, String>>();
+	}
 
 	/**
 	 * Alternate API component where references were unresolved, or
@@ -82,18 +122,14 @@ public class XmlReferenceDescriptorWriter {
 	 */
 	public XmlReferenceDescriptorWriter(String location) {
 		fLocation = location;
-		try {
-			parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			parser.setErrorHandler(new DefaultHandler());
-		} catch (FactoryConfigurationError fce) {
-			ApiPlugin.log(fce);
-		} catch (ParserConfigurationException pce) {
-			ApiPlugin.log(pce);
-		}
+		fOutputFactory = XMLOutputFactory.newInstance();
+		fInputFactory = XMLInputFactory.newInstance();
 	}
 
 	/**
-	 * Writes the given references to XML files.
+	 * Writes the given references to XML files. The references are appended to
+	 * shards of the report files, {@link #finish()} must be called once all
+	 * references have been written.
 	 * 
 	 * @param references
 	 */
@@ -249,10 +285,10 @@ public class XmlReferenceDescriptorWriter {
 	 * 
 	 * @param parent
 	 * @throws CoreException
-	 * @throws FileNotFoundException
 	 * @throws IOException
+	 * @throws XMLStreamException
 	 */
-	private void writeXML(File parent) throws CoreException, FileNotFoundException, IOException {
+	private void writeXML(File parent) throws CoreException, IOException, XMLStreamException {
 		HashMap<Integer, HashMap<String, HashSet<IReferenceDescriptor>>> vismap = null;
 		HashMap<String, HashSet<IReferenceDescriptor>> typemap = null;
 		HashMap<String, HashMap<Integer, HashMap<Integer, HashMap<String, HashSet<IReferenceDescriptor>>>>> rmap = null;
@@ -301,8 +337,9 @@ public class XmlReferenceDescriptorWriter {
 	}
 
 	/**
-	 * Writes out a group of references under the newly created element with the
-	 * given name
+	 * Appends a group of references to the shard of the report file with the
+	 * given name. The shard is a sequence of XML fragments that is only ever
+	 * appended to, it is merged into the report file by {@link #finish()}.
 	 * 
 	 * @param origin the name of the bundle that has the references in it
 	 * @param referee the name of the bundle that is referenced
@@ -311,112 +348,250 @@ public class XmlReferenceDescriptorWriter {
 	 * @param map
 	 * @param visibility
 	 */
-	private void writeGroup(String origin, String referee, File parent, String name, HashMap<String, HashSet<IReferenceDescriptor>> map, int visibility) throws CoreException, FileNotFoundException, IOException {
+	private void writeGroup(String origin, String referee, File parent, String name, HashMap<String, HashSet<IReferenceDescriptor>> map, int visibility) throws CoreException, IOException, XMLStreamException {
 		if (parent.exists()) {
-			BufferedWriter writer = null;
+			File shard = new File(parent, name + XML_EXTENSION + SHARD_EXTENSION);
+			boolean header = !shard.exists();
+			BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(shard, true), IApiCoreConstants.UTF_8));
 			try {
-				Document doc = null;
-				Element root = null;
-				int count = 0;
-				File out = new File(parent, name + ".xml"); //$NON-NLS-1$
-				if (out.exists()) {
-					try {
-						FileInputStream inputStream = null;
-						try {
-							inputStream = new FileInputStream(out);
-							doc = this.parser.parse(inputStream);
-						} catch (IOException e) {
-							e.printStackTrace();
-						} finally {
-							if (inputStream != null) {
-								inputStream.close();
-							}
-						}
-						if (doc == null) {
-							return;
-						}
-						root = doc.getDocumentElement();
-						String value = root.getAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT);
-						count = Integer.parseInt(value);
-					} catch (SAXException se) {
-						se.printStackTrace();
-					}
-				} else {
-					doc = Util.newDocument();
-					root = doc.createElement(IApiXmlConstants.REFERENCES);
-					doc.appendChild(root);
-					root.setAttribute(IApiXmlConstants.ATTR_REFERENCE_VISIBILITY, Integer.toString(visibility));
-					root.setAttribute(IApiXmlConstants.ATTR_ORIGIN, origin);
-					root.setAttribute(IApiXmlConstants.ATTR_REFEREE, referee);
-					root.setAttribute(IApiXmlConstants.ATTR_NAME, getFormattedTypeName(name));
+				XMLStreamWriter writer = fOutputFactory.createXMLStreamWriter(out);
+				if (header) {
+					writer.writeEmptyElement(IApiXmlConstants.REFERENCES);
+					writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_VISIBILITY, Integer.toString(visibility));
+					writer.writeAttribute(IApiXmlConstants.ATTR_ORIGIN, origin);
+					writer.writeAttribute(IApiXmlConstants.ATTR_REFEREE, referee);
+					writer.writeAttribute(IApiXmlConstants.ATTR_NAME, getFormattedTypeName(name));
 					if (alternate != null) {
-						root.setAttribute(IApiXmlConstants.ATTR_ALTERNATE, getId(alternate));
+						writer.writeAttribute(IApiXmlConstants.ATTR_ALTERNATE, getId(alternate));
 					}
 				}
-				if (doc == null || root == null) {
-					return;
-				}
-				String tname = null;
-				HashSet<IReferenceDescriptor> refs = null;
-				Element telement = null;
 				for (Iterator<Entry<String, HashSet<IReferenceDescriptor>>> iter = map.entrySet().iterator(); iter.hasNext();) {
 					Entry<String, HashSet<IReferenceDescriptor>> entry = iter.next();
-					tname = entry.getKey();
-					telement = findTypeElement(root, tname);
-					if (telement == null) {
-						telement = doc.createElement(IApiXmlConstants.ELEMENT_TARGET);
-						telement.setAttribute(IApiXmlConstants.ATTR_NAME, tname);
-						root.appendChild(telement);
-					}
-					refs = entry.getValue();
-					if (refs != null) {
-						for (Iterator<IReferenceDescriptor> iter2 = refs.iterator(); iter2.hasNext();) {
-							count++;
-							IReferenceDescriptor ref = iter2.next();
-							writeReference(doc, telement, ref);
-							if (!iter2.hasNext()) {
-								// set qualified referenced attributes
-								IMemberDescriptor resolved = ref.getReferencedMember();
-								if (resolved != null) {
-									addMemberDetails(telement, resolved);
-								}
-							}
+					HashSet<IReferenceDescriptor> refs = entry.getValue();
+					IReferenceDescriptor[] descriptors = refs == null ? new IReferenceDescriptor[0] : refs.toArray(new IReferenceDescriptor[refs.size()]);
+					writer.writeStartElement(IApiXmlConstants.ELEMENT_TARGET);
+					writer.writeAttribute(IApiXmlConstants.ATTR_NAME, entry.getKey());
+					writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT, Integer.toString(descriptors.length));
+					if (descriptors.length > 0) {
+						// set qualified referenced attributes
+						IMemberDescriptor resolved = descriptors[descriptors.length - 1].getReferencedMember();
+						if (resolved != null) {
+							addMemberDetails(writer, resolved);
 						}
 					}
+					writeReferences(writer, descriptors);
+					writer.writeEndElement();
 				}
-				root.setAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT, Integer.toString(count));
-				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), IApiCoreConstants.UTF_8));
-				writer.write(Util.serializeDocument(doc));
 				writer.flush();
+				writer.close();
 			} finally {
-				if (writer != null) {
-					writer.close();
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Merges the shards written by {@link #writeReferences(IReferenceDescriptor[])}
+	 * into the XML report files, appending to any report file already in the
+	 * report location. Must be called once all references have been written,
+	 * report files are incomplete until then.
+	 */
+	public void finish() {
+		if (fLocation == null) {
+			return;
+		}
+		File[] shards = Util.getAllFiles(new File(fLocation), new FileFilter() {
+			@Override
+			public boolean accept(File pathname) {
+				return pathname.isDirectory() || pathname.getName().endsWith(SHARD_EXTENSION);
+			}
+		});
+		if (shards == null) {
+			return;
+		}
+		for (int i = 0; i < shards.length; i++) {
+			try {
+				mergeShard(shards[i]);
+			} catch (Exception e) {
+				ApiPlugin.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Merges the given shard into its report file and deletes it. This reads
+	 * the shard and the existing report file once and writes the report file
+	 * once.
+	 * 
+	 * @param shard
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 */
+	private void mergeShard(File shard) throws IOException, XMLStreamException {
+		String name = shard.getName();
+		File report = new File(shard.getParentFile(), name.substring(0, name.length() - SHARD_EXTENSION.length()));
+		Group group = new Group();
+		if (report.exists()) {
+			readGroup(new FileInputStream(report), group);
+		}
+		readGroup(new SequenceInputStream(new ByteArrayInputStream(SHARD_START), new SequenceInputStream(new FileInputStream(shard), new ByteArrayInputStream(SHARD_END))), group);
+		BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(report), IApiCoreConstants.UTF_8));
+		try {
+			XMLStreamWriter writer = fOutputFactory.createXMLStreamWriter(out);
+			writer.writeStartDocument(IApiCoreConstants.UTF_8, "1.0"); //$NON-NLS-1$
+			newLine(writer, 0);
+			writer.writeStartElement(IApiXmlConstants.REFERENCES);
+			writeAttributes(writer, group.attributes);
+			writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_COUNT, Integer.toString(group.count));
+			for (Iterator<Target> iter = group.targets.values().iterator(); iter.hasNext();) {
+				Target target = iter.next();
+				newLine(writer, 1);
+				writer.writeStartElement(IApiXmlConstants.ELEMENT_TARGET);
+				writeAttributes(writer, target.attributes);
+				for (Iterator<Kind> iter2 = target.kinds.values().iterator(); iter2.hasNext();) {
+					Kind kind = iter2.next();
+					newLine(writer, 2);
+					writer.writeStartElement(IApiXmlConstants.REFERENCE_KIND);
+					writeAttributes(writer, kind.attributes);
+					for (Iterator<Map<String, String>> iter3 = kind.references.iterator(); iter3.hasNext();) {
+						newLine(writer, 3);
+						writer.writeEmptyElement(IApiXmlConstants.ATTR_REFERENCE);
+						writeAttributes(writer, iter3.next());
+					}
+					newLine(writer, 2);
+					writer.writeEndElement();
 				}
+				newLine(writer, 1);
+				writer.writeEndElement();
 			}
+			newLine(writer, 0);
+			writer.writeEndElement();
+			newLine(writer, 0);
+			writer.writeEndDocument();
+			writer.flush();
+			writer.close();
+		} finally {
+			out.close();
+		}
+		if (!shard.delete()) {
+			shard.deleteOnExit();
+		}
+	}
+
+	/**
+	 * Reads a report file or a shard into the given group. References of
+	 * targets and reference kinds that are already in the group are appended
+	 * to them.
+	 * 
+	 * @param stream the stream to read, closed by this method
+	 * @param group
+	 * @throws XMLStreamException
+	 * @throws IOException
+	 */
+	private void readGroup(InputStream stream, Group group) throws XMLStreamException, IOException {
+		try {
+			XMLStreamReader reader = fInputFactory.createXMLStreamReader(stream, IApiCoreConstants.UTF_8);
+			Target target = null;
+			Kind kind = null;
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String element = reader.getLocalName();
+				if (IApiXmlConstants.REFERENCES.equals(element)) {
+					Map<String, String> attributes = readAttributes(reader, group);
+					if (group.attributes.isEmpty()) {
+						group.attributes.putAll(attributes);
+					}
+				} else if (IApiXmlConstants.ELEMENT_TARGET.equals(element)) {
+					Map<String, String> attributes = readAttributes(reader, group);
+					String tname = attributes.get(IApiXmlConstants.ATTR_NAME);
+					target = group.targets.get(tname);
+					if (target == null) {
+						target = new Target();
+						group.targets.put(tname, target);
+					}
+					target.attributes.putAll(attributes);
+				} else if (IApiXmlConstants.REFERENCE_KIND.equals(element) && target != null) {
+					Map<String, String> attributes = readAttributes(reader, group);
+					String kname = attributes.get(IApiXmlConstants.ATTR_KIND);
+					kind = target.kinds.get(kname);
+					if (kind == null) {
+						kind = new Kind();
+						kind.attributes.putAll(attributes);
+						target.kinds.put(kname, kind);
+					}
+				} else if (IApiXmlConstants.ATTR_REFERENCE.equals(element) && kind != null) {
+					kind.references.add(readAttributes(reader, group));
+				}
+			}
+			reader.close();
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Returns the attributes of the current element of the given reader, adding
+	 * any reference count to the count of the given group
+	 * 
+	 * @param reader
+	 * @param group
+	 * @return the attributes of the current element in document order, without
+	 *         the reference count
+	 */
+	private Map<String, String> readAttributes(XMLStreamReader reader, Group group) {
+		LinkedHashMap<String, String> attributes = new LinkedHashMap<String, String>();
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String name = reader.getAttributeLocalName(i);
+			if (IApiXmlConstants.ATTR_REFERENCE_COUNT.equals(name)) {
+				try {
+					group.count += Integer.parseInt(reader.getAttributeValue(i));
+				} catch (NumberFormatException e) {
+					// ignore a malformed count
+				}
+			} else {
+				attributes.put(name, reader.getAttributeValue(i));
+			}
+		}
+		return attributes;
+	}
+
+	private void writeAttributes(XMLStreamWriter writer, Map<String, String> attributes) throws XMLStreamException {
+		for (Iterator<Entry<String, String>> iter = attributes.entrySet().iterator(); iter.hasNext();) {
+			Entry<String, String> entry = iter.next();
+			writer.writeAttribute(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void newLine(XMLStreamWriter writer, int depth) throws XMLStreamException {
+		writer.writeCharacters("\n"); //$NON-NLS-1$
+		for (int i = 0; i < depth; i++) {
+			writer.writeCharacters(INDENT);
 		}
 	}
 
 	/**
-	 * Add member descriptor details to the given element.
+	 * Add member descriptor details to the element being written.
 	 * 
-	 * @param element XML element
+	 * @param writer XML writer positioned on the element
 	 * @param member member to add details for
 	 */
-	private void addMemberDetails(Element element, IMemberDescriptor member) {
+	private void addMemberDetails(XMLStreamWriter writer, IMemberDescriptor member) throws XMLStreamException {
 		switch (member.getElementType()) {
 			case IElementDescriptor.TYPE:
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, ((IReferenceTypeDescriptor) member).getQualifiedName());
+				writer.writeAttribute(IApiXmlConstants.ATTR_TYPE, ((IReferenceTypeDescriptor) member).getQualifiedName());
 				break;
 			case IElementDescriptor.FIELD:
 				IReferenceTypeDescriptor encl = member.getEnclosingType();
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
-				element.setAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
+				writer.writeAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
+				writer.writeAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
 				break;
 			case IElementDescriptor.METHOD:
 				encl = member.getEnclosingType();
-				element.setAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
-				element.setAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
-				element.setAttribute(IApiXmlConstants.ATTR_SIGNATURE, ((IMethodDescriptor) member).getSignature());
+				writer.writeAttribute(IApiXmlConstants.ATTR_TYPE, encl.getQualifiedName());
+				writer.writeAttribute(IApiXmlConstants.ATTR_MEMBER_NAME, member.getName());
+				writer.writeAttribute(IApiXmlConstants.ATTR_SIGNATURE, ((IMethodDescriptor) member).getSignature());
 				break;
 			default:
 				break;
@@ -424,79 +599,59 @@ public class XmlReferenceDescriptorWriter {
 	}
 
 	/**
-	 * gets the root kind element
+	 * Writes the given references of one target grouped by reference kind. The
+	 * flags of a kind are the ones of its first reference.
 	 * 
-	 * @param root
-	 * @param kind
-	 * @return
+	 * @param writer
+	 * @param references
 	 */
-	private Element findTypeElement(Element root, String tname) {
-		if (tname == null) {
-			return null;
-		}
-		Element kelement = null;
-		NodeList nodes = root.getElementsByTagName(IApiXmlConstants.ELEMENT_TARGET);
-		for (int i = 0; i < nodes.getLength(); i++) {
-			kelement = (Element) nodes.item(i);
-			if (tname.equals(kelement.getAttribute(IApiXmlConstants.ATTR_NAME))) {
-				return kelement;
+	private void writeReferences(XMLStreamWriter writer, IReferenceDescriptor[] references) throws CoreException, XMLStreamException {
+		LinkedHashMap<Integer, List<IReferenceDescriptor>> kinds = new LinkedHashMap<Integer, List<IReferenceDescriptor>>();
+		for (int i = 0; i < references.length; i++) {
+			Integer kind = new Integer(references[i].getReferenceKind());
+			List<IReferenceDescriptor> refs = kinds.get(kind);
+			if (refs == null) {
+				refs = new ArrayList<IReferenceDescriptor>();
+				kinds.put(kind, refs);
 			}
+			refs.add(references[i]);
 		}
-		return null;
-	}
-
-	/**
-	 * gets the root kind element
-	 * 
-	 * @param root
-	 * @param kind
-	 * @return
-	 */
-	private Element findKindElement(Element root, Integer kind) {
-		Element kelement = null;
-		NodeList nodes = root.getElementsByTagName(IApiXmlConstants.REFERENCE_KIND);
-		for (int i = 0; i < nodes.getLength(); i++) {
-			kelement = (Element) nodes.item(i);
-			if (kind.toString().equals(kelement.getAttribute(IApiXmlConstants.ATTR_KIND))) {
-				return kelement;
+		for (Iterator<Entry<Integer, List<IReferenceDescriptor>>> iter = kinds.entrySet().iterator(); iter.hasNext();) {
+			Entry<Integer, List<IReferenceDescriptor>> entry = iter.next();
+			Integer kind = entry.getKey();
+			List<IReferenceDescriptor> refs = entry.getValue();
+			writer.writeStartElement(IApiXmlConstants.REFERENCE_KIND);
+			writer.writeAttribute(IApiXmlConstants.ATTR_REFERENCE_KIND_NAME, Reference.getReferenceText(kind.intValue()));
+			writer.writeAttribute(IApiXmlConstants.ATTR_KIND, kind.toString());
+			writer.writeAttribute(IApiXmlConstants.ATTR_FLAGS, Integer.toString(refs.get(0).getReferenceFlags()));
+			for (Iterator<IReferenceDescriptor> iter2 = refs.iterator(); iter2.hasNext();) {
+				writeReference(writer, iter2.next());
 			}
+			writer.writeEndElement();
 		}
-		return null;
 	}
 
 	/**
 	 * Writes the attributes from the given {@link IReference} into a new
-	 * {@link Element} that is added to the given parent.
+	 * element.
 	 * 
-	 * @param document
-	 * @param parent
+	 * @param writer
 	 * @param reference
 	 */
-	private void writeReference(Document document, Element parent, IReferenceDescriptor reference) throws CoreException {
-		Element kelement = null;
-		Integer kind = new Integer(reference.getReferenceKind());
-		kelement = findKindElement(parent, kind);
-		if (kelement == null) {
-			kelement = document.createElement(IApiXmlConstants.REFERENCE_KIND);
-			kelement.setAttribute(IApiXmlConstants.ATTR_REFERENCE_KIND_NAME, Reference.getReferenceText(kind.intValue()));
-			kelement.setAttribute(IApiXmlConstants.ATTR_KIND, kind.toString());
-			kelement.setAttribute(IApiXmlConstants.ATTR_FLAGS, Integer.toString(reference.getReferenceFlags()));
-			parent.appendChild(kelement);
+	private void writeReference(XMLStreamWriter writer, IReferenceDescriptor reference) throws CoreException, XMLStreamException {
+		if (reference.getReferencedMember() == null) {
+			return;
 		}
-		Element relement = document.createElement(IApiXmlConstants.ATTR_REFERENCE);
+		writer.writeEmptyElement(IApiXmlConstants.ATTR_REFERENCE);
 		IMemberDescriptor member = reference.getMember();
-		relement.setAttribute(IApiXmlConstants.ATTR_ORIGIN, getText(member));
+		writer.writeAttribute(IApiXmlConstants.ATTR_ORIGIN, getText(member));
 		String[] messages = reference.getProblemMessages();
 		if (messages != null) {
-			relement.setAttribute(IApiXmlConstants.ELEMENT_PROBLEM_MESSAGE_ARGUMENTS, getText(messages));
+			writer.writeAttribute(IApiXmlConstants.ELEMENT_PROBLEM_MESSAGE_ARGUMENTS, getText(messages));
 		}
 		// add detailed information about origin
-		addMemberDetails(relement, member);
-		member = reference.getReferencedMember();
-		if (member != null) {
-			relement.setAttribute(IApiXmlConstants.ATTR_LINE_NUMBER, Integer.toString(reference.getLineNumber()));
-			kelement.appendChild(relement);
-		}
+		addMemberDetails(writer, member);
+		writer.writeAttribute(IApiXmlConstants.ATTR_LINE_NUMBER, Integer.toString(reference.getLineNumber()));
 	}
 
 	/**
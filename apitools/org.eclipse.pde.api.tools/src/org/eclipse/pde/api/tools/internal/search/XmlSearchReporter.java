@@ -76,7 +76,8 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	}
 
 	/*
-	 * (non-Javadoc)
+	 * (non-Javadoc) Thread-safe: references of different components are
+	 * written to different files, only the counters are shared.
 	 * @see
 	 * org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchReporter
 	 * #reportResults
@@ -102,15 +103,17 @@ public class XmlSearchReporter implements IApiSearchReporter {
 
 				// Update counters
 				if (!writtenReferences.contains(descriptor)) {
-					referenceCount++;
-					if ((references[i].getReferenceFlags() & IReference.F_ILLEGAL) > 0) {
-						illegalCount++;
-					}
-					// Though visibility is a bit flag, we want to match the xml
-					// output exactly, which separates into folders by
-					// visibility equality
-					if (descriptor.getVisibility() == VisibilityModifiers.PRIVATE) {
-						internalCount++;
+					synchronized (this) {
+						referenceCount++;
+						if ((references[i].getReferenceFlags() & IReference.F_ILLEGAL) > 0) {
+							illegalCount++;
+						}
+						// Though visibility is a bit flag, we want to match the
+						// xml output exactly, which separates into folders by
+						// visibility equality
+						if (descriptor.getVisibility() == VisibilityModifiers.PRIVATE) {
+							internalCount++;
+						}
 					}
 					writtenReferences.add(descriptor);
 				}
@@ -228,7 +231,13 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	 * #reportCounts()
 	 */
 	@Override
-	public void reportCounts() {
+	public synchronized void reportCounts() {
+		// the counts are reported once the search is done, complete the
+		// reference files before
+		if (this.debug) {
+			System.out.println("Merging reference files..."); //$NON-NLS-1$
+		}
+		new XmlReferenceDescriptorWriter(fLocation).finish();
 		BufferedWriter writer = null;
 		try {
 			if (this.debug) {
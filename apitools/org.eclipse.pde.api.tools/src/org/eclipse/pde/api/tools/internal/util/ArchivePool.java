@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+
+/**
+ * A bounded pool of open archives shared by all archive based type containers.
+ * <p>
+ * Opening a {@link ZipFile} reads the central directory of the archive, which
+ * is expensive when done for every class file read from the archive. The pool
+ * keeps recently used archives open so that entries can be looked up in the
+ * already loaded central directory. Handles are reference counted: an archive
+ * is only closed once it is no longer in use and has either been evicted as
+ * the least recently used archive or explicitly closed.
+ * </p>
+ *
+ * @since 1.0.600
+ */
+public final class ArchivePool {
+
+	/**
+	 * Default maximum number of archives kept open at the same time
+	 */
+	public static final int DEFAULT_MAX_OPEN_ARCHIVES = 32;
+
+	/**
+	 * An open archive and the number of clients currently using it
+	 */
+	static final class Handle {
+		final String location;
+		final ZipFile zipFile;
+		final long lastModified;
+		final long length;
+		int refCount = 0;
+		boolean stale = false;
+
+		Handle(String location, ZipFile zipFile, long lastModified, long length) {
+			this.location = location;
+			this.zipFile = zipFile;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+	}
+
+	private static ArchivePool fInstance = null;
+
+	/**
+	 * Open archives by location in least recently used order
+	 */
+	private final LinkedHashMap<String, Handle> fHandles = new LinkedHashMap<String, Handle>(16, 0.75f, true);
+
+	/**
+	 * All open archives, including the ones removed from the pool while still
+	 * in use which are closed once released
+	 */
+	private final Map<ZipFile, Handle> fOpen = new IdentityHashMap<ZipFile, Handle>();
+
+	/**
+	 * Locations of archives -> their key in the pool
+	 */
+	private final ConcurrentHashMap<String, String> fKeys = new ConcurrentHashMap<String, String>();
+
+	private int fMaxOpen = DEFAULT_MAX_OPEN_ARCHIVES;
+
+	private long fHits = 0;
+	private long fMisses = 0;
+	private long fEvictions = 0;
+
+	/**
+	 * Constructor private - no instantiation
+	 */
+	private ArchivePool() {
+	}
+
+	/**
+	 * Returns the singleton instance of the pool
+	 *
+	 * @return the pool instance
+	 */
+	public synchronized static ArchivePool getPool() {
+		if (fInstance == null) {
+			fInstance = new ArchivePool();
+		}
+		return fInstance;
+	}
+
+	/**
+	 * Returns an open archive for the given location, opening it if it is not
+	 * already in the pool. Every call must be balanced by a call to
+	 * {@link #release(ZipFile)}. Archives are opened without holding the lock
+	 * of the pool, so several archives can be opened at the same time.
+	 *
+	 * @param location path of the archive in the local file system
+	 * @return the open archive
+	 * @throws IOException if the archive cannot be opened
+	 */
+	public ZipFile acquire(String location) throws IOException {
+		String key = getKey(location);
+		File file = new File(key);
+		long lastModified = file.lastModified();
+		long length = file.length();
+		synchronized (this) {
+			Handle handle = acquireHandle(key, lastModified, length);
+			if (handle != null) {
+				fHits++;
+				return handle.zipFile;
+			}
+			fMisses++;
+		}
+		ZipFile zipFile = new ZipFile(file);
+		Handle handle = null;
+		synchronized (this) {
+			handle = acquireHandle(key, lastModified, length);
+			if (handle == null) {
+				handle = new Handle(key, zipFile, lastModified, length);
+				handle.refCount++;
+				fHandles.put(key, handle);
+				fOpen.put(zipFile, handle);
+				evict();
+				return zipFile;
+			}
+		}
+		// another thread opened the archive in the meantime
+		try {
+			zipFile.close();
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		}
+		return handle.zipFile;
+	}
+
+	/**
+	 * Returns the pooled handle of the archive with the given key after
+	 * incrementing its reference count, or <code>null</code> if the archive is
+	 * not in the pool or changed on disk since it was opened.
+	 */
+	private Handle acquireHandle(String key, long lastModified, long length) {
+		Handle handle = fHandles.get(key);
+		if (handle != null && (handle.lastModified != lastModified || handle.length != length)) {
+			// the archive changed on disk since it was opened
+			retire(fHandles.remove(key));
+			handle = null;
+		}
+		if (handle != null) {
+			handle.refCount++;
+		}
+		return handle;
+	}
+
+	/**
+	 * Returns the key of the archive at the given location in the pool, its
+	 * canonical path, so every location of an archive maps to the same handle.
+	 *
+	 * @param location path of the archive in the local file system
+	 * @return the key of the archive
+	 */
+	String getKey(String location) {
+		String key = fKeys.get(location);
+		if (key == null) {
+			File file = new File(location);
+			try {
+				key = file.getCanonicalPath();
+			} catch (IOException e) {
+				key = file.getAbsolutePath();
+			}
+			fKeys.put(location, key);
+		}
+		return key;
+	}
+
+	/**
+	 * Releases an archive previously returned by {@link #acquire(String)}.
+	 *
+	 * @param zipFile the archive to release
+	 */
+	public synchronized void release(ZipFile zipFile) {
+		if (zipFile == null) {
+			return;
+		}
+		Handle handle = fOpen.get(zipFile);
+		if (handle == null) {
+			return;
+		}
+		handle.refCount--;
+		if (handle.stale) {
+			if (handle.refCount <= 0) {
+				closeHandle(handle);
+			}
+		} else {
+			evict();
+		}
+	}
+
+	/**
+	 * Returns the contents of the given entry of the archive at the given
+	 * location, or <code>null</code> if the archive has no such entry.
+	 *
+	 * @param location path of the archive in the local file system
+	 * @param entryName name of the entry to read
+	 * @return the contents of the entry or <code>null</code>
+	 * @throws IOException if the archive or entry cannot be read
+	 */
+	public byte[] readEntry(String location, String entryName) throws IOException {
+		ZipFile zipFile = acquire(location);
+		try {
+			ZipEntry entry = zipFile.getEntry(entryName);
+			if (entry == null) {
+				return null;
+			}
+			InputStream stream = zipFile.getInputStream(entry);
+			try {
+				return Util.getInputStreamAsByteArray(stream, (int) entry.getSize());
+			} finally {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					ApiPlugin.log(e);
+				}
+			}
+		} finally {
+			release(zipFile);
+		}
+	}
+
+	/**
+	 * Removes the archive at the given location from the pool. The archive is
+	 * closed immediately if it is not in use, otherwise once it is released.
+	 *
+	 * @param location path of the archive in the local file system
+	 */
+	public void close(String location) {
+		String key = getKey(location);
+		synchronized (this) {
+			Handle handle = fHandles.remove(key);
+			if (handle != null) {
+				retire(handle);
+			}
+		}
+	}
+
+	/**
+	 * Removes all archives from the pool, closing the ones that are not in
+	 * use.
+	 */
+	public synchronized void closeAll() {
+		Handle[] handles = fHandles.values().toArray(new Handle[fHandles.size()]);
+		fHandles.clear();
+		fKeys.clear();
+		for (int i = 0; i < handles.length; i++) {
+			retire(handles[i]);
+		}
+		if (ApiPlugin.DEBUG_ARCHIVE_POOL) {
+			System.out.println("Archive pool closed: " + fHits + " hits, " + fMisses + " misses, " + fEvictions + " evictions"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+	}
+
+	/**
+	 * Sets the maximum number of archives kept open. Archives in use are never
+	 * closed, so the number of open archives can temporarily exceed this
+	 * limit.
+	 *
+	 * @param max the maximum number of open archives, at least 1
+	 */
+	public synchronized void setMaxOpenArchives(int max) {
+		fMaxOpen = Math.max(1, max);
+		evict();
+	}
+
+	/**
+	 * @return the number of times an already open archive was returned
+	 */
+	public synchronized long getHitCount() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of times an archive had to be opened
+	 */
+	public synchronized long getMissCount() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of archives closed to stay within the pool size
+	 */
+	public synchronized long getEvictionCount() {
+		return fEvictions;
+	}
+
+	/**
+	 * @return the number of archives currently open, including the ones in
+	 *         use that have been removed from the pool
+	 */
+	public synchronized int getOpenHandleCount() {
+		return fOpen.size();
+	}
+
+	/**
+	 * Closes least recently used archives that are not in use until the pool
+	 * is within its size limit.
+	 */
+	private void evict() {
+		if (fHandles.size() <= fMaxOpen) {
+			return;
+		}
+		for (Iterator<Handle> iter = fHandles.values().iterator(); iter.hasNext() && fHandles.size() > fMaxOpen;) {
+			Handle handle = iter.next();
+			if (handle.refCount <= 0) {
+				iter.remove();
+				fEvictions++;
+				closeHandle(handle);
+			}
+		}
+	}
+
+	/**
+	 * Closes the given handle if it is not in use, otherwise remembers it so it
+	 * is closed once released.
+	 *
+	 * @param handle the handle removed from the pool
+	 */
+	private void retire(Handle handle) {
+		handle.stale = true;
+		if (handle.refCount <= 0) {
+			closeHandle(handle);
+		}
+	}
+
+	private void closeHandle(Handle handle) {
+		fOpen.remove(handle.zipFile);
+		try {
+			handle.zipFile.close();
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		}
+		if (ApiPlugin.DEBUG_ARCHIVE_POOL) {
+			System.out.println("Archive pool closed " + handle.location + " (" + fHits + " hits, " + fMisses + " misses, " + getOpenHandleCount() + " open)"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("Archive pool: ").append(fHits).append(" hits, ").append(fMisses).append(" misses, ") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				.append(fEvictions).append(" evictions, ").append(getOpenHandleCount()).append(" open"); //$NON-NLS-1$ //$NON-NLS-2$
+		return buffer.toString();
+	}
+}
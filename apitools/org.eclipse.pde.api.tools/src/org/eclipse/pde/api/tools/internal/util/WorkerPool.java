@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+
+/**
+ * Creates the pools of daemon worker threads used by API tools and runs tasks
+ * on them.
+ * <p>
+ * Tasks run with {@link #runAll(ExecutorService, List, IProgressMonitor)} can
+ * run tasks of their own on the same executor: the calling thread runs the
+ * tasks no thread of the executor has started yet, so it never waits for a
+ * free thread.
+ * </p>
+ *
+ * @since 1.0.600
+ */
+public final class WorkerPool {
+
+	/**
+	 * Number of seconds an idle thread of the shared executor waits for a task
+	 * before terminating
+	 */
+	private static final long KEEP_ALIVE = 10;
+
+	/**
+	 * Maximum number of threads of the shared executor
+	 */
+	private static final int MAX_SHARED_THREADS = 4;
+
+	private static ExecutorService fShared = null;
+
+	/**
+	 * Constructor - no instantiation
+	 */
+	private WorkerPool() {
+	}
+
+	/**
+	 * Creates a pool of the given number of daemon threads, which must be
+	 * shut down by the caller.
+	 *
+	 * @param name the name of the threads
+	 * @param threadCount the number of threads, at least <code>1</code>
+	 * @return a new executor
+	 */
+	public static ExecutorService createExecutor(String name, int threadCount) {
+		return new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), createThreadFactory(name));
+	}
+
+	/**
+	 * Returns the executor shared by the short tasks run during builds. Its
+	 * threads terminate when idle, it must not be shut down.
+	 *
+	 * @return the shared executor
+	 */
+	public static synchronized ExecutorService getSharedExecutor() {
+		if (fShared == null) {
+			int threads = Math.max(1, Math.min(MAX_SHARED_THREADS, Runtime.getRuntime().availableProcessors()));
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), createThreadFactory("API Tools Worker")); //$NON-NLS-1$
+			executor.allowCoreThreadTimeOut(true);
+			fShared = executor;
+		}
+		return fShared;
+	}
+
+	/**
+	 * Returns the number of threads of the shared executor
+	 *
+	 * @return the number of threads
+	 */
+	public static int getSharedThreadCount() {
+		return ((ThreadPoolExecutor) getSharedExecutor()).getMaximumPoolSize();
+	}
+
+	private static ThreadFactory createThreadFactory(final String name) {
+		return new ThreadFactory() {
+			private final AtomicInteger fCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, name + ' ' + fCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * Returns a monitor for a task run by a worker thread. The monitor reports
+	 * no progress, but it is canceled when the given monitor of the calling
+	 * thread is canceled, so that the task stops at its next cancellation
+	 * check.
+	 *
+	 * @param monitor the monitor of the calling thread or <code>null</code>
+	 * @return a monitor forwarding the cancellation of the given one
+	 */
+	public static IProgressMonitor createWorkerMonitor(final IProgressMonitor monitor) {
+		return new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || (monitor != null && monitor.isCanceled());
+			}
+		};
+	}
+
+	/**
+	 * Runs the given tasks on the given executor and returns their results in
+	 * the order of the tasks. The calling thread runs the tasks no thread of
+	 * the executor has started yet, so a task can run tasks of its own on the
+	 * same executor without waiting for a free thread.
+	 *
+	 * @param executor the executor
+	 * @param tasks the tasks to run
+	 * @param monitor the monitor polled for cancellation, only used from the
+	 *            calling thread
+	 * @return the results of the tasks, in order
+	 * @throws CoreException if a task fails
+	 */
+	public static <T> List<T> runAll(ExecutorService executor, List<? extends Callable<T>> tasks, IProgressMonitor monitor) throws CoreException {
+		List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>(tasks.size());
+		for (Callable<T> task : tasks) {
+			FutureTask<T> future = new FutureTask<T>(task);
+			futures.add(future);
+			executor.execute(future);
+		}
+		List<T> results = new ArrayList<T>(futures.size());
+		try {
+			for (FutureTask<T> future : futures) {
+				Util.updateMonitor(monitor);
+				// does nothing if the task has been started by another thread
+				future.run();
+				results.add(future.get());
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, ApiPlugin.PLUGIN_ID, cause.getMessage(), cause));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		} finally {
+			if (results.size() < futures.size()) {
+				for (FutureTask<T> future : futures) {
+					future.cancel(false);
+				}
+			}
+		}
+		return results;
+	}
+}
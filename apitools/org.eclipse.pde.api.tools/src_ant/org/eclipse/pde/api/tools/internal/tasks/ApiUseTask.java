@@ -116,6 +116,11 @@ public final class ApiUseTask extends CommonUtilsTask {
 	 */
 	private String filters = null;
 
+	/**
+	 * Number of threads used to search the components of the scope
+	 */
+	private int threads = 1;
+
 	/**
 	 * Set the location of the current product you want to search.
 	 * 
@@ -273,6 +278,23 @@ public final class ApiUseTask extends CommonUtilsTask {
 		archivePatterns = parsePatterns(patterns);
 	}
 
+	/**
+	 * Sets the number of threads used to search the components of the scope.
+	 * <p>
+	 * Default is <code>1</code>, searching the components sequentially. The
+	 * generated reports are the same for any number of threads.
+	 * </p>
+	 * 
+	 * @param threads the number of threads
+	 */
+	public void setThreads(String threads) {
+		try {
+			this.threads = Integer.parseInt(threads);
+		} catch (NumberFormatException e) {
+			throw new BuildException(e);
+		}
+	}
+
 	/**
 	 * @see org.eclipse.pde.api.tools.internal.tasks.UseTask#assertParameters()
 	 */
@@ -317,6 +339,7 @@ public final class ApiUseTask extends CommonUtilsTask {
 			TreeSet<IApiComponent> scope = new TreeSet<IApiComponent>(Util.componentsorter);
 			getContext(baseline, ids, scope);
 			ApiSearchEngine engine = new ApiSearchEngine();
+			engine.setThreadCount(this.threads);
 			UseSearchRequestor requestor = new UseSearchRequestor(ids, scope.toArray(new IApiElement[scope.size()]), getSearchFlags());
 			requestor.setJarPatterns(archivePatterns);
 			requestor.setFilterRoot(filters);
@@ -24,6 +24,7 @@ import org.apache.tools.ant.BuildException;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
+import org.eclipse.pde.api.tools.internal.model.TypeShapeStore;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
@@ -48,6 +49,8 @@ public class CompareTask extends CommonUtilsTask {
 	private String componentsList;
 	private String excludeListLocation;
 	private String includeListLocation;
+	private int threads = 1;
+	private String shapeStoreLocation;
 
 	@Override
 	public void execute() throws BuildException {
@@ -143,12 +146,18 @@ public class CompareTask extends CommonUtilsTask {
 		} else {
 			scope.addElement(currentBaseline);
 		}
+		if (this.shapeStoreLocation != null) {
+			TypeShapeStore.setDefault(new TypeShapeStore(new File(this.shapeStoreLocation)));
+		}
 		try {
-			delta = ApiComparator.compare(scope, referenceBaseline, this.visibilityModifiers, false, null);
+			delta = ApiComparator.compare(scope, referenceBaseline, this.visibilityModifiers, false, false, this.threads, null);
 		} catch (CoreException e) {
 			// an error occurred during the comparison
 			throw new BuildException(NLS.bind(Messages.illegalElementInScope, e.getMessage()));
 		} finally {
+			if (this.shapeStoreLocation != null) {
+				TypeShapeStore.saveDefault();
+			}
 			referenceBaseline.dispose();
 			currentBaseline.dispose();
 			StubApiComponent.disposeAllCaches();
@@ -264,6 +273,23 @@ public class CompareTask extends CommonUtilsTask {
 		this.reportLocation = reportLocation;
 	}
 
+	/**
+	 * Sets the file that stores the API shapes of the compared class files
+	 * between runs.
+	 * <p>
+	 * Types whose class files have the same API shape, API description
+	 * annotations and hierarchy in both baselines are not compared. With a
+	 * store, the shapes of the class files that did not change since the last
+	 * run are not computed again. The generated report is the same with or
+	 * without a store.
+	 * </p>
+	 * 
+	 * @param shapeStoreLocation the location of the store file
+	 */
+	public void setShapeStore(String shapeStoreLocation) {
+		this.shapeStoreLocation = shapeStoreLocation;
+	}
+
 	/**
 	 * Set the visibility to use for the comparison.
 	 * 
@@ -293,6 +319,23 @@ public class CompareTask extends CommonUtilsTask {
 		}
 	}
 
+	/**
+	 * Sets the number of threads used to compare the components.
+	 * <p>
+	 * Default is <code>1</code>, comparing the components sequentially. The
+	 * generated report is the same for any number of threads.
+	 * </p>
+	 * 
+	 * @param threads the number of threads
+	 */
+	public void setThreads(String threads) {
+		try {
+			this.threads = Integer.parseInt(threads);
+		} catch (NumberFormatException e) {
+			throw new BuildException(e);
+		}
+	}
+
 	/**
 	 * Set the given components that needs to be compared against the baseline.
 	 * 
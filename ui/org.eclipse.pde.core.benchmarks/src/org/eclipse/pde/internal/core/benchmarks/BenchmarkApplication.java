@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Headless application running the PDE core benchmarks with JMH:
+ * <pre>
+ * eclipse -nosplash -application org.eclipse.pde.core.benchmarks.benchmarks -data &lt;workspace&gt;
+ *     [-bundles 500[,2000...]] [-include &lt;regexp&gt;] [-result &lt;csv file&gt;]
+ * </pre>
+ * The benchmarks run in this VM rather than in forked ones, as the models need
+ * the running framework and workspace. Each benchmark reports its throughput
+ * and, through the GC profiler, its allocation rate. The corpora are generated
+ * by {@link CorpusGenerator} into the directory named by the
+ * <code>pde.benchmarks.corpus</code> system property.
+ */
+public class BenchmarkApplication implements IApplication {
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.equinox.app.IApplication#start(org.eclipse.equinox.app.IApplicationContext)
+	 */
+	public Object start(IApplicationContext context) throws Exception {
+		String[] args = (String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
+		String bundles = "500"; //$NON-NLS-1$
+		String include = BenchmarkApplication.class.getPackage().getName() + ".*"; //$NON-NLS-1$
+		String result = null;
+		for (int i = 0; args != null && i < args.length - 1; i++) {
+			if ("-bundles".equals(args[i])) { //$NON-NLS-1$
+				bundles = args[++i];
+			} else if ("-include".equals(args[i])) { //$NON-NLS-1$
+				include = args[++i];
+			} else if ("-result".equals(args[i])) { //$NON-NLS-1$
+				result = args[++i];
+			}
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().include(include).forks(0).mode(Mode.Throughput).timeUnit(TimeUnit.SECONDS).warmupIterations(5).measurementIterations(10).param("bundles", bundles.split(",")).addProfiler(GCProfiler.class); //$NON-NLS-1$ //$NON-NLS-2$
+		if (result != null) {
+			options.result(result).resultFormat(ResultFormatType.CSV);
+		}
+		// JMH finds the benchmark list and the generated classes through the
+		// context class loader
+		Thread thread = Thread.currentThread();
+		ClassLoader loader = thread.getContextClassLoader();
+		thread.setContextClassLoader(BenchmarkApplication.class.getClassLoader());
+		try {
+			new Runner(options.build()).run();
+		} finally {
+			thread.setContextClassLoader(loader);
+		}
+		return IApplication.EXIT_OK;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.eclipse.equinox.app.IApplication#stop()
+	 */
+	public void stop() {
+		// nothing to do
+	}
+}
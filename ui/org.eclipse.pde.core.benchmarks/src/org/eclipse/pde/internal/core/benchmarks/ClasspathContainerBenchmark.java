@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.pde.internal.core.RequiredPluginsClasspathContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks computing the plug-in entries of a {@link RequiredPluginsClasspathContainer}
+ * for a workspace plug-in requiring bundles of the corpus target platform. A new
+ * container is created each time as the entries are cached by the container.
+ */
+public class ClasspathContainerBenchmark {
+
+	@Benchmark
+	public IClasspathEntry[] computePluginEntries(TargetPlatformState target) {
+		return new RequiredPluginsClasspathContainer(target.model).getClasspathEntries();
+	}
+}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Generates synthetic target platforms of manifest-only bundle directories on
+ * local disk, so that the benchmarks run offline.
+ * <p>
+ * Bundle <code>n</code> exports an API and an internal package, requires up to
+ * {@link #MAX_REQUIRES} earlier bundles and imports the API packages of up to
+ * {@link #MAX_IMPORTS} earlier bundles. Every tenth bundle is a fragment of the
+ * bundle before it. The choices use the corpus size as seed, so a corpus of a
+ * given size is always the same.
+ * </p>
+ */
+public class CorpusGenerator {
+
+	/**
+	 * System property naming the directory the corpora are generated in,
+	 * defaults to a directory in <code>java.io.tmpdir</code>
+	 */
+	public static final String CORPUS_LOCATION = "pde.benchmarks.corpus"; //$NON-NLS-1$
+
+	/**
+	 * Prefix of the symbolic names of the generated bundles
+	 */
+	public static final String BUNDLE_PREFIX = "bench.bundle"; //$NON-NLS-1$
+
+	static final int MAX_REQUIRES = 8;
+	static final int MAX_IMPORTS = 8;
+
+	/**
+	 * File written once a corpus is complete
+	 */
+	private static final String COMPLETE_MARKER = ".complete"; //$NON-NLS-1$
+
+	private CorpusGenerator() {
+	}
+
+	/**
+	 * Returns the directory of the corpus with the given number of bundles,
+	 * generating it if it does not exist yet.
+	 * 
+	 * @param size number of bundles
+	 * @return the corpus directory
+	 * @throws IOException if the corpus could not be written
+	 */
+	public static synchronized File getCorpus(int size) throws IOException {
+		String location = System.getProperty(CORPUS_LOCATION);
+		File root = location != null ? new File(location) : new File(System.getProperty("java.io.tmpdir"), "pde-benchmark-corpus"); //$NON-NLS-1$ //$NON-NLS-2$
+		File corpus = new File(root, "bundles-" + size); //$NON-NLS-1$
+		if (!new File(corpus, COMPLETE_MARKER).exists()) {
+			generate(corpus, size);
+		}
+		return corpus;
+	}
+
+	/**
+	 * Writes a corpus of the given number of bundles into the given directory
+	 * 
+	 * @param corpus directory to write the bundles to
+	 * @param size number of bundles
+	 * @throws IOException if the corpus could not be written
+	 */
+	public static void generate(File corpus, int size) throws IOException {
+		Random random = new Random(size);
+		for (int i = 0; i < size; i++) {
+			writeBundle(corpus, i, random);
+		}
+		new File(corpus, COMPLETE_MARKER).createNewFile();
+	}
+
+	/**
+	 * Returns the bundle directories of the given corpus, sorted by name
+	 * 
+	 * @param corpus corpus directory
+	 * @return the bundle locations
+	 */
+	public static File[] getBundleLocations(File corpus) {
+		File[] bundles = corpus.listFiles(new FileFilter() {
+			public boolean accept(File file) {
+				return file.isDirectory() && file.getName().startsWith(BUNDLE_PREFIX);
+			}
+		});
+		if (bundles == null) {
+			return new File[0];
+		}
+		Arrays.sort(bundles);
+		return bundles;
+	}
+
+	/**
+	 * Returns the URLs of the bundle directories of the given corpus
+	 * 
+	 * @param corpus corpus directory
+	 * @return the bundle URLs
+	 * @throws IOException if a location cannot be converted
+	 */
+	public static URL[] getBundleURLs(File corpus) throws IOException {
+		File[] bundles = getBundleLocations(corpus);
+		URL[] urls = new URL[bundles.length];
+		for (int i = 0; i < bundles.length; i++) {
+			urls[i] = bundles[i].toURI().toURL();
+		}
+		return urls;
+	}
+
+	/**
+	 * @param index index of the bundle in the corpus
+	 * @return the symbolic name of the bundle
+	 */
+	public static String getBundleName(int index) {
+		// zero padded so the names sort in corpus order
+		String number = Integer.toString(index);
+		StringBuffer buffer = new StringBuffer(BUNDLE_PREFIX);
+		for (int i = number.length(); i < 6; i++) {
+			buffer.append('0');
+		}
+		return buffer.append(number).toString();
+	}
+
+	/**
+	 * @param index index of the bundle in the corpus
+	 * @return whether the bundle is a fragment
+	 */
+	public static boolean isFragment(int index) {
+		return index > 0 && index % 10 == 0;
+	}
+
+	private static void writeBundle(File corpus, int index, Random random) throws IOException {
+		String name = getBundleName(index);
+		File metaInf = new File(new File(corpus, name), "META-INF"); //$NON-NLS-1$
+		if (!metaInf.isDirectory() && !metaInf.mkdirs()) {
+			throw new IOException("Could not create " + metaInf); //$NON-NLS-1$
+		}
+		StringBuffer buffer = new StringBuffer();
+		buffer.append("Manifest-Version: 1.0\n"); //$NON-NLS-1$
+		buffer.append("Bundle-ManifestVersion: 2\n"); //$NON-NLS-1$
+		buffer.append("Bundle-Name: Benchmark Bundle ").append(index).append('\n'); //$NON-NLS-1$
+		buffer.append("Bundle-SymbolicName: ").append(name).append('\n'); //$NON-NLS-1$
+		buffer.append("Bundle-Version: 1.0.0.v").append(index).append('\n'); //$NON-NLS-1$
+		buffer.append("Bundle-RequiredExecutionEnvironment: J2SE-1.5\n"); //$NON-NLS-1$
+		if (isFragment(index)) {
+			buffer.append("Fragment-Host: ").append(getBundleName(index - 1)).append('\n'); //$NON-NLS-1$
+		}
+		buffer.append("Export-Package: ").append(name).append(".api;version=\"1.0.0\",\n "); //$NON-NLS-1$ //$NON-NLS-2$
+		buffer.append(name).append(".internal;x-internal:=true\n"); //$NON-NLS-1$
+		List<String> required = pickBundles(index, MAX_REQUIRES, random);
+		if (!required.isEmpty()) {
+			buffer.append("Require-Bundle: "); //$NON-NLS-1$
+			for (Iterator<String> iter = required.iterator(); iter.hasNext();) {
+				buffer.append(iter.next());
+				if (random.nextInt(4) == 0) {
+					buffer.append(";resolution:=optional"); //$NON-NLS-1$
+				}
+				buffer.append(iter.hasNext() ? ",\n " : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		List<String> imported = pickBundles(index, MAX_IMPORTS, random);
+		if (!imported.isEmpty()) {
+			buffer.append("Import-Package: "); //$NON-NLS-1$
+			for (Iterator<String> iter = imported.iterator(); iter.hasNext();) {
+				buffer.append(iter.next()).append(".api;version=\"[1.0.0,2.0.0)\""); //$NON-NLS-1$
+				buffer.append(iter.hasNext() ? ",\n " : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		Writer writer = new OutputStreamWriter(new FileOutputStream(new File(metaInf, "MANIFEST.MF")), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			writer.write(buffer.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Picks up to <code>max</code> distinct bundles before the given one,
+	 * skipping fragments
+	 */
+	private static List<String> pickBundles(int index, int max, Random random) {
+		TreeSet<String> names = new TreeSet<String>();
+		if (index == 0) {
+			return new ArrayList<String>(names);
+		}
+		int count = random.nextInt(max + 1);
+		for (int i = 0; i < count; i++) {
+			int candidate = random.nextInt(index);
+			if (!isFragment(candidate)) {
+				names.add(getBundleName(candidate));
+			}
+		}
+		return new ArrayList<String>(names);
+	}
+}
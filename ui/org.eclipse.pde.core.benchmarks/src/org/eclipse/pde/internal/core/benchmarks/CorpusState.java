@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark state holding a generated corpus of {@link #bundles} bundles
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+	/**
+	 * Number of bundles in the corpus
+	 */
+	@Param({"500"})
+	public int bundles;
+
+	File corpus;
+	File[] bundleLocations;
+	URL[] bundleURLs;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		corpus = CorpusGenerator.getCorpus(bundles);
+		bundleLocations = CorpusGenerator.getBundleLocations(corpus);
+		bundleURLs = CorpusGenerator.getBundleURLs(corpus);
+	}
+}
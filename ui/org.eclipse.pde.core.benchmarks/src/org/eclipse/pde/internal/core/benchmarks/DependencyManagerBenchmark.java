@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import java.util.Set;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.DependencyManager;
+import org.eclipse.pde.internal.core.PDEState;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks {@link DependencyManager#getDependencies(Object[], String[], org.eclipse.osgi.service.resolver.State, String[])}
+ * for the last bundles of the corpus, which have the deepest dependency graphs
+ */
+@State(Scope.Benchmark)
+public class DependencyManagerBenchmark {
+
+	/**
+	 * Number of bundles the dependencies are computed for
+	 */
+	private static final int SELECTED = 10;
+
+	private PDEState fState;
+	private Object[] fSelected;
+
+	@Setup(Level.Trial)
+	public void setUp(CorpusState corpus) {
+		fState = new PDEState(corpus.bundleURLs, true, false, new NullProgressMonitor());
+		IPluginModelBase[] models = fState.getTargetModels();
+		int count = Math.min(SELECTED, models.length);
+		fSelected = new Object[count];
+		System.arraycopy(models, models.length - count, fSelected, 0, count);
+	}
+
+	@Benchmark
+	public Set<String> getDependencies() {
+		return DependencyManager.getDependencies(fSelected, new String[0], fState.getState(), null);
+	}
+}
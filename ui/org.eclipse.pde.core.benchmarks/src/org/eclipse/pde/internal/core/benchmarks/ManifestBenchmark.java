@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import java.io.File;
+import java.util.Map;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks {@link ManifestUtils#loadManifest(File)}, reading the manifests of
+ * the corpus bundles in turn
+ */
+@State(Scope.Thread)
+public class ManifestBenchmark {
+
+	private int fNext = 0;
+
+	@Benchmark
+	public Map<String, String> loadManifest(CorpusState corpus) throws CoreException {
+		File[] locations = corpus.bundleLocations;
+		fNext = (fNext + 1) % locations.length;
+		return ManifestUtils.loadManifest(locations[fNext]);
+	}
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.internal.core.PDEState;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks the construction of a resolved {@link PDEState} over the corpus,
+ * without the target state cache
+ */
+public class PDEStateBenchmark {
+
+	@Benchmark
+	public PDEState createState(CorpusState corpus) {
+		return new PDEState(corpus.bundleURLs, true, false, new NullProgressMonitor());
+	}
+}
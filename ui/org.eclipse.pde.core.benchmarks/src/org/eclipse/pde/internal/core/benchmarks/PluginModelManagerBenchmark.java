@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PluginModelManager;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Benchmarks {@link PluginModelManager#getActiveModels()} with the corpus as the
+ * target platform and one workspace plug-in
+ */
+public class PluginModelManagerBenchmark {
+
+	@Benchmark
+	public IPluginModelBase[] getActiveModels(TargetPlatformState target) {
+		return PDECore.getDefault().getModelManager().getActiveModels();
+	}
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.core.resources.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.core.target.*;
+import org.eclipse.pde.internal.core.PDECore;
+import org.openjdk.jmh.annotations.*;
+import org.osgi.framework.Version;
+
+/**
+ * Benchmark state that makes the corpus the active target platform and creates
+ * a workspace plug-in project requiring the last {@link #REQUIRED} host bundles
+ * of the corpus. The default target platform is restored afterwards.
+ */
+@State(Scope.Benchmark)
+public class TargetPlatformState {
+
+	/**
+	 * Name of the workspace project
+	 */
+	static final String PROJECT_NAME = "bench.workspace"; //$NON-NLS-1$
+
+	/**
+	 * Number of corpus bundles the workspace project requires
+	 */
+	static final int REQUIRED = 50;
+
+	IProject project;
+	IPluginModelBase model;
+
+	@Setup(Level.Trial)
+	public void setUp(CorpusState corpus) throws CoreException {
+		loadTarget(getTargetService().newDirectoryLocation(corpus.corpus.getAbsolutePath()));
+
+		IWorkspace ws = ResourcesPlugin.getWorkspace();
+		project = ws.getRoot().getProject(PROJECT_NAME);
+		if (project.exists()) {
+			project.delete(true, true, null);
+		}
+		IBundleProjectService service = (IBundleProjectService) PDECore.getDefault().acquireService(IBundleProjectService.class.getName());
+		IBundleProjectDescription description = service.getDescription(project);
+		description.setSymbolicName(PROJECT_NAME);
+		description.setBundleVersion(new Version("1.0.0")); //$NON-NLS-1$
+		List<IRequiredBundleDescription> required = new ArrayList<IRequiredBundleDescription>();
+		for (int i = corpus.bundles - 1; i >= 0 && required.size() < REQUIRED; i--) {
+			if (!CorpusGenerator.isFragment(i)) {
+				required.add(service.newRequiredBundle(CorpusGenerator.getBundleName(i), null, false, false));
+			}
+		}
+		description.setRequiredBundles(required.toArray(new IRequiredBundleDescription[required.size()]));
+		description.apply(null);
+		// build the project so its model is added
+		ws.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		model = PluginRegistry.findModel(project);
+		if (model == null) {
+			throw new IllegalStateException("No model for " + PROJECT_NAME); //$NON-NLS-1$
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws CoreException {
+		if (project != null) {
+			project.delete(true, true, null);
+		}
+		ITargetDefinition target = getTargetService().newDefaultTarget();
+		new LoadTargetDefinitionJob(target).runInWorkspace(new NullProgressMonitor());
+	}
+
+	private static ITargetPlatformService getTargetService() {
+		return (ITargetPlatformService) PDECore.getDefault().acquireService(ITargetPlatformService.class.getName());
+	}
+
+	private static void loadTarget(ITargetLocation location) throws CoreException {
+		ITargetDefinition target = getTargetService().newTarget();
+		target.setTargetLocations(new ITargetLocation[] {location});
+		target.resolve(new NullProgressMonitor());
+		new LoadTargetDefinitionJob(target).runInWorkspace(new NullProgressMonitor());
+	}
+}
@@ -157,7 +157,8 @@ public class PluginRegistry {
 	 * (possibly) fragments that are checked on the Target Platform preference page.
 	 */
 	public static IPluginModelBase[] getActiveModels(boolean includeFragments) {
-		return PDECore.getDefault().getModelManager().getActiveModels(includeFragments);
+		// the model manager returns a shared array
+		return PDECore.getDefault().getModelManager().getActiveModels(includeFragments).clone();
 	}
 
 	/**
@@ -197,7 +198,8 @@ public class PluginRegistry {
 	 * checked on the Target Platform preference page.
 	 */
 	public static IPluginModelBase[] getAllModels(boolean includeFragments) {
-		return PDECore.getDefault().getModelManager().getAllModels(includeFragments);
+		// the model manager returns a shared array
+		return PDECore.getDefault().getModelManager().getAllModels(includeFragments).clone();
 	}
 
 	/**
@@ -206,7 +208,8 @@ public class PluginRegistry {
 	 * @return all plug-in models in the workspace
 	 */
 	public static IPluginModelBase[] getWorkspaceModels() {
-		return PDECore.getDefault().getModelManager().getWorkspaceModels();
+		// the model manager returns a shared array
+		return PDECore.getDefault().getModelManager().getWorkspaceModels().clone();
 	}
 
 	/**
@@ -292,7 +295,7 @@ public class PluginRegistry {
 	 * @since 3.6
 	 */
 	public static IPluginModelBase[] findModels(String id, String version, int match, PluginFilter filter) {
-		IPluginModelBase[] models = PluginRegistry.getAllModels();
+		IPluginModelBase[] models = PDECore.getDefault().getModelManager().getAllModels();
 		List<IPluginModelBase> results = new ArrayList<IPluginModelBase>();
 		for (int i = 0; i < models.length; i++) {
 			IPluginModelBase model = models[i];
@@ -379,7 +382,7 @@ public class PluginRegistry {
 	 * @since 3.6
 	 */
 	public static IPluginModelBase[] findModels(String id, VersionRange range, PluginFilter filter) {
-		IPluginModelBase[] models = PluginRegistry.getAllModels();
+		IPluginModelBase[] models = PDECore.getDefault().getModelManager().getAllModels();
 		List<IPluginModelBase> results = new ArrayList<IPluginModelBase>();
 		for (int i = 0; i < models.length; i++) {
 			IPluginModelBase model = models[i];
@@ -11,12 +11,10 @@
 package org.eclipse.pde.core.target;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.internal.core.*;
-import org.eclipse.pde.internal.core.ifeature.*;
+import org.eclipse.pde.internal.core.FeatureMetadataCache.FeatureMetadata;
 import org.eclipse.pde.internal.core.target.Messages;
 
 /**
@@ -26,7 +24,7 @@ import org.eclipse.pde.internal.core.target.Messages;
  */
 public class TargetFeature {
 
-	private IFeatureModel featureModel;
+	private FeatureMetadata metadata;
 
 	/**
 	 * Constructs a target feature for a feature on the local filesystem. The 
@@ -46,9 +44,9 @@ public class TargetFeature {
 	 * @return id or <code>null</code>
 	 */
 	public String getId() {
-		if (featureModel == null)
+		if (metadata == null)
 			return null;
-		return featureModel.getFeature().getId();
+		return metadata.getId();
 	}
 
 	/**
@@ -57,9 +55,9 @@ public class TargetFeature {
 	 * @return version or <code>null</code>
 	 */
 	public String getVersion() {
-		if (featureModel == null)
+		if (metadata == null)
 			return null;
-		return featureModel.getFeature().getVersion();
+		return metadata.getVersion();
 	}
 
 	/**
@@ -69,9 +67,9 @@ public class TargetFeature {
 	 * @return install location path or <code>null</code>
 	 */
 	public String getLocation() {
-		if (featureModel == null)
+		if (metadata == null)
 			return null;
-		return featureModel.getInstallLocation();
+		return metadata.getLocation();
 	}
 
 	/**
@@ -81,10 +79,10 @@ public class TargetFeature {
 	 * @return a list of name version descriptors, possibly empty
 	 */
 	public NameVersionDescriptor[] getPlugins() {
-		IFeaturePlugin[] plugins = featureModel.getFeature().getPlugins();
-		NameVersionDescriptor[] result = new NameVersionDescriptor[plugins.length];
-		for (int i = 0; i < plugins.length; i++) {
-			result[i] = new NameVersionDescriptor(plugins[i].getId(), plugins[i].getVersion());
+		String[] plugins = metadata.getPlugins();
+		NameVersionDescriptor[] result = new NameVersionDescriptor[plugins.length / 2];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = new NameVersionDescriptor(plugins[2 * i], plugins[2 * i + 1]);
 		}
 		return result;
 	}
@@ -96,23 +94,17 @@ public class TargetFeature {
 	 * @return a list of name version descriptors, possibly empty
 	 */
 	public NameVersionDescriptor[] getDependentFeatures() {
-		List<NameVersionDescriptor> result = new ArrayList<NameVersionDescriptor>();
-		IFeature feature = featureModel.getFeature();
-		IFeatureImport[] featureImports = feature.getImports();
-		for (int i = 0; i < featureImports.length; i++) {
-			if (featureImports[i].getType() == IFeatureImport.FEATURE) {
-				result.add(new NameVersionDescriptor(featureImports[i].getId(), null, NameVersionDescriptor.TYPE_FEATURE));
-			}
-		}
-		IFeatureChild[] featureIncludes = feature.getIncludedFeatures();
-		for (int i = 0; i < featureIncludes.length; i++) {
-			result.add(new NameVersionDescriptor(featureIncludes[i].getId(), null, NameVersionDescriptor.TYPE_FEATURE));
+		String[] features = metadata.getFeatures();
+		NameVersionDescriptor[] result = new NameVersionDescriptor[features.length];
+		for (int i = 0; i < features.length; i++) {
+			result[i] = new NameVersionDescriptor(features[i], null, NameVersionDescriptor.TYPE_FEATURE);
 		}
-		return result.toArray(new NameVersionDescriptor[result.size()]);
+		return result;
 	}
 
 	/**
-	 * Initializes the content of this target feature by reading the feature.xml
+	 * Initializes the content of this target feature by reading the feature.xml, or
+	 * from the feature metadata cache if the feature.xml has not changed
 	 * 
 	 * @param file feature.xml or directory containing it
 	 */
@@ -129,7 +121,7 @@ public class TargetFeature {
 				throw new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID, NLS.bind(Messages.TargetFeature_FileDoesNotExist, featureXML)));
 			}
 		}
-		featureModel = ExternalFeatureModelManager.createModel(featureXML);
+		metadata = FeatureMetadataCache.getDefault().getFeature(featureXML);
 	}
 
 	/* (non-Javadoc)
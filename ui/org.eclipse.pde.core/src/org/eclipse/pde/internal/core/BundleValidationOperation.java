@@ -19,47 +19,248 @@ import org.eclipse.pde.core.plugin.IPluginModelBase;
 
 public class BundleValidationOperation implements IWorkspaceRunnable {
 
+	/**
+	 * Upper bound on the number of validation states kept for reuse
+	 */
+	private static final int MAX_CACHED_STATES = 4;
+
 	private static StateObjectFactory FACTORY;
 
+	/**
+	 * Validation states by cache key, most recently used first. A state is only in the
+	 * cache while no operation uses it.
+	 */
+	private static final LinkedList<CachedState> fCachedStates = new LinkedList<CachedState>();
+
 	private IPluginModelBase[] fModels;
 	private Dictionary<?, ?>[] fProperties;
-	private State fState;
+	private Object fCacheKey;
+	private CachedState fCached;
+
+	/**
+	 * Results of the validation, computed before the state is returned to the cache
+	 */
+	private Map<Object, Object[]> fResolverErrors;
+	private boolean fHasErrors;
+	private boolean fEmpty;
+	private Set<String> fBundleNames;
+
+	/**
+	 * A validation state kept for the next validation with the same cache key
+	 */
+	private static class CachedState {
+		final Object fKey;
+		final State fState;
+		Dictionary<?, ?>[] fProperties;
+
+		/**
+		 * Bundle description of a model -> its copy in the state
+		 */
+		Map<BundleDescription, BundleDescription> fCopies = new IdentityHashMap<BundleDescription, BundleDescription>();
+
+		CachedState(Object key, State state, Dictionary<?, ?>[] properties) {
+			fKey = key;
+			fState = state;
+			fProperties = properties;
+		}
+	}
 
 	public BundleValidationOperation(IPluginModelBase[] models) {
 		this(models, new Dictionary[] {TargetPlatformHelper.getTargetEnvironment()});
 	}
 
 	public BundleValidationOperation(IPluginModelBase[] models, Dictionary<?, ?>[] properties) {
+		this(models, properties, null);
+	}
+
+	/**
+	 * Creates an operation that reuses the state of the last validation with the same
+	 * cache key. Only the bundles added, removed or changed since then are applied to the
+	 * state and resolved, the result is the same as validating from scratch.
+	 *
+	 * @param models the models to validate
+	 * @param properties the platform properties to resolve against
+	 * @param cacheKey key identifying the validated configuration, or <code>null</code> to
+	 * 	validate in a new state
+	 */
+	public BundleValidationOperation(IPluginModelBase[] models, Dictionary<?, ?>[] properties, Object cacheKey) {
 		fModels = models;
 		fProperties = properties;
+		fCacheKey = cacheKey;
+	}
+
+	/**
+	 * Forgets all cached validation states. Called when the target platform changes, as the
+	 * cached states refer to the bundle descriptions of the models they were built from.
+	 */
+	public static void clearCache() {
+		synchronized (fCachedStates) {
+			fCachedStates.clear();
+		}
 	}
 
 	public void run(IProgressMonitor monitor) throws CoreException {
 		if (FACTORY == null)
 			FACTORY = Platform.getPlatformAdmin().getFactory();
 		monitor.beginTask("", fModels.length + 1); //$NON-NLS-1$
-		fState = FACTORY.createState(true);
+		CachedState cached = fCacheKey != null ? takeCachedState(fCacheKey) : null;
+		if (cached == null || !updateState(cached, monitor)) {
+			cached = createState(monitor);
+		}
+		fCached = cached;
+		State state = cached.fState;
+		fResolverErrors = computeResolverErrors(state);
+		fHasErrors = computeHasErrors(state);
+		fEmpty = state.getHighestBundleId() == -1;
+		fBundleNames = new HashSet<String>();
+		BundleDescription[] bundles = state.getBundles();
+		for (int i = 0; i < bundles.length; i++) {
+			fBundleNames.add(bundles[i].getSymbolicName());
+		}
+		// the next validation with the same key updates the state, see getState()
+		if (fCacheKey != null)
+			putCachedState(cached);
+		monitor.done();
+	}
+
+	/**
+	 * Creates and resolves a new state containing copies of the bundles of all models
+	 */
+	private CachedState createState(IProgressMonitor monitor) {
+		CachedState cached = new CachedState(fCacheKey, FACTORY.createState(true), fProperties);
 		for (int i = 0; i < fModels.length; i++) {
 			BundleDescription bundle = fModels[i].getBundleDescription();
-			if (bundle != null)
-				fState.addBundle(FACTORY.createBundleDescription(bundle));
+			if (bundle != null) {
+				BundleDescription copy = FACTORY.createBundleDescription(bundle);
+				if (cached.fState.addBundle(copy))
+					cached.fCopies.put(bundle, copy);
+			}
 			monitor.worked(1);
 		}
-		fState.setPlatformProperties(fProperties);
-		fState.resolve(false);
-		monitor.done();
+		cached.fState.setPlatformProperties(fProperties);
+		cached.fState.resolve(false);
+		return cached;
+	}
+
+	/**
+	 * Brings a cached state up to date with the models and platform properties of this
+	 * operation. Bundle descriptions are immutable, so a model whose description is not
+	 * the one the state was built from has been added or changed. The changed bundles are
+	 * resolved incrementally, which refreshes the bundles depending on them. Changes that an
+	 * incremental resolution could decide differently than a full one, a different selection
+	 * among singletons of the same name, or a change to the platform properties, cause a full
+	 * resolution of the state.
+	 *
+	 * @return whether the state was updated, if not the state is invalid and must not be used
+	 */
+	private boolean updateState(CachedState cached, IProgressMonitor monitor) {
+		State state = cached.fState;
+		Map<BundleDescription, BundleDescription> copies = new IdentityHashMap<BundleDescription, BundleDescription>();
+		List<BundleDescription> added = new ArrayList<BundleDescription>();
+		for (int i = 0; i < fModels.length; i++) {
+			BundleDescription bundle = fModels[i].getBundleDescription();
+			if (bundle != null && !copies.containsKey(bundle)) {
+				BundleDescription copy = cached.fCopies.remove(bundle);
+				if (copy != null)
+					copies.put(bundle, copy);
+				else
+					added.add(bundle);
+			}
+			monitor.worked(1);
+		}
+		Collection<BundleDescription> removed = cached.fCopies.values();
+		// rebuilding is cheaper when most of the content has changed, e.g. after a target reload
+		if (added.size() + removed.size() > copies.size())
+			return false;
+
+		List<BundleDescription> refresh = new ArrayList<BundleDescription>();
+		Set<String> names = new HashSet<String>();
+		for (Iterator<BundleDescription> iter = removed.iterator(); iter.hasNext();) {
+			BundleDescription copy = iter.next();
+			if (!state.removeBundle(copy))
+				return false;
+			refresh.add(copy);
+			addNames(copy, names);
+		}
+		for (int i = 0; i < added.size(); i++) {
+			BundleDescription bundle = added.get(i);
+			BundleDescription copy = FACTORY.createBundleDescription(bundle);
+			if (!state.addBundle(copy))
+				return false;
+			copies.put(bundle, copy);
+			addNames(copy, names);
+		}
+		cached.fCopies = copies;
+
+		boolean full = !Arrays.equals(cached.fProperties, fProperties);
+		for (Iterator<String> iter = names.iterator(); iter.hasNext();) {
+			BundleDescription[] bundles = state.getBundles(iter.next());
+			for (int i = 0; i < bundles.length; i++) {
+				if (bundles.length > 1 && bundles[i].isSingleton())
+					full = true;
+				// the changed bundles and the hosts of changed fragments
+				refresh.add(bundles[i]);
+			}
+		}
+		if (full) {
+			state.setPlatformProperties(fProperties);
+			cached.fProperties = fProperties;
+			state.resolve(false);
+		} else if (!refresh.isEmpty()) {
+			state.resolve(refresh.toArray(new BundleDescription[refresh.size()]));
+		}
+		return true;
+	}
+
+	private static void addNames(BundleDescription desc, Set<String> names) {
+		if (desc.getSymbolicName() != null)
+			names.add(desc.getSymbolicName());
+		HostSpecification host = desc.getHost();
+		if (host != null && host.getName() != null)
+			names.add(host.getName());
+	}
+
+	private static CachedState takeCachedState(Object key) {
+		synchronized (fCachedStates) {
+			for (Iterator<CachedState> iter = fCachedStates.iterator(); iter.hasNext();) {
+				CachedState cached = iter.next();
+				if (cached.fKey.equals(key)) {
+					iter.remove();
+					return cached;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean removeCachedState(CachedState cached) {
+		synchronized (fCachedStates) {
+			return fCachedStates.remove(cached);
+		}
+	}
+
+	private static void putCachedState(CachedState cached) {
+		synchronized (fCachedStates) {
+			fCachedStates.addFirst(cached);
+			if (fCachedStates.size() > MAX_CACHED_STATES)
+				fCachedStates.removeLast();
+		}
 	}
 
 	public Map<Object, Object[]> getResolverErrors() {
+		return new HashMap<Object, Object[]>(fResolverErrors);
+	}
+
+	private static Map<Object, Object[]> computeResolverErrors(State state) {
 		Set<String> alreadyDuplicated = new HashSet<String>();
 		Map<Object, Object[]> map = new HashMap<Object, Object[]>();
-		BundleDescription[] bundles = fState.getBundles();
+		BundleDescription[] bundles = state.getBundles();
 		for (int i = 0; i < bundles.length; i++) {
 			BundleDescription desc = bundles[i];
 			if (!desc.isResolved()) {
-				map.put(desc, fState.getResolverErrors(desc));
+				map.put(desc, state.getResolverErrors(desc));
 			} else if (desc.isSingleton() && !alreadyDuplicated.contains(desc.getSymbolicName())) {
-				BundleDescription[] dups = fState.getBundles(desc.getSymbolicName());
+				BundleDescription[] dups = state.getBundles(desc.getSymbolicName());
 				if (dups.length > 1) {
 					// more than 1 singleton present
 					alreadyDuplicated.add(desc.getSymbolicName());
@@ -74,19 +275,50 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		return map;
 	}
 
+	/**
+	 * Returns the validation state. The state is removed from the cache, so that a later
+	 * validation does not modify it, and that validation resolves a new state instead.
+	 * Use {@link #getResolverErrors()}, {@link #hasErrors()}, {@link #isEmpty()} and
+	 * {@link #containsBundle(String)} to keep the state cached.
+	 *
+	 * @return the state the models were validated in
+	 */
 	public State getState() {
-		return fState;
+		if (fCacheKey != null)
+			removeCachedState(fCached);
+		return fCached.fState;
+	}
+
+	/**
+	 * Returns whether a bundle with the given symbolic name was validated
+	 *
+	 * @param symbolicName the symbolic name of the bundle
+	 * @return whether the validation state contains a bundle with the given name
+	 */
+	public boolean containsBundle(String symbolicName) {
+		return fBundleNames.contains(symbolicName);
+	}
+
+	/**
+	 * @return whether no bundle has been validated
+	 */
+	public boolean isEmpty() {
+		return fEmpty;
 	}
 
 	public boolean hasErrors() {
-		if (fState.getHighestBundleId() > -1) {
-			BundleDescription[] bundles = fState.getBundles();
+		return fHasErrors;
+	}
+
+	private static boolean computeHasErrors(State state) {
+		if (state.getHighestBundleId() > -1) {
+			BundleDescription[] bundles = state.getBundles();
 			for (int i = 0; i < bundles.length; i++) {
 				BundleDescription desc = bundles[i];
 				if (!desc.isResolved()) {
 					return true;
 				} else if (desc.isSingleton()) {
-					BundleDescription[] dups = fState.getBundles(desc.getSymbolicName());
+					BundleDescription[] dups = state.getBundles(desc.getSymbolicName());
 					if (dups.length > 1) {
 						// more than one singleton
 						return true;
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.*;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.internal.core.PDEClasspathContainer.Rule;
+import org.osgi.framework.Constants;
+
+/**
+ * Reverse dependency index of the plug-in dependencies class path containers of
+ * workspace projects.
+ * <p>
+ * When a container computes its entries it records the bundles and the imported
+ * packages it was computed from. After a change to the {@link State}, only the
+ * projects whose containers depend on a changed bundle, or import a package a
+ * changed bundle exports, need a new container. Projects without a recorded
+ * container are always considered affected.
+ * </p><p>
+ * The index also memoizes the packages visible to a bundle and their access rules,
+ * which are forgotten when the bundle or one of its dependencies changes.
+ * </p>
+ */
+public class ClasspathDependencyIndex {
+
+	/**
+	 * Project -> symbolic names of the bundles its container was computed from
+	 */
+	private final Map<IProject, Set<String>> fBundlesByProject = new HashMap<IProject, Set<String>>();
+
+	/**
+	 * Project -> names of the packages its bundle imports
+	 */
+	private final Map<IProject, Set<String>> fPackagesByProject = new HashMap<IProject, Set<String>>();
+
+	/**
+	 * Bundle symbolic name -> projects whose containers were computed from the bundle
+	 */
+	private final Map<String, Set<IProject>> fBundleDependents = new HashMap<String, Set<IProject>>();
+
+	/**
+	 * Package name -> projects whose bundle imports the package
+	 */
+	private final Map<String, Set<IProject>> fPackageDependents = new HashMap<String, Set<IProject>>();
+
+	/**
+	 * Bundle -> exporters of the packages visible to the bundle and their access rules
+	 */
+	private final Map<BundleDescription, Map<BundleDescription, ArrayList<Rule>>> fVisiblePackages = new HashMap<BundleDescription, Map<BundleDescription, ArrayList<Rule>>>();
+
+	/**
+	 * Records the dependencies the class path container of the given project was
+	 * computed from, replacing the ones recorded before.
+	 *
+	 * @param project the project
+	 * @param bundles symbolic names of the bundles the container was computed from
+	 * @param packages names of the packages imported by the project's bundle
+	 */
+	public synchronized void setDependencies(IProject project, Set<String> bundles, Set<String> packages) {
+		removeProject(project);
+		fBundlesByProject.put(project, bundles);
+		fPackagesByProject.put(project, packages);
+		addDependents(fBundleDependents, bundles, project);
+		addDependents(fPackageDependents, packages, project);
+	}
+
+	/**
+	 * Forgets the dependencies recorded for the given project, so that it is considered
+	 * affected by any change until its container is computed again.
+	 *
+	 * @param project the project
+	 */
+	public synchronized void removeProject(IProject project) {
+		removeDependents(fBundleDependents, fBundlesByProject.remove(project), project);
+		removeDependents(fPackageDependents, fPackagesByProject.remove(project), project);
+	}
+
+	/**
+	 * @param project the project
+	 * @return whether the dependencies of the project's container are recorded
+	 */
+	public synchronized boolean contains(IProject project) {
+		return fBundlesByProject.containsKey(project);
+	}
+
+	/**
+	 * Returns the projects whose containers were computed from any of the given bundles
+	 * or whose bundles import any of the given packages.
+	 *
+	 * @param bundles symbolic names of changed bundles
+	 * @param packages names of packages exported by changed bundles
+	 * @return the affected projects with recorded dependencies
+	 */
+	public synchronized Set<IProject> getDependents(Set<String> bundles, Set<String> packages) {
+		Set<IProject> dependents = new HashSet<IProject>();
+		collectDependents(fBundleDependents, bundles, dependents);
+		collectDependents(fPackageDependents, packages, dependents);
+		return dependents;
+	}
+
+	/**
+	 * Returns the memoized visible packages of the given bundle, see
+	 * {@link StateHelper#getVisiblePackages(BundleDescription)}. The returned map must
+	 * not be modified.
+	 *
+	 * @param desc the bundle
+	 * @return exporters of the visible packages and their access rules or <code>null</code>
+	 */
+	public synchronized Map<BundleDescription, ArrayList<Rule>> getVisiblePackages(BundleDescription desc) {
+		return fVisiblePackages.get(desc);
+	}
+
+	/**
+	 * Memoizes the visible packages of the given bundle
+	 *
+	 * @param desc the bundle
+	 * @param visiblePackages exporters of the visible packages and their access rules
+	 */
+	public synchronized void setVisiblePackages(BundleDescription desc, Map<BundleDescription, ArrayList<Rule>> visiblePackages) {
+		fVisiblePackages.put(desc, visiblePackages);
+	}
+
+	/**
+	 * Forgets the memoized visible packages of the bundles with the given symbolic names
+	 * and of the bundles depending on them, directly or through other bundles. A bundle
+	 * re-exporting a changed bundle changes the packages visible to its own dependents.
+	 *
+	 * @param bundles symbolic names of the bundles or <code>null</code> to forget all
+	 */
+	public synchronized void clearVisiblePackages(Set<String> bundles) {
+		if (bundles == null) {
+			fVisiblePackages.clear();
+			return;
+		}
+		// bundles whose dependencies were all visited without reaching a changed bundle
+		Set<BundleDescription> unaffected = new HashSet<BundleDescription>();
+		for (Iterator<BundleDescription> iter = fVisiblePackages.keySet().iterator(); iter.hasNext();) {
+			Set<BundleDescription> visited = new HashSet<BundleDescription>();
+			if (isAffected(iter.next(), bundles, unaffected, visited)) {
+				iter.remove();
+			} else {
+				unaffected.addAll(visited);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given bundle or any bundle it depends on, transitively, has
+	 * one of the given symbolic names.
+	 *
+	 * @param desc the bundle
+	 * @param bundles symbolic names of the changed bundles
+	 * @param unaffected bundles known not to depend on a changed bundle
+	 * @param visited bundles visited while looking for a changed bundle
+	 * @return whether the bundle is affected by the change
+	 */
+	private static boolean isAffected(BundleDescription desc, Set<String> bundles, Set<BundleDescription> unaffected, Set<BundleDescription> visited) {
+		if (desc == null || unaffected.contains(desc) || !visited.add(desc))
+			return false;
+		if (bundles.contains(desc.getSymbolicName()))
+			return true;
+		BundleDescription[] requires = desc.getResolvedRequires();
+		for (int i = 0; i < requires.length; i++) {
+			if (isAffected(requires[i], bundles, unaffected, visited))
+				return true;
+		}
+		ExportPackageDescription[] imports = desc.getResolvedImports();
+		for (int i = 0; i < imports.length; i++) {
+			if (isAffected(imports[i].getExporter(), bundles, unaffected, visited))
+				return true;
+		}
+		HostSpecification host = desc.getHost();
+		return host != null && host.getSupplier() instanceof BundleDescription && isAffected((BundleDescription) host.getSupplier(), bundles, unaffected, visited);
+	}
+
+	private static void addDependents(Map<String, Set<IProject>> dependents, Set<String> names, IProject project) {
+		for (Iterator<String> iter = names.iterator(); iter.hasNext();) {
+			String name = iter.next();
+			Set<IProject> projects = dependents.get(name);
+			if (projects == null) {
+				projects = new HashSet<IProject>(4);
+				dependents.put(name, projects);
+			}
+			projects.add(project);
+		}
+	}
+
+	private static void removeDependents(Map<String, Set<IProject>> dependents, Set<String> names, IProject project) {
+		if (names == null)
+			return;
+		for (Iterator<String> iter = names.iterator(); iter.hasNext();) {
+			String name = iter.next();
+			Set<IProject> projects = dependents.get(name);
+			if (projects != null) {
+				projects.remove(project);
+				if (projects.isEmpty())
+					dependents.remove(name);
+			}
+		}
+	}
+
+	private static void collectDependents(Map<String, Set<IProject>> dependents, Set<String> names, Set<IProject> result) {
+		for (Iterator<String> iter = names.iterator(); iter.hasNext();) {
+			Set<IProject> projects = dependents.get(iter.next());
+			if (projects != null)
+				result.addAll(projects);
+		}
+	}
+
+	/**
+	 * Collects the symbolic names and exported packages of the bundles changed by
+	 * the given state delta.
+	 *
+	 * @param delta the state delta
+	 * @param bundles collects the symbolic names of the changed bundles
+	 * @param packages collects the packages exported by the changed bundles
+	 */
+	public static void collectChanges(StateDelta delta, Set<String> bundles, Set<String> packages) {
+		BundleDelta[] deltas = delta.getChanges();
+		for (int i = 0; i < deltas.length; i++) {
+			addChange(deltas[i].getBundle(), bundles, packages);
+		}
+	}
+
+	/**
+	 * Collects the symbolic names and exported packages of the bundles that differ
+	 * between the given states in a way that affects class paths. Bundles are compared by
+	 * location, version, resolution and the headers the class path is computed from,
+	 * including the version ranges of their required bundles and imported packages.
+	 *
+	 * @param oldState the state before the change
+	 * @param newState the state after the change
+	 * @param bundles collects the symbolic names of the changed bundles
+	 * @param packages collects the packages exported by the changed bundles
+	 */
+	public static void collectChanges(State oldState, State newState, Set<String> bundles, Set<String> packages) {
+		Map<String, List<BundleDescription>> unmatched = new HashMap<String, List<BundleDescription>>();
+		BundleDescription[] oldBundles = oldState.getBundles();
+		for (int i = 0; i < oldBundles.length; i++) {
+			String name = oldBundles[i].getSymbolicName();
+			List<BundleDescription> list = unmatched.get(name);
+			if (list == null) {
+				list = new ArrayList<BundleDescription>(1);
+				unmatched.put(name, list);
+			}
+			list.add(oldBundles[i]);
+		}
+		BundleDescription[] newBundles = newState.getBundles();
+		for (int i = 0; i < newBundles.length; i++) {
+			if (!removeEquivalent(unmatched.get(newBundles[i].getSymbolicName()), newBundles[i])) {
+				addChange(newBundles[i], bundles, packages);
+			}
+		}
+		// bundles removed or replaced
+		for (Iterator<List<BundleDescription>> iter = unmatched.values().iterator(); iter.hasNext();) {
+			List<BundleDescription> list = iter.next();
+			for (int i = 0; i < list.size(); i++) {
+				addChange(list.get(i), bundles, packages);
+			}
+		}
+	}
+
+	private static void addChange(BundleDescription desc, Set<String> bundles, Set<String> packages) {
+		if (desc.getSymbolicName() != null)
+			bundles.add(desc.getSymbolicName());
+		// a fragment changes the class path of projects depending on its host
+		HostSpecification host = desc.getHost();
+		if (host != null && host.getName() != null)
+			bundles.add(host.getName());
+		ExportPackageDescription[] exports = desc.getExportPackages();
+		for (int i = 0; i < exports.length; i++) {
+			packages.add(exports[i].getName());
+		}
+	}
+
+	private static boolean removeEquivalent(List<BundleDescription> candidates, BundleDescription desc) {
+		if (candidates == null)
+			return false;
+		for (Iterator<BundleDescription> iter = candidates.iterator(); iter.hasNext();) {
+			if (isEquivalent(iter.next(), desc)) {
+				iter.remove();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isEquivalent(BundleDescription a, BundleDescription b) {
+		if (a.isResolved() != b.isResolved() || !a.getVersion().equals(b.getVersion()) || !equals(a.getLocation(), b.getLocation()))
+			return false;
+		HostSpecification hostA = a.getHost();
+		HostSpecification hostB = b.getHost();
+		if (hostA == null ? hostB != null : hostB == null || !equals(hostA.getName(), hostB.getName()) || !equals(hostA.getVersionRange(), hostB.getVersionRange()))
+			return false;
+
+		ExportPackageDescription[] exportsA = a.getExportPackages();
+		ExportPackageDescription[] exportsB = b.getExportPackages();
+		if (exportsA.length != exportsB.length)
+			return false;
+		for (int i = 0; i < exportsA.length; i++) {
+			if (!exportsA[i].getName().equals(exportsB[i].getName()) || !exportsA[i].getVersion().equals(exportsB[i].getVersion()))
+				return false;
+			if (!equals(exportsA[i].getDirective(ICoreConstants.INTERNAL_DIRECTIVE), exportsB[i].getDirective(ICoreConstants.INTERNAL_DIRECTIVE)))
+				return false;
+			if (!Arrays.equals((String[]) exportsA[i].getDirective(ICoreConstants.FRIENDS_DIRECTIVE), (String[]) exportsB[i].getDirective(ICoreConstants.FRIENDS_DIRECTIVE)))
+				return false;
+		}
+
+		BundleSpecification[] requiredA = a.getRequiredBundles();
+		BundleSpecification[] requiredB = b.getRequiredBundles();
+		if (requiredA.length != requiredB.length)
+			return false;
+		for (int i = 0; i < requiredA.length; i++) {
+			if (!equals(requiredA[i].getName(), requiredB[i].getName()) || requiredA[i].isExported() != requiredB[i].isExported() || requiredA[i].isOptional() != requiredB[i].isOptional())
+				return false;
+			// a different range may select a different version of the bundle
+			if (!equals(requiredA[i].getVersionRange(), requiredB[i].getVersionRange()))
+				return false;
+		}
+
+		ImportPackageSpecification[] importsA = a.getImportPackages();
+		ImportPackageSpecification[] importsB = b.getImportPackages();
+		if (importsA.length != importsB.length)
+			return false;
+		for (int i = 0; i < importsA.length; i++) {
+			if (!equals(importsA[i].getName(), importsB[i].getName()) || !equals(importsA[i].getVersionRange(), importsB[i].getVersionRange()))
+				return false;
+			if (!equals(importsA[i].getDirective(Constants.RESOLUTION_DIRECTIVE), importsB[i].getDirective(Constants.RESOLUTION_DIRECTIVE)))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean equals(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.*;
+import org.eclipse.osgi.service.resolver.*;
+import org.osgi.framework.Constants;
+
+/**
+ * Computes the transitive dependencies of bundles in a {@link State}, see
+ * {@link DependencyManager}.
+ * <p>
+ * Bundles are mapped from their bundle id to a dense index, closures are kept as
+ * {@link BitSet}s of indices and computed with an explicit stack, so deep
+ * dependency chains do not grow the call stack. The complete closure of every bundle
+ * visited is cached, bundles depending on each other share one closure. The closure
+ * of several bundles is the union of cached sets and a new closure stops at any
+ * bundle whose closure is known. The cache is only valid for the time stamp of the
+ * state it was created for, see {@link #isValid(State)}.
+ * </p>
+ * <p>
+ * A bundle depends on the suppliers of its required bundles and imported packages
+ * (optional ones only if requested), on its host if it is a fragment, and on its
+ * resolved fragments unless they are excluded.
+ * </p>
+ */
+public class DependencyClosure {
+
+	private final State fState;
+	private final long fTimeStamp;
+	private final boolean fIncludeOptional;
+	private final Set<String> fExcludeFragments;
+
+	/**
+	 * Bundle id -> index of the bundle in the bit sets
+	 */
+	private final Map<Long, Integer> fIndices = new HashMap<Long, Integer>();
+
+	/**
+	 * Bundles by index
+	 */
+	private final List<BundleDescription> fBundles = new ArrayList<BundleDescription>();
+
+	/**
+	 * Complete closures by bundle index
+	 */
+	private final Map<Integer, BitSet> fClosures = new HashMap<Integer, BitSet>();
+
+	/**
+	 * A bundle whose closure is being computed
+	 */
+	private static final class Visit {
+		final int index;
+		final int order;
+		final List<BundleDescription> dependencies;
+		int next;
+		int lowLink;
+		/**
+		 * Closures of the dependencies visited so far, except of those depending back on this bundle
+		 */
+		final BitSet closure = new BitSet();
+
+		Visit(int index, int order, List<BundleDescription> dependencies) {
+			this.index = index;
+			this.order = order;
+			this.dependencies = dependencies;
+			lowLink = order;
+		}
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param state the state the bundles belong to or <code>null</code>
+	 * @param includeOptional whether optional dependencies are followed
+	 * @param excludeFragments symbolic names of fragments that are not followed
+	 */
+	public DependencyClosure(State state, boolean includeOptional, Set<String> excludeFragments) {
+		fState = state;
+		fTimeStamp = state != null ? state.getTimeStamp() : -1;
+		fIncludeOptional = includeOptional;
+		fExcludeFragments = excludeFragments;
+	}
+
+	/**
+	 * Returns whether the cached closures can be used for the bundles of the given state,
+	 * which is not the case once the state has been modified
+	 *
+	 * @param state the state
+	 * @return whether this closure is valid for the state
+	 */
+	public boolean isValid(State state) {
+		return state != null && state == fState && state.getTimeStamp() == fTimeStamp;
+	}
+
+	/**
+	 * Returns whether this closure was created for the given state before its last
+	 * modification, in which case it can never be valid again
+	 *
+	 * @param state the state
+	 * @return whether this closure is outdated for the state
+	 */
+	public boolean isStale(State state) {
+		return state != null && state == fState && state.getTimeStamp() != fTimeStamp;
+	}
+
+	/**
+	 * @param includeOptional whether optional dependencies are followed
+	 * @param excludeFragments symbolic names of fragments that are not followed
+	 * @return whether this closure follows the dependencies the same way
+	 */
+	public boolean hasOptions(boolean includeOptional, Set<String> excludeFragments) {
+		return fIncludeOptional == includeOptional && fExcludeFragments.equals(excludeFragments);
+	}
+
+	/**
+	 * Adds the given bundle and all bundles it transitively depends on to the given set
+	 *
+	 * @param desc the bundle or <code>null</code>
+	 * @param closure set of bundle indices of this closure
+	 */
+	public synchronized void addClosure(BundleDescription desc, BitSet closure) {
+		if (desc == null)
+			return;
+		int index = getIndex(desc);
+		BitSet cached = fClosures.get(index);
+		if (cached == null) {
+			computeClosures(desc, index);
+			cached = fClosures.get(index);
+		}
+		closure.or(cached);
+	}
+
+	/**
+	 * Returns the symbolic names of the bundles in the given set
+	 *
+	 * @param closure set of bundle indices of this closure
+	 * @param names collects the symbolic names
+	 */
+	public synchronized void addSymbolicNames(BitSet closure, Set<String> names) {
+		for (int i = closure.nextSetBit(0); i >= 0; i = closure.nextSetBit(i + 1)) {
+			names.add(fBundles.get(i).getSymbolicName());
+		}
+	}
+
+	private int getIndex(BundleDescription desc) {
+		Long id = new Long(desc.getBundleId());
+		Integer index = fIndices.get(id);
+		if (index == null) {
+			index = new Integer(fBundles.size());
+			fIndices.put(id, index);
+			fBundles.add(desc);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Computes and caches the closures of the given bundle and of all bundles it depends
+	 * on whose closure is not known yet. The bundles of a dependency cycle are found as a
+	 * strongly connected component (Tarjan) and all get the same closure.
+	 */
+	private void computeClosures(BundleDescription root, int rootIndex) {
+		// bundle index -> visit of the bundles whose closure is not complete yet
+		Map<Integer, Visit> open = new HashMap<Integer, Visit>();
+		List<Visit> path = new ArrayList<Visit>();
+		List<Visit> component = new ArrayList<Visit>();
+		int order = 0;
+		Visit visit = new Visit(rootIndex, order++, getDependencies(root));
+		open.put(new Integer(rootIndex), visit);
+		path.add(visit);
+		component.add(visit);
+		while (!path.isEmpty()) {
+			visit = path.get(path.size() - 1);
+			if (visit.next < visit.dependencies.size()) {
+				BundleDescription desc = visit.dependencies.get(visit.next++);
+				int index = getIndex(desc);
+				BitSet cached = fClosures.get(index);
+				if (cached != null) {
+					visit.closure.or(cached);
+					continue;
+				}
+				Visit other = open.get(index);
+				if (other != null) {
+					// a cycle, the bundle is in the same component
+					visit.lowLink = Math.min(visit.lowLink, other.order);
+					continue;
+				}
+				other = new Visit(index, order++, getDependencies(desc));
+				open.put(new Integer(index), other);
+				path.add(other);
+				component.add(other);
+				continue;
+			}
+			path.remove(path.size() - 1);
+			Visit parent = path.isEmpty() ? null : path.get(path.size() - 1);
+			if (visit.lowLink < visit.order) {
+				// part of the component of its parent
+				parent.lowLink = Math.min(parent.lowLink, visit.lowLink);
+				parent.closure.or(visit.closure);
+				continue;
+			}
+			// the bundles visited since this one form its component and share its closure
+			List<Visit> members = component.subList(component.lastIndexOf(visit), component.size());
+			BitSet closure = new BitSet();
+			for (int i = 0; i < members.size(); i++) {
+				Visit member = members.get(i);
+				closure.or(member.closure);
+				closure.set(member.index);
+			}
+			for (int i = 0; i < members.size(); i++) {
+				Integer index = new Integer(members.get(i).index);
+				fClosures.put(index, closure);
+				open.remove(index);
+			}
+			members.clear();
+			if (parent != null)
+				parent.closure.or(closure);
+		}
+	}
+
+	/**
+	 * Returns the bundles the given bundle directly depends on
+	 */
+	private List<BundleDescription> getDependencies(BundleDescription desc) {
+		List<BundleDescription> dependencies = new ArrayList<BundleDescription>();
+		BundleSpecification[] required = desc.getRequiredBundles();
+		for (int i = 0; i < required.length; i++) {
+			if (fIncludeOptional || !required[i].isOptional()) {
+				addDependency((BundleDescription) required[i].getSupplier(), dependencies);
+			}
+		}
+		ImportPackageSpecification[] importedPkgs = desc.getImportPackages();
+		for (int i = 0; i < importedPkgs.length; i++) {
+			ExportPackageDescription exporter = (ExportPackageDescription) importedPkgs[i].getSupplier();
+			// Continue if the Imported Package is unresolved of the package is optional and don't want optional packages
+			if (exporter == null || (!fIncludeOptional && Constants.RESOLUTION_OPTIONAL.equals(importedPkgs[i].getDirective(Constants.RESOLUTION_DIRECTIVE)))) {
+				continue;
+			}
+			addDependency(exporter.getExporter(), dependencies);
+		}
+		BundleDescription[] fragments = desc.getFragments();
+		for (int i = 0; i < fragments.length; i++) {
+			if (fragments[i].isResolved() && !fExcludeFragments.contains(fragments[i].getSymbolicName())) {
+				addDependency(fragments[i], dependencies);
+			}
+		}
+		HostSpecification host = desc.getHost();
+		if (host != null) {
+			addDependency((BundleDescription) host.getSupplier(), dependencies);
+		}
+		return dependencies;
+	}
+
+	private static void addDependency(BundleDescription desc, List<BundleDescription> dependencies) {
+		if (desc != null)
+			dependencies.add(desc);
+	}
+}
@@ -17,7 +17,6 @@ import org.eclipse.pde.core.plugin.IPluginExtension;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.target.ITargetPlatformService;
 import org.eclipse.pde.core.target.NameVersionDescriptor;
-import org.osgi.framework.Constants;
 
 /**
  * Utility class to return bundle id collections for a variety of dependency
@@ -28,6 +27,27 @@ import org.osgi.framework.Constants;
  */
 public class DependencyManager {
 
+	/**
+	 * Maximum number of cached closures, one per state and set of options
+	 */
+	private static final int MAX_CLOSURES = 8;
+
+	/**
+	 * Cached closures, most recently used first. They hold the bundles of their state,
+	 * see {@link #clearClosures()}.
+	 */
+	private static final LinkedList<DependencyClosure> fClosures = new LinkedList<DependencyClosure>();
+
+	/**
+	 * Forgets all cached closures, so that they do not keep a replaced state in memory.
+	 * Called when the plug-in model manager creates a new state.
+	 */
+	public static void clearClosures() {
+		synchronized (fClosures) {
+			fClosures.clear();
+		}
+	}
+
 	/** 
 	 * Returns a {@link Set} of bundle ids for the dependents of the given
 	 * {@link IPluginModelBase}. The set includes the id of the given model base
@@ -121,12 +141,13 @@ public class DependencyManager {
 	 * @return a set of bundle IDs
 	 */
 	private static Set<String> getDependencies(Object[] selected, String[] implicit, State state, boolean removeSelf, boolean includeOptional, Set<String> excludeFragments) {
-		Set<String> set = new TreeSet<String>();
+		// the selected models may belong to another state than the given one
+		Map<DependencyClosure, BitSet> closures = new HashMap<DependencyClosure, BitSet>();
 		for (int i = 0; i < selected.length; i++) {
 			if (!(selected[i] instanceof IPluginModelBase))
 				continue;
 			IPluginModelBase model = (IPluginModelBase) selected[i];
-			addBundleAndDependencies(model.getBundleDescription(), set, includeOptional, excludeFragments);
+			addBundleAndDependencies(model.getBundleDescription(), closures, includeOptional, excludeFragments);
 			IPluginExtension[] extensions = model.getPluginBase().getExtensions();
 			for (int j = 0; j < extensions.length; j++) {
 				String point = extensions[j].getPoint();
@@ -134,14 +155,20 @@ public class DependencyManager {
 					int dot = point.lastIndexOf('.');
 					if (dot != -1) {
 						String id = point.substring(0, dot);
-						addBundleAndDependencies(state.getBundle(id, null), set, includeOptional, excludeFragments);
+						addBundleAndDependencies(state.getBundle(id, null), closures, includeOptional, excludeFragments);
 					}
 				}
 			}
 		}
 
 		for (int i = 0; i < implicit.length; i++) {
-			addBundleAndDependencies(state.getBundle(implicit[i], null), set, includeOptional, excludeFragments);
+			addBundleAndDependencies(state.getBundle(implicit[i], null), closures, includeOptional, excludeFragments);
+		}
+
+		Set<String> set = new TreeSet<String>();
+		for (Iterator<Map.Entry<DependencyClosure, BitSet>> iter = closures.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<DependencyClosure, BitSet> entry = iter.next();
+			entry.getKey().addSymbolicNames(entry.getValue(), set);
 		}
 
 		if (removeSelf) {
@@ -180,44 +207,53 @@ public class DependencyManager {
 	}
 
 	/**
-	 * Recursively adds the given {@link BundleDescription} and its dependents to the given 
-	 * {@link Set}
+	 * Adds the given {@link BundleDescription} and its dependents to the closure of
+	 * its state in the given {@link Map}
 	 * @param desc the {@link BundleDescription} to compute dependencies for
-	 * @param set the {@link Set} to collect results in
+	 * @param closures the closures to collect results in, by the cached closure they belong to
 	 * @param includeOptional if optional dependencies should be included
 	 * @param excludeFragments a collection of <b>fragment</b> bundle symbolic names to exclude from the dependency resolution
 	 */
-	private static void addBundleAndDependencies(BundleDescription desc, Set<String> set, boolean includeOptional, Set<String> excludeFragments) {
-		if (desc != null && set.add(desc.getSymbolicName())) {
-			BundleSpecification[] required = desc.getRequiredBundles();
-			for (int i = 0; i < required.length; i++) {
-				if (includeOptional || !required[i].isOptional()) {
-					addBundleAndDependencies((BundleDescription) required[i].getSupplier(), set, includeOptional, excludeFragments);
-				}
-			}
-			ImportPackageSpecification[] importedPkgs = desc.getImportPackages();
-			for (int i = 0; i < importedPkgs.length; i++) {
-				ExportPackageDescription exporter = (ExportPackageDescription) importedPkgs[i].getSupplier();
-				// Continue if the Imported Package is unresolved of the package is optional and don't want optional packages
-				if (exporter == null || (!includeOptional && Constants.RESOLUTION_OPTIONAL.equals(importedPkgs[i].getDirective(Constants.RESOLUTION_DIRECTIVE)))) {
-					continue;
-				}
-				addBundleAndDependencies(exporter.getExporter(), set, includeOptional, excludeFragments);
-			}
-			BundleDescription[] fragments = desc.getFragments();
-			for (int i = 0; i < fragments.length; i++) {
-				if (!fragments[i].isResolved()) {
-					continue;
-				}
-				String id = fragments[i].getSymbolicName();
-				if (!excludeFragments.contains(id)) {
-					addBundleAndDependencies(fragments[i], set, includeOptional, excludeFragments);
+	private static void addBundleAndDependencies(BundleDescription desc, Map<DependencyClosure, BitSet> closures, boolean includeOptional, Set<String> excludeFragments) {
+		if (desc == null)
+			return;
+		DependencyClosure closure = getClosure(desc.getContainingState(), includeOptional, excludeFragments);
+		BitSet set = closures.get(closure);
+		if (set == null) {
+			set = new BitSet();
+			closures.put(closure, set);
+		}
+		closure.addClosure(desc, set);
+	}
+
+	/**
+	 * Returns the cached closure for the current time stamp of the given {@link State}, creating
+	 * it if the state has been modified since
+	 * @param state the {@link State} or <code>null</code> if the bundle has been removed from its state
+	 * @param includeOptional if optional dependencies should be included
+	 * @param excludeFragments a collection of <b>fragment</b> bundle symbolic names to exclude from the dependency resolution
+	 * @return the closure
+	 */
+	private static DependencyClosure getClosure(State state, boolean includeOptional, Set<String> excludeFragments) {
+		if (state == null)
+			return new DependencyClosure(null, includeOptional, excludeFragments);
+		synchronized (fClosures) {
+			for (Iterator<DependencyClosure> iter = fClosures.iterator(); iter.hasNext();) {
+				DependencyClosure closure = iter.next();
+				if (closure.isStale(state)) {
+					// the state has been modified since, the closure can not be used again
+					iter.remove();
+				} else if (closure.hasOptions(includeOptional, excludeFragments) && closure.isValid(state)) {
+					iter.remove();
+					fClosures.addFirst(closure);
+					return closure;
 				}
 			}
-			HostSpecification host = desc.getHost();
-			if (host != null) {
-				addBundleAndDependencies((BundleDescription) host.getSupplier(), set, includeOptional, excludeFragments);
-			}
+			DependencyClosure closure = new DependencyClosure(state, includeOptional, excludeFragments);
+			fClosures.addFirst(closure);
+			if (fClosures.size() > MAX_CLOSURES)
+				fClosures.removeLast();
+			return closure;
 		}
 	}
 
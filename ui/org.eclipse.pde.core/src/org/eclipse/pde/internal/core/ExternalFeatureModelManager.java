@@ -13,6 +13,8 @@ package org.eclipse.pde.internal.core;
 import java.io.*;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.IModelProviderEvent;
@@ -22,6 +24,7 @@ import org.eclipse.pde.core.target.TargetFeature;
 import org.eclipse.pde.internal.core.feature.ExternalFeatureModel;
 import org.eclipse.pde.internal.core.ifeature.IFeatureModel;
 import org.eclipse.pde.internal.core.target.Messages;
+import org.eclipse.pde.internal.core.util.WorkerPool;
 
 /**
  * Manages the features known to the PDE state that come from the target platform.
@@ -31,6 +34,13 @@ import org.eclipse.pde.internal.core.target.Messages;
  */
 public class ExternalFeatureModelManager {
 
+	/**
+	 * Whether features are read on a pool of worker threads.  Enabled together with concurrent
+	 * target resolution by setting the system property <code>pde.concurrentTargetResolution</code>
+	 * to <code>true</code>.
+	 */
+	private static final boolean PARALLEL_LOADING = "true".equals(System.getProperty("pde.concurrentTargetResolution")); //$NON-NLS-1$ //$NON-NLS-2$
+
 	/**
 	 * Creates a feature model for the feature based on the given feature XML
 	 * file.
@@ -122,19 +132,23 @@ public class ExternalFeatureModelManager {
 		List<IFeatureModel> result = new ArrayList<IFeatureModel>();
 		TargetFeature[] features = target.getAllFeatures();
 		if (features != null) {
+			List<File> manifests = new ArrayList<File>(features.length);
 			for (int i = 0; i < features.length; i++) {
 				String location = features[i].getLocation();
 				File manifest = new File(location, ICoreConstants.FEATURE_FILENAME_DESCRIPTOR);
-				if (!manifest.exists() || !manifest.isFile()) {
-					continue;
+				if (manifest.exists() && manifest.isFile()) {
+					manifests.add(manifest);
 				}
-				try {
-					IFeatureModel model = createModel(manifest);
+			}
+			Object[] models = readFeatures(manifests.toArray(new File[manifests.size()]), false, new NullProgressMonitor());
+			for (int i = 0; i < models.length; i++) {
+				if (models[i] instanceof CoreException) {
+					PDECore.log((CoreException) models[i]);
+				} else {
+					IFeatureModel model = (IFeatureModel) models[i];
 					if (model != null && model.isLoaded()) {
 						result.add(model);
 					}
-				} catch (CoreException e) {
-					PDECore.log(e);
 				}
 			}
 		}
@@ -167,7 +181,7 @@ public class ExternalFeatureModelManager {
 			URL[] featureURLs = PluginPathFinder.getFeaturePaths(platformHome);
 
 			if (additionalLocations.size() == 0)
-				return createFeatures(featureURLs, monitor);
+				return createFeatures(platformHome, featureURLs, monitor);
 
 			File[] dirs = new File[additionalLocations.size()];
 			for (int i = 0; i < dirs.length; i++) {
@@ -183,31 +197,93 @@ public class ExternalFeatureModelManager {
 			URL[] result = new URL[featureURLs.length + newUrls.length];
 			System.arraycopy(featureURLs, 0, result, 0, featureURLs.length);
 			System.arraycopy(newUrls, 0, result, featureURLs.length, newUrls.length);
-			return createFeatures(result, monitor);
+			return createFeatures(platformHome, result, monitor);
 		}
 		return new TargetFeature[0];
 	}
 
-	private static TargetFeature[] createFeatures(URL[] featurePaths, IProgressMonitor monitor) {
+	private static TargetFeature[] createFeatures(String location, URL[] featurePaths, IProgressMonitor monitor) {
 		if (monitor == null)
 			monitor = new NullProgressMonitor();
 		monitor.beginTask("", featurePaths.length); //$NON-NLS-1$
-		Map<String, TargetFeature> uniqueFeatures = new HashMap<String, TargetFeature>();
+		File[] manifests = new File[featurePaths.length];
 		for (int i = 0; i < featurePaths.length; i++) {
 			File manifest = new File(featurePaths[i].getFile(), ICoreConstants.FEATURE_FILENAME_DESCRIPTOR);
-			if (!manifest.exists() || !manifest.isFile()) {
-				monitor.worked(1);
-				continue;
+			if (manifest.exists() && manifest.isFile()) {
+				manifests[i] = manifest;
 			}
-			try {
-				TargetFeature model = new TargetFeature(manifest);
+		}
+		Object[] features = readFeatures(manifests, true, monitor);
+		Map<String, TargetFeature> uniqueFeatures = new HashMap<String, TargetFeature>();
+		for (int i = 0; i < features.length; i++) {
+			// Ignore bad files in the collection
+			if (features[i] instanceof TargetFeature) {
+				TargetFeature model = (TargetFeature) features[i];
 				uniqueFeatures.put(model.getId() + "_" + model.getVersion(), model); //$NON-NLS-1$
-			} catch (CoreException e) {
-				// Ignore bad files in the collection
 			}
-			monitor.worked(1);
 		}
+		FeatureMetadataCache.getDefault().save(location, manifests);
 		Collection<TargetFeature> models = uniqueFeatures.values();
 		return models.toArray(new TargetFeature[models.size()]);
 	}
+
+	/**
+	 * Reads the given features, on the {@link WorkerPool} if parallel loading is
+	 * enabled.  The monitor is advanced by one for each feature in order.
+	 * 
+	 * @param manifests feature.xml files, <code>null</code> entries are skipped
+	 * @param target whether to create {@link TargetFeature}s rather than feature models
+	 * @param monitor progress monitor, work must already have been started
+	 * @return for each manifest in order, the target feature or feature model, the
+	 * 	{@link CoreException} thrown while reading it or <code>null</code>
+	 */
+	private static Object[] readFeatures(final File[] manifests, final boolean target, IProgressMonitor monitor) {
+		Object[] features = new Object[manifests.length];
+		if (!PARALLEL_LOADING || manifests.length < 2) {
+			for (int i = 0; i < manifests.length; i++) {
+				features[i] = readFeature(manifests[i], target);
+				monitor.worked(1);
+			}
+			return features;
+		}
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(manifests.length);
+		for (int i = 0; i < manifests.length; i++) {
+			final File manifest = manifests[i];
+			tasks.add(new Callable<Object>() {
+				public Object call() throws Exception {
+					return readFeature(manifest, target);
+				}
+			});
+		}
+		WorkerPool.Results<Object> results = WorkerPool.run(tasks, manifests.length);
+		for (int i = 0; i < manifests.length; i++) {
+			try {
+				features[i] = results.next();
+			} catch (ExecutionException e) {
+				PDECore.log(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				results.cancel();
+				// read the remaining features on this thread
+				for (; i < manifests.length; i++) {
+					features[i] = readFeature(manifests[i], target);
+					monitor.worked(1);
+				}
+				return features;
+			}
+			monitor.worked(1);
+		}
+		return features;
+	}
+
+	private static Object readFeature(File manifest, boolean target) {
+		if (manifest == null) {
+			return null;
+		}
+		try {
+			return target ? (Object) new TargetFeature(manifest) : createModel(manifest);
+		} catch (CoreException e) {
+			return e;
+		}
+	}
 }
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.io.*;
+import java.util.*;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.internal.core.ifeature.*;
+
+/**
+ * Persistent cache of the feature metadata used by target features: id, version,
+ * included plug-ins and the features a feature includes or imports.
+ * <p>
+ * Entries are keyed by the absolute path of the <code>feature.xml</code> and are only
+ * used while the length and last modification time of the file match, so an unchanged
+ * feature is restored without parsing its XML. The entries are grouped by the target
+ * location their features were read from, and written to the PDE state location by
+ * {@link #save(String, File[])}. Saving a location drops the entries of the features
+ * that are no longer in it, unless another location still has them. The locations
+ * that have not been saved for the longest time are dropped once there are more than
+ * {@link #MAX_LOCATIONS}.
+ * </p>
+ */
+public class FeatureMetadataCache {
+
+	/**
+	 * Name of the cache file in the PDE state location
+	 */
+	private static final String CACHE_FILE = "features.cache"; //$NON-NLS-1$
+
+	/**
+	 * Format version of the cache file, must be incremented whenever the format changes
+	 */
+	private static final int CACHE_VERSION = 2;
+
+	/**
+	 * Maximum number of target locations whose features are kept
+	 */
+	static final int MAX_LOCATIONS = 16;
+
+	private static FeatureMetadataCache fInstance;
+
+	/**
+	 * Metadata of a single feature
+	 */
+	public static class FeatureMetadata {
+		private final long fLength;
+		private final long fLastModified;
+		private final String fId;
+		private final String fVersion;
+		private final String fLocation;
+		private final String[] fPlugins;
+		private final String[] fFeatures;
+
+		FeatureMetadata(long length, long lastModified, String id, String version, String location, String[] plugins, String[] features) {
+			fLength = length;
+			fLastModified = lastModified;
+			fId = id;
+			fVersion = version;
+			fLocation = location;
+			fPlugins = plugins;
+			fFeatures = features;
+		}
+
+		/**
+		 * @return the feature id or <code>null</code>
+		 */
+		public String getId() {
+			return fId;
+		}
+
+		/**
+		 * @return the feature version or <code>null</code>
+		 */
+		public String getVersion() {
+			return fVersion;
+		}
+
+		/**
+		 * @return path of the directory containing the feature.xml
+		 */
+		public String getLocation() {
+			return fLocation;
+		}
+
+		/**
+		 * @return ids and versions of the included plug-ins, alternating
+		 */
+		public String[] getPlugins() {
+			return fPlugins;
+		}
+
+		/**
+		 * @return ids of the imported features followed by the ids of the included features
+		 */
+		public String[] getFeatures() {
+			return fFeatures;
+		}
+	}
+
+	private final File fFile;
+
+	/**
+	 * Absolute path of a feature.xml -> metadata
+	 */
+	private final Map<String, FeatureMetadata> fEntries = new HashMap<String, FeatureMetadata>();
+
+	/**
+	 * Target location -> absolute paths of the feature.xml files last saved for it,
+	 * least recently saved first
+	 */
+	private final Map<String, Set<String>> fLocations = new LinkedHashMap<String, Set<String>>(MAX_LOCATIONS * 4 / 3 + 1, 0.75f, true);
+
+	private boolean fDirty = false;
+
+	/**
+	 * @return the cache of the PDE state location
+	 */
+	public static synchronized FeatureMetadataCache getDefault() {
+		if (fInstance == null) {
+			fInstance = new FeatureMetadataCache(new File(PDECore.getDefault().getStateLocation().toFile(), CACHE_FILE));
+		}
+		return fInstance;
+	}
+
+	/**
+	 * Creates a cache backed by the given file, reading the entries it contains
+	 *
+	 * @param file the cache file
+	 */
+	public FeatureMetadataCache(File file) {
+		fFile = file;
+		read();
+	}
+
+	/**
+	 * Returns the metadata of the given feature, from the cache if the feature.xml
+	 * has not changed or by parsing it otherwise. May be called from any thread.
+	 *
+	 * @param featureXML the feature.xml file
+	 * @return the feature metadata
+	 * @throws CoreException if the feature.xml cannot be read
+	 */
+	public FeatureMetadata getFeature(File featureXML) throws CoreException {
+		String path = featureXML.getAbsolutePath();
+		long length = featureXML.length();
+		long lastModified = featureXML.lastModified();
+		synchronized (this) {
+			FeatureMetadata metadata = fEntries.get(path);
+			if (metadata != null && metadata.fLength == length && metadata.fLastModified == lastModified) {
+				return metadata;
+			}
+		}
+		FeatureMetadata metadata = createMetadata(ExternalFeatureModelManager.createModel(featureXML), length, lastModified);
+		synchronized (this) {
+			fEntries.put(path, metadata);
+			fDirty = true;
+		}
+		return metadata;
+	}
+
+	private static FeatureMetadata createMetadata(IFeatureModel model, long length, long lastModified) {
+		IFeature feature = model.getFeature();
+		IFeaturePlugin[] plugins = feature.getPlugins();
+		String[] pluginIds = new String[plugins.length * 2];
+		for (int i = 0; i < plugins.length; i++) {
+			pluginIds[2 * i] = plugins[i].getId();
+			pluginIds[2 * i + 1] = plugins[i].getVersion();
+		}
+		List<String> features = new ArrayList<String>();
+		IFeatureImport[] imports = feature.getImports();
+		for (int i = 0; i < imports.length; i++) {
+			if (imports[i].getType() == IFeatureImport.FEATURE) {
+				features.add(imports[i].getId());
+			}
+		}
+		IFeatureChild[] includes = feature.getIncludedFeatures();
+		for (int i = 0; i < includes.length; i++) {
+			features.add(includes[i].getId());
+		}
+		return new FeatureMetadata(length, lastModified, feature.getId(), feature.getVersion(), model.getInstallLocation(), pluginIds, features.toArray(new String[features.size()]));
+	}
+
+	/**
+	 * Records the given features as the features of the given target location, drops the
+	 * entries of the features the location had before that no location has any more, and
+	 * writes the cache file if entries have been added or dropped since it was read.
+	 * Other locations keep their entries, so the locations of a target can be saved one
+	 * at a time and concurrently.
+	 *
+	 * @param location the target location the features have been read from
+	 * @param featureXMLs the feature.xml files of the location, <code>null</code> entries are ignored
+	 */
+	public synchronized void save(String location, File[] featureXMLs) {
+		Set<String> paths = new HashSet<String>(featureXMLs.length * 4 / 3 + 1);
+		for (int i = 0; i < featureXMLs.length; i++) {
+			if (featureXMLs[i] != null) {
+				paths.add(featureXMLs[i].getAbsolutePath());
+			}
+		}
+		Set<String> previous = fLocations.put(location, paths);
+		if (!paths.equals(previous)) {
+			fDirty = true;
+		}
+		if (previous != null) {
+			previous.removeAll(paths);
+			release(previous);
+		}
+		if (fLocations.size() > MAX_LOCATIONS) {
+			Iterator<Set<String>> eldest = fLocations.values().iterator();
+			Set<String> evicted = eldest.next();
+			eldest.remove();
+			release(evicted);
+			fDirty = true;
+		}
+		if (!fDirty) {
+			return;
+		}
+		DataOutputStream out = null;
+		try {
+			fFile.getParentFile().mkdirs();
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)));
+			out.writeInt(CACHE_VERSION);
+			out.writeInt(fLocations.size());
+			for (Iterator<Map.Entry<String, Set<String>>> iter = fLocations.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry<String, Set<String>> entry = iter.next();
+				List<String> saved = new ArrayList<String>(entry.getValue().size());
+				for (Iterator<String> iterator = entry.getValue().iterator(); iterator.hasNext();) {
+					String path = iterator.next();
+					// features that could not be read have no entry
+					if (fEntries.containsKey(path)) {
+						saved.add(path);
+					}
+				}
+				out.writeUTF(entry.getKey());
+				out.writeInt(saved.size());
+				for (int i = 0; i < saved.size(); i++) {
+					String path = saved.get(i);
+					FeatureMetadata metadata = fEntries.get(path);
+					out.writeUTF(path);
+					out.writeLong(metadata.fLength);
+					out.writeLong(metadata.fLastModified);
+					writeString(out, metadata.fId);
+					writeString(out, metadata.fVersion);
+					writeString(out, metadata.fLocation);
+					writeStrings(out, metadata.fPlugins);
+					writeStrings(out, metadata.fFeatures);
+				}
+			}
+			fDirty = false;
+		} catch (IOException e) {
+			PDECore.log(e);
+			fFile.delete();
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the entries of the given features that no target location has.
+	 */
+	private void release(Set<String> paths) {
+		for (Iterator<String> iter = paths.iterator(); iter.hasNext();) {
+			String path = iter.next();
+			boolean used = false;
+			for (Iterator<Set<String>> locations = fLocations.values().iterator(); locations.hasNext() && !used;) {
+				used = locations.next().contains(path);
+			}
+			if (!used && fEntries.remove(path) != null) {
+				fDirty = true;
+			}
+		}
+	}
+
+	private void read() {
+		if (!fFile.isFile()) {
+			return;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)));
+			if (in.readInt() != CACHE_VERSION) {
+				return;
+			}
+			int locationCount = in.readInt();
+			Map<String, FeatureMetadata> entries = new HashMap<String, FeatureMetadata>();
+			Map<String, Set<String>> locations = new LinkedHashMap<String, Set<String>>();
+			for (int i = 0; i < locationCount; i++) {
+				String location = in.readUTF();
+				int count = in.readInt();
+				Set<String> paths = new HashSet<String>(count * 4 / 3 + 1);
+				for (int j = 0; j < count; j++) {
+					String path = in.readUTF();
+					long length = in.readLong();
+					long lastModified = in.readLong();
+					entries.put(path, new FeatureMetadata(length, lastModified, readString(in), readString(in), readString(in), readStrings(in), readStrings(in)));
+					paths.add(path);
+				}
+				locations.put(location, paths);
+			}
+			fEntries.putAll(entries);
+			fLocations.putAll(locations);
+		} catch (IOException e) {
+			// corrupt or truncated cache, features are parsed again
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private static void writeStrings(DataOutputStream out, String[] values) throws IOException {
+		out.writeInt(values.length);
+		for (int i = 0; i < values.length; i++) {
+			writeString(out, values[i]);
+		}
+	}
+
+	private static String[] readStrings(DataInputStream in) throws IOException {
+		String[] values = new String[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = readString(in);
+		}
+		return values;
+	}
+}
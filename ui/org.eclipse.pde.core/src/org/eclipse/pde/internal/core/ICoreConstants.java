@@ -466,6 +466,13 @@ public interface ICoreConstants {
 	 */
 	public static final String NO_TARGET = "NO_TARGET"; //$NON-NLS-1$
 
+	/**
+	 * Boolean preference key for whether the target state is cached in the PDE metadata area
+	 * between sessions, so that only the bundles that changed are read when the target platform
+	 * is loaded.  Off by default, set on the main PDE preference page.
+	 */
+	public static final String TARGET_STATE_CACHE = "target_state_cache"; //$NON-NLS-1$
+
 	/**
 	 * Constant representing the value for UTF-8 encoding.
 	 * Value is: <code>UTF-8</code>
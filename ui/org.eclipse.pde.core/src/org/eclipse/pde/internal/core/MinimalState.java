@@ -103,6 +103,23 @@ public class MinimalState {
 
 	public BundleDescription addBundle(File bundleLocation, long bundleId) throws CoreException {
 		Map<String, String> manifest = ManifestUtils.loadManifest(bundleLocation);
+		return addLoadedBundle(manifest, bundleLocation, bundleId);
+	}
+
+	/**
+	 * Adds a bundle to the state whose manifest has already been read from the given
+	 * location.  The manifest is updated for development mode, and the system bundle and
+	 * auxiliary data are handled as in {@link #addBundle(File, long)}.  This allows manifests
+	 * to be loaded ahead of time (possibly on other threads) while the state itself is
+	 * only modified by the calling thread.
+	 * 
+	 * @param manifest the manifest loaded from the bundle location
+	 * @param bundleLocation root location of the bundle
+	 * @param bundleId id to use for the bundle or -1 to generate a new id
+	 * @return the new bundle description or <code>null</code>
+	 * @throws CoreException if the manifest is not a valid bundle manifest
+	 */
+	protected BundleDescription addLoadedBundle(Map<String, String> manifest, File bundleLocation, long bundleId) throws CoreException {
 		// update for development mode
 		TargetWeaver.weaveManifest(manifest);
 
@@ -346,6 +346,14 @@ public class PDEAuxiliaryState {
 		fPluginInfos.put(Long.toString(desc.getBundleId()), info);
 	}
 
+	/**
+	 * Removes the auxiliary data stored for the bundle with the given id.
+	 * @param bundleID id of the bundle to remove data for
+	 */
+	protected void removeAuxiliaryData(long bundleID) {
+		fPluginInfos.remove(Long.toString(bundleID));
+	}
+
 	/**
 	 * Retrieves the classpath entries from the manifest dictionary
 	 * @param manifest dictionary containing manifest headers
@@ -52,11 +52,13 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 	public static boolean DEBUG_MODEL = false;
 	public static boolean DEBUG_TARGET_PROFILE = false;
 	public static boolean DEBUG_VALIDATION = false;
+	public static boolean DEBUG_SOURCE = false;
 	private static final String DEBUG_FLAG = PLUGIN_ID + "/debug"; //$NON-NLS-1$
 	private static final String CLASSPATH_DEBUG = PLUGIN_ID + "/classpath"; //$NON-NLS-1$
 	private static final String MODEL_DEBUG = PLUGIN_ID + "/model"; //$NON-NLS-1$
 	private static final String TARGET_PROFILE_DEBUG = PLUGIN_ID + "/target/profile"; //$NON-NLS-1$
 	private static final String VALIDATION_DEBUG = PLUGIN_ID + "/validation"; //$NON-NLS-1$
+	private static final String SOURCE_DEBUG = PLUGIN_ID + "/source"; //$NON-NLS-1$
 
 	// Shared instance
 	private static PDECore inst;
@@ -394,5 +396,6 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 		DEBUG_MODEL = DEBUG && options.getBooleanOption(MODEL_DEBUG, false);
 		DEBUG_TARGET_PROFILE = DEBUG && options.getBooleanOption(TARGET_PROFILE_DEBUG, false);
 		DEBUG_VALIDATION = DEBUG && options.getBooleanOption(VALIDATION_DEBUG, false);
+		DEBUG_SOURCE = DEBUG && options.getBooleanOption(SOURCE_DEBUG, false);
 	}
 }
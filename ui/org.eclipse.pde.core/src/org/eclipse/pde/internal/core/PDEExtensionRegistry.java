@@ -23,7 +23,6 @@ import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.internal.core.ibundle.IBundlePluginModelBase;
 import org.eclipse.pde.internal.core.plugin.PluginExtension;
 import org.eclipse.pde.internal.core.plugin.PluginExtensionPoint;
-import org.eclipse.pde.internal.core.util.CoreUtility;
 
 public class PDEExtensionRegistry {
 
@@ -90,12 +89,11 @@ public class PDEExtensionRegistry {
 	}
 
 	public void targetReloaded() {
-		// stop old registry (which will write contents to FS) and delete the cache it creates
-		// might see if we can dispose of a registry without writing to file system.  NOTE: Don't call stop() because we want to still reuse fStrategy
-		if (fRegistry != null)
-			fRegistry.stop(fMasterKey);
-		CoreUtility.deleteContent(new File(PDECore.getDefault().getStateLocation().toFile(), EXTENSION_DIR));
-		fRegistry = null;
+		// keep the registry and only replace the contributions of bundles that changed.  The registry
+		// cache on disk is kept as well, it is only loaded if its time stamp matches the new target
+		IExtensionRegistry registry = fRegistry;
+		if (registry != null)
+			fStrategy.targetReloaded(registry);
 	}
 
 	// dispose of registry without writing contents.
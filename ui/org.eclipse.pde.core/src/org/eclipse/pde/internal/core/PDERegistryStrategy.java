@@ -11,6 +11,9 @@
 package org.eclipse.pde.internal.core;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import javax.xml.parsers.SAXParserFactory;
@@ -19,10 +22,44 @@ import org.eclipse.core.runtime.spi.*;
 import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.osgi.service.resolver.HostSpecification;
 import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.internal.core.util.WorkerPool;
 import org.osgi.util.tracker.ServiceTracker;
 
 public class PDERegistryStrategy extends RegistryStrategy {
 
+	/**
+	 * Maximum number of extension files read ahead of the contributions added to the registry
+	 */
+	private static final int READ_AHEAD = 64;
+
+	/**
+	 * Identifies the bundle a contribution was read from and the version of its extension file
+	 */
+	private static final class Fingerprint {
+		final String bundle;
+		final String path;
+		final long length;
+		final long lastModified;
+
+		Fingerprint(IPluginModelBase base, File file) {
+			bundle = getBundleKey(base);
+			path = file.getAbsolutePath();
+			length = file.length();
+			lastModified = file.lastModified();
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Fingerprint))
+				return false;
+			Fingerprint other = (Fingerprint) obj;
+			return length == other.length && lastModified == other.lastModified && path.equals(other.path) && bundle.equals(other.bundle);
+		}
+
+		public int hashCode() {
+			return bundle.hashCode() ^ path.hashCode() ^ (int) (length ^ lastModified);
+		}
+	}
+
 	/**
 	 * Tracker for the XML parser service
 	 */
@@ -34,6 +71,17 @@ public class PDERegistryStrategy extends RegistryStrategy {
 	private ExtensionListener fExtensionListener = null;
 	private PDEExtensionRegistry fPDERegistry = null;
 
+	/**
+	 * Contributor id -> fingerprint of the extension file of the bundle, recorded when the
+	 * bundle is added to the registry whether or not it contributes anything
+	 */
+	private Map<String, Fingerprint> fFingerprints = new HashMap<String, Fingerprint>();
+
+	/**
+	 * Fingerprints computed to validate the registry cache, kept if the cache is loaded
+	 */
+	private Map<String, Fingerprint> fCacheFingerprints = null;
+
 	class RegistryListener {
 		IExtensionRegistry fRegistry;
 
@@ -79,7 +127,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 						IContributor[] contributors = registry.getAllContributors();
 						for (int j = 0; j < contributors.length; j++) {
 							if (removedEntries[i].getId().equals(contributors[j].getName())) {
-								registry.removeContributor(contributors[j], fKey);
+								removeContributor(fRegistry, contributors[j]);
 								break;
 							}
 						}
@@ -150,6 +198,13 @@ public class PDERegistryStrategy extends RegistryStrategy {
 	public void onStart(IExtensionRegistry registry, boolean loadedFromCache) {
 		super.onStart(registry, loadedFromCache);
 		setListenerRegistry(registry);
+		synchronized (fFingerprints) {
+			fFingerprints.clear();
+			// the cache was validated against these fingerprints
+			if (loadedFromCache && fCacheFingerprints != null)
+				fFingerprints.putAll(fCacheFingerprints);
+			fCacheFingerprints = null;
+		}
 		if (!loadedFromCache)
 			processBundles(registry);
 	}
@@ -174,24 +229,146 @@ public class PDERegistryStrategy extends RegistryStrategy {
 		addBundles(registry, fPDERegistry.getModels());
 	}
 
+	/**
+	 * Updates a registry that is kept across a target reload to the current models. The bundle
+	 * each contributor was added for is looked up by symbolic name, version and location, as
+	 * bundle ids are assigned again with the new state. Contributors whose bundle no longer
+	 * exists, got another bundle id or host, or whose extension file changed are removed, then
+	 * the contributions of new and changed bundles are added.
+	 * 
+	 * @param registry the registry
+	 */
+	public void targetReloaded(IExtensionRegistry registry) {
+		if (!(registry instanceof IDynamicExtensionRegistry))
+			return;
+		IDynamicExtensionRegistry dynamicRegistry = (IDynamicExtensionRegistry) registry;
+		IPluginModelBase[] bases = fPDERegistry.getModels();
+		// bundle key -> contributor and fingerprint of the bundle in the new state
+		Map<String, RegistryContributor> contributors = new HashMap<String, RegistryContributor>();
+		Map<String, Fingerprint> fingerprints = new HashMap<String, Fingerprint>();
+		for (int i = 0; i < bases.length; i++) {
+			RegistryContributor contributor = createContributor(bases[i]);
+			if (contributor == null)
+				continue;
+			String key = getBundleKey(bases[i]);
+			if (contributors.containsKey(key))
+				continue;
+			File file = getFile(bases[i]);
+			if (file != null) {
+				contributors.put(key, contributor);
+				fingerprints.put(key, new Fingerprint(bases[i], file));
+			}
+		}
+		Set<String> kept = new HashSet<String>();
+		IContributor[] existing = dynamicRegistry.getAllContributors();
+		for (int i = 0; i < existing.length; i++) {
+			if (!(existing[i] instanceof RegistryContributor))
+				continue;
+			RegistryContributor contributor = (RegistryContributor) existing[i];
+			Fingerprint fingerprint = getFingerprint(contributor.getActualId());
+			if (fingerprint != null && isSameContributor(contributor, contributors.get(fingerprint.bundle)) && fingerprint.equals(fingerprints.get(fingerprint.bundle)))
+				kept.add(contributor.getActualId());
+			else
+				removeContributor(registry, contributor);
+		}
+		synchronized (fFingerprints) {
+			fFingerprints.keySet().retainAll(kept);
+		}
+		addBundles(registry, bases);
+	}
+
+	private static boolean isSameContributor(RegistryContributor contributor, RegistryContributor other) {
+		return other != null && contributor.getActualId().equals(other.getActualId()) && contributor.getActualName().equals(other.getActualName()) && contributor.getId().equals(other.getId()) && contributor.getName().equals(other.getName());
+	}
+
+	/**
+	 * Returns the symbolic name, version and location of the given bundle, which identify it
+	 * across target reloads unlike its bundle id
+	 */
+	private static String getBundleKey(IPluginModelBase base) {
+		BundleDescription desc = base.getBundleDescription();
+		return desc.getSymbolicName() + '_' + desc.getVersion() + '@' + base.getInstallLocation();
+	}
+
+	private Fingerprint getFingerprint(String contributorId) {
+		synchronized (fFingerprints) {
+			return fFingerprints.get(contributorId);
+		}
+	}
+
+	/**
+	 * Adds the contributions of the given bundles that are not in the registry yet. The
+	 * extension files are read on the {@link WorkerPool} and the contributions
+	 * are added on the calling thread in the order of the given bundles, so workspace
+	 * bundles are still registered before external ones.
+	 */
 	private void addBundles(IExtensionRegistry registry, IPluginModelBase[] bases) {
-		for (int i = 0; i < bases.length; i++)
-			addBundle(registry, bases[i]);
+		final List<IPluginModelBase> models = new ArrayList<IPluginModelBase>();
+		final List<RegistryContributor> contributors = new ArrayList<RegistryContributor>();
+		final List<File> files = new ArrayList<File>();
+		Set<String> ids = new HashSet<String>();
+		for (int i = 0; i < bases.length; i++) {
+			RegistryContributor contributor = createContributor(bases[i]);
+			if (contributor == null || !ids.add(contributor.getActualId()))
+				continue;
+			if (((IDynamicExtensionRegistry) registry).hasContributor(contributor))
+				continue;
+			File input = getFile(bases[i]);
+			if (input == null)
+				continue;
+			models.add(bases[i]);
+			contributors.add(contributor);
+			files.add(input);
+		}
+		if (models.size() < 2) {
+			for (int i = 0; i < models.size(); i++) {
+				try {
+					addContribution(registry, models.get(i), contributors.get(i), files.get(i), readContribution(models.get(i), files.get(i)));
+				} catch (IOException e) {
+				}
+			}
+			return;
+		}
+
+		List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>(models.size());
+		for (int i = 0; i < models.size(); i++) {
+			final int index = i;
+			tasks.add(new Callable<byte[]>() {
+				public byte[] call() throws Exception {
+					return readContribution(models.get(index), files.get(index));
+				}
+			});
+		}
+		// only read ahead a bounded number of files to limit the memory held
+		WorkerPool.Results<byte[]> contents = WorkerPool.run(tasks, READ_AHEAD);
+		for (int i = 0; i < models.size(); i++) {
+			try {
+				addContribution(registry, models.get(i), contributors.get(i), files.get(i), contents.next());
+			} catch (ExecutionException e) {
+				// the extension file cannot be read, skip it like a sequential read
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				contents.cancel();
+				return;
+			}
+		}
 	}
 
 	private void addBundle(IExtensionRegistry registry, IPluginModelBase base) {
-		IContributor contributor = createContributor(base);
-		if (contributor == null)
-			return;
-		if (((IDynamicExtensionRegistry) registry).hasContributor(contributor))
-			return;
+		addBundles(registry, new IPluginModelBase[] {base});
+	}
 
-		File input = getFile(base);
-		if (input == null)
-			return;
+	/**
+	 * Reads the extension file of the given bundle
+	 * 
+	 * @param base the bundle
+	 * @param input the extension file or the archive of the bundle, see {@link #getFile(IPluginModelBase)}
+	 * @return the contents of the extension file or <code>null</code> if the bundle has none
+	 * @throws IOException if the file cannot be read
+	 */
+	private static byte[] readContribution(IPluginModelBase base, File input) throws IOException {
 		InputStream is = null;
 		ZipFile jfile = null;
-
 		try {
 			if (new File(base.getInstallLocation()).isDirectory()) {
 				// Directory bundle, access the extensions file directly
@@ -205,11 +382,22 @@ public class PDERegistryStrategy extends RegistryStrategy {
 					is = jfile.getInputStream(entry);
 				}
 			}
-			if (is != null) {
-				registry.addContribution(new BufferedInputStream(is), contributor, true, input.getPath(), null, fKey);
+			if (is == null)
+				return null;
+			ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
 			}
-		} catch (IOException e) {
+			return out.toByteArray();
 		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException e) {
+				}
+			}
 			if (jfile != null) {
 				try {
 					jfile.close();
@@ -219,11 +407,28 @@ public class PDERegistryStrategy extends RegistryStrategy {
 		}
 	}
 
+	private void addContribution(IExtensionRegistry registry, IPluginModelBase base, RegistryContributor contributor, File input, byte[] contents) {
+		if (contents != null)
+			registry.addContribution(new ByteArrayInputStream(contents), contributor, true, input.getPath(), null, fKey);
+		synchronized (fFingerprints) {
+			fFingerprints.put(contributor.getActualId(), new Fingerprint(base, input));
+		}
+	}
+
+	private void removeContributor(IExtensionRegistry registry, IContributor contributor) {
+		((IDynamicExtensionRegistry) registry).removeContributor(contributor, fKey);
+		if (contributor instanceof RegistryContributor) {
+			synchronized (fFingerprints) {
+				fFingerprints.remove(((RegistryContributor) contributor).getActualId());
+			}
+		}
+	}
+
 	private void removeBundle(IExtensionRegistry registry, IPluginModelBase base) {
 		if (registry instanceof IDynamicExtensionRegistry) {
 			IContributor contributor = createContributor(base);
 			if (contributor != null && ((IDynamicExtensionRegistry) registry).hasContributor(contributor)) {
-				((IDynamicExtensionRegistry) registry).removeContributor(createContributor(base), fKey);
+				removeContributor(registry, contributor);
 			}
 		}
 	}
@@ -256,7 +461,7 @@ public class PDERegistryStrategy extends RegistryStrategy {
 		return (inputFile.exists()) ? inputFile : null;
 	}
 
-	public IContributor createContributor(IPluginModelBase base) {
+	public RegistryContributor createContributor(IPluginModelBase base) {
 		BundleDescription desc = base == null ? null : base.getBundleDescription();
 		// return null if the IPluginModelBase does not have a BundleDescription (since then we won't have a valid 'id')
 		if (desc == null)
@@ -296,32 +501,39 @@ public class PDERegistryStrategy extends RegistryStrategy {
 		fPDERegistry.getRegistry();
 	}
 
-	// Same timestamp calculations as PDEState.computeTimestamp(URL[] urls, long timestamp)
+	/**
+	 * Returns the time stamp the registry cache is validated with. It covers the contributor of
+	 * each bundle, as contributor ids are bundle ids which may change with the state, and the
+	 * fingerprint of the bundle's extension file. Fingerprints recorded when the contributions
+	 * were added are reused, so only bundles not in the registry are checked on disk.
+	 */
 	public long getContributionsTimestamp() {
 		IPluginModelBase[] bases = fPDERegistry.getModels();
+		Map<String, Fingerprint> computed = new HashMap<String, Fingerprint>();
 		long timeStamp = 0;
 		for (int i = 0; i < bases.length; i++) {
-			String loc = bases[i].getInstallLocation();
-			if (loc == null)
+			RegistryContributor contributor = createContributor(bases[i]);
+			if (contributor == null)
 				continue;
-
-			File location = new File(loc);
-			if (location.exists()) {
-				if (location.isFile()) {
-					timeStamp ^= location.lastModified();
-				} else {
-					File manifest = new File(location, ICoreConstants.BUNDLE_FILENAME_DESCRIPTOR);
-					if (manifest.exists())
-						timeStamp ^= manifest.lastModified();
-					manifest = new File(location, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR);
-					if (manifest.exists())
-						timeStamp ^= manifest.lastModified();
-					manifest = new File(location, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR);
-					if (manifest.exists())
-						timeStamp ^= manifest.lastModified();
-				}
-				timeStamp ^= location.getAbsolutePath().hashCode();
+			Fingerprint fingerprint = getFingerprint(contributor.getActualId());
+			if (fingerprint == null) {
+				File file = getFile(bases[i]);
+				if (file == null)
+					continue;
+				fingerprint = new Fingerprint(bases[i], file);
+				computed.put(contributor.getActualId(), fingerprint);
 			}
+			long hash = fingerprint.bundle.hashCode();
+			hash = hash * 31 + fingerprint.path.hashCode();
+			hash = hash * 31 + fingerprint.length;
+			hash = hash * 31 + fingerprint.lastModified;
+			hash = hash * 31 + contributor.getActualId().hashCode();
+			hash = hash * 31 + contributor.getActualName().hashCode();
+			hash = hash * 31 + contributor.getId().hashCode();
+			timeStamp ^= hash;
+		}
+		synchronized (fFingerprints) {
+			fCacheFingerprints = computed;
 		}
 		return timeStamp;
 	}
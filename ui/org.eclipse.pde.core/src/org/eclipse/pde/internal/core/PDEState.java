@@ -11,20 +11,56 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core;
 
-import java.io.File;
+import java.io.*;
 import java.net.URL;
 import java.util.*;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import org.eclipse.core.runtime.*;
 import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.osgi.service.resolver.State;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.target.LoadTargetDefinitionJob;
 import org.eclipse.pde.internal.core.plugin.*;
 import org.eclipse.pde.internal.core.util.CoreUtility;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.eclipse.pde.internal.core.util.WorkerPool;
 
 public class PDEState extends MinimalState {
 
+	/**
+	 * Whether bundle manifests are read on a pool of worker threads when creating the
+	 * target state.  Enabled by setting the system property <code>pde.parallelStateLoading</code>
+	 * to <code>true</code>.
+	 */
+	private static final boolean PARALLEL_LOADING = "true".equals(System.getProperty("pde.parallelStateLoading")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Maximum number of manifests read ahead of the bundles added to the state when loading
+	 * in parallel, which bounds the number of parsed manifests held in memory
+	 */
+	private static final int READ_AHEAD = 4 * WorkerPool.MAX_THREADS;
+
+	/**
+	 * Name of the directory in the PDE state location containing the target state cache
+	 */
+	private static final String CACHE_DIR = "targetStateCache"; //$NON-NLS-1$
+
+	/**
+	 * Name of the file in the cache directory mapping bundle fingerprints to bundle ids
+	 */
+	private static final String CACHE_INDEX = "bundles.index"; //$NON-NLS-1$
+
+	/**
+	 * Format version of the target state cache, must be incremented whenever the format changes
+	 */
+	private static final int CACHE_VERSION = 2;
+
+	/**
+	 * Files of a directory bundle whose changes invalidate its cached description
+	 */
+	private static final String[] DESCRIPTION_FILES = {ICoreConstants.BUNDLE_FILENAME_DESCRIPTOR, ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR, ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR};
+
 	private PDEAuxiliaryState fAuxiliaryState;
 	private ArrayList<IPluginModelBase> fTargetModels = new ArrayList<IPluginModelBase>();
 
@@ -37,11 +73,47 @@ public class PDEState extends MinimalState {
 	 * @param monitor progress monitor
 	 */
 	public PDEState(URL[] target, boolean addResolver, boolean removeDuplicates, IProgressMonitor monitor) {
+		this(target, addResolver, removeDuplicates, false, monitor);
+	}
+
+	/**
+	 * Creates a new PDE State containing bundles from the given URLs.  If <code>useCache</code>
+	 * is <code>true</code> the state is restored from the target state cache in the PDE metadata
+	 * area, only reading bundles that have been added or changed since the cache was written.  The
+	 * cache is updated afterwards.
+	 * 
+	 * @param target urls of target bundles
+	 * @param addResolver whether to add a resolver to the state
+	 * @param removeDuplicates whether to remove duplicate conflicting bundles from the state
+	 * @param useCache whether to restore from and update the target state cache
+	 * @param monitor progress monitor
+	 */
+	public PDEState(URL[] target, boolean addResolver, boolean removeDuplicates, boolean useCache, IProgressMonitor monitor) {
 		long start = System.currentTimeMillis();
 		fAuxiliaryState = new PDEAuxiliaryState();
 
-		// We no longer try and restore from a cached state as it had no performance benefit
-		createNewTargetState(addResolver, target, monitor);
+		// Only the bundles that changed since the cache was written are read from disk
+		boolean restored = false;
+		if (useCache) {
+			String systemBundle = fSystemBundle;
+			long id = fId;
+			try {
+				restored = restoreTargetState(addResolver, target, monitor);
+			} catch (RuntimeException e) {
+				// a damaged cache must not prevent the target from loading, create the state from scratch
+				// with the bundle ids a state created without the cache would have
+				PDECore.log(e);
+				fAuxiliaryState.clear();
+				fSystemBundle = systemBundle;
+				fId = id;
+			}
+		}
+		if (!restored) {
+			createNewTargetState(addResolver, target, monitor);
+			if (useCache && !monitor.isCanceled()) {
+				saveTargetState();
+			}
+		}
 
 		if (removeDuplicates) {
 			removeDuplicatesFromState(fState);
@@ -58,8 +130,27 @@ public class PDEState extends MinimalState {
 	private void createNewTargetState(boolean resolve, URL[] urls, IProgressMonitor monitor) {
 		fState = stateObjectFactory.createState(resolve);
 		monitor.beginTask(PDECoreMessages.PDEState_CreatingTargetModelState, urls.length);
+		File[] files = new File[urls.length];
 		for (int i = 0; i < urls.length; i++) {
-			File file = new File(urls[i].getFile());
+			files[i] = new File(urls[i].getFile());
+		}
+		addBundles(files, monitor);
+	}
+
+	/**
+	 * Adds the bundles at the given locations to the state, reading their manifests on the
+	 * {@link WorkerPool} if parallel loading is enabled.
+	 * 
+	 * @param files locations of the bundles
+	 * @param monitor progress monitor, work must already have been started
+	 */
+	private void addBundles(File[] files, IProgressMonitor monitor) {
+		if (PARALLEL_LOADING && files.length > 1) {
+			loadBundlesInParallel(files, monitor);
+			return;
+		}
+		for (int i = 0; i < files.length; i++) {
+			File file = files[i];
 			try {
 				if (monitor.isCanceled())
 					// if canceled, stop loading bundles
@@ -74,6 +165,250 @@ public class PDEState extends MinimalState {
 		}
 	}
 
+	/**
+	 * Reads the manifests of the given bundles on the {@link WorkerPool}.  At most
+	 * {@link #READ_AHEAD} manifests are read ahead of the bundles added to the state.  The
+	 * bundle descriptions are created and added to the state on the calling thread in the
+	 * order of the given URLs, so bundle ids and auxiliary data are identical to a sequential
+	 * load.
+	 * 
+	 * @param files locations of the bundles
+	 * @param monitor progress monitor, work must already have been started
+	 */
+	private void loadBundlesInParallel(File[] files, IProgressMonitor monitor) {
+		List<Callable<Map<String, String>>> tasks = new ArrayList<Callable<Map<String, String>>>(files.length);
+		for (int i = 0; i < files.length; i++) {
+			final File file = files[i];
+			tasks.add(new Callable<Map<String, String>>() {
+				public Map<String, String> call() throws Exception {
+					return ManifestUtils.loadManifest(file);
+				}
+			});
+		}
+		WorkerPool.Results<Map<String, String>> manifests = WorkerPool.run(tasks, READ_AHEAD);
+		try {
+			for (int i = 0; i < files.length; i++) {
+				try {
+					if (monitor.isCanceled())
+						// if canceled, stop loading bundles
+						return;
+					monitor.subTask(files[i].getName());
+					addLoadedBundle(manifests.next(), files[i], -1);
+				} catch (CoreException e) {
+					PDECore.log(e);
+				} catch (ExecutionException e) {
+					PDECore.log(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} finally {
+					monitor.worked(1);
+				}
+			}
+		} finally {
+			manifests.cancel();
+		}
+	}
+
+	/**
+	 * Restores the state from the target state cache.  Bundles whose fingerprint matches the
+	 * cache are taken from the cached state, bundles that have been removed or changed are removed
+	 * from it and new or changed bundles are read from disk.  If the cache does not exist or
+	 * cannot be read this method returns <code>false</code> and the state must be created from
+	 * scratch.
+	 * 
+	 * @param resolve whether to add a resolver to the state
+	 * @param urls urls of target bundles
+	 * @param monitor progress monitor
+	 * @return whether the state was restored from the cache
+	 */
+	private boolean restoreTargetState(boolean resolve, URL[] urls, IProgressMonitor monitor) {
+		File dir = new File(DIR, CACHE_DIR);
+		String systemBundle = fSystemBundle;
+		Map<String, long[]> index = readCacheIndex(dir);
+		if (index == null) {
+			return false;
+		}
+		State state = null;
+		try {
+			state = stateObjectFactory.readState(dir);
+		} catch (IOException e) {
+			PDECore.log(e);
+		}
+		if (state == null || !fAuxiliaryState.readPluginInfoCache(dir)) {
+			fAuxiliaryState.clear();
+			fSystemBundle = systemBundle;
+			return false;
+		}
+		if (resolve) {
+			state.setResolver(Platform.getPlatformAdmin().createResolver());
+		}
+		fState = state;
+		fId = state.getHighestBundleId();
+
+		monitor.beginTask(PDECoreMessages.PDEState_CreatingTargetModelState, urls.length);
+		Set<Long> unchanged = new HashSet<Long>();
+		List<File> changed = new ArrayList<File>();
+		for (int i = 0; i < urls.length; i++) {
+			File file = new File(urls[i].getFile());
+			long[] cached = index.get(file.getAbsolutePath());
+			long[] current = getFingerprint(file);
+			if (cached != null && current != null && cached[0] == current[0] && cached[1] == current[1]) {
+				unchanged.add(Long.valueOf(cached[2]));
+				monitor.worked(1);
+			} else {
+				changed.add(file);
+			}
+		}
+
+		// remove bundles that are no longer in the target or will be read again
+		boolean modified = false;
+		BundleDescription[] bundles = fState.getBundles();
+		for (int i = 0; i < bundles.length; i++) {
+			long bundleId = bundles[i].getBundleId();
+			if (!unchanged.contains(Long.valueOf(bundleId))) {
+				fState.removeBundle(bundles[i]);
+				fAuxiliaryState.removeAuxiliaryData(bundleId);
+				modified = true;
+			}
+		}
+
+		addBundles(changed.toArray(new File[changed.size()]), monitor);
+		if (monitor.isCanceled()) {
+			return true;
+		}
+
+		if (modified || !changed.isEmpty()) {
+			saveTargetState();
+		}
+		if (PDECore.DEBUG_MODEL) {
+			System.out.println("Restored " + unchanged.size() + " bundles from the target state cache, read " + changed.size() + " bundles"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the index of the target state cache, mapping bundle locations to their
+	 * fingerprint (length and last modification time) and bundle id.  Also restores
+	 * the name of the system bundle.
+	 * 
+	 * @param dir cache directory
+	 * @return map of absolute bundle locations to <code>{length, lastModified, bundleId}</code> or
+	 * <code>null</code> if the index does not exist or has an incompatible format
+	 */
+	private Map<String, long[]> readCacheIndex(File dir) {
+		File file = new File(dir, CACHE_INDEX);
+		if (!file.isFile()) {
+			return null;
+		}
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (in.readInt() != CACHE_VERSION) {
+				return null;
+			}
+			String systemBundle = in.readUTF();
+			int count = in.readInt();
+			Map<String, long[]> index = new HashMap<String, long[]>(count * 4 / 3 + 1);
+			for (int i = 0; i < count; i++) {
+				String location = in.readUTF();
+				index.put(location, new long[] {in.readLong(), in.readLong(), in.readLong()});
+			}
+			fSystemBundle = systemBundle;
+			return index;
+		} catch (IOException e) {
+			// corrupt or truncated index, rebuild the state
+			return null;
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the current state, its auxiliary data and the fingerprints of its bundles to the
+	 * target state cache.  The index is written last so an incomplete cache is never restored.
+	 */
+	private void saveTargetState() {
+		File dir = new File(DIR, CACHE_DIR);
+		File indexFile = new File(dir, CACHE_INDEX);
+		if (indexFile.exists() && !indexFile.delete()) {
+			return;
+		}
+		if (!dir.exists() && !dir.mkdirs()) {
+			return;
+		}
+		DataOutputStream out = null;
+		try {
+			stateObjectFactory.writeState(fState, dir);
+			fAuxiliaryState.savePluginInfo(dir);
+			BundleDescription[] bundles = fState.getBundles();
+			List<BundleDescription> indexed = new ArrayList<BundleDescription>(bundles.length);
+			List<long[]> fingerprints = new ArrayList<long[]>(bundles.length);
+			for (int i = 0; i < bundles.length; i++) {
+				// bundles without a fingerprint are not indexed and are read again on restore
+				long[] fingerprint = getFingerprint(new File(bundles[i].getLocation()));
+				if (fingerprint != null) {
+					indexed.add(bundles[i]);
+					fingerprints.add(fingerprint);
+				}
+			}
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+			out.writeInt(CACHE_VERSION);
+			out.writeUTF(fSystemBundle);
+			out.writeInt(indexed.size());
+			for (int i = 0; i < indexed.size(); i++) {
+				long[] fingerprint = fingerprints.get(i);
+				out.writeUTF(new File(indexed.get(i).getLocation()).getAbsolutePath());
+				out.writeLong(fingerprint[0]);
+				out.writeLong(fingerprint[1]);
+				out.writeLong(indexed.get(i).getBundleId());
+			}
+		} catch (IOException e) {
+			PDECore.log(e);
+			indexFile.delete();
+		} finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the fingerprint of the bundle at the given location.  For an archive this is its
+	 * length and last modification time.  Directory time stamps only change when entries are
+	 * added or removed, so for a directory bundle the time stamp of the directory is combined
+	 * with the lengths and time stamps of the files its description and auxiliary data are read
+	 * from.  Old style plug-ins without a manifest have no fingerprint and are always read again,
+	 * as the manifest generated for them depends on the contents of their libraries.
+	 * 
+	 * @param location bundle location
+	 * @return <code>{length, lastModified}</code> or <code>null</code> if the bundle must always be read
+	 */
+	private static long[] getFingerprint(File location) {
+		if (!location.isDirectory()) {
+			return new long[] {location.length(), location.lastModified()};
+		}
+		if (!new File(location, ICoreConstants.BUNDLE_FILENAME_DESCRIPTOR).isFile()) {
+			return null;
+		}
+		long length = 0;
+		long lastModified = location.lastModified();
+		for (int i = 0; i < DESCRIPTION_FILES.length; i++) {
+			File file = new File(location, DESCRIPTION_FILES[i]);
+			length = length * 31 + file.length();
+			lastModified = lastModified * 31 + file.lastModified();
+		}
+		return new long[] {length, lastModified};
+	}
+
 	@Override
 	protected void addAuxiliaryData(BundleDescription desc, Map<String, String> manifest, boolean hasBundleStructure) {
 		fAuxiliaryState.addAuxiliaryData(desc, manifest, hasBundleStructure);
@@ -22,8 +22,6 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.*;
 import org.eclipse.osgi.service.resolver.*;
 import org.eclipse.pde.core.*;
-import org.eclipse.pde.core.build.IBuild;
-import org.eclipse.pde.core.build.IBuildEntry;
 import org.eclipse.pde.core.plugin.*;
 import org.eclipse.pde.core.target.ITargetDefinition;
 import org.eclipse.pde.core.target.TargetBundle;
@@ -151,6 +149,29 @@ public class PluginModelManager implements IModelProviderListener {
 		}
 	}
 
+	/**
+	 * Immutable view of the models in the master table, replaced as a whole
+	 * whenever the table changes so readers neither copy nor lock the table.
+	 * The arrays must not be modified.
+	 */
+	private static class ModelSnapshot {
+		final long version;
+		final IPluginModelBase[] active;
+		final IPluginModelBase[] activePlugins;
+		final IPluginModelBase[] all;
+		final IPluginModelBase[] allPlugins;
+		final IPluginModelBase[] workspace;
+
+		ModelSnapshot(long version, List<IPluginModelBase> active, List<IPluginModelBase> activePlugins, List<IPluginModelBase> all, List<IPluginModelBase> allPlugins, IPluginModelBase[] workspace) {
+			this.version = version;
+			this.active = active.toArray(new IPluginModelBase[active.size()]);
+			this.activePlugins = activePlugins.toArray(new IPluginModelBase[activePlugins.size()]);
+			this.all = all.toArray(new IPluginModelBase[all.size()]);
+			this.allPlugins = allPlugins.toArray(new IPluginModelBase[allPlugins.size()]);
+			this.workspace = workspace;
+		}
+	}
+
 	private ExternalModelManager fExternalManager; // keeps track of changes in target models
 	private WorkspacePluginModelManager fWorkspaceManager; // keeps track of changes in the workspace
 	private PDEState fState; // keeps the combined view of the target and workspace
@@ -159,6 +180,10 @@ public class PluginModelManager implements IModelProviderListener {
 	private ArrayList<IPluginModelListener> fListeners; // a list of listeners interested in changes to the plug-in models
 	private ArrayList<IStateDeltaListener> fStateListeners; // a list of listeners interested in changes to the PDE/resolver State
 	private boolean fCancelled = false;
+	private ClasspathDependencyIndex fDependencyIndex = new ClasspathDependencyIndex(); // projects affected by changes to the State
+	private volatile ModelSnapshot fSnapshot; // the models of the master table, rebuilt when it changes
+	private long fSnapshotVersion = 0; // version of the last snapshot, guarded by the manager's lock
+
 
 	/**
 	 * Initialize the workspace and external (target) model manager
@@ -207,6 +232,8 @@ public class PluginModelManager implements IModelProviderListener {
 				String id = model.getPluginBase().getId();
 				if (id != null)
 					handleRemove(id, model, delta);
+				if (model.getUnderlyingResource() != null)
+					fDependencyIndex.removeProject(model.getUnderlyingResource().getProject());
 			}
 		}
 
@@ -236,6 +263,9 @@ public class PluginModelManager implements IModelProviderListener {
 				handleChange((IPluginModelBase) changed[i], delta);
 		}
 
+		// publish the models of the changed table before anyone reads them again
+		updateSnapshot(getEntryTable());
+
 		if (fState != null) {
 			// if the target location has not changed, incrementally re-resolve the state after processing all the add/remove/modify changes
 			// Otherwise, the state is in a good resolved state
@@ -263,62 +293,48 @@ public class PluginModelManager implements IModelProviderListener {
 	 * model changes
 	 * 
 	 * @param delta  a state delta containing a list of bundles affected by the processed
-	 * 				changes, may be <code>null</code> to indicate the entire target has changed
+	 * 				changes
 	 * @param runAsynch whether classpath updates should be done in an asynchronous job
 	 */
 	private void updateAffectedEntries(StateDelta delta, boolean runAsynch) {
+		Set<String> bundles = new HashSet<String>();
+		Set<String> packages = new HashSet<String>();
+		ClasspathDependencyIndex.collectChanges(delta, bundles, packages);
+		updateAffectedEntries(bundles, packages, runAsynch);
+	}
+
+	/**
+	 * Trigger a classpath update for the workspace plug-ins whose classpath depends on any
+	 * of the given bundles or packages, as recorded in the {@link ClasspathDependencyIndex}.
+	 * Plug-ins without a recorded classpath are always updated. The containers of all other
+	 * plug-ins, and the entries they computed, are kept.
+	 * 
+	 * @param bundles symbolic names of the changed bundles
+	 * @param packages names of the packages exported by the changed bundles
+	 * @param runAsynch whether classpath updates should be done in an asynchronous job
+	 */
+	private void updateAffectedEntries(Set<String> bundles, Set<String> packages, boolean runAsynch) {
 		Map<IJavaProject, RequiredPluginsClasspathContainer> map = new HashMap<IJavaProject, RequiredPluginsClasspathContainer>();
-		if (delta == null) {
-			// if the delta is null, then the entire target changed.
-			// Therefore, we should update the classpath for all workspace plug-ins.
-			IPluginModelBase[] models = getWorkspaceModels();
-			for (int i = 0; i < models.length; i++) {
-				IProject project = models[i].getUnderlyingResource().getProject();
-				try {
-					if (project.hasNature(JavaCore.NATURE_ID)) {
-						map.put(JavaCore.create(project), new RequiredPluginsClasspathContainer(models[i]));
-					}
-				} catch (CoreException e) {
-				}
-			}
-		} else {
-			BundleDelta[] deltas = delta.getChanges();
-			for (int i = 0; i < deltas.length; i++) {
-				try {
-					// update classpath for workspace plug-ins that are housed in a 
-					// Java project hand have been affected by the processd model changes.
-					IPluginModelBase model = findModel(deltas[i].getBundle());
-					IResource resource = model == null ? null : model.getUnderlyingResource();
-					if (resource != null) {
-						IProject project = resource.getProject();
-						if (project.hasNature(JavaCore.NATURE_ID)) {
-							IJavaProject jProject = JavaCore.create(project);
-							if (!map.containsKey(jProject)) {
-								map.put(jProject, new RequiredPluginsClasspathContainer(model));
-							}
-						}
-					}
-				} catch (CoreException e) {
-				}
-			}
-			// do secondary dependencies
-			IPluginModelBase[] models = getWorkspaceModels();
-			for (int i = 0; i < models.length; i++) {
-				IProject project = models[i].getUnderlyingResource().getProject();
-				try {
-					if (!project.hasNature(JavaCore.NATURE_ID))
-						continue;
-					IJavaProject jProject = JavaCore.create(project);
-					if (map.containsKey(jProject))
-						continue;
-					IBuild build = ClasspathUtilCore.getBuild(models[i]);
-					if (build != null && build.getEntry(IBuildEntry.SECONDARY_DEPENDENCIES) != null) {
-						map.put(jProject, new RequiredPluginsClasspathContainer(models[i], build));
-					}
-				} catch (CoreException e) {
+		Set<IProject> dependents = fDependencyIndex.getDependents(bundles, packages);
+		Set<String> invalid = new HashSet<String>(bundles);
+		IPluginModelBase[] models = getWorkspaceModels();
+		for (int i = 0; i < models.length; i++) {
+			IProject project = models[i].getUnderlyingResource().getProject();
+			if (!dependents.contains(project) && fDependencyIndex.contains(project))
+				continue;
+			try {
+				if (project.hasNature(JavaCore.NATURE_ID)) {
+					map.put(JavaCore.create(project), new RequiredPluginsClasspathContainer(models[i]));
+					// affected until the new container has computed its entries
+					fDependencyIndex.removeProject(project);
+					invalid.add(models[i].getPluginBase().getId());
 				}
+			} catch (CoreException e) {
 			}
 		}
+		// the visible packages of the affected plug-ins and of the bundles depending on
+		// them may be supplied by other bundles now
+		fDependencyIndex.clearVisiblePackages(invalid);
 
 		if (map.size() > 0) {
 			// update class path for all affected workspace plug-ins in one operation
@@ -533,7 +549,11 @@ public class PluginModelManager implements IModelProviderListener {
 			fCancelled = true;
 		}
 
-		fState = new PDEState(externalUrls, true, true, subMon.newChild(15));
+		boolean useCache = PDECore.getDefault().getPreferencesManager().getBoolean(ICoreConstants.TARGET_STATE_CACHE);
+		fState = new PDEState(externalUrls, true, true, useCache, subMon.newChild(15));
+		// cached dependency closures and validation states hold the bundles of the old state
+		DependencyManager.clearClosures();
+		BundleValidationOperation.clearCache();
 		fExternalManager.setModels(fState.getTargetModels());
 		addToTable(entries, fExternalManager.getAllModels());
 		if (PDECore.DEBUG_MODEL) {
@@ -559,13 +579,19 @@ public class PluginModelManager implements IModelProviderListener {
 		}
 
 		fEntries = entries;
+		updateSnapshot(entries);
 		// flush the extension registry cache since workspace data (BundleDescription id's) have changed.
 		PDECore.getDefault().getExtensionsRegistry().targetReloaded();
 		if (oldState != null) {
-			// Need to update classpath entries
-			updateAffectedEntries(null, true);
+			// Need to update classpath entries of the plug-ins depending on bundles that changed with the target
+			Set<String> bundles = new HashSet<String>();
+			Set<String> packages = new HashSet<String>();
+			ClasspathDependencyIndex.collectChanges(oldState.getState(), fState.getState(), bundles, packages);
+			fDependencyIndex.clearVisiblePackages(null);
+			updateAffectedEntries(bundles, packages, true);
 		}
 		fireStateChanged(fState);
+		PDECore.getDefault().getSourceLocationManager().initializeIndex();
 		subMon.worked(25);
 		if (PDECore.DEBUG_MODEL) {
 			long time = System.currentTimeMillis() - startTime;
@@ -625,6 +651,69 @@ public class PluginModelManager implements IModelProviderListener {
 
 	}
 
+	/**
+	 * Publishes a new snapshot of the models in the given master table
+	 * 
+	 * @param entries the master table
+	 */
+	private synchronized void updateSnapshot(Map<String, LocalModelEntry> entries) {
+		int size = entries.size();
+		ArrayList<IPluginModelBase> active = new ArrayList<IPluginModelBase>(size);
+		ArrayList<IPluginModelBase> activePlugins = new ArrayList<IPluginModelBase>(size);
+		ArrayList<IPluginModelBase> all = new ArrayList<IPluginModelBase>(size);
+		ArrayList<IPluginModelBase> allPlugins = new ArrayList<IPluginModelBase>(size);
+		synchronized (entries) {
+			Iterator<LocalModelEntry> iter = entries.values().iterator();
+			while (iter.hasNext()) {
+				ModelEntry entry = iter.next();
+				IPluginModelBase[] models = entry.getActiveModels();
+				for (int i = 0; i < models.length; i++) {
+					active.add(models[i]);
+					if (models[i] instanceof IPluginModel)
+						activePlugins.add(models[i]);
+				}
+				models = entry.hasWorkspaceModels() ? entry.getWorkspaceModels() : entry.getExternalModels();
+				for (int i = 0; i < models.length; i++) {
+					all.add(models[i]);
+					if (models[i] instanceof IPluginModel)
+						allPlugins.add(models[i]);
+				}
+			}
+		}
+		fSnapshot = new ModelSnapshot(++fSnapshotVersion, active, activePlugins, all, allPlugins, fWorkspaceManager.getPluginModels());
+	}
+
+	/**
+	 * Returns the current snapshot of the models in the master table, initializing the
+	 * table if necessary
+	 * 
+	 * @return the current snapshot
+	 */
+	private ModelSnapshot getSnapshot() {
+		initializeTable(null);
+		ModelSnapshot snapshot = fSnapshot;
+		if (snapshot == null) {
+			// the table was initialized without models
+			synchronized (this) {
+				if (fSnapshot == null)
+					updateSnapshot(fEntries);
+				snapshot = fSnapshot;
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Returns the version of the snapshot the model arrays are currently returned from.
+	 * The version increases whenever plug-in models are added, removed or changed, so
+	 * callers can tell whether arrays they hold are still current.
+	 * 
+	 * @return the current snapshot version
+	 */
+	public long getSnapshotVersion() {
+		return getSnapshot().version;
+	}
+
 	/**
 	 * Adds the given models to the corresponding ModelEntry in the master table
 	 * 
@@ -917,24 +1006,17 @@ public class PluginModelManager implements IModelProviderListener {
 	 * The returned result includes fragments only if <code>includeFragments</code>
 	 * is set to true
 	 * </p>
+	 * <p>
+	 * The returned array is shared and must not be modified.
+	 * </p>
 	 * @param includeFragments  a boolean indicating if fragments are desired in the returned
 	 *							result
 	 * @return all plug-ins and (possibly) fragments in the workspace as well as all plug-ins and 
 	 * (possibly) fragments that are checked on the Target Platform preference page.
 	 */
 	public IPluginModelBase[] getActiveModels(boolean includeFragments) {
-		int size = getEntryTable().size();
-		ArrayList<IPluginModelBase> result = new ArrayList<IPluginModelBase>(size);
-		Iterator<LocalModelEntry> iter = getEntryTable().values().iterator();
-		while (iter.hasNext()) {
-			ModelEntry entry = iter.next();
-			IPluginModelBase[] models = entry.getActiveModels();
-			for (int i = 0; i < models.length; i++) {
-				if (models[i] instanceof IPluginModel || includeFragments)
-					result.add(models[i]);
-			}
-		}
-		return result.toArray(new IPluginModelBase[result.size()]);
+		ModelSnapshot snapshot = getSnapshot();
+		return includeFragments ? snapshot.active : snapshot.activePlugins;
 	}
 
 	/**
@@ -967,6 +1049,9 @@ public class PluginModelManager implements IModelProviderListener {
 	 * The returned result includes fragments only if <code>includeFragments</code>
 	 * is set to true
 	 * </p>
+	 * <p>
+	 * The returned array is shared and must not be modified.
+	 * </p>
 	 * @param includeFragments  a boolean indicating if fragments are desired in the returned
 	 *							result
 	 * @return ll plug-ins and (possibly) fragments in the workspace as well as all plug-ins 
@@ -974,18 +1059,8 @@ public class PluginModelManager implements IModelProviderListener {
 	 * checked on the Target Platform preference page.
 	 */
 	public IPluginModelBase[] getAllModels(boolean includeFragments) {
-		int size = getEntryTable().size();
-		ArrayList<IPluginModelBase> result = new ArrayList<IPluginModelBase>(size);
-		Iterator<LocalModelEntry> iter = getEntryTable().values().iterator();
-		while (iter.hasNext()) {
-			ModelEntry entry = iter.next();
-			IPluginModelBase[] models = entry.hasWorkspaceModels() ? entry.getWorkspaceModels() : entry.getExternalModels();
-			for (int i = 0; i < models.length; i++) {
-				if (models[i] instanceof IPluginModel || includeFragments)
-					result.add(models[i]);
-			}
-		}
-		return result.toArray(new IPluginModelBase[result.size()]);
+		ModelSnapshot snapshot = getSnapshot();
+		return includeFragments ? snapshot.all : snapshot.allPlugins;
 	}
 
 	/**
@@ -1001,11 +1076,14 @@ public class PluginModelManager implements IModelProviderListener {
 	/**
 	 * Returns all plug-in models in the workspace
 	 * 
+	 * <p>
+	 * The returned array is shared and must not be modified.
+	 * </p>
+	 * 
 	 * @return all plug-in models in the workspace
 	 */
 	public IPluginModelBase[] getWorkspaceModels() {
-		initializeTable(null);
-		return fWorkspaceManager.getPluginModels();
+		return getSnapshot().workspace;
 	}
 
 	/**
@@ -1018,6 +1096,16 @@ public class PluginModelManager implements IModelProviderListener {
 		return fExternalManager;
 	}
 
+	/**
+	 * Returns the index of the bundles the plug-in dependencies classpath containers of
+	 * workspace projects were computed from.
+	 * 
+	 * @return the classpath dependency index
+	 */
+	public ClasspathDependencyIndex getClasspathDependencyIndex() {
+		return fDependencyIndex;
+	}
+
 	/**
 	 * Returns the state containing bundle descriptions for workspace plug-ins and target plug-ins
 	 * that form the current PDE state
@@ -1042,6 +1130,8 @@ public class PluginModelManager implements IModelProviderListener {
 	protected void shutdown() {
 		fWorkspaceManager.shutdown();
 		fExternalManager.shutdown();
+		DependencyManager.clearClosures();
+		BundleValidationOperation.clearCache();
 
 		if (fListeners != null)
 			fListeners.clear();
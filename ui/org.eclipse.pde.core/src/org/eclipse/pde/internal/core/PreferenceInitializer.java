@@ -67,5 +67,8 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 		} catch (BackingStoreException e) {
 			PDECore.log(e);
 		}
+
+		IEclipsePreferences corePrefs = DefaultScope.INSTANCE.getNode(PDECore.PLUGIN_ID);
+		corePrefs.putBoolean(ICoreConstants.TARGET_STATE_CACHE, false);
 	}
 }
@@ -31,6 +31,12 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 
 	private IClasspathEntry[] fEntries = null;
 
+	/**
+	 * Symbolic names of the bundles the entries were computed from, see
+	 * {@link ClasspathDependencyIndex}
+	 */
+	private Set<String> fDependencies;
+
 	/**
 	 * Cached list of {@link IClasspathContributor} from plug-in extensions
 	 * @see #getClasspathContributors()
@@ -115,12 +121,17 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 			}
 
 			HashSet<BundleDescription> added = new HashSet<BundleDescription>();
+			fDependencies = new HashSet<String>();
+			Set<String> imports = new HashSet<String>();
 
 			// to avoid cycles, e.g. when a bundle imports a package it exports
 			added.add(desc);
 
 			HostSpecification host = desc.getHost();
 			if (host != null) {
+				fDependencies.add(host.getName());
+				if (host.getSupplier() instanceof BundleDescription)
+					addImportNames((BundleDescription) host.getSupplier(), imports);
 				addHostPlugin(host, added, map, entries);
 			} else if ("true".equals(System.getProperty("pde.allowCycles"))) { //$NON-NLS-1$ //$NON-NLS-2$
 				BundleDescription[] fragments = desc.getFragments();
@@ -134,8 +145,10 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 			// add dependencies
 			BundleSpecification[] required = desc.getRequiredBundles();
 			for (int i = 0; i < required.length; i++) {
+				fDependencies.add(required[i].getName());
 				addDependency((BundleDescription) required[i].getSupplier(), added, map, entries);
 			}
+			addImportNames(desc, imports);
 
 			if (fBuild == null)
 				fBuild = ClasspathUtilCore.getBuild(fModel);
@@ -162,11 +175,36 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 			if (fBuild != null)
 				addExtraClasspathEntries(added, entries);
 
+			recordDependencies(added, imports);
 		} catch (CoreException e) {
 		}
 		return entries.toArray(new IClasspathEntry[entries.size()]);
 	}
 
+	private static void addImportNames(BundleDescription desc, Set<String> imports) {
+		ImportPackageSpecification[] specs = desc.getImportPackages();
+		for (int i = 0; i < specs.length; i++) {
+			imports.add(specs[i].getName());
+		}
+	}
+
+	/**
+	 * Records the bundles and packages the entries were computed from in the
+	 * {@link ClasspathDependencyIndex}, so that the container is only recomputed when
+	 * one of them changes.
+	 */
+	private void recordDependencies(Set<BundleDescription> added, Set<String> imports) {
+		IResource resource = fModel.getUnderlyingResource();
+		if (resource == null)
+			return;
+		for (Iterator<BundleDescription> iter = added.iterator(); iter.hasNext();) {
+			fDependencies.add(iter.next().getSymbolicName());
+		}
+		fDependencies.remove(null);
+		imports.remove(null);
+		PDECore.getDefault().getModelManager().getClasspathDependencyIndex().setDependencies(resource.getProject(), fDependencies, imports);
+	}
+
 	/**
 	 * Return the list of {@link IClasspathContributor}s provided by the 
 	 * <code>org.eclipse.pde.core.pluginClasspathContributors</code> extension point.
@@ -189,14 +227,54 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 	}
 
 	private Map<BundleDescription, ArrayList<Rule>> retrieveVisiblePackagesFromState(BundleDescription desc) {
-		Map<BundleDescription, ArrayList<Rule>> visiblePackages = new HashMap<BundleDescription, ArrayList<Rule>>();
-		StateHelper helper = Platform.getPlatformAdmin().getStateHelper();
-		addVisiblePackagesFromState(helper, desc, visiblePackages);
-		if (desc.getHost() != null)
-			addVisiblePackagesFromState(helper, (BundleDescription) desc.getHost().getSupplier(), visiblePackages);
+		ClasspathDependencyIndex index = PDECore.getDefault().getModelManager().getClasspathDependencyIndex();
+		Map<BundleDescription, ArrayList<Rule>> visiblePackages = getVisiblePackages(index, desc);
+		if (desc.getHost() != null) {
+			Map<BundleDescription, ArrayList<Rule>> hostPackages = getVisiblePackages(index, (BundleDescription) desc.getHost().getSupplier());
+			if (!hostPackages.isEmpty()) {
+				// the memoized maps are shared, merge into a copy
+				Map<BundleDescription, ArrayList<Rule>> merged = new HashMap<BundleDescription, ArrayList<Rule>>();
+				mergeVisiblePackages(visiblePackages, merged);
+				mergeVisiblePackages(hostPackages, merged);
+				visiblePackages = merged;
+			}
+		}
 		return visiblePackages;
 	}
 
+	/**
+	 * Returns the visible packages of the given bundle, memoized in the index as they do not
+	 * change until the bundle or one of its dependencies does. The returned map must not be
+	 * modified.
+	 */
+	private Map<BundleDescription, ArrayList<Rule>> getVisiblePackages(ClasspathDependencyIndex index, BundleDescription desc) {
+		if (desc == null)
+			return Collections.emptyMap();
+		Map<BundleDescription, ArrayList<Rule>> visiblePackages = index.getVisiblePackages(desc);
+		if (visiblePackages == null) {
+			visiblePackages = new HashMap<BundleDescription, ArrayList<Rule>>();
+			addVisiblePackagesFromState(Platform.getPlatformAdmin().getStateHelper(), desc, visiblePackages);
+			index.setVisiblePackages(desc, visiblePackages);
+		}
+		return visiblePackages;
+	}
+
+	private static void mergeVisiblePackages(Map<BundleDescription, ArrayList<Rule>> source, Map<BundleDescription, ArrayList<Rule>> target) {
+		for (Iterator<Map.Entry<BundleDescription, ArrayList<Rule>>> iter = source.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<BundleDescription, ArrayList<Rule>> entry = iter.next();
+			ArrayList<Rule> list = target.get(entry.getKey());
+			if (list == null) {
+				list = new ArrayList<Rule>();
+				target.put(entry.getKey(), list);
+			}
+			for (Iterator<Rule> rules = entry.getValue().iterator(); rules.hasNext();) {
+				Rule rule = rules.next();
+				if (!list.contains(rule))
+					list.add(rule);
+			}
+		}
+	}
+
 	private void addVisiblePackagesFromState(StateHelper helper, BundleDescription desc, Map<BundleDescription, ArrayList<Rule>> visiblePackages) {
 		if (desc == null)
 			return;
@@ -389,6 +467,8 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 				int count = path.getDevice() == null ? 4 : 3;
 				if (path.segmentCount() >= count) {
 					String pluginID = path.segment(count - 2);
+					if (fDependencies != null)
+						fDependencies.add(pluginID);
 					if (added.contains(pluginID))
 						continue;
 					IPluginModelBase model = PluginRegistry.findModel(pluginID);
@@ -420,6 +500,8 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 				String[] tokens = entry.getTokens();
 				for (int i = 0; i < tokens.length; i++) {
 					String pluginId = tokens[i];
+					if (fDependencies != null)
+						fDependencies.add(pluginId);
 					// Get PluginModelBase first to resolve system.bundle entry if it exists
 					IPluginModelBase model = PluginRegistry.findModel(pluginId);
 					if (model != null) {
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.io.File;
+import java.util.*;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Version;
+
+/**
+ * In-memory index of the source locations known to the {@link SourceLocationManager}.
+ * <p>
+ * The contents of each user specified and extension location, including the contents of
+ * its <code>PluginID_PluginVersion</code> directories, are listed and the existence of each
+ * bundle manifest source location is checked when the index is created, so lookups never
+ * touch the file system. The result of each lookup, keyed by plug-in id, version and library,
+ * is remembered. The index is built for one target platform and set of user locations, and
+ * must be discarded when either changes.
+ * </p>
+ */
+public class SourceLocationIndex {
+
+	private final IPath[] fUserLocations;
+	private final IPath[] fExtensionLocations;
+	private final BundleManifestSourceLocationManager fBundleManifestLocator;
+
+	/**
+	 * Whether names in the file system are compared ignoring case
+	 */
+	private final boolean fIgnoreCase = Platform.OS_WIN32.equals(Platform.getOS());
+
+	/**
+	 * Location -> portable paths of the files and directories in the location directory,
+	 * relative to it
+	 */
+	private final Map<IPath, Set<String>> fEntries = new HashMap<IPath, Set<String>>();
+
+	/**
+	 * Paths of the bundle manifest source locations that exist
+	 */
+	private final Set<IPath> fBundleManifestLocations = new HashSet<IPath>();
+
+	/**
+	 * Relative path -> path found in a user location or <code>null</code>
+	 */
+	private final Map<String, IPath> fUserResults = new HashMap<String, IPath>();
+
+	/**
+	 * Relative path -> path found in an extension location or <code>null</code>
+	 */
+	private final Map<String, IPath> fExtensionResults = new HashMap<String, IPath>();
+
+	/**
+	 * PluginID_PluginVersion -> existing bundle manifest source location or <code>null</code>
+	 */
+	private final Map<String, IPath> fBundleManifestResults = new HashMap<String, IPath>();
+
+	private int fServed = 0;
+	private int fFallbacks = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param userLocations source locations specified by the user
+	 * @param extensionLocations source locations added via extension point
+	 * @param bundleManifestLocator manager of the source bundles of the target platform
+	 */
+	public SourceLocationIndex(List<SourceLocation> userLocations, List<SourceLocation> extensionLocations, BundleManifestSourceLocationManager bundleManifestLocator) {
+		fUserLocations = getPaths(userLocations);
+		fExtensionLocations = getPaths(extensionLocations);
+		fBundleManifestLocator = bundleManifestLocator;
+		addEntries(fUserLocations);
+		addEntries(fExtensionLocations);
+		for (Iterator<SourceLocation> iter = bundleManifestLocator.getSourceLocations().iterator(); iter.hasNext();) {
+			IPath path = iter.next().getPath();
+			if (path.toFile().exists()) {
+				fBundleManifestLocations.add(path);
+			}
+		}
+	}
+
+	/**
+	 * Lists the contents of the given location directories
+	 */
+	private void addEntries(IPath[] locations) {
+		for (int i = 0; i < locations.length; i++) {
+			if (fEntries.containsKey(locations[i]))
+				continue;
+			Set<String> entries = new HashSet<String>();
+			addEntries(locations[i].toFile(), "", entries); //$NON-NLS-1$
+			fEntries.put(locations[i], entries);
+		}
+	}
+
+	/**
+	 * Adds the relative paths of the contents of the given directory and its sub-directories
+	 */
+	private void addEntries(File directory, String prefix, Set<String> entries) {
+		File[] children = directory.listFiles();
+		if (children == null)
+			return;
+		for (int i = 0; i < children.length; i++) {
+			String path = prefix + (fIgnoreCase ? children[i].getName().toLowerCase() : children[i].getName());
+			entries.add(path);
+			if (children[i].isDirectory()) {
+				addEntries(children[i], path + '/', entries);
+			}
+		}
+	}
+
+	private static IPath[] getPaths(List<SourceLocation> locations) {
+		IPath[] paths = new IPath[locations.size()];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = locations.get(i).getPath();
+		}
+		return paths;
+	}
+
+	/**
+	 * Returns the first user specified location containing the given relative path
+	 *
+	 * @param relativePath path of the form <code>PluginID_PluginVersion/library</code>
+	 * @return the full path of the existing file or <code>null</code>
+	 */
+	public synchronized IPath findUserLocation(IPath relativePath) {
+		return search(fUserLocations, fUserResults, relativePath);
+	}
+
+	/**
+	 * Returns the first location added via extension point containing the given relative path
+	 *
+	 * @param relativePath path of the form <code>PluginID_PluginVersion/library</code>
+	 * @return the full path of the existing file or <code>null</code>
+	 */
+	public synchronized IPath findExtensionLocation(IPath relativePath) {
+		return search(fExtensionLocations, fExtensionResults, relativePath);
+	}
+
+	/**
+	 * Returns the existing source bundle that provides source for the given plug-in
+	 * according to its bundle manifest
+	 *
+	 * @param pluginID id of the plug-in
+	 * @param version version of the plug-in
+	 * @return path of the source bundle or <code>null</code>
+	 */
+	public synchronized IPath findBundleManifestLocation(String pluginID, Version version) {
+		String key = pluginID + '_' + version;
+		if (fBundleManifestResults.containsKey(key)) {
+			fServed++;
+			return fBundleManifestResults.get(key);
+		}
+		fFallbacks++;
+		IPath result = null;
+		SourceLocation location = fBundleManifestLocator.getSourceLocation(pluginID, version);
+		if (location != null && fBundleManifestLocations.contains(location.getPath())) {
+			result = location.getPath();
+		}
+		fBundleManifestResults.put(key, result);
+		return result;
+	}
+
+	private IPath search(IPath[] locations, Map<String, IPath> results, IPath relativePath) {
+		String key = relativePath.toPortableString();
+		if (results.containsKey(key)) {
+			fServed++;
+			return results.get(key);
+		}
+		fFallbacks++;
+		IPath result = null;
+		String entry = fIgnoreCase ? key.toLowerCase() : key;
+		for (int i = 0; i < locations.length && result == null; i++) {
+			Set<String> entries = fEntries.get(locations[i]);
+			if (entries != null && entries.contains(entry)) {
+				result = locations[i].append(relativePath);
+			}
+		}
+		results.put(key, result);
+		return result;
+	}
+
+	/**
+	 * @return the number of lookups answered from the index
+	 */
+	public synchronized int getServedCount() {
+		return fServed;
+	}
+
+	/**
+	 * @return the number of lookups that had to search the source locations
+	 */
+	public synchronized int getFallbackCount() {
+		return fFallbacks;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public synchronized String toString() {
+		return "SourceLocationIndex: " + fServed + " lookups served, " + fFallbacks + " searched"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
@@ -35,6 +35,19 @@ public class SourceLocationManager implements ICoreConstants {
 	 */
 	private BundleManifestSourceLocationManager fBundleManifestLocator = null;
 
+	/**
+	 * Index answering source lookups, built for the user locations preference it was created with
+	 */
+	private SourceLocationIndex fIndex = null;
+	private String fIndexedUserLocations = null;
+
+	/**
+	 * Incremented whenever the cached locations are cleared.  Locations and indexes
+	 * collected without holding the lock of this manager are only kept if the generation
+	 * did not change while they were collected.
+	 */
+	private int fGeneration = 0;
+
 	/**
 	 * Searches source locations for one that provides source for the given pluginBase.
 	 * Will search user specified locations, then bundle manifest specified locations, then
@@ -52,11 +65,12 @@ public class SourceLocationManager implements ICoreConstants {
 			return null;
 		}
 		IPath relativePath = getRelativePath(pluginBase, sourceLibraryPath);
-		IPath result = searchUserSpecifiedLocations(relativePath);
+		SourceLocationIndex index = getIndex();
+		IPath result = searchUserSpecifiedLocations(index, relativePath);
 		if (result == null) {
-			result = searchBundleManifestLocations(pluginBase);
+			result = searchBundleManifestLocations(index, pluginBase);
 			if (result == null) {
-				result = searchExtensionLocations(relativePath);
+				result = searchExtensionLocations(index, relativePath);
 			}
 		}
 		return result;
@@ -77,9 +91,10 @@ public class SourceLocationManager implements ICoreConstants {
 			return null;
 		}
 		IPath relativePath = getRelativePath(pluginBase, filePath);
-		IPath result = searchUserSpecifiedLocations(relativePath);
+		SourceLocationIndex index = getIndex();
+		IPath result = searchUserSpecifiedLocations(index, relativePath);
 		if (result == null) {
-			result = searchBundleManifestLocations(pluginBase);
+			result = searchBundleManifestLocations(index, pluginBase);
 			if (result != null) {
 				try {
 					// We use URIs to create the combined jar/path url, but URIs encode special characters
@@ -92,7 +107,7 @@ public class SourceLocationManager implements ICoreConstants {
 					PDECore.log(e);
 				}
 			}
-			result = searchExtensionLocations(relativePath);
+			result = searchExtensionLocations(index, relativePath);
 		}
 		if (result != null) {
 			try {
@@ -171,9 +186,75 @@ public class SourceLocationManager implements ICoreConstants {
 	/**
 	 * Clears the cache of all known extension and bundle manifest locations.
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		fExtensionLocations = null;
 		fBundleManifestLocator = null;
+		fGeneration++;
+		setIndex(null, null);
+	}
+
+	/**
+	 * Clears the cache of all known locations and indexes the locations of the current
+	 * target platform and user locations preference.  Called when the target platform
+	 * has been loaded.
+	 */
+	public void initializeIndex() {
+		synchronized (this) {
+			fExtensionLocations = null;
+			fBundleManifestLocator = null;
+			fGeneration++;
+		}
+		createIndex();
+	}
+
+	/**
+	 * Returns the index answering source lookups for the current target platform and
+	 * user locations. The index is created when the target platform is loaded, and
+	 * created again if the user locations preference has changed since.
+	 *
+	 * @return the source location index
+	 */
+	public SourceLocationIndex getIndex() {
+		synchronized (this) {
+			String userLocations = PDECore.getDefault().getPreferencesManager().getString(P_SOURCE_LOCATIONS);
+			if (fIndex != null && userLocations.equals(fIndexedUserLocations)) {
+				return fIndex;
+			}
+		}
+		return createIndex();
+	}
+
+	/**
+	 * Creates the index of the current locations.  The lock of this manager is not held
+	 * while collecting the locations, as that may need the lock of the plug-in model manager.
+	 * The index is only installed if the locations have not been cleared in the meantime,
+	 * otherwise it is only used by the caller.
+	 */
+	private SourceLocationIndex createIndex() {
+		long start = System.currentTimeMillis();
+		int generation;
+		synchronized (this) {
+			generation = fGeneration;
+		}
+		String userLocations = PDECore.getDefault().getPreferencesManager().getString(P_SOURCE_LOCATIONS);
+		SourceLocationIndex index = new SourceLocationIndex(getUserLocations(), getExtensionLocations(), getBundleManifestLocator());
+		if (PDECore.DEBUG_SOURCE) {
+			System.out.println("Source locations indexed in " + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		synchronized (this) {
+			if (generation == fGeneration) {
+				setIndex(index, userLocations);
+			}
+		}
+		return index;
+	}
+
+	private void setIndex(SourceLocationIndex index, String userLocations) {
+		if (PDECore.DEBUG_SOURCE && fIndex != null) {
+			System.out.println(fIndex);
+		}
+		fIndex = index;
+		fIndexedUserLocations = userLocations;
 	}
 
 	/**
@@ -196,10 +277,20 @@ public class SourceLocationManager implements ICoreConstants {
 	 * @return array of source locations that have been added via extension point
 	 */
 	public List<SourceLocation> getExtensionLocations() {
-		if (fExtensionLocations == null) {
-			fExtensionLocations = processExtensions();
+		int generation;
+		synchronized (this) {
+			if (fExtensionLocations != null) {
+				return fExtensionLocations;
+			}
+			generation = fGeneration;
 		}
-		return fExtensionLocations;
+		List<SourceLocation> locations = processExtensions();
+		synchronized (this) {
+			if (generation == fGeneration && fExtensionLocations == null) {
+				fExtensionLocations = locations;
+			}
+		}
+		return locations;
 	}
 
 	/**
@@ -209,21 +300,24 @@ public class SourceLocationManager implements ICoreConstants {
 		return getBundleManifestLocator().getSourceLocations();
 	}
 
-	/**
-	 * @return source location that was specified by a bundle manifest entry to provide source for the given plugin.
-	 */
-	private SourceLocation getBundleManifestLocation(String pluginID, Version version) {
-		return getBundleManifestLocator().getSourceLocation(pluginID, version);
-	}
-
 	/**
 	 * @return manager for bundle manifest source locations
 	 */
 	private BundleManifestSourceLocationManager getBundleManifestLocator() {
-		if (fBundleManifestLocator == null) {
-			fBundleManifestLocator = initializeBundleManifestLocations();
+		int generation;
+		synchronized (this) {
+			if (fBundleManifestLocator != null) {
+				return fBundleManifestLocator;
+			}
+			generation = fGeneration;
+		}
+		BundleManifestSourceLocationManager locator = initializeBundleManifestLocations();
+		synchronized (this) {
+			if (generation == fGeneration && fBundleManifestLocator == null) {
+				fBundleManifestLocator = locator;
+			}
 		}
-		return fBundleManifestLocator;
+		return locator;
 	}
 
 	/**
@@ -253,56 +347,37 @@ public class SourceLocationManager implements ICoreConstants {
 	}
 
 	/**
-	 * Searches through all known user specified locations, appending the relative
-	 * path and checking if that file exists.
-	 * @param relativePath location of source file within the source location
+	 * Searches through all known user specified locations for one containing the
+	 * relative path.
+	 * @param index index of the locations
+	 * @param relativePath location of source file within the source location or <code>null</code>
 	 * @return path to the source file or <code>null</code> if one could not be found or if the file does not exist
 	 */
-	private IPath searchUserSpecifiedLocations(IPath relativePath) {
-		List<SourceLocation> userLocations = getUserLocations();
-		for (Iterator<SourceLocation> iterator = userLocations.iterator(); iterator.hasNext();) {
-			SourceLocation currentLocation = iterator.next();
-			IPath fullPath = currentLocation.getPath().append(relativePath);
-			File file = fullPath.toFile();
-			if (file.exists()) {
-				return fullPath;
-			}
-		}
-		return null;
+	private IPath searchUserSpecifiedLocations(SourceLocationIndex index, IPath relativePath) {
+		return relativePath == null ? null : index.findUserLocation(relativePath);
 	}
 
 	/**
-	 * Searches through all known source locations added via extension points, appending 
-	 * the relative path and checking if that file exists.
-	 * @param relativePath location of source file within the source location
+	 * Searches through all known source locations added via extension points for one
+	 * containing the relative path.
+	 * @param index index of the locations
+	 * @param relativePath location of source file within the source location or <code>null</code>
 	 * @return path to the source file or <code>null</code> if one could not be found or if the file does not exist
 	 */
-	private IPath searchExtensionLocations(IPath relativePath) {
-		List<SourceLocation> extensionLocations = getExtensionLocations();
-		for (Iterator<SourceLocation> iterator = extensionLocations.iterator(); iterator.hasNext();) {
-			SourceLocation currentLocation = iterator.next();
-			IPath fullPath = currentLocation.getPath().append(relativePath);
-			File file = fullPath.toFile();
-			if (file.exists()) {
-				return fullPath;
-			}
-		}
-		return null;
+	private IPath searchExtensionLocations(SourceLocationIndex index, IPath relativePath) {
+		return relativePath == null ? null : index.findExtensionLocation(relativePath);
 	}
 
 	/**
 	 * Searches through all known source locations specified by bundle manifest entries.
 	 * Checks for a source location with a bundle entry that specifies that it provides
 	 * source for the given plugin.
+	 * @param index index of the locations
 	 * @param pluginBase the plugin we are trying to find source for
 	 * @return path to the source file or <code>null</code> if one could not be found or if the file does not exist
 	 */
-	private IPath searchBundleManifestLocations(IPluginBase pluginBase) {
-		SourceLocation location = getBundleManifestLocation(pluginBase.getId(), new Version(pluginBase.getVersion()));
-		if (location != null && location.getPath().toFile().exists()) {
-			return location.getPath();
-		}
-		return null;
+	private IPath searchBundleManifestLocations(SourceLocationIndex index, IPluginBase pluginBase) {
+		return index.findBundleManifestLocation(pluginBase.getId(), new Version(pluginBase.getVersion()));
 	}
 
 	/**
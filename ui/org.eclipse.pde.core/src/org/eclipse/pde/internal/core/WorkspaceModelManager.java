@@ -79,13 +79,28 @@ public abstract class WorkspaceModelManager extends AbstractModelManager impleme
 
 		fModels = Collections.synchronizedMap(new HashMap<IProject, IModel>());
 		IProject[] projects = PDECore.getWorkspace().getRoot().getProjects();
+		List<IProject> interesting = new ArrayList<IProject>(projects.length);
 		for (int i = 0; i < projects.length; i++) {
 			if (isInterestingProject(projects[i]))
-				createModel(projects[i], false);
+				interesting.add(projects[i]);
 		}
+		createInitialModels(interesting.toArray(new IProject[interesting.size()]));
 		addListeners();
 	}
 
+	/**
+	 * Creates the models of the given projects when the manager is initialized, without
+	 * notifying listeners.  Subclasses may create the models in a different way as long
+	 * as they end up in {@link #fModels}.
+	 * 
+	 * @param projects the interesting projects of the workspace
+	 */
+	protected void createInitialModels(IProject[] projects) {
+		for (int i = 0; i < projects.length; i++) {
+			createModel(projects[i], false);
+		}
+	}
+
 	protected abstract boolean isInterestingProject(IProject project);
 
 	protected abstract void createModel(IProject project, boolean notify);
@@ -14,6 +14,8 @@ import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
@@ -31,9 +33,17 @@ import org.eclipse.pde.internal.core.ischema.ISchemaDescriptor;
 import org.eclipse.pde.internal.core.plugin.*;
 import org.eclipse.pde.internal.core.project.PDEProject;
 import org.eclipse.pde.internal.core.schema.SchemaDescriptor;
+import org.eclipse.pde.internal.core.util.WorkerPool;
 
 public class WorkspacePluginModelManager extends WorkspaceModelManager {
 
+	/**
+	 * Whether the models of workspace plug-ins are read on a pool of worker threads when the
+	 * manager is initialized.  Enabled by setting the system property
+	 * <code>pde.parallelWorkspaceLoading</code> to <code>true</code>.
+	 */
+	private static final boolean PARALLEL_LOADING = "true".equals(System.getProperty("pde.parallelWorkspaceLoading")); //$NON-NLS-1$ //$NON-NLS-2$
+
 	private ArrayList<IExtensionDeltaListener> fExtensionListeners = new ArrayList<IExtensionDeltaListener>();
 	private ArrayList<ModelChange> fChangedExtensions = null;
 
@@ -59,6 +69,28 @@ public class WorkspacePluginModelManager extends WorkspaceModelManager {
 	 */
 	@Override
 	protected void createModel(IProject project, boolean notify) {
+		IPluginModelBase model = loadPluginModel(project);
+
+		if (PDEProject.getOptionsFile(project).exists())
+			PDECore.getDefault().getTracingOptionsManager().reset();
+
+		if (model != null) {
+			if (fModels == null)
+				fModels = new HashMap<IProject, IModel>();
+			fModels.put(project, model);
+			if (notify)
+				addChange(model, IModelProviderEvent.MODELS_ADDED);
+		}
+	}
+
+	/**
+	 * Reads the plug-in model of the given project, see {@link #createModel(IProject, boolean)}.
+	 * Does not modify the state of this manager and may be called from any thread.
+	 * 
+	 * @param project the project
+	 * @return the model or <code>null</code> if the project has no plug-in files
+	 */
+	private IPluginModelBase loadPluginModel(IProject project) {
 		IPluginModelBase model = null;
 		IFile manifest = PDEProject.getManifest(project);
 		IFile pluginXml = PDEProject.getPluginXml(project);
@@ -90,17 +122,75 @@ public class WorkspacePluginModelManager extends WorkspaceModelManager {
 			model = new WorkspaceFragmentModel(fragmentXml, true);
 			loadModel(model, false);
 		}
+		return model;
+	}
 
-		if (PDEProject.getOptionsFile(project).exists())
+	/**
+	 * Reads the models of plug-in projects on the {@link WorkerPool} when parallel loading is
+	 * enabled.  The models are published to {@link #fModels} in a single step once all of them
+	 * have been read, so no caller can observe a partial set of workspace models.
+	 */
+	@Override
+	protected void createInitialModels(IProject[] projects) {
+		if (!PARALLEL_LOADING || projects.length < 2) {
+			super.createInitialModels(projects);
+			return;
+		}
+		IPluginModelBase[] loaded = loadPluginModels(projects, true);
+		Map<IProject, IModel> models = new HashMap<IProject, IModel>();
+		boolean tracing = false;
+		for (int i = 0; i < projects.length; i++) {
+			if (loaded[i] != null)
+				models.put(projects[i], loaded[i]);
+			tracing |= PDEProject.getOptionsFile(projects[i]).exists();
+		}
+		fModels.putAll(models);
+		if (tracing)
 			PDECore.getDefault().getTracingOptionsManager().reset();
+	}
 
-		if (model != null) {
-			if (fModels == null)
-				fModels = new HashMap<IProject, IModel>();
-			fModels.put(project, model);
-			if (notify)
-				addChange(model, IModelProviderEvent.MODELS_ADDED);
+	/**
+	 * Reads the plug-in models of the given projects without modifying the state of this
+	 * manager, on the {@link WorkerPool} if <code>parallel</code> is <code>true</code>.
+	 * 
+	 * @param projects the projects
+	 * @param parallel whether to read the models in parallel
+	 * @return the model of each project in order, <code>null</code> for projects that have
+	 * 	no plug-in files or whose model cannot be read
+	 */
+	public IPluginModelBase[] loadPluginModels(IProject[] projects, boolean parallel) {
+		IPluginModelBase[] models = new IPluginModelBase[projects.length];
+		if (!parallel) {
+			for (int i = 0; i < projects.length; i++) {
+				models[i] = loadPluginModel(projects[i]);
+			}
+			return models;
+		}
+		List<Callable<IPluginModelBase>> tasks = new ArrayList<Callable<IPluginModelBase>>(projects.length);
+		for (int i = 0; i < projects.length; i++) {
+			final IProject project = projects[i];
+			tasks.add(new Callable<IPluginModelBase>() {
+				public IPluginModelBase call() throws Exception {
+					return loadPluginModel(project);
+				}
+			});
+		}
+		WorkerPool.Results<IPluginModelBase> results = WorkerPool.run(tasks, projects.length);
+		for (int i = 0; i < projects.length; i++) {
+			try {
+				models[i] = results.next();
+			} catch (ExecutionException e) {
+				PDECore.log(e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				results.cancel();
+				// read the remaining models on this thread
+				for (; i < projects.length; i++) {
+					models[i] = loadPluginModel(projects[i]);
+				}
+			}
 		}
+		return models;
 	}
 
 	/**
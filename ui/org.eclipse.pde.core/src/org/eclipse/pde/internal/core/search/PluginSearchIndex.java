@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.search;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.internal.core.*;
+import org.eclipse.pde.internal.core.util.PatternConstructor;
+
+/**
+ * Inverted index of the names searched by {@link PluginSearchOperation} in the models
+ * of the target platform.
+ * <p>
+ * For each kind of name (plug-in ids, fragment ids, referenced plug-in ids, extension point
+ * ids and extension points) the index maps the case folded names to the models containing
+ * them. Search patterns are answered by an exact lookup, a prefix range or by matching the
+ * distinct names of a prefix range, instead of matching the names of every model. The index
+ * only returns candidates, the operation still matches the elements of each candidate, so
+ * results are the same as for a linear scan.
+ * </p><p>
+ * Only external models are indexed, their content does not change while they are part of
+ * the target. Workspace models are always searched directly. The index follows the plug-in
+ * model deltas of the {@link PluginModelManager} and is rebuilt if it finds it has missed
+ * a change of the models. The names of a kind are indexed the first time the kind is searched.
+ * </p>
+ */
+public class PluginSearchIndex implements IPluginModelListener {
+
+	/**
+	 * Ids of plug-ins
+	 */
+	public static final int PLUGIN = 0;
+
+	/**
+	 * Ids of fragments
+	 */
+	public static final int FRAGMENT = 1;
+
+	/**
+	 * Ids of fragment hosts and imported plug-ins
+	 */
+	public static final int PLUGIN_REFERENCE = 2;
+
+	/**
+	 * Full ids of extension points
+	 */
+	public static final int EXTENSION_POINT = 3;
+
+	/**
+	 * Extension points extended by extensions
+	 */
+	public static final int EXTENSION = 4;
+
+	private static final int KIND_COUNT = 5;
+
+	private static PluginSearchIndex fInstance;
+
+	private final PluginModelManager fManager;
+
+	/**
+	 * Version of the model snapshot the index was built from, -1 if not built
+	 */
+	private long fVersion = -1;
+
+	/**
+	 * All indexed models
+	 */
+	private final Set<IPluginModelBase> fIndexed = new HashSet<IPluginModelBase>();
+
+	/**
+	 * Model entry id -> indexed models of the entry
+	 */
+	private final Map<String, IPluginModelBase[]> fEntries = new HashMap<String, IPluginModelBase[]>();
+
+	/**
+	 * For each kind, case folded name -> models containing the name, or <code>null</code>
+	 * if the kind has not been indexed yet
+	 */
+	private final List<TreeMap<String, Set<IPluginModelBase>>> fNames = new ArrayList<TreeMap<String, Set<IPluginModelBase>>>(KIND_COUNT);
+
+	/**
+	 * @return the index of the models of the plug-in model manager
+	 */
+	public static synchronized PluginSearchIndex getDefault() {
+		if (fInstance == null) {
+			fInstance = new PluginSearchIndex(PDECore.getDefault().getModelManager());
+		}
+		return fInstance;
+	}
+
+	private PluginSearchIndex(PluginModelManager manager) {
+		fManager = manager;
+		for (int i = 0; i < KIND_COUNT; i++) {
+			fNames.add(null);
+		}
+		manager.addPluginModelListener(this);
+	}
+
+	/**
+	 * Returns whether the given model is indexed. Models that are not indexed must be
+	 * searched directly.
+	 *
+	 * @param model the model
+	 * @return whether the model is indexed
+	 */
+	public synchronized boolean isIndexed(IPluginModelBase model) {
+		return fIndexed.contains(model);
+	}
+
+	/**
+	 * Returns the indexed models that may contain a name of the given kind matching the
+	 * given search pattern. The pattern may contain <code>*</code> and <code>?</code> wild
+	 * cards, see {@link PatternConstructor}. Names are compared ignoring case, so for case
+	 * sensitive searches the result contains additional candidates.
+	 *
+	 * @param kind the kind of names to search
+	 * @param pattern the search pattern
+	 * @param candidates collects the candidate models
+	 */
+	public void collectCandidates(int kind, String pattern, Set<IPluginModelBase> candidates) {
+		// read the models outside of the lock, the manager notifies this index with its lock held
+		long version = fManager.getSnapshotVersion();
+		synchronized (this) {
+			if (fVersion == version) {
+				collect(kind, pattern, candidates);
+				return;
+			}
+		}
+		IPluginModelBase[] models = fManager.getAllModels();
+		synchronized (this) {
+			if (fVersion != version) {
+				build(models, version);
+			}
+			collect(kind, pattern, candidates);
+		}
+	}
+
+	private void collect(int kind, String pattern, Set<IPluginModelBase> candidates) {
+		TreeMap<String, Set<IPluginModelBase>> names = getNames(kind);
+		String folded = fold(pattern);
+		int wildcard = indexOfWildcard(folded);
+		if (wildcard == -1) {
+			Set<IPluginModelBase> models = names.get(folded);
+			if (models != null)
+				candidates.addAll(models);
+			return;
+		}
+		String prefix = folded.substring(0, wildcard);
+		SortedMap<String, Set<IPluginModelBase>> range = prefix.length() == 0 ? names : names.subMap(prefix, prefix + Character.MAX_VALUE);
+		boolean prefixOnly = wildcard == folded.length() - 1 && folded.charAt(wildcard) == '*';
+		Pattern matcher = prefixOnly ? null : PatternConstructor.createPattern(folded, false);
+		for (Iterator<Map.Entry<String, Set<IPluginModelBase>>> iter = range.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<String, Set<IPluginModelBase>> entry = iter.next();
+			if (matcher == null || matcher.matcher(entry.getKey()).matches())
+				candidates.addAll(entry.getValue());
+		}
+	}
+
+	private static int indexOfWildcard(String pattern) {
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '*' || c == '?')
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Folds the case of the given name the way a case insensitive pattern compares characters
+	 */
+	private static String fold(String name) {
+		StringBuffer buffer = new StringBuffer(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			buffer.append(Character.toLowerCase(Character.toUpperCase(name.charAt(i))));
+		}
+		return buffer.toString();
+	}
+
+	private void build(IPluginModelBase[] models, long version) {
+		clear();
+		Map<String, List<IPluginModelBase>> entries = new HashMap<String, List<IPluginModelBase>>();
+		for (int i = 0; i < models.length; i++) {
+			if (models[i].getUnderlyingResource() == null) {
+				String id = models[i].getPluginBase().getId();
+				List<IPluginModelBase> list = entries.get(id);
+				if (list == null) {
+					list = new ArrayList<IPluginModelBase>(1);
+					entries.put(id, list);
+				}
+				list.add(models[i]);
+				fIndexed.add(models[i]);
+			}
+		}
+		for (Iterator<Map.Entry<String, List<IPluginModelBase>>> iter = entries.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<String, List<IPluginModelBase>> entry = iter.next();
+			fEntries.put(entry.getKey(), entry.getValue().toArray(new IPluginModelBase[entry.getValue().size()]));
+		}
+		fVersion = version;
+	}
+
+	/**
+	 * Drops all indexed models
+	 */
+	private void clear() {
+		fIndexed.clear();
+		fEntries.clear();
+		for (int i = 0; i < KIND_COUNT; i++) {
+			fNames.set(i, null);
+		}
+		fVersion = -1;
+	}
+
+	private TreeMap<String, Set<IPluginModelBase>> getNames(int kind) {
+		TreeMap<String, Set<IPluginModelBase>> names = fNames.get(kind);
+		if (names == null) {
+			names = new TreeMap<String, Set<IPluginModelBase>>();
+			fNames.set(kind, names);
+			for (Iterator<IPluginModelBase> iter = fIndexed.iterator(); iter.hasNext();) {
+				addNames(kind, names, iter.next());
+			}
+		}
+		return names;
+	}
+
+	private static void addNames(int kind, TreeMap<String, Set<IPluginModelBase>> names, IPluginModelBase model) {
+		List<String> values = new ArrayList<String>();
+		getNames(kind, model, values);
+		for (int i = 0; i < values.size(); i++) {
+			String name = fold(values.get(i));
+			Set<IPluginModelBase> models = names.get(name);
+			if (models == null) {
+				models = new HashSet<IPluginModelBase>(4);
+				names.put(name, models);
+			}
+			models.add(model);
+		}
+	}
+
+	private static void removeNames(int kind, TreeMap<String, Set<IPluginModelBase>> names, IPluginModelBase model) {
+		List<String> values = new ArrayList<String>();
+		getNames(kind, model, values);
+		for (int i = 0; i < values.size(); i++) {
+			String name = fold(values.get(i));
+			Set<IPluginModelBase> models = names.get(name);
+			if (models != null) {
+				models.remove(model);
+				if (models.isEmpty())
+					names.remove(name);
+			}
+		}
+	}
+
+	/**
+	 * Collects the names of the given kind the search operation matches in the given model
+	 */
+	private static void getNames(int kind, IPluginModelBase model, List<String> names) {
+		IPluginBase pluginBase = model.getPluginBase();
+		switch (kind) {
+			case PLUGIN :
+				if (pluginBase instanceof IPlugin)
+					addName(pluginBase.getId(), names);
+				break;
+			case FRAGMENT :
+				if (pluginBase instanceof IFragment)
+					addName(pluginBase.getId(), names);
+				break;
+			case PLUGIN_REFERENCE :
+				if (pluginBase instanceof IFragment)
+					addName(((IFragment) pluginBase).getPluginId(), names);
+				IPluginImport[] imports = pluginBase.getImports();
+				for (int i = 0; i < imports.length; i++) {
+					addName(imports[i].getId(), names);
+				}
+				break;
+			case EXTENSION_POINT :
+				IPluginExtensionPoint[] points = pluginBase.getExtensionPoints();
+				for (int i = 0; i < points.length; i++) {
+					addName(points[i].getFullId(), names);
+				}
+				break;
+			case EXTENSION :
+				IPluginExtension[] extensions = pluginBase.getExtensions();
+				for (int i = 0; i < extensions.length; i++) {
+					addName(extensions[i].getPoint(), names);
+				}
+				break;
+		}
+	}
+
+	private static void addName(String name, List<String> names) {
+		if (name != null)
+			names.add(name);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.pde.internal.core.IPluginModelListener#modelsChanged(org.eclipse.pde.internal.core.PluginModelDelta)
+	 */
+	public void modelsChanged(PluginModelDelta delta) {
+		long version = fManager.getSnapshotVersion();
+		synchronized (this) {
+			if (fVersion == -1)
+				return;
+			// the delta only describes the changes of the last snapshot, the models have
+			// also changed without a delta, on a target reload for instance
+			if (fVersion != version && fVersion != version - 1) {
+				clear();
+				return;
+			}
+			update(delta.getRemovedEntries(), true);
+			update(delta.getChangedEntries(), false);
+			update(delta.getAddedEntries(), false);
+			fVersion = version;
+		}
+	}
+
+	/**
+	 * Replaces the indexed models of the given entries with their current external models
+	 */
+	private void update(ModelEntry[] entries, boolean removed) {
+		for (int i = 0; i < entries.length; i++) {
+			IPluginModelBase[] models = fEntries.remove(entries[i].getId());
+			if (models != null) {
+				for (int j = 0; j < models.length; j++) {
+					fIndexed.remove(models[j]);
+					for (int kind = 0; kind < KIND_COUNT; kind++) {
+						if (fNames.get(kind) != null)
+							removeNames(kind, fNames.get(kind), models[j]);
+					}
+				}
+			}
+			if (removed || entries[i].hasWorkspaceModels())
+				continue;
+			models = entries[i].getExternalModels();
+			if (models.length == 0)
+				continue;
+			fEntries.put(entries[i].getId(), models);
+			for (int j = 0; j < models.length; j++) {
+				fIndexed.add(models[j]);
+				for (int kind = 0; kind < KIND_COUNT; kind++) {
+					if (fNames.get(kind) != null)
+						addNames(kind, fNames.get(kind), models[j]);
+				}
+			}
+		}
+	}
+}
@@ -12,7 +12,7 @@ package org.eclipse.pde.internal.core.search;
 
 import org.eclipse.pde.core.IIdentifiable;
 
-import java.util.ArrayList;
+import java.util.*;
 import java.util.regex.Pattern;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.pde.core.plugin.*;
@@ -34,9 +34,13 @@ public class PluginSearchOperation {
 		monitor.beginTask("", entries.length); //$NON-NLS-1$
 
 		try {
+			PluginSearchIndex index = PluginSearchIndex.getDefault();
+			Set<IPluginModelBase> candidates = getCandidates(index);
 			for (int i = 0; i < entries.length; i++) {
 				IPluginModelBase candidate = entries[i];
-				visit(candidate);
+				// indexed models that are not candidates cannot contain a match
+				if (candidates.contains(candidate) || !index.isIndexed(candidate))
+					visit(candidate);
 				monitor.worked(1);
 			}
 		} finally {
@@ -44,6 +48,33 @@ public class PluginSearchOperation {
 		}
 	}
 
+	/**
+	 * Returns the indexed models that may contain a match for the search input
+	 */
+	private Set<IPluginModelBase> getCandidates(PluginSearchIndex index) {
+		Set<IPluginModelBase> candidates = new HashSet<IPluginModelBase>();
+		String pattern = fInput.getSearchString();
+		int searchLimit = fInput.getSearchLimit();
+		switch (fInput.getSearchElement()) {
+			case PluginSearchInput.ELEMENT_PLUGIN :
+				if (searchLimit != PluginSearchInput.LIMIT_REFERENCES)
+					index.collectCandidates(PluginSearchIndex.PLUGIN, pattern, candidates);
+				if (searchLimit != PluginSearchInput.LIMIT_DECLARATIONS)
+					index.collectCandidates(PluginSearchIndex.PLUGIN_REFERENCE, pattern, candidates);
+				break;
+			case PluginSearchInput.ELEMENT_FRAGMENT :
+				index.collectCandidates(PluginSearchIndex.FRAGMENT, pattern, candidates);
+				break;
+			case PluginSearchInput.ELEMENT_EXTENSION_POINT :
+				if (searchLimit != PluginSearchInput.LIMIT_REFERENCES)
+					index.collectCandidates(PluginSearchIndex.EXTENSION_POINT, pattern, candidates);
+				if (searchLimit != PluginSearchInput.LIMIT_DECLARATIONS)
+					index.collectCandidates(PluginSearchIndex.EXTENSION, pattern, candidates);
+				break;
+		}
+		return candidates;
+	}
+
 	private void visit(IPluginModelBase model) {
 		ArrayList<IIdentifiable> matches = findMatch(model);
 		for (int i = 0; i < matches.size(); i++) {
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.target;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.pde.core.target.ITargetDefinition;
+import org.eclipse.pde.core.target.ITargetLocation;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.util.WorkerPool;
+
+/**
+ * Support for resolving a target definition on the shared {@link WorkerPool}.
+ * <p>
+ * When enabled, the locations of a target are resolved in parallel and the bundles of
+ * directory and profile locations are created in parallel.  Both levels run on the same
+ * bounded pool, so resolving locations that read their bundles in parallel does not use
+ * more threads.  Results are always consumed on the calling thread in their original
+ * order, so the resolved content, duplicate detection and the resolution status are the
+ * same as for a sequential resolution.  Concurrent resolution is enabled by setting the
+ * system property <code>pde.concurrentTargetResolution</code> to <code>true</code>.
+ * </p>
+ */
+class ConcurrentResolution {
+
+	/**
+	 * Number of bundles read ahead of the one being consumed, bounding the number of
+	 * bundles held in memory
+	 */
+	private static final int READ_AHEAD = 4 * WorkerPool.MAX_THREADS;
+
+	private ConcurrentResolution() {
+	}
+
+	/**
+	 * Returns whether concurrent resolution is enabled
+	 *
+	 * @return whether the <code>pde.concurrentTargetResolution</code> system property is set
+	 */
+	static boolean isEnabled() {
+		return "true".equals(System.getProperty("pde.concurrentTargetResolution")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Resolves the given locations in parallel.  The locations report no progress, the
+	 * given monitor is advanced by <code>ticks</code> as each location completes in order and
+	 * its cancellation is passed on to the locations.
+	 *
+	 * @param definition the target definition the locations belong to
+	 * @param locations the locations to resolve
+	 * @param monitor progress monitor, work must already have been started
+	 * @param ticks amount of work per location
+	 * @return the resolution status of each location or <code>null</code> if cancelled
+	 */
+	static IStatus[] resolveLocations(final ITargetDefinition definition, ITargetLocation[] locations, final IProgressMonitor monitor, int ticks) {
+		final IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			public boolean isCanceled() {
+				return monitor.isCanceled();
+			}
+		};
+		List<Callable<IStatus>> tasks = new ArrayList<Callable<IStatus>>(locations.length);
+		for (int i = 0; i < locations.length; i++) {
+			final ITargetLocation location = locations[i];
+			tasks.add(new Callable<IStatus>() {
+				public IStatus call() throws Exception {
+					return location.resolve(definition, cancelMonitor);
+				}
+			});
+		}
+		WorkerPool.Results<IStatus> results = WorkerPool.run(tasks, locations.length);
+		try {
+			IStatus[] statuses = new IStatus[locations.length];
+			for (int i = 0; i < locations.length; i++) {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				statuses[i] = get(results);
+				monitor.worked(ticks);
+			}
+			return statuses;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			results.cancel();
+		}
+	}
+
+	/**
+	 * Creates a {@link TargetBundle} for each of the given files, in parallel if concurrent
+	 * resolution is enabled.  The monitor is advanced by one for each file.
+	 *
+	 * @param files the files, possibly <code>null</code> entries
+	 * @param monitor progress monitor, work must already have been started
+	 * @return for each file in order, the created bundle or the {@link CoreException} thrown
+	 * 	while creating it, or <code>null</code> if cancelled
+	 */
+	static Object[] createBundles(final File[] files, IProgressMonitor monitor) {
+		Object[] bundles = new Object[files.length];
+		if (!isEnabled() || files.length < 2) {
+			for (int i = 0; i < files.length; i++) {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				bundles[i] = createBundle(files[i]);
+				monitor.worked(1);
+			}
+			return bundles;
+		}
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(files.length);
+		for (int i = 0; i < files.length; i++) {
+			final File file = files[i];
+			tasks.add(new Callable<Object>() {
+				public Object call() throws Exception {
+					return createBundle(file);
+				}
+			});
+		}
+		// runs on the pool of the locations resolved in parallel, if any
+		WorkerPool.Results<Object> results = WorkerPool.run(tasks, READ_AHEAD);
+		try {
+			for (int i = 0; i < files.length; i++) {
+				if (monitor.isCanceled()) {
+					return null;
+				}
+				bundles[i] = get(results);
+				monitor.worked(1);
+			}
+			return bundles;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			results.cancel();
+		}
+	}
+
+	private static Object createBundle(File file) {
+		try {
+			return new TargetBundle(file);
+		} catch (CoreException e) {
+			return e;
+		}
+	}
+
+	/**
+	 * Returns the next result, rethrowing unchecked exceptions of the task as a
+	 * sequential resolution would.
+	 */
+	private static <T> T get(WorkerPool.Results<T> results) throws InterruptedException {
+		try {
+			return results.next();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			PDECore.log(cause);
+			return null;
+		}
+	}
+}
@@ -76,22 +76,22 @@ public class DirectoryBundleContainer extends AbstractBundleContainer {
 			File site = getSite(dir);
 			File[] files = site.listFiles();
 			SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, files.length);
+			Object[] results = ConcurrentResolution.createBundles(files, localMonitor);
+			if (results == null) {
+				return new TargetBundle[0];
+			}
 			List<TargetBundle> bundles = new ArrayList<TargetBundle>(files.length);
-			for (int i = 0; i < files.length; i++) {
-				if (localMonitor.isCanceled()) {
-					return new TargetBundle[0];
-				}
-				try {
-					TargetBundle rb = new TargetBundle(files[i]);
-					bundles.add(rb);
-				} catch (CoreException e) {
+			for (int i = 0; i < results.length; i++) {
+				if (results[i] instanceof TargetBundle) {
+					bundles.add((TargetBundle) results[i]);
+				} else {
+					CoreException e = (CoreException) results[i];
 					// If an old style conversion fails because the service is not available, log the error.
 					// Otherwise, ignore non-bundle files
 					if (e.getStatus().getCode() == ManifestUtils.STATUS_CODE_PLUGIN_CONVERTER_UNAVAILABLE) {
 						PDECore.log(e);
 					}
 				}
-				localMonitor.worked(1);
 			}
 			localMonitor.done();
 			return bundles.toArray(new TargetBundle[bundles.size()]);
@@ -131,33 +131,25 @@ public class ProfileBundleContainer extends AbstractBundleContainer {
 		if (source == null) {
 			source = new BundleInfo[0];
 		}
-		List<TargetBundle> all = new ArrayList<TargetBundle>();
 		SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, infos.length + source.length);
-		// Add executable bundles
-		for (int i = 0; i < infos.length; i++) {
-			if (monitor.isCanceled()) {
-				return new TargetBundle[0];
-			}
-			URI location = infos[i].getLocation();
-			try {
-				all.add(new TargetBundle(URIUtil.toFile(location)));
-			} catch (CoreException e) {
-				all.add(new InvalidTargetBundle(new BundleInfo(location), e.getStatus()));
-			}
-			localMonitor.worked(1);
+		// Executable bundles followed by source bundles
+		URI[] locations = new URI[infos.length + source.length];
+		File[] files = new File[locations.length];
+		for (int i = 0; i < locations.length; i++) {
+			locations[i] = i < infos.length ? infos[i].getLocation() : source[i - infos.length].getLocation();
+			files[i] = URIUtil.toFile(locations[i]);
 		}
-		// Add source bundles
-		for (int i = 0; i < source.length; i++) {
-			if (monitor.isCanceled()) {
-				return new TargetBundle[0];
-			}
-			URI location = source[i].getLocation();
-			try {
-				all.add(new TargetBundle(URIUtil.toFile(location)));
-			} catch (CoreException e) {
-				all.add(new InvalidTargetBundle(new BundleInfo(location), e.getStatus()));
+		Object[] results = ConcurrentResolution.createBundles(files, localMonitor);
+		if (results == null) {
+			return new TargetBundle[0];
+		}
+		List<TargetBundle> all = new ArrayList<TargetBundle>(results.length);
+		for (int i = 0; i < results.length; i++) {
+			if (results[i] instanceof TargetBundle) {
+				all.add((TargetBundle) results[i]);
+			} else {
+				all.add(new InvalidTargetBundle(new BundleInfo(locations[i]), ((CoreException) results[i]).getStatus()));
 			}
-			localMonitor.worked(1);
 		}
 		localMonitor.done();
 		return all.toArray(new TargetBundle[all.size()]);
@@ -188,20 +180,21 @@ public class ProfileBundleContainer extends AbstractBundleContainer {
 		if (files.length > 0) {
 			List<TargetBundle> all = new ArrayList<TargetBundle>(files.length);
 			SubMonitor localMonitor = SubMonitor.convert(monitor, Messages.DirectoryBundleContainer_0, files.length);
-			for (int i = 0; i < files.length; i++) {
-				if (localMonitor.isCanceled()) {
-					throw new OperationCanceledException();
-				}
-				try {
-					all.add(new TargetBundle(files[i]));
-				} catch (CoreException e) {
+			Object[] results = ConcurrentResolution.createBundles(files, localMonitor);
+			if (results == null) {
+				throw new OperationCanceledException();
+			}
+			for (int i = 0; i < results.length; i++) {
+				if (results[i] instanceof TargetBundle) {
+					all.add((TargetBundle) results[i]);
+				} else {
+					CoreException e = (CoreException) results[i];
 					// If an old style conversion fails because the service is not available, log the error.
 					// Otherwise, ignore non-bundle files
 					if (e.getStatus().getCode() == ManifestUtils.STATUS_CODE_PLUGIN_CONVERTER_UNAVAILABLE) {
 						PDECore.log(e);
 					}
 				}
-				localMonitor.worked(1);
 			}
 			localMonitor.done();
 			if (!all.isEmpty()) {
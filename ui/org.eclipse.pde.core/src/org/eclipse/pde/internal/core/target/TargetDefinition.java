@@ -66,7 +66,7 @@ public class TargetDefinition implements ITargetDefinition {
 	public static final int MODE_FEATURE = 1;
 
 	// cache of features found for a given location, maps a string path location to a array of IFeatureModels (IFeatureModel[])
-	private Map<String, TargetFeature[]> fFeaturesInLocation = new HashMap<String, TargetFeature[]>();
+	private final Map<String, TargetFeature[]> fFeaturesInLocation = new HashMap<String, TargetFeature[]>();
 
 	// internal cache for features.  A target managed by features will contain a set of features as well as a set of plug-ins that don't belong to a feature
 	private TargetFeature[] fFeatures;
@@ -231,10 +231,12 @@ public class TargetDefinition implements ITargetDefinition {
 		// Clear the feature model cache as it is based on the bundle container locations
 		fFeatures = null;
 		fOtherBundles = null;
-		if (location == null) {
-			fFeaturesInLocation.clear();
-		} else {
-			fFeaturesInLocation.remove(location);
+		synchronized (fFeaturesInLocation) {
+			if (location == null) {
+				fFeaturesInLocation.clear();
+			} else {
+				fFeaturesInLocation.remove(location);
+			}
 		}
 		if (fContainers == null) {
 			fIncluded = null;
@@ -253,7 +255,18 @@ public class TargetDefinition implements ITargetDefinition {
 		SubMonitor subMonitor = SubMonitor.convert(monitor, Messages.TargetDefinition_1, num * 10);
 		try {
 			MultiStatus status = new MultiStatus(PDECore.PLUGIN_ID, 0, Messages.TargetDefinition_2, null);
-			if (containers != null) {
+			if (containers != null && ConcurrentResolution.isEnabled() && containers.length > 1) {
+				subMonitor.subTask(Messages.TargetDefinition_4);
+				IStatus[] statuses = ConcurrentResolution.resolveLocations(this, containers, subMonitor, 10);
+				if (statuses == null) {
+					return Status.CANCEL_STATUS;
+				}
+				for (int i = 0; i < statuses.length; i++) {
+					if (statuses[i] != null && !statuses[i].isOK()) {
+						status.add(statuses[i]);
+					}
+				}
+			} else if (containers != null) {
 				for (int i = 0; i < containers.length; i++) {
 					if (subMonitor.isCanceled()) {
 						return Status.CANCEL_STATUS;
@@ -856,8 +869,9 @@ public class TargetDefinition implements ITargetDefinition {
 			path = manager.performStringSubstitution(path);
 		}
 
+		// locations may be resolved concurrently, the features of a location are read outside the lock
 		TargetFeature[] models = null;
-		if (fFeaturesInLocation != null) {
+		synchronized (fFeaturesInLocation) {
 			models = fFeaturesInLocation.get(path);
 		}
 
@@ -866,7 +880,9 @@ public class TargetDefinition implements ITargetDefinition {
 		}
 
 		models = ExternalFeatureModelManager.createFeatures(path, new ArrayList<Object>(), monitor);
-		fFeaturesInLocation.put(path, models);
+		synchronized (fFeaturesInLocation) {
+			fFeaturesInLocation.put(path, models);
+		}
 		return models;
 	}
 
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * A bounded pool of daemon worker threads shared by the parallel loading code of PDE.
+ * <p>
+ * The pool has at most {@link #MAX_THREADS} threads, which terminate after being idle for a
+ * while.  When all of them are busy, a task is run by the thread submitting it.  Tasks can
+ * therefore submit tasks of their own without waiting for a free thread, and the number of
+ * threads stays bounded however the calls nest.
+ * </p>
+ */
+public class WorkerPool {
+
+	/**
+	 * Upper bound on the number of threads of the pool
+	 */
+	public static final int MAX_THREADS = 8;
+
+	/**
+	 * Number of seconds an idle thread waits for a task before terminating
+	 */
+	private static final long KEEP_ALIVE = 10;
+
+	private static ExecutorService fExecutor = null;
+
+	private WorkerPool() {
+	}
+
+	/**
+	 * Returns the executor of the pool, creating it if needed.
+	 *
+	 * @return the shared executor
+	 */
+	private static synchronized ExecutorService getExecutor() {
+		if (fExecutor == null) {
+			int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS));
+			fExecutor = new ThreadPoolExecutor(0, threads, KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+				private int fCount = 0;
+
+				public synchronized Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "PDE Worker " + (++fCount)); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				}
+			}, new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+		return fExecutor;
+	}
+
+	/**
+	 * Runs the given tasks on the pool and returns their results in order.  At most
+	 * <code>readAhead</code> tasks are started ahead of the result being consumed, which bounds
+	 * the number of results held in memory.
+	 *
+	 * @param tasks the tasks to run
+	 * @param readAhead how many tasks may be started beyond the next result, at least <code>0</code>
+	 * @return the results of the tasks
+	 */
+	public static <T> Results<T> run(List<? extends Callable<T>> tasks, int readAhead) {
+		return new Results<T>(tasks, readAhead);
+	}
+
+	/**
+	 * Results of tasks run on the pool, consumed in the order of the tasks by a single thread.
+	 * Tasks are started as results are consumed.  The consumer must call {@link #cancel()}
+	 * if it stops before consuming all results.
+	 */
+	public static class Results<T> {
+
+		private final List<? extends Callable<T>> fTasks;
+		private final int fReadAhead;
+		private final List<FutureTask<T>> fFutures;
+		private int fNext = 0;
+
+		Results(List<? extends Callable<T>> tasks, int readAhead) {
+			fTasks = tasks;
+			fReadAhead = Math.max(0, readAhead);
+			fFutures = new ArrayList<FutureTask<T>>(tasks.size());
+		}
+
+		/**
+		 * Returns whether there are results left to consume
+		 *
+		 * @return whether {@link #next()} can be called
+		 */
+		public boolean hasNext() {
+			return fNext < fTasks.size();
+		}
+
+		/**
+		 * Returns the result of the next task, waiting for it if needed.  If no thread of the
+		 * pool has started the task yet, it is run by the calling thread.
+		 *
+		 * @return the result of the next task
+		 * @throws ExecutionException if the task threw an exception
+		 * @throws InterruptedException if the calling thread was interrupted while waiting
+		 */
+		public T next() throws ExecutionException, InterruptedException {
+			while (fFutures.size() < fTasks.size() && fFutures.size() <= fNext + fReadAhead) {
+				FutureTask<T> future = new FutureTask<T>(fTasks.get(fFutures.size()));
+				fFutures.add(future);
+				getExecutor().execute(future);
+			}
+			FutureTask<T> future = fFutures.set(fNext++, null);
+			// does nothing if the task has already been started by another thread
+			future.run();
+			return future.get();
+		}
+
+		/**
+		 * Cancels the tasks whose results have not been consumed.  Tasks already running
+		 * are not interrupted.
+		 */
+		public void cancel() {
+			for (int i = fNext; i < fFutures.size(); i++) {
+				fFutures.get(i).cancel(false);
+			}
+			fNext = fTasks.size();
+		}
+	}
+}
@@ -15,7 +15,6 @@ import java.util.HashMap;
 import java.util.Map;
 import org.eclipse.core.runtime.*;
 import org.eclipse.debug.core.*;
-import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.internal.launching.*;
@@ -53,8 +52,7 @@ public class EclipsePluginValidationOperation extends LaunchValidationOperation
 		try {
 			String[] required = RequirementHelper.getApplicationRequirements(fLaunchConfiguration);
 			for (int i = 0; i < required.length; i++) {
-				BundleDescription bundle = getState().getBundle(required[i], null);
-				if (bundle == null) {
+				if (!containsBundle(required[i])) {
 					String message = NLS.bind(PDEMessages.EclipsePluginValidationOperation_pluginMissing, required[i]);
 					Status status = new Status(IStatus.ERROR, IPDEConstants.PLUGIN_ID, CREATE_EXTENSION_ERROR_CODE, message, null);
 					IStatusHandler statusHandler = DebugPlugin.getDefault().getStatusHandler(status);
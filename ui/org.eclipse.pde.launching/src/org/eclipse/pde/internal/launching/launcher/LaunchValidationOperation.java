@@ -18,6 +18,7 @@ import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
@@ -39,10 +40,28 @@ public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 	}
 
 	public void run(IProgressMonitor monitor) throws CoreException {
-		fOperation = new BundleValidationOperation(getModels(), getPlatformProperties());
+		// reuse the validation state of the last launch of the same configuration
+		fOperation = new BundleValidationOperation(getModels(), getPlatformProperties(), getCacheKey());
 		fOperation.run(monitor);
 	}
 
+	/**
+	 * Returns the memento of the validated launch configuration, which identifies it by
+	 * location unlike its name, or <code>null</code> if there is no saved configuration
+	 */
+	private String getCacheKey() {
+		ILaunchConfiguration configuration = fLaunchConfiguration;
+		if (configuration != null && configuration.isWorkingCopy())
+			configuration = ((ILaunchConfigurationWorkingCopy) configuration).getOriginal();
+		if (configuration == null)
+			return null;
+		try {
+			return configuration.getMemento();
+		} catch (CoreException e) {
+			return null;
+		}
+	}
+
 	protected abstract IPluginModelBase[] getModels() throws CoreException;
 
 	@SuppressWarnings("rawtypes")
@@ -151,9 +170,25 @@ public abstract class LaunchValidationOperation implements IWorkspaceRunnable {
 	}
 
 	public boolean isEmpty() {
-		return fOperation.getState().getHighestBundleId() == -1;
+		return fOperation.isEmpty();
+	}
+
+	/**
+	 * Returns whether a bundle with the given symbolic name was validated
+	 * 
+	 * @param symbolicName the symbolic name of the bundle
+	 * @return whether the validated bundles contain the bundle
+	 */
+	protected boolean containsBundle(String symbolicName) {
+		return fOperation.containsBundle(symbolicName);
 	}
 
+	/**
+	 * Returns the validation state, which is then no longer reused by the next validation
+	 * of the same launch configuration.
+	 * 
+	 * @return the validation state
+	 */
 	protected State getState() {
 		return fOperation.getState();
 	}
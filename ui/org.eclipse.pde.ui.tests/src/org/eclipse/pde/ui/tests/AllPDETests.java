@@ -14,7 +14,9 @@ import junit.framework.Test;
 import junit.framework.TestSuite;
 import org.eclipse.pde.ui.tests.build.properties.AllValidatorTests;
 import org.eclipse.pde.ui.tests.classpathcontributor.ClasspathContributorTest;
+import org.eclipse.pde.ui.tests.classpathindex.ClasspathDependencyIndexTest;
 import org.eclipse.pde.ui.tests.classpathresolver.ClasspathResolverTest;
+import org.eclipse.pde.ui.tests.dependencies.DependencyClosureTest;
 import org.eclipse.pde.ui.tests.ee.ExportBundleTests;
 import org.eclipse.pde.ui.tests.imports.AllImportTests;
 import org.eclipse.pde.ui.tests.launcher.AllLauncherTests;
@@ -24,6 +26,8 @@ import org.eclipse.pde.ui.tests.nls.AllNLSTests;
 import org.eclipse.pde.ui.tests.preferences.AllPreferenceTests;
 import org.eclipse.pde.ui.tests.project.*;
 import org.eclipse.pde.ui.tests.runtime.AllPDERuntimeTests;
+import org.eclipse.pde.ui.tests.search.PluginSearchIndexTest;
+import org.eclipse.pde.ui.tests.sourcelookup.SourceLocationIndexTest;
 import org.eclipse.pde.ui.tests.target.AllTargetTests;
 import org.eclipse.pde.ui.tests.views.log.AllLogViewTests;
 import org.eclipse.pde.ui.tests.wizards.AllNewProjectTests;
@@ -48,8 +52,13 @@ public class AllPDETests {
 		suite.addTest(ProjectCreationTests.suite());
 		suite.addTest(BundleRootTests.suite());
 		suite.addTest(PluginRegistryTests.suite());
+		suite.addTest(WorkspaceModelLoadingTests.suite());
 		suite.addTest(ClasspathResolverTest.suite());
 		suite.addTest(ClasspathContributorTest.suite());
+		suite.addTest(ClasspathDependencyIndexTest.suite());
+		suite.addTest(DependencyClosureTest.suite());
+		suite.addTest(SourceLocationIndexTest.suite());
+		suite.addTest(PluginSearchIndexTest.suite());
 		return suite;
 	}
 
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.classpathindex;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.internal.core.ClasspathDependencyIndex;
+import org.eclipse.pde.internal.core.PDEClasspathContainer.Rule;
+import org.eclipse.pde.ui.tests.util.StateBundles;
+
+/**
+ * Tests that the {@link ClasspathDependencyIndex} finds exactly the projects
+ * whose classpath is affected by a change to the state.
+ */
+public class ClasspathDependencyIndexTest extends TestCase {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite("Test Suite for the classpath dependency index");
+		suite.addTestSuite(ClasspathDependencyIndexTest.class);
+		return suite;
+	}
+
+	private static Set<String> set(String[] names) {
+		return new HashSet<String>(Arrays.asList(names));
+	}
+
+	private static IProject project(String name) {
+		return ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+	}
+
+	private static BundleDescription bundle(State state, String name, String version, String exports, String requires, String host) throws Exception {
+		return StateBundles.addBundle(state, name, version, exports, null, requires, host);
+	}
+
+	public void testDependents() {
+		ClasspathDependencyIndex index = new ClasspathDependencyIndex();
+		index.setDependencies(project("a"), set(new String[] {"a", "core"}), set(new String[] {"p.api"}));
+		index.setDependencies(project("b"), set(new String[] {"b", "a"}), new HashSet<String>());
+
+		assertTrue(index.contains(project("a")));
+		assertFalse(index.contains(project("c")));
+		assertEquals(set(new String[0]), names(index.getDependents(set(new String[] {"other"}), set(new String[] {"q"}))));
+		assertEquals(set(new String[] {"a", "b"}), names(index.getDependents(set(new String[] {"a"}), new HashSet<String>())));
+		assertEquals(set(new String[] {"a"}), names(index.getDependents(new HashSet<String>(), set(new String[] {"p.api"}))));
+
+		// recording again replaces the dependencies
+		index.setDependencies(project("b"), set(new String[] {"b"}), new HashSet<String>());
+		assertEquals(set(new String[] {"a"}), names(index.getDependents(set(new String[] {"a"}), new HashSet<String>())));
+
+		index.removeProject(project("a"));
+		assertFalse(index.contains(project("a")));
+		assertTrue(index.getDependents(set(new String[] {"core"}), set(new String[] {"p.api"})).isEmpty());
+	}
+
+	private static Set<String> names(Set<IProject> projects) {
+		Set<String> names = new HashSet<String>();
+		for (Iterator<IProject> iter = projects.iterator(); iter.hasNext();) {
+			names.add(iter.next().getName());
+		}
+		return names;
+	}
+
+	public void testCollectStateChanges() throws Exception {
+		StateObjectFactory factory = StateObjectFactory.defaultFactory;
+		State oldState = factory.createState(true);
+		bundle(oldState, "core", "1.0.0", "p.core", null, null);
+		bundle(oldState, "ui", "1.0.0", "p.ui", "core", null);
+		bundle(oldState, "gone", "1.0.0", "p.gone", null, null);
+		oldState.resolve();
+
+		State newState = factory.createState(true);
+		bundle(newState, "core", "1.0.0", "p.core", null, null);
+		bundle(newState, "ui", "1.1.0", "p.ui", "core", null);
+		bundle(newState, "core.nl", "1.0.0", null, null, "core");
+		newState.resolve();
+
+		Set<String> bundles = new HashSet<String>();
+		Set<String> packages = new HashSet<String>();
+		ClasspathDependencyIndex.collectChanges(oldState, newState, bundles, packages);
+		// the fragment changes the classpath of bundles depending on its host
+		assertEquals(set(new String[] {"ui", "gone", "core.nl", "core"}), bundles);
+		assertEquals(set(new String[] {"p.ui", "p.gone"}), packages);
+	}
+
+	public void testUnchangedState() throws Exception {
+		StateObjectFactory factory = StateObjectFactory.defaultFactory;
+		State oldState = factory.createState(true);
+		bundle(oldState, "core", "1.0.0", "p.core", null, null);
+		bundle(oldState, "ui", "1.0.0", "p.ui", "core", null);
+		oldState.resolve();
+
+		State newState = factory.createState(true);
+		bundle(newState, "ui", "1.0.0", "p.ui", "core", null);
+		bundle(newState, "core", "1.0.0", "p.core", null, null);
+		newState.resolve();
+
+		Set<String> bundles = new HashSet<String>();
+		Set<String> packages = new HashSet<String>();
+		ClasspathDependencyIndex.collectChanges(oldState, newState, bundles, packages);
+		assertTrue(bundles.isEmpty());
+		assertTrue(packages.isEmpty());
+	}
+
+	public void testVersionRangeChanges() throws Exception {
+		StateObjectFactory factory = StateObjectFactory.defaultFactory;
+		State oldState = factory.createState(true);
+		bundle(oldState, "core", "1.5.0", "p.core", null, null);
+		bundle(oldState, "ui", "1.0.0", "p.ui", "core;bundle-version=\"[1.0.0,2.0.0)\"", null);
+		oldState.resolve();
+
+		State newState = factory.createState(true);
+		bundle(newState, "core", "1.5.0", "p.core", null, null);
+		bundle(newState, "ui", "1.0.0", "p.ui", "core;bundle-version=\"[1.5.0,2.0.0)\"", null);
+		newState.resolve();
+
+		Set<String> bundles = new HashSet<String>();
+		Set<String> packages = new HashSet<String>();
+		ClasspathDependencyIndex.collectChanges(oldState, newState, bundles, packages);
+		// only the range of the required bundle changed
+		assertEquals(set(new String[] {"ui"}), bundles);
+		assertEquals(set(new String[] {"p.ui"}), packages);
+	}
+
+	public void testClearVisiblePackages() throws Exception {
+		State state = StateObjectFactory.defaultFactory.createState(true);
+		BundleDescription core = bundle(state, "core", "1.0.0", "p.core", null, null);
+		BundleDescription ui = bundle(state, "ui", "1.0.0", "p.ui", "core", null);
+		ClasspathDependencyIndex index = new ClasspathDependencyIndex();
+		index.setVisiblePackages(core, Collections.<BundleDescription, ArrayList<Rule>> emptyMap());
+		index.setVisiblePackages(ui, Collections.<BundleDescription, ArrayList<Rule>> emptyMap());
+
+		index.clearVisiblePackages(set(new String[] {"ui"}));
+		assertNotNull(index.getVisiblePackages(core));
+		assertNull(index.getVisiblePackages(ui));
+
+		index.clearVisiblePackages(null);
+		assertNull(index.getVisiblePackages(core));
+	}
+
+	public void testClearVisiblePackagesOfReexportingDependents() throws Exception {
+		State state = StateObjectFactory.defaultFactory.createState(true);
+		BundleDescription core = bundle(state, "core", "1.0.0", "p.core", null, null);
+		BundleDescription api = bundle(state, "api", "1.0.0", "p.api", "core;visibility:=reexport", null);
+		BundleDescription ui = bundle(state, "ui", "1.0.0", "p.ui", "api", null);
+		BundleDescription other = bundle(state, "other", "1.0.0", "p.other", null, null);
+		state.resolve();
+		assertTrue(ui.isResolved());
+		ClasspathDependencyIndex index = new ClasspathDependencyIndex();
+		index.setVisiblePackages(core, Collections.<BundleDescription, ArrayList<Rule>> emptyMap());
+		index.setVisiblePackages(api, Collections.<BundleDescription, ArrayList<Rule>> emptyMap());
+		index.setVisiblePackages(ui, Collections.<BundleDescription, ArrayList<Rule>> emptyMap());
+		index.setVisiblePackages(other, Collections.<BundleDescription, ArrayList<Rule>> emptyMap());
+
+		// the packages of core are visible to ui through the re-export of api
+		index.clearVisiblePackages(set(new String[] {"core"}));
+		assertNull(index.getVisiblePackages(core));
+		assertNull(index.getVisiblePackages(api));
+		assertNull(index.getVisiblePackages(ui));
+		assertNotNull(index.getVisiblePackages(other));
+	}
+}
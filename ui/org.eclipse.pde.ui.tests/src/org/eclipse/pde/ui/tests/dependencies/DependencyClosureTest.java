@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.dependencies;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.internal.core.DependencyClosure;
+import org.eclipse.pde.ui.tests.util.StateBundles;
+
+/**
+ * Tests the transitive dependencies computed by {@link DependencyClosure}
+ */
+public class DependencyClosureTest extends TestCase {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite("Test Suite for dependency closures");
+		suite.addTestSuite(DependencyClosureTest.class);
+		return suite;
+	}
+
+	private State fState;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		fState = StateObjectFactory.defaultFactory.createState(true);
+	}
+
+	private BundleDescription bundle(String name, String requires, String imports, String exports, String host) throws Exception {
+		return StateBundles.addBundle(fState, name, "1.0.0", exports, imports, requires, host);
+	}
+
+	private Set<String> closure(DependencyClosure closure, BundleDescription[] roots) {
+		BitSet set = new BitSet();
+		for (int i = 0; i < roots.length; i++) {
+			closure.addClosure(roots[i], set);
+		}
+		Set<String> names = new TreeSet<String>();
+		closure.addSymbolicNames(set, names);
+		return names;
+	}
+
+	private static Set<String> set(String[] names) {
+		return new TreeSet<String>(Arrays.asList(names));
+	}
+
+	public void testDependencies() throws Exception {
+		BundleDescription ui = bundle("ui", "core,opt;resolution:=optional", "p.jface", null, null);
+		bundle("core", null, null, null, null);
+		bundle("opt", null, null, null, null);
+		bundle("jface", null, null, "p.jface", null);
+		bundle("core.nl", null, null, null, "core");
+		bundle("core.test", null, null, null, "core");
+		fState.resolve();
+
+		DependencyClosure all = new DependencyClosure(fState, true, new HashSet<String>());
+		assertEquals(set(new String[] {"ui", "core", "opt", "jface", "core.nl", "core.test"}), closure(all, new BundleDescription[] {ui}));
+
+		DependencyClosure required = new DependencyClosure(fState, false, set(new String[] {"core.test"}));
+		assertEquals(set(new String[] {"ui", "core", "jface", "core.nl"}), closure(required, new BundleDescription[] {ui}));
+	}
+
+	public void testCachedClosures() throws Exception {
+		BundleDescription a = bundle("a", "b", null, null, null);
+		BundleDescription b = bundle("b", "c", null, null, null);
+		BundleDescription x = bundle("x", "c", null, null, null);
+		bundle("c", null, null, null, null);
+		fState.resolve();
+
+		DependencyClosure closure = new DependencyClosure(fState, true, new HashSet<String>());
+		assertEquals(set(new String[] {"b", "c"}), closure(closure, new BundleDescription[] {b}));
+		assertEquals(set(new String[] {"a", "b", "c"}), closure(closure, new BundleDescription[] {a}));
+		assertEquals(set(new String[] {"a", "b", "c", "x"}), closure(closure, new BundleDescription[] {a, x}));
+
+		assertTrue(closure.isValid(fState));
+		assertFalse(closure.isStale(fState));
+		bundle("y", null, null, null, null);
+		assertFalse("adding a bundle should invalidate the closure", closure.isValid(fState));
+		assertTrue("the closure can not become valid again", closure.isStale(fState));
+		assertFalse(closure.isStale(StateObjectFactory.defaultFactory.createState(true)));
+	}
+
+	public void testIntermediateClosures() throws Exception {
+		BundleDescription a = bundle("a", "b", null, null, null);
+		BundleDescription b = bundle("b", "c", null, null, null);
+		BundleDescription c = bundle("c", "b,d", null, null, null);
+		BundleDescription d = bundle("d", null, null, null, null);
+		fState.resolve();
+
+		DependencyClosure closure = new DependencyClosure(fState, true, new HashSet<String>());
+		assertEquals(set(new String[] {"a", "b", "c", "d"}), closure(closure, new BundleDescription[] {a}));
+
+		// the closures of the bundles visited for a are cached, the state is not looked at again
+		fState.removeBundle(d);
+		fState.resolve(false);
+		assertFalse(closure(new DependencyClosure(fState, true, new HashSet<String>()), new BundleDescription[] {c}).contains("d"));
+		assertEquals(set(new String[] {"b", "c", "d"}), closure(closure, new BundleDescription[] {b}));
+		assertEquals(set(new String[] {"b", "c", "d"}), closure(closure, new BundleDescription[] {c}));
+	}
+
+	public void testDeepChain() throws Exception {
+		int depth = 5000;
+		BundleDescription root = null;
+		for (int i = 0; i < depth; i++) {
+			BundleDescription desc = bundle("b" + i, i + 1 < depth ? "b" + (i + 1) : null, null, null, null);
+			if (root == null)
+				root = desc;
+		}
+		fState.resolve();
+
+		DependencyClosure closure = new DependencyClosure(fState, true, new HashSet<String>());
+		assertEquals(depth, closure(closure, new BundleDescription[] {root}).size());
+	}
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.launcher;
+
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.osgi.service.resolver.*;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.BundleValidationOperation;
+import org.eclipse.pde.internal.core.TargetPlatformHelper;
+import org.eclipse.pde.internal.core.plugin.ExternalPluginModel;
+import org.eclipse.pde.ui.tests.util.StateBundles;
+
+/**
+ * Tests that validating with a cached state after bundles were added and removed gives
+ * the same resolver errors as validating in a new state.
+ */
+public class BundleValidationOperationTests extends TestCase {
+
+	private static final String KEY = "BundleValidationOperationTests";
+
+	public static Test suite() {
+		return new TestSuite(BundleValidationOperationTests.class);
+	}
+
+	private State fState;
+	private Dictionary<?, ?>[] fProperties;
+
+	protected void setUp() throws Exception {
+		fState = StateObjectFactory.defaultFactory.createState(true);
+		fProperties = new Dictionary[] {TargetPlatformHelper.getTargetEnvironment()};
+		BundleValidationOperation.clearCache();
+	}
+
+	protected void tearDown() throws Exception {
+		BundleValidationOperation.clearCache();
+	}
+
+	private IPluginModelBase model(String name, String version, String exports, String imports, String requires, String host) throws Exception {
+		ExternalPluginModel model = new ExternalPluginModel();
+		model.setBundleDescription(StateBundles.addBundle(fState, name, version, exports, imports, requires, host));
+		return model;
+	}
+
+	private Map<String, Set<String>> validate(List<IPluginModelBase> models, Object cacheKey) throws Exception {
+		BundleValidationOperation operation = new BundleValidationOperation(models.toArray(new IPluginModelBase[models.size()]), fProperties, cacheKey);
+		operation.run(new NullProgressMonitor());
+		return errors(operation);
+	}
+
+	/**
+	 * Returns the resolver errors of the given operation by bundle name and version
+	 */
+	private static Map<String, Set<String>> errors(BundleValidationOperation operation) {
+		Map<String, Set<String>> result = new HashMap<String, Set<String>>();
+		for (Iterator<Map.Entry<Object, Object[]>> iter = operation.getResolverErrors().entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<Object, Object[]> entry = iter.next();
+			BundleDescription desc = (BundleDescription) entry.getKey();
+			Set<String> errors = new HashSet<String>();
+			Object[] values = entry.getValue();
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] instanceof ResolverError) {
+					ResolverError error = (ResolverError) values[i];
+					errors.add(error.getType() + " " + error.getData());
+				} else {
+					errors.add(((IStatus) values[i]).getMessage());
+				}
+			}
+			result.put(desc.getSymbolicName() + "_" + desc.getVersion(), errors);
+		}
+		return result;
+	}
+
+	private void assertSameErrors(List<IPluginModelBase> models) throws Exception {
+		Map<String, Set<String>> cached = validate(models, KEY);
+		Map<String, Set<String>> fresh = validate(models, null);
+		assertEquals(fresh, cached);
+	}
+
+	public void testIncrementalValidation() throws Exception {
+		List<IPluginModelBase> models = new ArrayList<IPluginModelBase>();
+		IPluginModelBase core = model("core", "1.0.0", "p.core", null, null, null);
+		models.add(core);
+		models.add(model("ui", "1.0.0", null, null, "core", null));
+		models.add(model("tool", "1.0.0", null, "p.core", null, null));
+		models.add(model("app", "1.0.0", null, null, "gone", null));
+		for (int i = 0; i < 6; i++) {
+			models.add(model("extra" + i, "1.0.0", "p.extra" + i, null, null, null));
+		}
+		BundleValidationOperation first = new BundleValidationOperation(models.toArray(new IPluginModelBase[models.size()]), fProperties, KEY);
+		first.run(new NullProgressMonitor());
+		Map<String, Set<String>> firstErrors = errors(first);
+		assertEquals(1, firstErrors.size());
+		assertTrue(firstErrors.containsKey("app_1.0.0"));
+		assertTrue(first.containsBundle("core"));
+
+		// remove a bundle others depend on, add a missing one
+		models.remove(core);
+		models.add(model("gone", "1.0.0", null, null, null, null));
+		assertSameErrors(models);
+
+		// the results of the first validation are not changed by the later ones
+		assertEquals(firstErrors, errors(first));
+		assertTrue(first.containsBundle("core"));
+
+		// add the bundle back, and a fragment of a bundle
+		models.add(model("core", "1.1.0", "p.core", null, null, null));
+		models.add(model("ui.nl", "1.0.0", null, null, null, "ui"));
+		assertSameErrors(models);
+
+		// a fragment whose host is missing
+		models.add(model("missing.nl", "1.0.0", null, null, null, "missing"));
+		assertSameErrors(models);
+	}
+
+	public void testStateNotShared() throws Exception {
+		List<IPluginModelBase> models = new ArrayList<IPluginModelBase>();
+		models.add(model("core", "1.0.0", "p.core", null, null, null));
+		models.add(model("ui", "1.0.0", null, null, "core", null));
+		BundleValidationOperation first = new BundleValidationOperation(models.toArray(new IPluginModelBase[models.size()]), fProperties, KEY);
+		first.run(new NullProgressMonitor());
+		State state = first.getState();
+		int count = state.getBundles().length;
+
+		models.add(model("tool", "1.0.0", null, "p.core", null, null));
+		BundleValidationOperation second = new BundleValidationOperation(models.toArray(new IPluginModelBase[models.size()]), fProperties, KEY);
+		second.run(new NullProgressMonitor());
+		assertNotSame(state, second.getState());
+		assertEquals(count, state.getBundles().length);
+	}
+}
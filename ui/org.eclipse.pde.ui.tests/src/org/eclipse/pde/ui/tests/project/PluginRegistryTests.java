@@ -144,6 +144,23 @@ public class PluginRegistryTests extends TestCase {
 		assertEquals("org.eclipse.pde.core", models[0].getPluginBase().getId());
 	}
 
+	public void testReturnedArraysAreCopies() {
+		IPluginModelBase[] all = PluginRegistry.getAllModels();
+		assertTrue(all.length > 0);
+		IPluginModelBase first = all[0];
+		all[0] = null;
+		assertSame(first, PluginRegistry.getAllModels()[0]);
+
+		IPluginModelBase[] active = PluginRegistry.getActiveModels(false);
+		assertTrue(active.length > 0);
+		first = active[0];
+		active[0] = null;
+		assertSame(first, PluginRegistry.getActiveModels(false)[0]);
+
+		IPluginModelBase[] workspace = PluginRegistry.getWorkspaceModels();
+		assertNotSame(workspace, PluginRegistry.getWorkspaceModels());
+	}
+
 	public void testWorkspaceOverTarget() throws CoreException {
 		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("org.junit");
 		try {
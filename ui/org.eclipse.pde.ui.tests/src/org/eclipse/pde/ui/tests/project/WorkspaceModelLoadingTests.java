@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.project;
+
+import junit.framework.*;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.project.*;
+import org.eclipse.pde.internal.core.WorkspacePluginModelManager;
+import org.osgi.framework.Version;
+
+/**
+ * Tests that reading workspace plug-in models in parallel gives the same models as
+ * reading them sequentially.
+ */
+public class WorkspaceModelLoadingTests extends TestCase {
+
+	private static final int PROJECTS = 6;
+
+	public static Test suite() {
+		return new TestSuite(WorkspaceModelLoadingTests.class);
+	}
+
+	private IProject[] fProjects;
+
+	protected void setUp() throws Exception {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		fProjects = new IProject[PROJECTS + 1];
+		for (int i = 0; i < PROJECTS; i++) {
+			fProjects[i] = ResourcesPlugin.getWorkspace().getRoot().getProject("test.loading." + i);
+			IBundleProjectDescription description = service.getDescription(fProjects[i]);
+			description.setSymbolicName(fProjects[i].getName());
+			description.setBundleVersion(new Version(1, i, 0));
+			if (i > 0) {
+				description.setRequiredBundles(new IRequiredBundleDescription[] {service.newRequiredBundle("test.loading." + (i - 1), null, false, false)});
+			}
+			if (i == PROJECTS - 1) {
+				description.setHost(service.newHost("test.loading.0", null));
+			}
+			description.apply(null);
+		}
+		// a project without plug-in files
+		fProjects[PROJECTS] = ResourcesPlugin.getWorkspace().getRoot().getProject("test.loading.simple");
+		fProjects[PROJECTS].create(null);
+		fProjects[PROJECTS].open(null);
+	}
+
+	protected void tearDown() throws Exception {
+		for (int i = 0; i < fProjects.length; i++) {
+			if (fProjects[i] != null && fProjects[i].exists()) {
+				fProjects[i].delete(true, null);
+			}
+		}
+		ProjectCreationTests.waitForBuild();
+	}
+
+	public void testParallelLoading() throws CoreException {
+		WorkspacePluginModelManager manager = new WorkspacePluginModelManager();
+		IPluginModelBase[] sequential = manager.loadPluginModels(fProjects, false);
+		IPluginModelBase[] parallel = manager.loadPluginModels(fProjects, true);
+		assertEquals(fProjects.length, parallel.length);
+		for (int i = 0; i < fProjects.length; i++) {
+			if (sequential[i] == null) {
+				assertNull(fProjects[i].getName(), parallel[i]);
+				continue;
+			}
+			assertNotNull(fProjects[i].getName(), parallel[i]);
+			assertNotSame(sequential[i], parallel[i]);
+			assertEquals(sequential[i].getClass(), parallel[i].getClass());
+			assertEquals(sequential[i].isFragmentModel(), parallel[i].isFragmentModel());
+			assertEquals(sequential[i].getPluginBase().getId(), parallel[i].getPluginBase().getId());
+			assertEquals(sequential[i].getPluginBase().getVersion(), parallel[i].getPluginBase().getVersion());
+			assertEquals(sequential[i].getPluginBase().getImports().length, parallel[i].getPluginBase().getImports().length);
+			assertEquals(fProjects[i], parallel[i].getUnderlyingResource().getProject());
+		}
+		assertNull(parallel[PROJECTS]);
+		assertTrue(parallel[PROJECTS - 1].isFragmentModel());
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.search;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import junit.framework.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.core.plugin.*;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PluginModelDelta;
+import org.eclipse.pde.internal.core.search.*;
+import org.eclipse.pde.internal.core.util.PatternConstructor;
+
+/**
+ * Tests that searches answered with the {@link PluginSearchIndex} find the same
+ * elements as matching every model of the target platform
+ */
+public class PluginSearchIndexTest extends TestCase {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite("Test Suite for the plug-in search index");
+		suite.addTestSuite(PluginSearchIndexTest.class);
+		return suite;
+	}
+
+	private List<Object> search(String pattern, int element, int limit, boolean caseSensitive) {
+		PluginSearchInput input = new PluginSearchInput();
+		input.setSearchString(pattern);
+		input.setSearchElement(element);
+		input.setSearchLimit(limit);
+		input.setCaseSensitive(caseSensitive);
+		input.setSearchScope(new PluginSearchScope(PluginSearchScope.SCOPE_WORKSPACE, PluginSearchScope.EXTERNAL_SCOPE_ALL, null));
+		final List<Object> matches = new ArrayList<Object>();
+		new PluginSearchOperation(input, new ISearchResultCollector() {
+			public void accept(Object match) {
+				matches.add(match);
+			}
+		}).execute(new NullProgressMonitor());
+		return matches;
+	}
+
+	private List<Object> scanPlugins(String pattern, boolean caseSensitive) {
+		Pattern regex = PatternConstructor.createPattern(pattern, caseSensitive);
+		IPluginModelBase[] models = PluginRegistry.getAllModels();
+		List<Object> matches = new ArrayList<Object>();
+		for (int i = 0; i < models.length; i++) {
+			IPluginBase base = models[i].getPluginBase();
+			if (base instanceof IPlugin && regex.matcher(base.getId()).matches())
+				matches.add(base);
+		}
+		return matches;
+	}
+
+	private List<Object> scanExtensions(String pattern, boolean caseSensitive) {
+		Pattern regex = PatternConstructor.createPattern(pattern, caseSensitive);
+		IPluginModelBase[] models = PluginRegistry.getAllModels();
+		List<Object> matches = new ArrayList<Object>();
+		for (int i = 0; i < models.length; i++) {
+			IPluginExtension[] extensions = models[i].getPluginBase().getExtensions();
+			for (int j = 0; j < extensions.length; j++) {
+				if (regex.matcher(extensions[j].getPoint()).matches())
+					matches.add(extensions[j]);
+			}
+		}
+		return matches;
+	}
+
+	public void testPluginDeclarations() {
+		String[] patterns = new String[] {"org.eclipse.core.runtime", "ORG.ECLIPSE.CORE.RUNTIME", "org.eclipse.core.*", "org.eclipse.*.runtime", "*.runtime", "org.eclipse.core.runtim?", "*"};
+		for (int i = 0; i < patterns.length; i++) {
+			for (int c = 0; c < 2; c++) {
+				boolean caseSensitive = c == 1;
+				List<Object> matches = search(patterns[i], PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, caseSensitive);
+				assertEquals(patterns[i], scanPlugins(patterns[i], caseSensitive), matches);
+			}
+		}
+		assertFalse(search("org.eclipse.core.runtime", PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, false).isEmpty());
+	}
+
+	public void testExtensionReferences() {
+		String[] patterns = new String[] {"org.eclipse.core.runtime.applications", "org.eclipse.core.runtime.*", "*.applications", "org.eclipse.ui.*s"};
+		for (int i = 0; i < patterns.length; i++) {
+			List<Object> matches = search(patterns[i], PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.LIMIT_REFERENCES, false);
+			assertEquals(patterns[i], scanExtensions(patterns[i], false), matches);
+		}
+	}
+
+	public void testTargetReloadedBeforeDelta() {
+		assertFalse(search("org.eclipse.core.runtime", PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, false).isEmpty());
+		// a target reload creates new external models without firing a plug-in model delta,
+		// the next delta, for a workspace change, must not mark the index as current
+		PDECore.getDefault().getModelManager().targetReloaded(new NullProgressMonitor());
+		PluginSearchIndex.getDefault().modelsChanged(new PluginModelDelta());
+		assertEquals(scanPlugins("org.eclipse.core.*", false), search("org.eclipse.core.*", PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, false));
+		IPluginModelBase[] models = PluginRegistry.findEntry("org.eclipse.core.runtime").getExternalModels();
+		assertTrue(models.length > 0);
+		assertTrue(PluginSearchIndex.getDefault().isIndexed(models[0]));
+	}
+}
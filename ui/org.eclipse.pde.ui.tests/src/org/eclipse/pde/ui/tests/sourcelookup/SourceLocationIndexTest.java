@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.sourcelookup;
+
+import java.io.File;
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.pde.internal.core.*;
+import org.eclipse.pde.ui.tests.util.StateLocationFiles;
+import org.osgi.framework.Version;
+
+/**
+ * Tests that the {@link SourceLocationIndex} finds the same source locations as a search
+ * of the file system and answers repeated lookups from memory.
+ */
+public class SourceLocationIndexTest extends TestCase {
+
+	public static Test suite() {
+		TestSuite suite = new TestSuite("Test Suite for the source location index");
+		suite.addTestSuite(SourceLocationIndexTest.class);
+		return suite;
+	}
+
+	private File fRoot;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		fRoot = StateLocationFiles.createDirectory("sourceLocationIndex");
+		StateLocationFiles.createFile(new File(fRoot, "user/a_1.0.0/src.zip"));
+		StateLocationFiles.createFile(new File(fRoot, "extension/a_1.0.0/src.zip"));
+		StateLocationFiles.createFile(new File(fRoot, "extension/b_2.0.0/lib/src.zip"));
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception {
+		StateLocationFiles.delete(fRoot);
+	}
+
+	private List<SourceLocation> locations(String name) {
+		List<SourceLocation> locations = new ArrayList<SourceLocation>();
+		locations.add(new SourceLocation(new Path(new File(fRoot, name).getAbsolutePath())));
+		return locations;
+	}
+
+	public void testLookups() {
+		SourceLocationIndex index = new SourceLocationIndex(locations("user"), locations("extension"), new BundleManifestSourceLocationManager());
+		IPath userRoot = new Path(new File(fRoot, "user").getAbsolutePath());
+		IPath extensionRoot = new Path(new File(fRoot, "extension").getAbsolutePath());
+
+		assertEquals(userRoot.append("a_1.0.0/src.zip"), index.findUserLocation(new Path("a_1.0.0/src.zip")));
+		assertEquals(userRoot.append("a_1.0.0"), index.findUserLocation(new Path("a_1.0.0")));
+		assertNull(index.findUserLocation(new Path("b_2.0.0/lib/src.zip")));
+		assertEquals(extensionRoot.append("b_2.0.0/lib/src.zip"), index.findExtensionLocation(new Path("b_2.0.0/lib/src.zip")));
+		assertNull(index.findExtensionLocation(new Path("b_2.0.0/other.zip")));
+		assertNull(index.findBundleManifestLocation("a", new Version("1.0.0")));
+		assertEquals(0, index.getServedCount());
+		assertEquals(6, index.getFallbackCount());
+
+		// repeated lookups are answered from the index, even if the file system changed
+		StateLocationFiles.delete(new File(fRoot, "user"));
+		assertEquals(userRoot.append("a_1.0.0/src.zip"), index.findUserLocation(new Path("a_1.0.0/src.zip")));
+		assertNull(index.findExtensionLocation(new Path("b_2.0.0/other.zip")));
+		assertNull(index.findBundleManifestLocation("a", new Version("1.0.0")));
+		assertEquals(3, index.getServedCount());
+		assertEquals(6, index.getFallbackCount());
+	}
+
+	public void testLocationsListedOnCreation() throws Exception {
+		SourceLocationIndex index = new SourceLocationIndex(locations("user"), locations("extension"), new BundleManifestSourceLocationManager());
+		// plug-in directories and libraries added after the index was created are not known to it
+		StateLocationFiles.createFile(new File(fRoot, "user/c_1.0.0/src.zip"));
+		StateLocationFiles.createFile(new File(fRoot, "extension/b_2.0.0/other.zip"));
+		assertNull(index.findUserLocation(new Path("c_1.0.0/src.zip")));
+		assertNull(index.findExtensionLocation(new Path("b_2.0.0/other.zip")));
+		IPath extensionRoot = new Path(new File(fRoot, "extension").getAbsolutePath());
+		assertEquals(extensionRoot.append("a_1.0.0/src.zip"), index.findExtensionLocation(new Path("a_1.0.0/src.zip")));
+	}
+}
@@ -25,6 +25,9 @@ public class AllTargetTests {
 		suite.addTest(TargetDefinitionResolutionTests.suite());
 		suite.addTest(TargetDefinitionFeatureResolutionTests.suite());
 		suite.addTest(IUBundleContainerTests.suite());
+		suite.addTest(FeatureMetadataCacheTests.suite());
+		suite.addTest(TargetStateCacheTests.suite());
+		suite.addTest(ExtensionRegistryReloadTests.suite());
 		return suite;
 	}
 
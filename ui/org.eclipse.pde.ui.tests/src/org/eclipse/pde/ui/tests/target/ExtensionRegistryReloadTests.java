@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.io.*;
+import java.net.URL;
+import junit.framework.*;
+import org.eclipse.core.runtime.*;
+import org.eclipse.core.runtime.spi.RegistryContributor;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.internal.core.*;
+import org.eclipse.pde.ui.tests.util.StateLocationFiles;
+
+/**
+ * Tests that an extension registry kept across a target reload only replaces the
+ * contributions of bundles that changed, and that the time stamp validating the
+ * registry cache changes with the contributions.
+ */
+public class ExtensionRegistryReloadTests extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(ExtensionRegistryReloadTests.class);
+	}
+
+	/**
+	 * Extension registry whose models can be replaced like on a target reload
+	 */
+	private static class TestExtensionRegistry extends PDEExtensionRegistry {
+		IPluginModelBase[] fModels;
+
+		TestExtensionRegistry(IPluginModelBase[] models) {
+			super(models);
+			fModels = models;
+		}
+
+		protected IPluginModelBase[] getModels() {
+			return fModels;
+		}
+	}
+
+	private File fRoot;
+	private File fCacheDir;
+	private Object fKey = new Object();
+	private TestExtensionRegistry fExtensionRegistry;
+	private PDERegistryStrategy fStrategy;
+	private IExtensionRegistry fRegistry;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		fRoot = StateLocationFiles.createDirectory("registryReload");
+		fCacheDir = StateLocationFiles.createDirectory("registryReloadCache");
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception {
+		if (fRegistry != null)
+			fRegistry.stop(fKey);
+		if (fStrategy != null)
+			fStrategy.dispose();
+		StateLocationFiles.delete(fRoot);
+		StateLocationFiles.delete(fCacheDir);
+	}
+
+	private File writeBundle(String name, String point) throws IOException {
+		File dir = new File(fRoot, name);
+		File manifest = new File(dir, "META-INF/MANIFEST.MF");
+		manifest.getParentFile().mkdirs();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(manifest), "UTF-8");
+		try {
+			writer.write("Manifest-Version: 1.0\n");
+			writer.write("Bundle-ManifestVersion: 2\n");
+			writer.write("Bundle-SymbolicName: " + name + ";singleton:=true\n");
+			writer.write("Bundle-Version: 1.0.0\n");
+			writer.write("\n");
+		} finally {
+			writer.close();
+		}
+		writer = new OutputStreamWriter(new FileOutputStream(new File(dir, "plugin.xml")), "UTF-8");
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			writer.write("<?eclipse version=\"3.4\"?>\n");
+			writer.write("<plugin>\n");
+			writer.write("   <extension-point id=\"" + point + "\" name=\"" + point + "\"/>\n");
+			writer.write("</plugin>\n");
+		} finally {
+			writer.close();
+		}
+		return dir;
+	}
+
+	private static IPluginModelBase[] getModels(File[] bundles) throws Exception {
+		URL[] urls = new URL[bundles.length];
+		for (int i = 0; i < bundles.length; i++) {
+			urls[i] = bundles[i].toURI().toURL();
+		}
+		return new PDEState(urls, true, false, false, new NullProgressMonitor()).getTargetModels();
+	}
+
+	private static IPluginModelBase findModel(IPluginModelBase[] models, String name) {
+		for (int i = 0; i < models.length; i++) {
+			if (name.equals(models[i].getPluginBase().getId()))
+				return models[i];
+		}
+		return null;
+	}
+
+	private void createRegistry(IPluginModelBase[] models) {
+		fExtensionRegistry = new TestExtensionRegistry(models);
+		fStrategy = new TargetPDERegistryStrategy(new File[] {fCacheDir}, new boolean[] {false}, fKey, fExtensionRegistry);
+		fRegistry = RegistryFactory.createRegistry(fStrategy, fKey, new Object());
+	}
+
+	private void reload(IPluginModelBase[] models) {
+		fExtensionRegistry.fModels = models;
+		fStrategy.targetReloaded(fRegistry);
+	}
+
+	public void testUnchangedBundlesKept() throws Exception {
+		File[] bundles = new File[] {writeBundle("a", "point"), writeBundle("b", "point"), writeBundle("c", "point")};
+		createRegistry(getModels(bundles));
+		IExtensionPoint a = fRegistry.getExtensionPoint("a.point");
+		IExtensionPoint b = fRegistry.getExtensionPoint("b.point");
+		IExtensionPoint c = fRegistry.getExtensionPoint("c.point");
+		assertNotNull(a);
+		assertNotNull(b);
+		assertNotNull(c);
+
+		// the length of the extension file changes with the id of the extension point
+		writeBundle("b", "changed");
+		reload(getModels(new File[] {bundles[0], bundles[1]}));
+		assertEquals(a, fRegistry.getExtensionPoint("a.point"));
+		assertNull(fRegistry.getExtensionPoint("b.point"));
+		assertNotNull(fRegistry.getExtensionPoint("b.changed"));
+		assertNull(fRegistry.getExtensionPoint("c.point"));
+	}
+
+	public void testBundleIdsAssignedAgain() throws Exception {
+		File[] bundles = new File[] {writeBundle("a", "point"), writeBundle("b", "point")};
+		createRegistry(getModels(bundles));
+		assertNotNull(fRegistry.getExtensionPoint("a.point"));
+
+		// a new bundle ahead of the others may shift their bundle ids
+		IPluginModelBase[] models = getModels(new File[] {writeBundle("d", "point"), bundles[0], bundles[1]});
+		reload(models);
+		String[] names = new String[] {"a", "b", "d"};
+		for (int i = 0; i < names.length; i++) {
+			IExtensionPoint point = fRegistry.getExtensionPoint(names[i] + ".point");
+			assertNotNull(names[i], point);
+			RegistryContributor contributor = (RegistryContributor) point.getContributor();
+			assertEquals(names[i], Long.toString(findModel(models, names[i]).getBundleDescription().getBundleId()), contributor.getActualId());
+		}
+	}
+
+	public void testContributionsTimestamp() throws Exception {
+		File[] bundles = new File[] {writeBundle("a", "point"), writeBundle("b", "point")};
+		fExtensionRegistry = new TestExtensionRegistry(getModels(bundles));
+		fStrategy = new TargetPDERegistryStrategy(new File[] {fCacheDir}, new boolean[] {false}, fKey, fExtensionRegistry);
+		long timeStamp = fStrategy.getContributionsTimestamp();
+		assertEquals(timeStamp, fStrategy.getContributionsTimestamp());
+
+		// the same bundles read again
+		fExtensionRegistry.fModels = getModels(bundles);
+		assertEquals(timeStamp, fStrategy.getContributionsTimestamp());
+
+		// the fingerprints recorded when the contributions are added give the same time stamp
+		fRegistry = RegistryFactory.createRegistry(fStrategy, fKey, new Object());
+		assertNotNull(fRegistry.getExtensionPoint("a.point"));
+		assertEquals(timeStamp, fStrategy.getContributionsTimestamp());
+
+		writeBundle("b", "changed");
+		reload(getModels(bundles));
+		assertFalse(timeStamp == fStrategy.getContributionsTimestamp());
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.io.*;
+import java.util.Arrays;
+import junit.framework.*;
+import org.eclipse.pde.internal.core.FeatureMetadataCache;
+import org.eclipse.pde.internal.core.FeatureMetadataCache.FeatureMetadata;
+import org.eclipse.pde.ui.tests.util.StateLocationFiles;
+
+/**
+ * Tests that the {@link FeatureMetadataCache} restores unchanged features and reads
+ * changed features again.
+ */
+public class FeatureMetadataCacheTests extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(FeatureMetadataCacheTests.class);
+	}
+
+	private File fRoot;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		fRoot = StateLocationFiles.createDirectory("featureMetadataCache");
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception {
+		StateLocationFiles.delete(fRoot);
+	}
+
+	private File writeFeature(String version) throws IOException {
+		return writeFeature("f", version);
+	}
+
+	private File writeFeature(String id, String version) throws IOException {
+		File dir = new File(fRoot, "features/" + id + "_" + version);
+		dir.mkdirs();
+		File featureXML = new File(dir, "feature.xml");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(featureXML), "UTF-8");
+		try {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+			writer.write("<feature id=\"" + id + "\" version=\"" + version + "\">\n");
+			writer.write("<requires><import feature=\"base\"/><import plugin=\"p.required\"/></requires>\n");
+			writer.write("<includes id=\"child\" version=\"0.0.0\"/>\n");
+			writer.write("<plugin id=\"p\" version=\"1.0.0\"/>\n");
+			writer.write("</feature>\n");
+		} finally {
+			writer.close();
+		}
+		return featureXML;
+	}
+
+	public void testRestoreUnchangedFeature() throws Exception {
+		File featureXML = writeFeature("1.0.0");
+		File cacheFile = new File(fRoot, "features.cache");
+		FeatureMetadataCache cache = new FeatureMetadataCache(cacheFile);
+		FeatureMetadata metadata = cache.getFeature(featureXML);
+		assertEquals("f", metadata.getId());
+		assertEquals("1.0.0", metadata.getVersion());
+		assertEquals(featureXML.getParent(), metadata.getLocation());
+		assertEquals(Arrays.asList(new String[] {"p", "1.0.0"}), Arrays.asList(metadata.getPlugins()));
+		assertEquals(Arrays.asList(new String[] {"base", "child"}), Arrays.asList(metadata.getFeatures()));
+		assertSame(metadata, cache.getFeature(featureXML));
+		cache.save(fRoot.getPath(), new File[] {featureXML});
+
+		FeatureMetadata restored = new FeatureMetadataCache(cacheFile).getFeature(featureXML);
+		assertEquals("f", restored.getId());
+		assertEquals(featureXML.getParent(), restored.getLocation());
+		assertEquals(Arrays.asList(metadata.getPlugins()), Arrays.asList(restored.getPlugins()));
+		assertEquals(Arrays.asList(metadata.getFeatures()), Arrays.asList(restored.getFeatures()));
+	}
+
+	public void testChangedFeature() throws Exception {
+		File featureXML = writeFeature("1.0.0");
+		FeatureMetadataCache cache = new FeatureMetadataCache(new File(fRoot, "features.cache"));
+		FeatureMetadata metadata = cache.getFeature(featureXML);
+		featureXML.delete();
+		File changed = writeFeature("1.0.0.qualifier");
+		changed.renameTo(featureXML);
+		featureXML.setLastModified(featureXML.lastModified() + 2000);
+		assertNotSame(metadata, cache.getFeature(featureXML));
+		assertEquals("1.0.0.qualifier", cache.getFeature(featureXML).getVersion());
+	}
+
+	/**
+	 * Replaces the content of the given feature.xml by the one of a feature of the same
+	 * id and version length, keeping the length and modification time of the file.
+	 */
+	private void replaceFeature(File featureXML, String id, String version) throws IOException {
+		long lastModified = featureXML.lastModified();
+		File replacement = writeFeature(id, version);
+		assertEquals(featureXML.length(), replacement.length());
+		featureXML.delete();
+		assertTrue(replacement.renameTo(featureXML));
+		featureXML.setLastModified(lastModified);
+	}
+
+	public void testSaveDropsOtherFeatures() throws Exception {
+		File kept = writeFeature("kept", "1.0.0");
+		File dropped = writeFeature("gone", "1.0.0");
+		File cacheFile = new File(fRoot, "features.cache");
+		FeatureMetadataCache cache = new FeatureMetadataCache(cacheFile);
+		cache.getFeature(kept);
+		cache.getFeature(dropped);
+		cache.save(fRoot.getPath(), new File[] {kept, dropped});
+		cache.save(fRoot.getPath(), new File[] {kept, null});
+
+		// only the entry of the feature still in the location is restored, the other is parsed again
+		replaceFeature(kept, "kept", "2.0.0");
+		replaceFeature(dropped, "gone", "2.0.0");
+		FeatureMetadataCache restored = new FeatureMetadataCache(cacheFile);
+		assertEquals("1.0.0", restored.getFeature(kept).getVersion());
+		assertEquals("2.0.0", restored.getFeature(dropped).getVersion());
+	}
+
+	public void testSaveKeepsOtherLocations() throws Exception {
+		File first = writeFeature("first", "1.0.0");
+		File second = writeFeature("second", "1.0.0");
+		File cacheFile = new File(fRoot, "features.cache");
+		FeatureMetadataCache cache = new FeatureMetadataCache(cacheFile);
+		// the locations of a target are saved one at a time
+		cache.getFeature(first);
+		cache.save("location1", new File[] {first});
+		cache.getFeature(second);
+		cache.save("location2", new File[] {second});
+
+		// loading the target again restores the features of both locations
+		replaceFeature(first, "first", "2.0.0");
+		replaceFeature(second, "second", "2.0.0");
+		FeatureMetadataCache restored = new FeatureMetadataCache(cacheFile);
+		assertEquals("1.0.0", restored.getFeature(first).getVersion());
+		restored.save("location1", new File[] {first});
+		assertEquals("1.0.0", restored.getFeature(second).getVersion());
+		restored.save("location2", new File[] {second});
+		assertEquals("1.0.0", new FeatureMetadataCache(cacheFile).getFeature(first).getVersion());
+	}
+}
@@ -87,6 +87,68 @@ public class TargetDefinitionResolutionTests extends AbstractTargetTest {
 		}
 	}
 
+	/**
+	 * Creates a target with several directory and profile locations, one of which does not exist
+	 */
+	private ITargetDefinition getConcurrencyTarget(IPath abcde, IPath classic) {
+		ITargetDefinition definition = getNewTarget();
+		definition.setTargetLocations(new ITargetLocation[] {
+				getTargetService().newDirectoryLocation(abcde.toOSString()),
+				getTargetService().newDirectoryLocation("***SHOULD NOT EXIST***"),
+				getTargetService().newDirectoryLocation(classic.toOSString()),
+				getTargetService().newProfileLocation(TargetPlatform.getDefaultLocation(), null),
+				getTargetService().newDirectoryLocation(abcde.toOSString())});
+		return definition;
+	}
+
+	/**
+	 * Tests that resolving the locations and their bundles concurrently gives the same bundles,
+	 * in the same order, and the same status as a sequential resolution.
+	 */
+	public void testConcurrentResolution() throws Exception {
+		IPath abcde = extractAbcdePlugins();
+		IPath classic = extractClassicPlugins();
+		String property = System.getProperty("pde.concurrentTargetResolution");
+		try {
+			System.setProperty("pde.concurrentTargetResolution", "false");
+			ITargetDefinition sequential = getConcurrencyTarget(abcde, classic);
+			IStatus sequentialStatus = sequential.resolve(null);
+
+			System.setProperty("pde.concurrentTargetResolution", "true");
+			ITargetDefinition concurrent = getConcurrencyTarget(abcde, classic);
+			IStatus concurrentStatus = concurrent.resolve(null);
+
+			assertEquals(sequentialStatus.getSeverity(), concurrentStatus.getSeverity());
+			IStatus[] sequentialChildren = sequentialStatus.getChildren();
+			IStatus[] concurrentChildren = concurrentStatus.getChildren();
+			assertEquals(1, sequentialChildren.length);
+			assertEquals(sequentialChildren.length, concurrentChildren.length);
+			for (int i = 0; i < sequentialChildren.length; i++) {
+				assertEquals(sequentialChildren[i].getSeverity(), concurrentChildren[i].getSeverity());
+				assertEquals(sequentialChildren[i].getMessage(), concurrentChildren[i].getMessage());
+			}
+
+			TargetBundle[] sequentialBundles = sequential.getAllBundles();
+			TargetBundle[] concurrentBundles = concurrent.getAllBundles();
+			assertTrue(sequentialBundles.length > 5);
+			assertEquals(sequentialBundles.length, concurrentBundles.length);
+			for (int i = 0; i < sequentialBundles.length; i++) {
+				BundleInfo expected = sequentialBundles[i].getBundleInfo();
+				BundleInfo actual = concurrentBundles[i].getBundleInfo();
+				assertEquals(expected.getSymbolicName(), actual.getSymbolicName());
+				assertEquals(expected.getVersion(), actual.getVersion());
+				assertEquals(expected.getLocation(), actual.getLocation());
+				assertEquals(sequentialBundles[i].getStatus().getSeverity(), concurrentBundles[i].getStatus().getSeverity());
+			}
+		} finally {
+			if (property == null) {
+				System.getProperties().remove("pde.concurrentTargetResolution");
+			} else {
+				System.setProperty("pde.concurrentTargetResolution", property);
+			}
+		}
+	}
+
 	/**
 	 * Tests that if we find a bundle with a bad or missing manifest when resolving we create the
 	 * correct status.
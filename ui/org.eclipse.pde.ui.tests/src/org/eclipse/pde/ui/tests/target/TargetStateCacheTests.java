@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.target;
+
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import junit.framework.*;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PDEState;
+import org.eclipse.pde.ui.tests.util.StateLocationFiles;
+
+/**
+ * Tests that a {@link PDEState} restored from the target state cache matches a state
+ * read from disk, that changed bundles are read again and that a damaged cache falls
+ * back to reading all bundles.
+ */
+public class TargetStateCacheTests extends TestCase {
+
+	public static Test suite() {
+		return new TestSuite(TargetStateCacheTests.class);
+	}
+
+	private File fRoot;
+	private File fCacheDir;
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#setUp()
+	 */
+	protected void setUp() throws Exception {
+		fRoot = StateLocationFiles.createDirectory("targetStateCache");
+		fCacheDir = new File(PDECore.getDefault().getStateLocation().toFile(), "targetStateCache");
+		StateLocationFiles.delete(fCacheDir);
+	}
+
+	/* (non-Javadoc)
+	 * @see junit.framework.TestCase#tearDown()
+	 */
+	protected void tearDown() throws Exception {
+		StateLocationFiles.delete(fRoot);
+		StateLocationFiles.delete(fCacheDir);
+	}
+
+	private File writeBundle(String name, String version) throws IOException {
+		File dir = new File(fRoot, name);
+		File manifest = new File(dir, "META-INF/MANIFEST.MF");
+		manifest.getParentFile().mkdirs();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(manifest), "UTF-8");
+		try {
+			writer.write("Manifest-Version: 1.0\n");
+			writer.write("Bundle-ManifestVersion: 2\n");
+			writer.write("Bundle-SymbolicName: " + name + "\n");
+			writer.write("Bundle-Version: " + version + "\n");
+			writer.write("Export-Package: " + name + ".api\n");
+			writer.write("\n");
+		} finally {
+			writer.close();
+		}
+		return dir;
+	}
+
+	private static URL[] urls(File[] bundles) throws Exception {
+		URL[] urls = new URL[bundles.length];
+		for (int i = 0; i < bundles.length; i++) {
+			urls[i] = bundles[i].toURI().toURL();
+		}
+		return urls;
+	}
+
+	private static PDEState createState(File[] bundles, boolean useCache) throws Exception {
+		return new PDEState(urls(bundles), true, false, useCache, new NullProgressMonitor());
+	}
+
+	/**
+	 * @return symbolic name -> version and bundle id of the bundles of the given state
+	 */
+	private static Map<String, String> getBundles(PDEState state) {
+		Map<String, String> result = new TreeMap<String, String>();
+		BundleDescription[] bundles = state.getState().getBundles();
+		for (int i = 0; i < bundles.length; i++) {
+			result.put(bundles[i].getSymbolicName(), bundles[i].getVersion() + "#" + bundles[i].getBundleId());
+		}
+		return result;
+	}
+
+	public void testRestoreUnchangedBundles() throws Exception {
+		File[] bundles = new File[] {writeBundle("a", "1.0.0"), writeBundle("b", "1.0.0"), writeBundle("c", "1.0.0")};
+		Map<String, String> expected = getBundles(createState(bundles, false));
+		assertFalse(fCacheDir.exists());
+
+		assertEquals(expected, getBundles(createState(bundles, true)));
+		assertTrue(new File(fCacheDir, "bundles.index").isFile());
+
+		// a manifest rewritten with the same fingerprint is not read again
+		File manifest = new File(bundles[1], "META-INF/MANIFEST.MF");
+		long lastModified = manifest.lastModified();
+		long dirModified = bundles[1].lastModified();
+		writeBundle("b", "2.0.0");
+		manifest.setLastModified(lastModified);
+		bundles[1].setLastModified(dirModified);
+		assertEquals(expected, getBundles(createState(bundles, true)));
+	}
+
+	public void testChangedBundlesReadAgain() throws Exception {
+		File[] bundles = new File[] {writeBundle("a", "1.0.0"), writeBundle("b", "1.0.0"), writeBundle("c", "1.0.0")};
+		createState(bundles, true);
+
+		// the length of the manifest changes with the version
+		writeBundle("b", "1.0.0.qualifier");
+		File[] changed = new File[] {bundles[0], bundles[1], writeBundle("d", "1.0.0")};
+		Map<String, String> restored = getBundles(createState(changed, true));
+		assertEquals(new HashSet<String>(Arrays.asList(new String[] {"a", "b", "d"})), restored.keySet());
+		assertTrue(restored.get("b").startsWith("1.0.0.qualifier#"));
+
+		// the updated cache is restored the next time
+		assertEquals(restored, getBundles(createState(changed, true)));
+	}
+
+	public void testDamagedCache() throws Exception {
+		File[] bundles = new File[] {writeBundle("a", "1.0.0"), writeBundle("b", "1.0.0")};
+		Map<String, String> expected = getBundles(createState(bundles, false));
+		createState(bundles, true);
+
+		// keep the index, damage the cached state
+		File[] files = fCacheDir.listFiles();
+		for (int i = 0; i < files.length; i++) {
+			if (!files[i].getName().equals("bundles.index")) {
+				Writer writer = new OutputStreamWriter(new FileOutputStream(files[i]), "UTF-8");
+				try {
+					writer.write("damaged");
+				} finally {
+					writer.close();
+				}
+			}
+		}
+		// the state is read from disk with the bundle ids of a state created without the cache
+		assertEquals(expected, getBundles(createState(bundles, true)));
+		assertEquals(expected, getBundles(createState(bundles, true)));
+	}
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.util;
+
+import java.util.Hashtable;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+/**
+ * Utility class for tests adding bundles described by a few manifest headers to a state
+ */
+public class StateBundles {
+
+	private StateBundles() {
+	}
+
+	/**
+	 * Creates a bundle from the given headers and adds it to the given state with the next
+	 * free bundle id. The location of the bundle is <code>/bundles/&lt;name&gt;_&lt;version&gt;</code>.
+	 *
+	 * @param state the state to add the bundle to
+	 * @param name the symbolic name of the bundle
+	 * @param version the version of the bundle
+	 * @param exports the Export-Package header or <code>null</code>
+	 * @param imports the Import-Package header or <code>null</code>
+	 * @param requires the Require-Bundle header or <code>null</code>
+	 * @param host the Fragment-Host header or <code>null</code>
+	 * @return the bundle added to the state
+	 * @throws BundleException if the headers are not valid
+	 */
+	public static BundleDescription addBundle(State state, String name, String version, String exports, String imports, String requires, String host) throws BundleException {
+		Hashtable<String, String> manifest = new Hashtable<String, String>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, name);
+		manifest.put(Constants.BUNDLE_VERSION, version);
+		if (exports != null)
+			manifest.put(Constants.EXPORT_PACKAGE, exports);
+		if (imports != null)
+			manifest.put(Constants.IMPORT_PACKAGE, imports);
+		if (requires != null)
+			manifest.put(Constants.REQUIRE_BUNDLE, requires);
+		if (host != null)
+			manifest.put(Constants.FRAGMENT_HOST, host);
+		BundleDescription desc = state.getFactory().createBundleDescription(state, manifest, "/bundles/" + name + "_" + version, state.getHighestBundleId() + 1);
+		state.addBundle(desc);
+		return desc;
+	}
+}
@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.util;
+
+import java.io.File;
+import java.io.IOException;
+import junit.framework.Assert;
+import org.eclipse.pde.ui.tests.PDETestsPlugin;
+
+/**
+ * Utility class for tests creating files in the state location of the test plug-in
+ */
+public class StateLocationFiles {
+
+	private StateLocationFiles() {
+	}
+
+	/**
+	 * Returns an empty directory of the given name in the state location of the test
+	 * plug-in, deleting any content left by a previous test.
+	 * 
+	 * @param name name of the directory
+	 * @return the empty directory
+	 */
+	public static File createDirectory(String name) {
+		File dir = PDETestsPlugin.getDefault().getStateLocation().append(name).toFile();
+		delete(dir);
+		dir.mkdirs();
+		return dir;
+	}
+
+	/**
+	 * Creates the given empty file and its parent directories.
+	 * 
+	 * @param file the file to create
+	 */
+	public static void createFile(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		Assert.assertTrue(file.createNewFile());
+	}
+
+	/**
+	 * Recursively deletes the given file or directory
+	 * 
+	 * @param file the file to delete
+	 */
+	public static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (int i = 0; i < children.length; i++) {
+				delete(children[i]);
+			}
+		}
+		file.delete();
+	}
+}
@@ -20,6 +20,7 @@ public class AllLogViewTests {
 		TestSuite suite = new TestSuite("Test for log view");
 		//$JUnit-BEGIN$
 		suite.addTestSuite(LogEntryTest.class);
+		suite.addTestSuite(LogFileIndexTest.class);
 		//$JUnit-END$
 		return suite;
 	}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.views.log;
+
+import java.io.*;
+import junit.framework.TestCase;
+import org.eclipse.ui.internal.views.log.LogFileIndex;
+
+public class LogFileIndexTest extends TestCase {
+
+	private static final String SESSION = "!SESSION 2013-01-03 11:15:30.123 -----------------------------------------------\neclipse.buildId=unknown\n";
+	private static final String ENTRY = "!ENTRY org.eclipse.pde.ui 4 0 2013-01-03 11:15:31.123\n!MESSAGE first\n!STACK 0\njava.lang.Exception\n\tat A.a(A.java:1)\n";
+	private static final String ENTRY2 = "!ENTRY org.eclipse.pde.core 2 0 2013-01-03 11:15:32.123\n!MESSAGE second\n";
+
+	private File fFile;
+
+	protected void setUp() throws Exception {
+		fFile = File.createTempFile("index", ".log");
+	}
+
+	protected void tearDown() throws Exception {
+		fFile.delete();
+	}
+
+	private void write(String text, boolean append) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(fFile, append), "UTF-8");
+		try {
+			writer.write(text);
+		} finally {
+			writer.close();
+		}
+	}
+
+	public void testIndexRecords() throws IOException {
+		write(SESSION + ENTRY + ENTRY2, false);
+		LogFileIndex index = new LogFileIndex(fFile);
+		assertEquals(0, index.update());
+		assertEquals(3, index.getRecordCount());
+		assertTrue(index.isSession(0));
+		assertFalse(index.isSession(1));
+		assertEquals(SESSION.length(), index.getOffset(1));
+		assertEquals(ENTRY, index.readRecord(1));
+		assertEquals(ENTRY2, index.readRecord(2));
+	}
+
+	public void testAppend() throws IOException {
+		write(SESSION + ENTRY, false);
+		LogFileIndex index = new LogFileIndex(fFile);
+		index.update();
+		assertEquals(2, index.getRecordCount());
+
+		// a line still being written is not indexed
+		write(ENTRY2.substring(0, 10), true);
+		assertEquals(2, index.update());
+		assertEquals(2, index.getRecordCount());
+
+		write(ENTRY2.substring(10), true);
+		assertEquals(2, index.update());
+		assertEquals(3, index.getRecordCount());
+		assertEquals(ENTRY2, index.readRecord(2));
+	}
+
+	public void testParsedRecords() throws IOException {
+		write(SESSION + ENTRY, false);
+		LogFileIndex index = new LogFileIndex(fFile);
+		index.open();
+		try {
+			index.update();
+			index.setParsed(0, SESSION);
+			index.setParsed(1, ENTRY);
+
+			// nothing appended
+			index.update();
+			assertSame(SESSION, index.getParsed(0));
+			assertSame(ENTRY, index.getParsed(1));
+
+			// a line appended to the last record
+			write("\tat B.b(B.java:2)\n", true);
+			index.update();
+			assertEquals(2, index.getRecordCount());
+			assertSame(SESSION, index.getParsed(0));
+			assertNull(index.getParsed(1));
+			index.setParsed(1, ENTRY);
+
+			// a new record appended
+			write(ENTRY2, true);
+			index.update();
+			assertEquals(3, index.getRecordCount());
+			assertSame(SESSION, index.getParsed(0));
+			assertNull(index.getParsed(1));
+			assertNull(index.getParsed(2));
+			assertEquals(ENTRY2, index.readRecord(2));
+		} finally {
+			index.close();
+		}
+
+		write(ENTRY2, false);
+		index.update();
+		assertNull(index.getParsed(0));
+	}
+
+	public void testParsedRecordsBound() throws IOException {
+		write(SESSION + ENTRY + ENTRY2, false);
+		LogFileIndex index = new LogFileIndex(fFile, 2);
+		index.update();
+		index.setParsed(0, SESSION);
+		index.setParsed(1, ENTRY);
+		// the most recently used records are kept
+		assertSame(SESSION, index.getParsed(0));
+		index.setParsed(2, ENTRY2);
+		assertSame(SESSION, index.getParsed(0));
+		assertNull(index.getParsed(1));
+		assertSame(ENTRY2, index.getParsed(2));
+	}
+
+	public void testReadTail() throws IOException {
+		write(SESSION + ENTRY + ENTRY2, false);
+		LogFileIndex index = new LogFileIndex(fFile);
+		index.update();
+		assertEquals(0, index.findRecord(0));
+		assertEquals(1, index.findRecord(1));
+		assertEquals(1, index.findRecord(SESSION.length()));
+		assertEquals(3, index.findRecord(fFile.length()));
+		assertEquals(ENTRY + ENTRY2, index.readRecords(index.findRecord(1), index.getRecordCount()));
+		assertEquals("", index.readRecords(3, 3));
+	}
+
+	public void testReplacedFile() throws IOException {
+		write(SESSION + ENTRY + ENTRY2, false);
+		LogFileIndex index = new LogFileIndex(fFile);
+		index.update();
+		write(ENTRY2, false);
+		assertEquals(0, index.update());
+		assertEquals(1, index.getRecordCount());
+		assertEquals(ENTRY2, index.readRecord(0));
+	}
+
+	public void testDeletedFile() throws IOException {
+		write(SESSION + ENTRY, false);
+		LogFileIndex index = new LogFileIndex(fFile);
+		index.update();
+		fFile.delete();
+		index.update();
+		assertEquals(0, index.getRecordCount());
+	}
+}
@@ -473,6 +473,7 @@ public class PDEUIMessages extends NLS {
 	public static String MainPreferencePage_showSourceBundles;
 
 	public static String MainPreferencePage_ShowTargetStatus;
+	public static String MainPreferencePage_cacheTargetState;
 	public static String MainPreferencePage_updateStale;
 
 	public static String ManifestStructureCreator_errorMessage;
@@ -16,6 +16,7 @@ import org.eclipse.jface.dialogs.MessageDialogWithToggle;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferencePage;
 import org.eclipse.pde.core.target.ITargetPlatformService;
+import org.eclipse.pde.internal.core.ICoreConstants;
 import org.eclipse.pde.internal.core.PDECore;
 import org.eclipse.pde.internal.core.PDEPreferencesManager;
 import org.eclipse.pde.internal.launching.ILaunchingPreferenceConstants;
@@ -124,6 +125,7 @@ public class MainPreferencePage extends PreferencePage implements IWorkbenchPref
 	private Button fPromptOnRemove;
 	private Button fAddToJavaSearch;
 	private Button fShowTargetStatus;
+	private Button fCacheTargetState;
 
 	private Text fRuntimeWorkspaceLocation;
 	private Button fRuntimeWorkspaceLocationRadio;
@@ -181,6 +183,10 @@ public class MainPreferencePage extends PreferencePage implements IWorkbenchPref
 		fShowTargetStatus.setText(PDEUIMessages.MainPreferencePage_ShowTargetStatus);
 		fShowTargetStatus.setSelection(store.getBoolean(IPreferenceConstants.SHOW_TARGET_STATUS));
 
+		fCacheTargetState = new Button(optionComp, SWT.CHECK);
+		fCacheTargetState.setText(PDEUIMessages.MainPreferencePage_cacheTargetState);
+		fCacheTargetState.setSelection(PDECore.getDefault().getPreferencesManager().getBoolean(ICoreConstants.TARGET_STATE_CACHE));
+
 		Group group = SWTFactory.createGroup(composite, PDEUIMessages.Preferences_MainPage_showObjects, 2, 1, GridData.FILL_HORIZONTAL);
 		fUseID = new Button(group, SWT.RADIO);
 		fUseID.setText(PDEUIMessages.Preferences_MainPage_useIds);
@@ -254,6 +260,11 @@ public class MainPreferencePage extends PreferencePage implements IWorkbenchPref
 
 		PDEPlugin.getDefault().getPreferenceManager().savePluginPreferences();
 
+		// used the next time the target platform is loaded
+		PDEPreferencesManager coreStore = PDECore.getDefault().getPreferencesManager();
+		coreStore.setValueOrRemove(ICoreConstants.TARGET_STATE_CACHE, fCacheTargetState.getSelection());
+		coreStore.savePluginPreferences();
+
 		PDEPreferencesManager launchingStore = PDELaunchingPlugin.getDefault().getPreferenceManager();
 		launchingStore.setValueOrRemove(ILaunchingPreferenceConstants.PROP_AUTO_MANAGE, fAutoManage.getSelection());
 		launchingStore.setValueOrRemove(ILaunchingPreferenceConstants.PROP_RUNTIME_WORKSPACE_LOCATION, fRuntimeWorkspaceLocation.getText());
@@ -286,6 +297,7 @@ public class MainPreferencePage extends PreferencePage implements IWorkbenchPref
 
 		fAddToJavaSearch.setSelection(store.getDefaultBoolean(IPreferenceConstants.ADD_TO_JAVA_SEARCH));
 		fShowTargetStatus.setSelection(store.getDefaultBoolean(IPreferenceConstants.SHOW_TARGET_STATUS));
+		fCacheTargetState.setSelection(PDECore.getDefault().getPreferencesManager().getDefaultBoolean(ICoreConstants.TARGET_STATE_CACHE));
 
 		PDEPreferencesManager launchingStore = PDELaunchingPlugin.getDefault().getPreferenceManager();
 		boolean runtimeLocationIsContainer = launchingStore.getDefaultBoolean(ILaunchingPreferenceConstants.PROP_RUNTIME_WORKSPACE_LOCATION_IS_CONTAINER);
@@ -329,6 +329,28 @@ public class LogEntry extends AbstractEntry {
 		this.message = message;
 	}
 
+	/**
+	 * Returns a copy of this entry and of its sub-entries, without a parent.
+	 * @return the copy
+	 */
+	LogEntry copy() {
+		LogEntry copy = new LogEntry();
+		copy.pluginId = pluginId;
+		copy.severity = severity;
+		copy.code = code;
+		copy.fDateString = fDateString;
+		copy.fDate = fDate;
+		copy.message = message;
+		copy.stack = stack;
+		copy.session = session;
+		// children are added first in the list, add them last to first
+		Object[] children = getChildren(this);
+		for (int i = children.length - 1; i >= 0; i--) {
+			copy.addChild(((LogEntry) children[i]).copy());
+		}
+		return copy;
+	}
+
 	/**
 	 * Process the given status and sub-statuses to fill this entry
 	 * @param status
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2013 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.views.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Index of the records of a log file. A record starts with a <code>!SESSION</code>
+ * or <code>!ENTRY</code> line and extends to the start of the next record.
+ * <p>
+ * The file is scanned once, recording the byte offset of each record. Later
+ * updates only scan what was appended since, so the whole file is indexed
+ * without holding it in memory. Records are read back one at a time when they
+ * are needed, through one file handle kept open between {@link #open()} and
+ * {@link #close()}.
+ * </p>
+ * <p>
+ * The index also keeps the parsed form of the records used most recently, so
+ * that a reader only parses the records appended since its last pass. At most
+ * {@link #MAX_PARSED} of them are kept by default. The parsed form of the last
+ * record is dropped when lines are appended to it, and all of them are dropped
+ * when the index is rebuilt. Parsed forms are shared, readers must not modify
+ * them.
+ * </p>
+ */
+public class LogFileIndex {
+
+	private static final byte[] SESSION = LogSession.SESSION.getBytes();
+	private static final byte[] ENTRY = "!ENTRY".getBytes(); //$NON-NLS-1$
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Default number of parsed records kept
+	 */
+	public static final int MAX_PARSED = 1000;
+
+	private File fFile;
+
+	/**
+	 * Byte offsets of the records, the first <code>fCount</code> are used
+	 */
+	private long[] fOffsets = new long[256];
+
+	/**
+	 * Whether each record is a session record
+	 */
+	private boolean[] fSessions = new boolean[256];
+
+	/**
+	 * Record number -> parsed form of the records used most recently
+	 */
+	private final Map fParsed;
+
+	private int fCount = 0;
+
+	/**
+	 * Number of bytes of the file indexed so far. Always at the start of a line,
+	 * so a line still being written is scanned again by the next update.
+	 */
+	private long fLength = 0;
+
+	/**
+	 * Handle of the file while the index is open, or <code>null</code>
+	 */
+	private RandomAccessFile fHandle = null;
+
+	/**
+	 * Creates an empty index of the given file, see {@link #update()}
+	 *
+	 * @param file the log file
+	 */
+	public LogFileIndex(File file) {
+		this(file, MAX_PARSED);
+	}
+
+	/**
+	 * Creates an empty index of the given file, see {@link #update()}
+	 *
+	 * @param file the log file
+	 * @param maxParsed the number of parsed records kept
+	 */
+	public LogFileIndex(File file, final int maxParsed) {
+		fFile = file;
+		fParsed = new LinkedHashMap(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry eldest) {
+				return size() > maxParsed;
+			}
+		};
+	}
+
+	/**
+	 * @return the indexed log file
+	 */
+	public File getFile() {
+		return fFile;
+	}
+
+	/**
+	 * Opens the file, so that {@link #update()} and {@link #readRecord(int)} use
+	 * the same handle until {@link #close()} is called.
+	 *
+	 * @throws IOException if the file cannot be opened
+	 */
+	public synchronized void open() throws IOException {
+		if (fHandle == null) {
+			fHandle = new RandomAccessFile(fFile, "r"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Closes the file opened by {@link #open()}, if any.
+	 */
+	public synchronized void close() {
+		if (fHandle != null) {
+			try {
+				fHandle.close();
+			} catch (IOException e) { // do nothing
+			}
+			fHandle = null;
+		}
+	}
+
+	/**
+	 * Returns the open handle of the file, or a new one to be closed with
+	 * {@link #release(RandomAccessFile)} if the index is not open.
+	 */
+	private RandomAccessFile acquire() throws IOException {
+		return fHandle != null ? fHandle : new RandomAccessFile(fFile, "r"); //$NON-NLS-1$
+	}
+
+	private void release(RandomAccessFile file) throws IOException {
+		if (file != fHandle) {
+			file.close();
+		}
+	}
+
+	/**
+	 * Indexes the lines appended to the file since the last update. The index is
+	 * rebuilt if the file was truncated or replaced.
+	 *
+	 * @return the number of the first record found by this update
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized int update() throws IOException {
+		if (!fFile.exists()) {
+			close();
+			reset();
+			return 0;
+		}
+		RandomAccessFile file = acquire();
+		try {
+			if (file.length() < fLength || !isRecordStart(file)) {
+				reset();
+			}
+			int first = fCount;
+			long length = fLength;
+			scan(file);
+			if (fLength > length && first > 0) {
+				// lines were appended to the last record
+				fParsed.remove(new Integer(first - 1));
+			}
+			return first;
+		} finally {
+			release(file);
+		}
+	}
+
+	/**
+	 * Returns whether the last indexed record still starts where it was found,
+	 * which does not hold if the file was replaced
+	 */
+	private boolean isRecordStart(RandomAccessFile file) throws IOException {
+		if (fCount == 0) {
+			return true;
+		}
+		byte[] marker = fSessions[fCount - 1] ? SESSION : ENTRY;
+		file.seek(fOffsets[fCount - 1]);
+		int b = file.read();
+		while (b == ' ' || b == '\t') {
+			b = file.read();
+		}
+		for (int i = 0; i < marker.length; i++, b = file.read()) {
+			if (b != marker[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void scan(RandomAccessFile file) throws IOException {
+		file.seek(fLength);
+		byte[] buffer = new byte[BUFFER_SIZE];
+		// first bytes of the current line, leading white space skipped
+		byte[] head = new byte[SESSION.length];
+		int headLength = 0;
+		long position = fLength;
+		long lineStart = fLength;
+		int read;
+		while ((read = file.read(buffer)) > 0) {
+			for (int i = 0; i < read; i++) {
+				byte b = buffer[i];
+				if (b == '\n' || b == '\r') {
+					if (startsWith(head, headLength, SESSION)) {
+						addRecord(lineStart, true);
+					} else if (startsWith(head, headLength, ENTRY)) {
+						addRecord(lineStart, false);
+					}
+					lineStart = position + i + 1;
+					fLength = lineStart;
+					headLength = 0;
+				} else if (headLength < head.length && (headLength > 0 || (b != ' ' && b != '\t'))) {
+					head[headLength++] = b;
+				}
+			}
+			position += read;
+		}
+	}
+
+	private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+		if (length < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (bytes[i] != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void addRecord(long offset, boolean session) {
+		if (fCount == fOffsets.length) {
+			long[] offsets = new long[fCount * 2];
+			System.arraycopy(fOffsets, 0, offsets, 0, fCount);
+			fOffsets = offsets;
+			boolean[] sessions = new boolean[fCount * 2];
+			System.arraycopy(fSessions, 0, sessions, 0, fCount);
+			fSessions = sessions;
+		}
+		fOffsets[fCount] = offset;
+		fSessions[fCount] = session;
+		fCount++;
+	}
+
+	private void reset() {
+		fParsed.clear();
+		fCount = 0;
+		fLength = 0;
+	}
+
+	/**
+	 * @return the number of records indexed
+	 */
+	public synchronized int getRecordCount() {
+		return fCount;
+	}
+
+	/**
+	 * @param record the number of the record
+	 * @return whether the record starts with a <code>!SESSION</code> line
+	 */
+	public synchronized boolean isSession(int record) {
+		return fSessions[record];
+	}
+
+	/**
+	 * @param record the number of the record
+	 * @return the byte offset of the record in the file
+	 */
+	public synchronized long getOffset(int record) {
+		return fOffsets[record];
+	}
+
+	/**
+	 * Returns the number of the first record starting at or after the given
+	 * byte offset.
+	 *
+	 * @param offset the byte offset in the file
+	 * @return the number of the record, or the record count if there is none
+	 */
+	public synchronized int findRecord(long offset) {
+		int low = 0;
+		int high = fCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (fOffsets[mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param record the number of the record
+	 * @return the parsed form of the record set by {@link #setParsed(int, Object)},
+	 * or <code>null</code> if it must be parsed again
+	 */
+	public synchronized Object getParsed(int record) {
+		return fParsed.get(new Integer(record));
+	}
+
+	/**
+	 * @param record the number of the record
+	 * @param parsed the parsed form of the record
+	 */
+	public synchronized void setParsed(int record, Object parsed) {
+		fParsed.put(new Integer(record), parsed);
+	}
+
+	/**
+	 * Reads the text of the given record from the file
+	 *
+	 * @param record the number of the record
+	 * @return the text of the record
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized String readRecord(int record) throws IOException {
+		return readRecords(record, record + 1);
+	}
+
+	/**
+	 * Reads the text of the given range of records from the file in one pass
+	 *
+	 * @param from the number of the first record
+	 * @param to the number of the record after the last one, at most the record count
+	 * @return the text of the records
+	 * @throws IOException if the file cannot be read
+	 */
+	public synchronized String readRecords(int from, int to) throws IOException {
+		if (from >= to) {
+			return ""; //$NON-NLS-1$
+		}
+		long start = fOffsets[from];
+		long end = to < fCount ? fOffsets[to] : fLength;
+		byte[] bytes = new byte[(int) (end - start)];
+		RandomAccessFile file = acquire();
+		try {
+			file.seek(start);
+			file.readFully(bytes);
+		} finally {
+			release(file);
+		}
+		return new String(bytes, "UTF-8"); //$NON-NLS-1$
+	}
+}
@@ -29,26 +29,113 @@ class LogReader {
 	private static final int TEXT_STATE = 60;
 	private static final int UNKNOWN_STATE = 70;
 
-	public static LogSession parseLogFile(File file, List entries, IMemento memento) {
-		if (!file.exists())
+	/**
+	 * Parses the entries shown in the view from the given log file index,
+	 * updating the index first. Only the records from the most recent session on
+	 * are read, unless all sessions are shown, and once the entry limit is
+	 * reached older records are not read at all. Records parsed by an earlier
+	 * call are taken from the index, so a refresh only parses the records
+	 * appended since, and the entries returned are copies of them. All records
+	 * are read through one handle of the file.
+	 * 
+	 * @param index the index of the log file
+	 * @param entries the list to add the logged entries to, oldest first
+	 * @param memento the view settings
+	 * @return the most recent session or <code>null</code>
+	 */
+	public static LogSession parseLogFile(LogFileIndex index, List entries, IMemento memento) {
+		if (!index.getFile().exists())
 			return null;
 
-		if (memento.getString(LogView.P_USE_LIMIT).equals("true") //$NON-NLS-1$
-				&& memento.getInteger(LogView.P_LOG_LIMIT).intValue() == 0)
+		int limit = Integer.MAX_VALUE;
+		if (memento.getString(LogView.P_USE_LIMIT).equals("true")) //$NON-NLS-1$
+			limit = memento.getInteger(LogView.P_LOG_LIMIT).intValue();
+		if (limit == 0)
 			return null;
 
+		LogSession currentSession = null;
+		try {
+			index.open();
+			index.update();
+			int count = index.getRecordCount();
+
+			// sessions are few and short, read them all to find the most recent one.
+			// Entries belong to the most recent session read before them, sub-entries
+			// to the session they are logged in.
+			LogSession[] currentSessions = new LogSession[count];
+			LogSession[] enclosingSessions = new LogSession[count];
+			LogSession session = null;
+			int first = 0;
+			boolean showAllSessions = memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true"); //$NON-NLS-1$
+			for (int i = 0; i < count; i++) {
+				if (index.isSession(i)) {
+					session = (LogSession) index.getParsed(i);
+					if (session == null) {
+						session = parse(new BufferedReader(new StringReader(index.readRecord(i))), new ArrayList(), memento, null, null);
+						index.setParsed(i, session);
+					}
+					currentSession = updateCurrentSession(currentSession, session);
+					// entries before the most recent session are not shown
+					if (currentSession == session && !showAllSessions)
+						first = i;
+				} else {
+					if (currentSession == null) { // create fake session if there was no any
+						currentSession = new LogSession();
+					}
+					currentSessions[i] = currentSession;
+					enclosingSessions[i] = session;
+				}
+			}
+
+			// read the entries newest first, until the limit is reached
+			// the entries of a record are kept unfiltered, the filters may change
+			// before the next refresh
+			ArrayList newest = new ArrayList();
+			for (int i = count - 1; i >= first && newest.size() < limit; i--) {
+				if (index.isSession(i))
+					continue;
+				List logged = (List) index.getParsed(i);
+				if (logged == null) {
+					logged = new ArrayList(1);
+					parse(new BufferedReader(new StringReader(index.readRecord(i))), logged, null, currentSessions[i], enclosingSessions[i]);
+					index.setParsed(i, logged);
+				}
+				// the entries kept by the index are shared, the view gets copies
+				for (int j = logged.size() - 1; j >= 0 && newest.size() < limit; j--) {
+					LogEntry entry = (LogEntry) logged.get(j);
+					if (isLogged(entry, memento)) {
+						newest.add(entry.copy());
+					}
+				}
+			}
+			for (int i = newest.size() - 1; i >= 0; i--) {
+				entries.add(newest.get(i));
+			}
+		} catch (IOException e) { // do nothing
+		} finally {
+			index.close();
+		}
+		return currentSession;
+	}
+
+	/**
+	 * Parses log records read from the given reader.
+	 * 
+	 * @param reader the reader of the records, closed when done
+	 * @param entries the list to add the logged entries to
+	 * @param memento the view settings, or <code>null</code> to add all entries
+	 * @param currentSession the most recent session or <code>null</code>
+	 * @param session the session the first entry belongs to or <code>null</code>
+	 * @return the most recent session
+	 */
+	private static LogSession parse(BufferedReader reader, List entries, IMemento memento, LogSession currentSession, LogSession session) {
 		ArrayList parents = new ArrayList();
 		LogEntry current = null;
-		LogSession session = null;
 		int writerState = UNKNOWN_STATE;
 		StringWriter swriter = null;
 		PrintWriter writer = null;
 		int state = UNKNOWN_STATE;
-		LogSession currentSession = null;
-		BufferedReader reader = null;
 		try {
-
-			reader = new BufferedReader(new InputStreamReader(new TailInputStream(file, MAX_FILE_LENGTH), "UTF-8")); //$NON-NLS-1$
 			for (;;) {
 				String line0 = reader.readLine();
 				if (line0 == null)
@@ -97,7 +184,7 @@ class LogReader {
 					writerState = SESSION_STATE;
 					currentSession = updateCurrentSession(currentSession, session);
 					// if current session is most recent and not showing all sessions
-					if (currentSession.equals(session) && !memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true")) //$NON-NLS-1$
+					if (currentSession.equals(session) && memento != null && !memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true")) //$NON-NLS-1$
 						entries.clear();
 				} else if (state == ENTRY_STATE) {
 					if (currentSession == null) { // create fake session if there was no any
@@ -143,12 +230,10 @@ class LogReader {
 				writerState = UNKNOWN_STATE;
 				current.setStack(swriter.toString());
 			}
-		} catch (FileNotFoundException e) { // do nothing
 		} catch (IOException e) { // do nothing
 		} finally {
 			try {
-				if (reader != null)
-					reader.close();
+				reader.close();
 			} catch (IOException e1) { // do nothing
 			}
 			if (writer != null) {
@@ -203,11 +288,12 @@ class LogReader {
 	 * 
 	 * @param entry
 	 * @param entries
-	 * @param memento
+	 * @param memento the view settings, or <code>null</code> to add the entry unfiltered
 	 */
 	private static void addEntry(LogEntry entry, List entries, IMemento memento) {
-
-		if (isLogged(entry, memento)) {
+		if (memento == null) {
+			entries.add(entry);
+		} else if (isLogged(entry, memento)) {
 			entries.add(entry);
 
 			if (memento.getString(LogView.P_USE_LIMIT).equals("true")) {//$NON-NLS-1$
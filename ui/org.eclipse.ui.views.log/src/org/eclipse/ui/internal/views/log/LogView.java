@@ -94,6 +94,7 @@ public class LogView extends ViewPart implements ILogListener {
 
 	private IMemento fMemento;
 	private File fInputFile;
+	private LogFileIndex fLogIndex;
 	private String fDirectory;
 
 	private Comparator fComparator;
@@ -808,8 +809,13 @@ public class LogView extends ViewPart implements ILogListener {
 		elements.clear();
 		groups.clear();
 
+		// the index is kept while the same file is shown, so a reload only
+		// scans what was appended to the file since
+		if (fLogIndex == null || !fLogIndex.getFile().equals(fInputFile)) {
+			fLogIndex = new LogFileIndex(fInputFile);
+		}
 		List result = new ArrayList();
-		LogSession lastLogSession = LogReader.parseLogFile(fInputFile, result, fMemento);
+		LogSession lastLogSession = LogReader.parseLogFile(fLogIndex, result, fMemento);
 		if (lastLogSession != null && (lastLogSession.getDate() == null || isEclipseStartTime(lastLogSession.getDate()))) {
 			currentSession = lastLogSession;
 		} else {
@@ -1653,7 +1659,8 @@ public class LogView extends ViewPart implements ILogListener {
 		final Shell shell = getViewSite().getShell();
 		return new Job(Messages.OpenLogDialog_message) {
 			protected IStatus run(IProgressMonitor monitor) {
-				boolean failed = false;
+				// large files are shown from their tail, read through the index
+				boolean failed = true;
 				if (fInputFile.length() <= LogReader.MAX_FILE_LENGTH) {
 					failed = !Program.launch(fInputFile.getAbsolutePath());
 					if (failed) {
@@ -1665,7 +1672,7 @@ public class LogView extends ViewPart implements ILogListener {
 					}
 				}
 				if (failed) {
-					final OpenLogDialog openDialog = new OpenLogDialog(shell, fInputFile);
+					final OpenLogDialog openDialog = new OpenLogDialog(shell, getLogIndex());
 					Display.getDefault().asyncExec(new Runnable() {
 						public void run() {
 							openDialog.create();
@@ -1682,6 +1689,19 @@ public class LogView extends ViewPart implements ILogListener {
 		return fInputFile;
 	}
 
+	/**
+	 * Returns the index of the log file shown, or a new index if the file was
+	 * not read yet.
+	 * @return the index of the log file
+	 */
+	private LogFileIndex getLogIndex() {
+		LogFileIndex index = fLogIndex;
+		if (index == null || !index.getFile().equals(fInputFile)) {
+			index = new LogFileIndex(fInputFile);
+		}
+		return index;
+	}
+
 	/**
 	 * Returns whether given session equals to currently displayed in LogView.
 	 * @param session LogSession
@@ -27,6 +27,8 @@ import org.eclipse.swt.widgets.*;
 public final class OpenLogDialog extends TrayDialog {
 	// input log file
 	private File logFile;
+	// index of the input log file
+	private LogFileIndex logIndex;
 	// location/size configuration
 	private IDialogSettings dialogSettings;
 	private Point dialogLocation;
@@ -35,8 +37,20 @@ public final class OpenLogDialog extends TrayDialog {
 	private int DEFAULT_HEIGHT = 800;
 
 	public OpenLogDialog(Shell parentShell, File logFile) {
+		this(parentShell, new LogFileIndex(logFile));
+	}
+
+	/**
+	 * Creates a dialog showing the log file of the given index, large files are
+	 * read from the first record of their last {@link LogReader#MAX_FILE_LENGTH} bytes.
+	 * 
+	 * @param parentShell the parent shell
+	 * @param logIndex the index of the log file, shared with the log view
+	 */
+	public OpenLogDialog(Shell parentShell, LogFileIndex logIndex) {
 		super(parentShell);
-		this.logFile = logFile;
+		this.logFile = logIndex.getFile();
+		this.logIndex = logIndex;
 		setShellStyle(SWT.DIALOG_TRIM | SWT.RESIZE | SWT.MAX | SWT.MIN | SWT.MODELESS);
 
 	}
@@ -170,33 +184,11 @@ public final class OpenLogDialog extends TrayDialog {
 			writer.println(bReader.readLine());
 	}
 
-	// reading large files
-	void readLargeFile(PrintWriter writer) throws FileNotFoundException, IOException {
-		RandomAccessFile random = null;
-		boolean hasStarted = false;
-		try {
-			random = new RandomAccessFile(logFile, "r"); //$NON-NLS-1$
-			random.seek(logFile.length() - LogReader.MAX_FILE_LENGTH);
-			for (;;) {
-				String line = random.readLine();
-				if (line == null)
-					break;
-				line = line.trim();
-				if (line.length() == 0)
-					continue;
-				if (!hasStarted && (line.startsWith("!ENTRY") || line.startsWith(LogSession.SESSION))) //$NON-NLS-1$
-					hasStarted = true;
-				if (hasStarted)
-					writer.println(line);
-				continue;
-			}
-		} finally {
-			try {
-				if (random != null)
-					random.close();
-			} catch (IOException e1) { // do nothing
-			}
-		}
+	// reading large files from the first record of their tail
+	void readLargeFile(PrintWriter writer) throws IOException {
+		logIndex.update();
+		int first = logIndex.findRecord(logFile.length() - LogReader.MAX_FILE_LENGTH);
+		writer.print(logIndex.readRecords(first, logIndex.getRecordCount()));
 	}
 
 	private void readLargeFileWithMonitor(final PrintWriter writer) {